@@ -259,7 +259,7 @@ public class DingoParser {
         return relRoot.withRel(new LogicalDingoRoot(cluster, planner.emptyTraitSet(), relNode, selection));
     }
 
-    private static boolean needExport(@NonNull SqlNode sqlNode) {
+    protected static boolean needExport(@NonNull SqlNode sqlNode) {
         if (sqlNode instanceof io.dingodb.calcite.grammar.dql.SqlSelect) {
             io.dingodb.calcite.grammar.dql.SqlSelect sqlSelect = (io.dingodb.calcite.grammar.dql.SqlSelect) sqlNode;
             return sqlSelect.isExport();
@@ -22,7 +22,7 @@ import io.dingodb.calcite.runtime.DingoResource;
 import io.dingodb.codec.CodecService;
 import io.dingodb.codec.KeyValueCodec;
 import io.dingodb.common.CommonId;
-import io.dingodb.common.environment.ExecutionEnvironment;
+import io.dingodb.common.concurrent.Executors;
 import io.dingodb.common.log.LogUtils;
 import io.dingodb.common.partition.RangeDistribution;
 import io.dingodb.common.store.KeyValue;
@@ -33,23 +33,23 @@ import io.dingodb.exec.Services;
 import io.dingodb.exec.converter.ImportFileConverter;
 import io.dingodb.exec.transaction.impl.TransactionManager;
 import io.dingodb.exec.utils.ByteUtils;
-import io.dingodb.meta.entity.IndexTable;
-import io.dingodb.store.api.transaction.exception.RegionSplitException;
-import io.dingodb.transaction.api.LockType;
-import io.dingodb.transaction.api.TransactionService;
 import io.dingodb.meta.MetaService;
 import io.dingodb.meta.entity.Column;
+import io.dingodb.meta.entity.IndexTable;
 import io.dingodb.meta.entity.Table;
 import io.dingodb.partition.DingoPartitionServiceProvider;
 import io.dingodb.partition.PartitionService;
 import io.dingodb.store.api.StoreInstance;
 import io.dingodb.store.api.transaction.data.Op;
 import io.dingodb.store.api.transaction.exception.DuplicateEntryException;
+import io.dingodb.store.api.transaction.exception.RegionSplitException;
+import io.dingodb.transaction.api.LockType;
+import io.dingodb.transaction.api.TransactionService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
-import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -58,21 +58,30 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLWarning;
 import java.util.ArrayList;
-import java.util.Base64;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.TreeMap;
-import java.util.UUID;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static io.dingodb.common.util.NoBreakFunctions.wrap;
 import static io.dingodb.common.util.Utils.getByteIndexOf;
 
+/**
+ * LOAD DATA as a pipeline: the caller reads the file in large blocks, a splitter cuts them into lines and hands
+ * chunks of lines to workers, which parse, encode and write them grouped by region. At most
+ * {@link #MAX_IN_FLIGHT} chunks are in flight, so a slow store applies back pressure to the reader.
+ */
 @Slf4j
 public class LoadDataOperation implements DmlOperation {
     private final DingoParserContext context;
@@ -87,20 +96,25 @@ public class LoadDataOperation implements DmlOperation {
     private String charset;
     private final int ignoreNum;
 
-    private volatile boolean isDone;
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+    private static final int CHUNK_LINES = 1024;
+    private static final int MAX_IN_FLIGHT = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final Object END = new Object();
+
+    private volatile CompletableFuture<Void> done;
     private volatile String errMessage;
     private final Table table;
-    private final KeyValueCodec codec;
-    private NavigableMap<ByteArrayUtils.ComparableByteArray, RangeDistribution> distributions;
+    private final boolean hasIndex;
+    private volatile NavigableMap<ByteArrayUtils.ComparableByteArray, RangeDistribution> distributions;
     private final DingoType schema;
 
     MetaService metaService;
-    private static int exceptionRetries = 0;
+    private final AtomicInteger exceptionRetries = new AtomicInteger();
     private static final Long retryInterval = 6000L;
     private static final int maxRetries = 20;
-    private int dataGenNum = 0;
+    private long lineCount = 0;
+    private List<byte[]> lines = new ArrayList<>(CHUNK_LINES);
     private final boolean isTxn;
-    private final String statementId;
     private boolean txnRetry;
     private int txnRetryCnt;
 
@@ -109,7 +123,8 @@ public class LoadDataOperation implements DmlOperation {
 
     private final AtomicLong count = new AtomicLong(0);
 
-    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(10000);
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(MAX_IN_FLIGHT);
+    private final Semaphore window = new Semaphore(MAX_IN_FLIGHT);
 
     public LoadDataOperation(SqlLoadData sqlLoadData, Connection connection, DingoParserContext context) {
         this.context = context;
@@ -150,11 +165,10 @@ public class LoadDataOperation implements DmlOperation {
         this.ignoreNum = sqlLoadData.getIgnoreNum();
         metaService = MetaService.root().getSubMetaService(schemaName);
         table = metaService.getTable(sqlLoadData.getTableName());
-        codec = CodecService.getDefault().createKeyValueCodec(table.tupleType(), table.keyMapping());
+        hasIndex = table.getIndexes() != null && !table.getIndexes().isEmpty();
         distributions = metaService.getRangeDistribution(table.tableId);
         schema = table.tupleType();
         this.isTxn = checkEngine();
-        this.statementId = UUID.randomUUID().toString();
         this.connection = connection;
     }
 
@@ -163,47 +177,17 @@ public class LoadDataOperation implements DmlOperation {
         if (enclosed != null && enclosed.equals("()")) {
             throw DingoResource.DINGO_RESOURCE.fieldSeparatorError().ex();
         }
-        try {
-            new Thread(() -> {
-                try {
-                    byte[] preBytes = null;
-                    List<CommonId> tables = new ArrayList<>();
-                    tables.add(table.getTableId());
-                    TransactionService.getDefault().lockTable(connection, tables, LockType.TABLE);
-                    while (true) {
-                        Object val = queue.take();
-                        if (val instanceof byte[]) {
-                            byte[] bytes = (byte[]) val;
-                            preBytes = splitLine(bytes, preBytes, fieldsTerm, linesTerm);
-                        } else {
-                            break;
-                        }
-                    }
-                    if (isTxn) {
-                        endWriteWithTxn();
-                    }
-                } catch (DuplicateEntryException e1) {
-                    errMessage = "Duplicate entry for key 'PRIMARY'";
-                } catch (Exception e2) {
-                    LogUtils.error(log, e2.getMessage(), e2);
-                    errMessage = e2.getMessage();
-                } finally {
-                    TransactionService.getDefault().unlockTable(connection);
-                    isDone = true;
+        try (FileInputStream is = new FileInputStream(filePath)) {
+            done = Executors.submit("load-data", this::load);
+            try {
+                byte[] buffer = new byte[READ_BUFFER_SIZE];
+                int length;
+                while (!done.isDone() && (length = is.read(buffer)) != -1) {
+                    hand(Arrays.copyOf(buffer, length));
                 }
-            }).start();
-            FileInputStream is = new FileInputStream(filePath);
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            byte[] buffer = new byte[1000];
-            int length;
-            while ((length = is.read(buffer)) != -1) {
-                bos.write(buffer, 0, length);
-                queue.put(bos.toByteArray());
-                bos.reset();
+            } finally {
+                hand(END);
             }
-            queue.put("end");
-            bos.close();
-            is.close();
         } catch (FileNotFoundException e) {
             // Err code 2: No such file or directory
             throw DingoResource.DINGO_RESOURCE.accessError(filePath, 2, "No such file or directory").ex();
@@ -216,15 +200,66 @@ public class LoadDataOperation implements DmlOperation {
         return true;
     }
 
-    @Override
-    public Iterator<Object[]> getIterator() {
-        while (!isDone) {
-            try {
-                Thread.sleep(1000L);
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
+    /**
+     * Hand a block over to the loader, giving up if the loader has already stopped, so the reader never blocks
+     * on a queue nobody takes from.
+     */
+    private void hand(Object val) throws InterruptedException {
+        while (!queue.offer(val, 100, TimeUnit.MILLISECONDS)) {
+            if (done.isDone()) {
+                return;
             }
         }
+    }
+
+    private void load() {
+        try {
+            List<CommonId> tables = new ArrayList<>();
+            tables.add(table.getTableId());
+            TransactionService.getDefault().lockTable(connection, tables, LockType.TABLE);
+            byte[] preBytes = null;
+            while (true) {
+                Object val = queue.take();
+                if (val == END) {
+                    break;
+                }
+                // keep draining after a failure, the reader must not block
+                if (errMessage == null) {
+                    try {
+                        preBytes = splitLine((byte[]) val, preBytes, linesTerm, lineStarting, escaped, this::addLine);
+                    } catch (RuntimeException e) {
+                        fail(e);
+                    }
+                }
+            }
+            if (errMessage == null) {
+                submitLines();
+            }
+        } catch (Exception e) {
+            fail(e);
+        } finally {
+            // wait for the chunks in flight
+            window.acquireUninterruptibly(MAX_IN_FLIGHT);
+            window.release(MAX_IN_FLIGHT);
+            TransactionService.getDefault().unlockTable(connection);
+        }
+    }
+
+    private synchronized void fail(Throwable e) {
+        if (errMessage != null) {
+            return;
+        }
+        if (e instanceof DuplicateEntryException) {
+            errMessage = "Duplicate entry for key 'PRIMARY'";
+        } else {
+            LogUtils.error(log, e.getMessage(), e);
+            errMessage = e.getMessage() != null ? e.getMessage() : e.toString();
+        }
+    }
+
+    @Override
+    public Iterator<Object[]> getIterator() {
+        done.join();
         long insertCount = count.get();
         if (errMessage != null) {
             if (insertCount == 0) {
@@ -256,9 +291,25 @@ public class LoadDataOperation implements DmlOperation {
         return errMessage;
     }
 
-    // simple line split
-    private byte[] splitLine(byte[] current, byte[] pre, byte[] fieldsTerm, byte[] linesTerm)
-        throws UnsupportedEncodingException {
+    @FunctionalInterface
+    interface LineSink {
+        void accept(byte[] line) throws InterruptedException;
+    }
+
+    /**
+     * Cut the complete lines of {@code pre + current} into the sink. A line terminator preceded by the escape byte
+     * does not end the line, and neither does one whose line does not begin with {@code lineStarting}.
+     *
+     * @return the trailing partial line, to be put before the next block, or {@code null}
+     */
+    static byte @Nullable [] splitLine(
+        byte[] current,
+        byte @Nullable [] pre,
+        byte[] linesTerm,
+        byte @Nullable [] lineStarting,
+        byte @Nullable [] escaped,
+        LineSink sink
+    ) throws InterruptedException {
         byte[] bytes;
         if (pre != null) {
             bytes = new byte[current.length + pre.length];
@@ -276,13 +327,14 @@ public class LoadDataOperation implements DmlOperation {
         while (isContinue) {
             searchPos = Math.max(searchPos, lineBreakPos);
             int id1 = getByteIndexOf(bytes, linesTerm, searchPos, len);
-            if (id1 > 0) {
+            if (id1 >= 0) {
                 byte[] lineBytes = new byte[id1 - lineBreakPos];
                 System.arraycopy(bytes, lineBreakPos, lineBytes, 0, lineBytes.length);
                 int id2 = getByteIndexOf(lineBytes, lineStarting, 0, lineBytes.length);
-                if (id2 == 0 && bytes[id1 - 1] != escaped[0]) {
-                    Object[] tuple = splitRow(lineBytes, fieldsTerm);
-                    insertTuples(tuple);
+                boolean isEscaped = escaped != null && escaped.length > 0
+                    && id1 > lineBreakPos && bytes[id1 - 1] == escaped[0];
+                if (id2 == 0 && !isEscaped) {
+                    sink.accept(lineBytes);
                     int tmp1 = id1 + linesTerm.length;
                     if (tmp1 == len) {
                         isContinue = false;
@@ -310,80 +362,125 @@ public class LoadDataOperation implements DmlOperation {
         return preBytes;
     }
 
-    private void insertTuples(Object[] tuples) {
-        dataGenNum ++;
+    private void addLine(byte[] line) throws InterruptedException {
+        lineCount ++;
         // ignore rows
-        if (dataGenNum <= ignoreNum) {
+        if (lineCount <= ignoreNum) {
             return;
         }
-        tuples = enclosed(tuples);
-        tuples = processHideCol(tuples);
-        tuples = (Object[]) schema.convertFrom(tuples, new ImportFileConverter(escaped));
+        lines.add(line);
+        if (lines.size() >= CHUNK_LINES) {
+            submitLines();
+        }
+    }
 
-        if (isTxn) {
-            if (dataGenNum % 1000 == 0) {
-                refreshTxnId = true;
+    private void submitLines() throws InterruptedException {
+        if (lines.isEmpty()) {
+            return;
+        }
+        List<byte[]> chunk = lines;
+        lines = new ArrayList<>(CHUNK_LINES);
+        window.acquire();
+        Executors.execute("load-data-write", () -> {
+            try {
+                if (errMessage == null) {
+                    write(chunk);
+                }
+            } catch (Throwable e) {
+                fail(e);
+            } finally {
+                window.release();
             }
-            insertWithTxn(tuples);
+        });
+    }
+
+    private void write(List<byte[]> chunk) throws UnsupportedEncodingException {
+        ImportFileConverter converter = new ImportFileConverter(escaped);
+        List<Object[]> tuples = new ArrayList<>(chunk.size());
+        for (byte[] line : chunk) {
+            Object[] tuple = splitRow(line, fieldsTerm);
+            tuple = enclosed(tuple);
+            tuple = processHideCol(tuple);
+            tuples.add((Object[]) schema.convertFrom(tuple, converter));
+        }
+        // codecs are not shared between workers
+        KeyValueCodec codec = CodecService.getDefault().createKeyValueCodec(table.tupleType(), table.keyMapping());
+        if (isTxn) {
+            writeWithTxn(tuples, codec);
         } else {
-            insertWithoutTxn(tuples, false);
+            writeWithoutTxn(tuples, codec);
         }
     }
 
-    public void insertWithoutTxn(Object[] tuples, boolean retry) {
-        try {
-            if (retry) {
-                distributions = metaService.getRangeDistribution(table.tableId);
-            }
-            CommonId partId = PartitionService.getService(
-                    Optional.ofNullable(table.getPartitionStrategy())
-                        .orElse(DingoPartitionServiceProvider.RANGE_FUNC_NAME))
-                .calcPartId(tuples, wrap(codec::encodeKey), distributions);
-            StoreInstance store = Services.KV_STORE.getInstance(table.getTableId(), partId);
-            boolean insert = store.insertIndex(tuples);
-            if (insert) {
-                insert = store.insertWithIndex(tuples);
-            }
-            if (insert) {
-                count.incrementAndGet();
-            }
-            exceptionRetries = 0;
-        } catch (Exception e) {
-            LogUtils.error(log, e.getMessage(), e);
-            if (e.getMessage().contains("epoch is not match, region_epoch")
-                || e.getMessage().contains("Key out of range")
-                || e instanceof RegionSplitException) {
-                if (!continueRetry()) {
-                    throw e;
+    private void writeWithoutTxn(List<Object[]> tuples, KeyValueCodec codec) {
+        List<KeyValue> keyValues = new ArrayList<>(tuples.size());
+        StoreInstance store = null;
+        for (Object[] tuple : tuples) {
+            KeyValue keyValue = codec.encode(tuple);
+            if (hasIndex) {
+                if (store == null) {
+                    store = Services.KV_STORE.getInstance(table.getTableId(), calcPartId(keyValue.getKey()));
+                }
+                if (!store.insertIndex(tuple)) {
+                    continue;
                 }
-                insertWithoutTxn(tuples, true);
-            } else {
-                throw e;
             }
+            keyValues.add(keyValue);
         }
+        insertKeyValues(keyValues, false);
     }
 
-    public CommonId getTxnId() {
-        if (refreshTxnId || txnId == null) {
-            txnId = new CommonId(CommonId.CommonType.TRANSACTION,
-                TransactionManager.getServerId().seq, TransactionManager.getStartTs());
+    private void insertKeyValues(List<KeyValue> keyValues, boolean retry) {
+        if (retry) {
+            distributions = metaService.getRangeDistribution(table.tableId);
+        }
+        Map<CommonId, List<KeyValue>> regions = new HashMap<>();
+        for (KeyValue keyValue : keyValues) {
+            regions.computeIfAbsent(calcPartId(keyValue.getKey()), k -> new ArrayList<>()).add(keyValue);
+        }
+        for (Map.Entry<CommonId, List<KeyValue>> entry : regions.entrySet()) {
+            List<KeyValue> regionKeyValues = entry.getValue();
+            try {
+                StoreInstance store = Services.KV_STORE.getInstance(table.getTableId(), entry.getKey());
+                long inserted = store.insert(System.identityHashCode(regionKeyValues), regionKeyValues).stream()
+                    .filter(Boolean::booleanValue)
+                    .count();
+                count.addAndGet(inserted);
+                exceptionRetries.set(0);
+            } catch (RuntimeException e) {
+                LogUtils.error(log, e.getMessage(), e);
+                String message = e.getMessage() != null ? e.getMessage() : "";
+                if (message.contains("epoch is not match, region_epoch")
+                    || message.contains("Key out of range")
+                    || e instanceof RegionSplitException) {
+                    if (!continueRetry()) {
+                        throw e;
+                    }
+                    insertKeyValues(regionKeyValues, true);
+                } else {
+                    throw e;
+                }
+            }
         }
-        return txnId;
     }
 
-    CommonId txnId;
-    boolean refreshTxnId = false;
-
-    public void insertWithTxn(Object[] tuples) {
-        Map<String, KeyValue> caches = ExecutionEnvironment.memoryCache
-            .computeIfAbsent(statementId, e -> new TreeMap<>());
-        KeyValue keyValue = codec.encode(tuples);
+    private CommonId calcPartId(byte[] key) {
+        return PartitionService.getService(
+                Optional.ofNullable(table.getPartitionStrategy())
+                    .orElse(DingoPartitionServiceProvider.RANGE_FUNC_NAME))
+            .calcPartId(key, distributions);
+    }
 
-        CommonId txnId = getTxnId();
-        recodePriTable(keyValue, txnId);
-        String cacheKey = Base64.getEncoder().encodeToString(keyValue.getKey());
-        if (!caches.containsKey(cacheKey)) {
-            caches.put(cacheKey, keyValue);
+    private void writeWithTxn(List<Object[]> tuples, KeyValueCodec codec) {
+        long start = System.currentTimeMillis();
+        CommonId txnId = new CommonId(CommonId.CommonType.TRANSACTION,
+            TransactionManager.getServerId().seq, TransactionManager.getStartTs());
+        // sorted, so the mutations of a region are contiguous
+        Map<ByteArrayUtils.ComparableByteArray, KeyValue> caches = new TreeMap<>();
+        for (Object[] tuple : tuples) {
+            KeyValue keyValue = codec.encode(tuple);
+            recodePriTable(keyValue, txnId);
+            caches.putIfAbsent(new ByteArrayUtils.ComparableByteArray(keyValue.getKey()), keyValue);
         }
         List<IndexTable> indexTableList = table.getIndexes();
         if (indexTableList != null) {
@@ -391,65 +488,51 @@ public class LoadDataOperation implements DmlOperation {
                 List<Integer> columnIndices = table.getColumnIndices(indexTable.columns.stream()
                     .map(Column::getName)
                     .collect(Collectors.toList()));
-                Object[] tuplesTmp = columnIndices.stream().map(i -> tuples[i]).toArray();
-                KeyValueCodec codec = CodecService.getDefault()
+                KeyValueCodec indexCodec = CodecService.getDefault()
                     .createKeyValueCodec(indexTable.tupleType(), indexTable.keyMapping());
-
-                keyValue = wrap(codec::encode).apply(tuplesTmp);
                 PartitionService ps = PartitionService.getService(
                     Optional.ofNullable(indexTable.getPartitionStrategy())
                         .orElse(DingoPartitionServiceProvider.RANGE_FUNC_NAME));
                 NavigableMap<ByteArrayUtils.ComparableByteArray, RangeDistribution> ranges =
                     metaService.getRangeDistribution(indexTable.tableId);
-                CommonId partId = ps.calcPartId(keyValue.getKey(), ranges);
-                CodecService.getDefault().setId(keyValue.getKey(), partId.domain);
-
                 byte[] txnIdByte = txnId.encode();
                 byte[] tableIdByte = indexTable.tableId.encode();
-                byte[] partIdByte = partId.encode();
-                keyValue.setKey(
-                    ByteUtils.encode(
-                        CommonId.CommonType.TXN_CACHE_DATA,
-                        keyValue.getKey(),
-                        Op.PUTIFABSENT.getCode(),
-                        (txnIdByte.length + tableIdByte.length + partIdByte.length),
-                        txnIdByte,
-                        tableIdByte,
-                        partIdByte)
-                );
-                cacheKey = Base64.getEncoder().encodeToString(keyValue.getKey());
-                if (!caches.containsKey(cacheKey)) {
-                    caches.put(cacheKey, keyValue);
+                for (Object[] tuple : tuples) {
+                    Object[] tuplesTmp = columnIndices.stream().map(i -> tuple[i]).toArray();
+                    KeyValue keyValue = wrap(indexCodec::encode).apply(tuplesTmp);
+                    CommonId partId = ps.calcPartId(keyValue.getKey(), ranges);
+                    CodecService.getDefault().setId(keyValue.getKey(), partId.domain);
+
+                    byte[] partIdByte = partId.encode();
+                    keyValue.setKey(
+                        ByteUtils.encode(
+                            CommonId.CommonType.TXN_CACHE_DATA,
+                            keyValue.getKey(),
+                            Op.PUTIFABSENT.getCode(),
+                            (txnIdByte.length + tableIdByte.length + partIdByte.length),
+                            txnIdByte,
+                            tableIdByte,
+                            partIdByte)
+                    );
+                    caches.putIfAbsent(new ByteArrayUtils.ComparableByteArray(keyValue.getKey()), keyValue);
                 }
             }
         }
 
-        if (refreshTxnId) {
-            long start = System.currentTimeMillis();
-            int cacheSize = 0;
-            try {
-                List<Object[]> tupleList = getCacheTupleList(caches, txnId);
-                TxnImportDataOperation txnImportDataOperation = new TxnImportDataOperation(
-                    txnId.seq, txnId, txnRetry, txnRetryCnt, timeOut
-                );
-                int result = txnImportDataOperation.insertByTxn(tupleList);
-                count.addAndGet(result);
-                cacheSize = caches.size();
-                caches.clear();
-            } finally {
-                ExecutionEnvironment.memoryCache.remove(statementId);
-            }
-            long end = System.currentTimeMillis();
-            LogUtils.debug(log, "insert txn batch size:" + cacheSize + ", cost time:" + (end - start) + "ms");
-            refreshTxnId = false;
-        }
+        List<Object[]> tupleList = caches.values().stream()
+            .map(ByteUtils::decode)
+            .collect(Collectors.toList());
+        TxnImportDataOperation txnImportDataOperation = new TxnImportDataOperation(
+            txnId.seq, txnId, txnRetry, txnRetryCnt, timeOut
+        );
+        int result = txnImportDataOperation.insertByTxn(tupleList);
+        count.addAndGet(result);
+        long end = System.currentTimeMillis();
+        LogUtils.debug(log, "insert txn batch size:" + tupleList.size() + ", cost time:" + (end - start) + "ms");
     }
 
     private void recodePriTable(KeyValue keyValue, CommonId txnId) {
-        CommonId partId = PartitionService.getService(
-                Optional.ofNullable(table.getPartitionStrategy())
-                    .orElse(DingoPartitionServiceProvider.RANGE_FUNC_NAME))
-            .calcPartId(keyValue.getKey(), distributions);
+        CommonId partId = calcPartId(keyValue.getKey());
         // todo replace
         CodecService.getDefault().setId(keyValue.getKey(), partId.domain);
         byte[] txnIdByte = txnId.encode();
@@ -464,44 +547,8 @@ public class LoadDataOperation implements DmlOperation {
             txnIdByte, tableIdByte, partIdByte));
     }
 
-    public void endWriteWithTxn() {
-        long start = System.currentTimeMillis();
-        try {
-            CommonId txnId = getTxnId();
-            long startTs = txnId.seq;
-            TxnImportDataOperation txnImportDataOperation = new TxnImportDataOperation(
-                startTs, txnId, txnRetry, txnRetryCnt, timeOut
-            );
-            Map<String, KeyValue> caches = ExecutionEnvironment.memoryCache
-                .computeIfAbsent(statementId, e -> new TreeMap<>());
-            List<Object[]> tupleList = getCacheTupleList(caches, txnId);
-            if (tupleList.size() == 0) {
-                return;
-            }
-            int result = txnImportDataOperation.insertByTxn(tupleList);
-            count.addAndGet(result);
-            caches.clear();
-        } finally {
-            ExecutionEnvironment.memoryCache.remove(statementId);
-        }
-        long end = System.currentTimeMillis();
-        LogUtils.debug(log, "insert txn end batch, cost time:" + (end - start) + "ms");
-    }
-
-    public List<Object[]> getCacheTupleList(Map<String, KeyValue> keyValueMap, CommonId txnId) {
-        List<Object[]> tupleCacheList = new ArrayList<>();
-        for (KeyValue keyValue : keyValueMap.values()) {
-            tupleCacheList.add(getCacheTuples(keyValue));
-        }
-        return tupleCacheList;
-    }
-
-    public Object[] getCacheTuples(KeyValue keyValue) {
-        return io.dingodb.exec.utils.ByteUtils.decode(keyValue);
-    }
-
-    private static boolean continueRetry() {
-        if (exceptionRetries > maxRetries) {
+    private boolean continueRetry() {
+        if (exceptionRetries.get() > maxRetries) {
             return false;
         }
         try {
@@ -509,7 +556,7 @@ public class LoadDataOperation implements DmlOperation {
         } catch (InterruptedException ex) {
             throw new RuntimeException(ex);
         }
-        exceptionRetries ++;
+        exceptionRetries.incrementAndGet();
         return true;
     }
 
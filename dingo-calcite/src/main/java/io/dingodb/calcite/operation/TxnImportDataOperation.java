@@ -48,6 +48,7 @@ import io.dingodb.store.api.transaction.exception.RegionSplitException;
 import io.dingodb.store.api.transaction.exception.WriteConflictException;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -182,20 +183,25 @@ public class TxnImportDataOperation {
         }
     }
 
-    private static boolean txnPreWrite(PreWriteParam param, CommonId txnId, CommonId tableId, CommonId partId) {
+    private static boolean txnPreWrite(
+        PreWriteParam param,
+        CommonId txnId,
+        CommonId tableId,
+        CommonId partId,
+        List<Mutation> mutations
+    ) {
         // 1、call sdk TxnPreWrite
-        param.setTxnSize(param.getMutations().size());
         TxnPreWrite txnPreWrite = TxnPreWrite.builder()
                 .isolationLevel(IsolationLevel.of(param.getIsolationLevel()))
-            .mutations(param.getMutations())
+            .mutations(mutations)
             .primaryLock(param.getPrimaryKey())
             .startTs(param.getStartTs())
             .lockTtl(TransactionManager.lockTtlTm())
-            .txnSize(param.getTxnSize())
+            .txnSize(mutations.size())
             .tryOnePc(param.isTryOnePc())
             .maxCommitTs(param.getMaxCommitTs())
             .lockExtraDatas(TransactionUtil.toLockExtraDataList(tableId, partId, txnId,
-                param.getTransactionType().getCode(), param.getMutations().size()))
+                param.getTransactionType().getCode(), mutations.size()))
             .build();
         try {
             StoreInstance store = Services.KV_STORE.getInstance(tableId, partId);
@@ -210,12 +216,12 @@ public class TxnImportDataOperation {
                 i ++;
                 try {
                     Map<CommonId, List<byte[]>> partMap = TransactionUtil.multiKeySplitRegionId(tableId, txnId,
-                        TransactionUtil.mutationToKey(param.getMutations()));
+                        TransactionUtil.mutationToKey(mutations));
                     for (Map.Entry<CommonId, List<byte[]>> entry : partMap.entrySet()) {
                         CommonId regionId = entry.getKey();
                         List<byte[]> value = entry.getValue();
                         StoreInstance store = Services.KV_STORE.getInstance(tableId, regionId);
-                        txnPreWrite.setMutations(TransactionUtil.keyToMutation(value, param.getMutations()));
+                        txnPreWrite.setMutations(TransactionUtil.keyToMutation(value, mutations));
                         boolean result = store.txnPreWrite(txnPreWrite ,param.getTimeOut());
                         if (!result) {
                             return false;
@@ -236,6 +242,9 @@ public class TxnImportDataOperation {
         PreWriteParam param = new PreWriteParam(dingoType, primaryKey, startTs,
             isolationLevel, TransactionType.OPTIMISTIC, timeOut);
         param.init(null);
+        List<Mutation> mutations = new ArrayList<>();
+        CommonId partId = null;
+        CommonId partTableId = null;
         for (Object[] tuples : secondList) {
             TxnLocalData txnLocalData = (TxnLocalData) tuples[0];
             CommonId txnId = txnLocalData.getTxnId();
@@ -245,43 +254,40 @@ public class TxnImportDataOperation {
             byte[] key = txnLocalData.getKey();
             byte[] value = txnLocalData.getValue();
             Mutation mutation = TransactionCacheToMutation.cacheToMutation(op, key, value, 0L, tableId, newPartId);
-            CommonId partId = param.getPartId();
             if (partId == null) {
                 partId = newPartId;
-                param.setPartId(partId);
-                param.setTableId(tableId);
-                param.addMutation(mutation);
+                partTableId = tableId;
+                mutations.add(mutation);
             } else if (partId.equals(newPartId)) {
-                param.addMutation(mutation);
-                if (param.getMutations().size() == TransactionUtil.max_pre_write_count) {
-                    boolean result = txnPreWrite(param, txnId, tableId, partId);
+                mutations.add(mutation);
+                if (mutations.size() == TransactionUtil.max_pre_write_count) {
+                    boolean result = txnPreWrite(param, txnId, tableId, partId, mutations);
                     if (!result) {
                         throw new RuntimeException(txnId + " " + partId + ",txnPreWrite false,PrimaryKey:"
                             + Arrays.toString(param.getPrimaryKey()));
                     }
-                    param.getMutations().clear();
-                    param.setPartId(null);
+                    mutations = new ArrayList<>();
+                    partId = null;
                 }
             } else {
-                boolean result = txnPreWrite(param, txnId, param.getTableId(), partId);
+                boolean result = txnPreWrite(param, txnId, partTableId, partId, mutations);
                 if (!result) {
                     throw new RuntimeException(txnId + " " + partId + ",txnPreWrite false,PrimaryKey:"
                         + Arrays.toString(param.getPrimaryKey()));
                 }
-                param.getMutations().clear();
-                param.addMutation(mutation);
-                param.setPartId(newPartId);
-                param.setTableId(tableId);
+                mutations = new ArrayList<>();
+                mutations.add(mutation);
+                partId = newPartId;
+                partTableId = tableId;
             }
         }
 
-        if (param.getMutations().size() > 0) {
-            boolean result = txnPreWrite(param, txnId, param.getTableId(), param.getPartId());
+        if (mutations.size() > 0) {
+            boolean result = txnPreWrite(param, txnId, partTableId, partId, mutations);
             if (!result) {
-                throw new RuntimeException(txnId + " " + param.getPartId() + ",txnPreWrite false,PrimaryKey:"
+                throw new RuntimeException(txnId + " " + partId + ",txnPreWrite false,PrimaryKey:"
                     + Arrays.toString(param.getPrimaryKey()));
             }
-            param.getMutations().clear();
         }
     }
 
@@ -323,6 +329,9 @@ public class TxnImportDataOperation {
         CommitParam param = new CommitParam(dingoType, isolationLevel, startTs,
             commitTs, primaryKey, TransactionType.OPTIMISTIC);
         param.init(null);
+        List<byte[]> keys = new ArrayList<>();
+        CommonId partId = null;
+        CommonId partTableId = null;
         for (Object[] tuples : secondData) {
             TxnLocalData txnLocalData = (TxnLocalData) tuples[0];
             CommonId txnId = txnLocalData.getTxnId();
@@ -341,51 +350,55 @@ public class TxnImportDataOperation {
                     key = vectorCodec.encodeKeyPrefix(new Object[]{decodeKey[0]}, 1);
                 }
             }
-            CommonId partId = param.getPartId();
             if (partId == null) {
                 partId = newPartId;
-                param.setPartId(partId);
-                param.setTableId(tableId);
-                param.addKey(key);
+                partTableId = tableId;
+                keys.add(key);
             } else if (partId.equals(newPartId)) {
-                param.addKey(key);
-                if (param.getKeys().size() == TransactionUtil.max_pre_write_count) {
-                    boolean result = txnCommit(param, txnId, tableId, partId);
+                keys.add(key);
+                if (keys.size() == TransactionUtil.max_pre_write_count) {
+                    boolean result = txnCommit(param, txnId, tableId, partId, keys);
                     if (!result) {
                         throw new RuntimeException(txnId + " " + partId + ",txnCommit false,PrimaryKey:"
                             + Arrays.toString(param.getPrimaryKey()));
                     }
-                    param.getKeys().clear();
-                    param.setPartId(null);
+                    keys = new ArrayList<>();
+                    partId = null;
                 }
             } else {
-                boolean result = txnCommit(param, txnId, param.getTableId(), partId);
+                boolean result = txnCommit(param, txnId, partTableId, partId, keys);
                 if (!result) {
                     throw new RuntimeException(txnId + " " + partId + ",txnCommit false,PrimaryKey:"
                         + Arrays.toString(param.getPrimaryKey()));
                 }
-                param.getKeys().clear();
-                param.addKey(key);
-                param.setPartId(newPartId);
-                param.setTableId(tableId);
+                keys = new ArrayList<>();
+                keys.add(key);
+                partId = newPartId;
+                partTableId = tableId;
             }
         }
-        if (param.getKeys().size() > 0) {
-            boolean result = txnCommit(param, txnId, param.getTableId(), param.getPartId());
+        if (keys.size() > 0) {
+            boolean result = txnCommit(param, txnId, partTableId, partId, keys);
             if (!result) {
-                throw new RuntimeException(txnId + " " + param.getPartId()
+                throw new RuntimeException(txnId + " " + partId
                     + ",txnCommit false,PrimaryKey:" + Arrays.toString(param.getPrimaryKey()));
             }
         }
     }
 
-    private static boolean txnCommit(CommitParam param, CommonId txnId, CommonId tableId, CommonId newPartId) {
+    private static boolean txnCommit(
+        CommitParam param,
+        CommonId txnId,
+        CommonId tableId,
+        CommonId newPartId,
+        List<byte[]> keys
+    ) {
         // 1、Async call sdk TxnCommit
         TxnCommit commitRequest = TxnCommit.builder()
                 .isolationLevel(IsolationLevel.of(param.getIsolationLevel()))
                 .startTs(param.getStartTs())
                 .commitTs(param.getCommitTs())
-                .keys(param.getKeys())
+                .keys(keys)
                 .build();
         try {
             StoreInstance store = Services.KV_STORE.getInstance(tableId, newPartId);
@@ -401,7 +414,7 @@ public class TxnImportDataOperation {
                     Map<CommonId, List<byte[]>> partMap = TransactionUtil.multiKeySplitRegionId(
                         tableId,
                         txnId,
-                        param.getKeys()
+                        keys
                     );
                     for (Map.Entry<CommonId, List<byte[]>> entry : partMap.entrySet()) {
                         CommonId regionId = entry.getKey();
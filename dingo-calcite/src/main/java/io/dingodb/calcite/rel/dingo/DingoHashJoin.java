@@ -18,9 +18,11 @@ package io.dingodb.calcite.rel.dingo;
 
 import io.dingodb.calcite.rel.DingoRel;
 import io.dingodb.calcite.visitor.DingoRelVisitor;
+import lombok.Getter;
 import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelTraitSet;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelWriter;
 import org.apache.calcite.rel.core.CorrelationId;
 import org.apache.calcite.rel.core.Join;
 import org.apache.calcite.rel.core.JoinRelType;
@@ -32,6 +34,9 @@ import java.util.List;
 import java.util.Set;
 
 public final class DingoHashJoin extends Join implements DingoRel {
+    @Getter
+    private final int parallelism;
+
     public DingoHashJoin(
         RelOptCluster cluster,
         RelTraitSet traitSet,
@@ -40,9 +45,11 @@ public final class DingoHashJoin extends Join implements DingoRel {
         RelNode right,
         RexNode condition,
         Set<CorrelationId> variablesSet,
-        JoinRelType joinType
+        JoinRelType joinType,
+        int parallelism
     ) {
         super(cluster, traitSet, hints, left, right, condition, variablesSet, joinType);
+        this.parallelism = parallelism;
     }
 
     @Override
@@ -62,10 +69,17 @@ public final class DingoHashJoin extends Join implements DingoRel {
             right,
             conditionExpr,
             getVariablesSet(),
-            joinType
+            joinType,
+            parallelism
         );
     }
 
+    @Override
+    public RelWriter explainTerms(RelWriter pw) {
+        return super.explainTerms(pw)
+            .itemIf("parallelism", parallelism, parallelism > 1);
+    }
+
     @Override
     public <T> T accept(@NonNull DingoRelVisitor<T> visitor) {
         return visitor.visit(this);
@@ -19,12 +19,14 @@ package io.dingodb.calcite.rule.dingo;
 import io.dingodb.calcite.rel.dingo.DingoHashJoin;
 import io.dingodb.calcite.traits.DingoConvention;
 import io.dingodb.calcite.traits.DingoRelStreaming;
+import io.dingodb.common.config.ExecConfiguration;
 import org.apache.calcite.plan.Convention;
 import org.apache.calcite.plan.RelTraitSet;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.convert.ConverterRule;
 import org.apache.calcite.rel.core.JoinInfo;
 import org.apache.calcite.rel.logical.LogicalJoin;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -39,6 +41,9 @@ public class DingoHashJoinRule extends ConverterRule {
         )
         .withRuleFactory(DingoHashJoinRule::new);
 
+    // Rows of the build side processed by each worker, small joins are not worth the cost of threads.
+    private static final double ROWS_PER_WORKER = 100000.0d;
+
     protected DingoHashJoinRule(Config config) {
         super(config);
     }
@@ -52,6 +57,16 @@ public class DingoHashJoinRule extends ConverterRule {
         return joinInfo.isEqui();
     }
 
+    /**
+     * Choose the degree of parallelism of a hash join according to the estimated row count of the build side.
+     */
+    public static int parallelism(@Nullable Double rowCount) {
+        if (rowCount == null || rowCount < 2 * ROWS_PER_WORKER) {
+            return 1;
+        }
+        return (int) Math.min(ExecConfiguration.joinParallelism(), rowCount / ROWS_PER_WORKER);
+    }
+
     @Override
     public @Nullable RelNode convert(RelNode rel) {
         LogicalJoin join = (LogicalJoin) rel;
@@ -70,6 +85,7 @@ public class DingoHashJoinRule extends ConverterRule {
             leftTraits = traits;
             rightTraits = traits;
         }
+        RelMetadataQuery mq = join.getCluster().getMetadataQuery();
         return new DingoHashJoin(
             join.getCluster(),
             traits,
@@ -78,7 +94,8 @@ public class DingoHashJoinRule extends ConverterRule {
             convert(join.getRight(), rightTraits),
             join.getCondition(),
             join.getVariablesSet(),
-            join.getJoinType()
+            join.getJoinType(),
+            parallelism(mq.getRowCount(join.getRight()))
         );
     }
 }
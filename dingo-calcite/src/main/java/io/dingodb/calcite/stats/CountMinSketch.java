@@ -22,6 +22,9 @@ import lombok.Getter;
 import lombok.Setter;
 import org.apache.calcite.sql.SqlKind;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 
 public class CountMinSketch implements Cloneable, CalculateStatistic {
@@ -254,6 +257,7 @@ public class CountMinSketch implements Cloneable, CalculateStatistic {
             throw new RuntimeException("Merge failed! Depth of count min sketch do not match!"
                 + "this.depth: " + this.getDepth() + " that.depth: " + that.getDepth());
         }
+        this.totalCount += that.totalCount;
         this.nullCount += that.nullCount;
         for (int i = 0; i < depth; i++) {
             for (int j = 0; j < width; j++) {
@@ -294,6 +298,39 @@ public class CountMinSketch implements Cloneable, CalculateStatistic {
         return new CountMinSketch(width, depth, multiset);
     }
 
+    /**
+     * Write the collecting state, see {@link RegionStats}.
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeLong(totalCount);
+        out.writeLong(nullCount);
+        out.writeInt(width);
+        out.writeInt(depth);
+        for (int i = 0; i < depth; i++) {
+            for (int j = 0; j < width; j++) {
+                out.writeInt(multiset[i][j]);
+            }
+        }
+    }
+
+    /**
+     * Restore the state written by {@link #writeState(DataOutput)}.
+     * @return false if the state was collected with a different width or depth
+     */
+    boolean readState(DataInput in) throws IOException {
+        totalCount = in.readLong();
+        nullCount = in.readLong();
+        if (in.readInt() != width || in.readInt() != depth) {
+            return false;
+        }
+        for (int i = 0; i < depth; i++) {
+            for (int j = 0; j < width; j++) {
+                multiset[i][j] = in.readInt();
+            }
+        }
+        return true;
+    }
+
     public CountMinSketch copy() {
         return new CountMinSketch(schemaName, tableName, columnName, index, width, depth);
     }
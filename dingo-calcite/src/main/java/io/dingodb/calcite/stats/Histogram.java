@@ -27,15 +27,24 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.apache.calcite.sql.SqlKind;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.sql.Date;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 @NoArgsConstructor
-@JsonPropertyOrder({"max", "min", "width", "lstWidth", "buckets", "totalCount"})
+@JsonPropertyOrder({
+    "max", "min", "width", "lstWidth", "buckets", "totalCount",
+    "lowers", "bounds", "bucketNdv", "mcvValues", "mcvCounts", "sampleCount"
+})
 public class Histogram implements Cloneable, CalculateStatistic {
+    private static final int MAX_MCV = 100;
 
     @Getter
     @Setter
@@ -98,6 +107,40 @@ public class Histogram implements Cloneable, CalculateStatistic {
     @JsonProperty("nullCount")
     private long nullCount;
 
+    /**
+     * Equi-depth histogram built from a sample: the first and last value of each bucket.
+     * Null for equi-width histograms.
+     */
+    @JsonProperty("lowers")
+    private long[] lowers;
+
+    @JsonProperty("bounds")
+    private long[] bounds;
+
+    /**
+     * distinct values of each equi-depth bucket.
+     */
+    @JsonProperty("bucketNdv")
+    private long[] bucketNdv;
+
+    /**
+     * most common values, sorted, and their counts in the sample. They are kept out of the buckets.
+     */
+    @JsonProperty("mcvValues")
+    private long[] mcvValues;
+
+    @JsonProperty("mcvCounts")
+    private long[] mcvCounts;
+
+    /**
+     * non-null values in the sample the equi-depth histogram was built from.
+     */
+    @JsonProperty("sampleCount")
+    private long sampleCount;
+
+    @JsonIgnore
+    private ReservoirSample sample;
+
     public Histogram(String schemaName,
                         String tableName,
                         String columnName,
@@ -150,6 +193,14 @@ public class Histogram implements Cloneable, CalculateStatistic {
         totalCount = 0;
     }
 
+    /**
+     * Collect a uniform sample of at most {@code sampleSize} values instead of bucket counts,
+     * see {@link #buildEquiDepth(int)}. No min and max are needed up front.
+     */
+    public void initSample(int sampleSize) {
+        this.sample = new ReservoirSample(sampleSize);
+    }
+
     public void addValue(Object val) {
         totalCount++;
         if (val == null) {
@@ -157,9 +208,114 @@ public class Histogram implements Cloneable, CalculateStatistic {
             return;
         }
         Long value = getLongVal(val);
+        if (sample != null) {
+            sample.add(value);
+            return;
+        }
         addLongValue(value);
     }
 
+    /**
+     * Turn the merged sample into an equi-depth histogram. Values more frequent than the
+     * average bucket depth go to the most-common-value list, so that one hot value does not
+     * flatten the estimate of the whole bucket it falls into.
+     */
+    public void buildEquiDepth(int bucketCount) {
+        if (sample == null) {
+            return;
+        }
+        long[] values = sample.sorted();
+        sample = null;
+        int n = values.length;
+        sampleCount = n;
+        lowers = new long[0];
+        bounds = new long[0];
+        bucketNdv = new long[0];
+        buckets = new long[0];
+        mcvValues = new long[0];
+        mcvCounts = new long[0];
+        if (n == 0) {
+            return;
+        }
+        min = values[0];
+        max = values[n - 1];
+
+        // runs of equal values
+        int runCount = 0;
+        long[] runValues = new long[n];
+        int[] runCounts = new int[n];
+        for (int i = 0; i < n;) {
+            int j = i;
+            while (j < n && values[j] == values[i]) {
+                j++;
+            }
+            runValues[runCount] = values[i];
+            runCounts[runCount++] = j - i;
+            i = j;
+        }
+
+        double depth = n / (double) bucketCount;
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < runCount; i++) {
+            if (runCounts[i] > 1 && runCounts[i] > depth) {
+                candidates.add(i);
+            }
+        }
+        candidates.sort((a, b) -> Integer.compare(runCounts[b], runCounts[a]));
+        boolean[] common = new boolean[runCount];
+        int mcvCount = Math.min(MAX_MCV, candidates.size());
+        int rest = n;
+        for (int i = 0; i < mcvCount; i++) {
+            common[candidates.get(i)] = true;
+            rest -= runCounts[candidates.get(i)];
+        }
+        mcvValues = new long[mcvCount];
+        mcvCounts = new long[mcvCount];
+        int m = 0;
+        for (int i = 0; i < runCount; i++) {
+            if (common[i]) {
+                mcvValues[m] = runValues[i];
+                mcvCounts[m++] = runCounts[i];
+            }
+        }
+
+        int bucketNum = Math.min(bucketCount, runCount - mcvCount);
+        if (bucketNum == 0) {
+            return;
+        }
+        lowers = new long[bucketNum];
+        bounds = new long[bucketNum];
+        bucketNdv = new long[bucketNum];
+        buckets = new long[bucketNum];
+        depth = rest / (double) bucketNum;
+        int b = 0;
+        long acc = 0;
+        boolean open = false;
+        for (int i = 0; i < runCount; i++) {
+            if (common[i]) {
+                continue;
+            }
+            if (!open) {
+                lowers[b] = runValues[i];
+                open = true;
+            }
+            buckets[b] += runCounts[i];
+            bucketNdv[b]++;
+            bounds[b] = runValues[i];
+            acc += runCounts[i];
+            if (b < bucketNum - 1 && acc >= depth * (b + 1)) {
+                b++;
+                open = false;
+            }
+        }
+        if (b < bucketNum - 1) {
+            lowers = Arrays.copyOf(lowers, b + 1);
+            bounds = Arrays.copyOf(bounds, b + 1);
+            bucketNdv = Arrays.copyOf(bucketNdv, b + 1);
+            buckets = Arrays.copyOf(buckets, b + 1);
+        }
+    }
+
     private static Long getLongVal(Object val) {
         long value = 0;
         if (val instanceof Integer) {
@@ -185,6 +341,10 @@ public class Histogram implements Cloneable, CalculateStatistic {
     public void merge(Histogram histogram) {
         this.totalCount += histogram.totalCount;
         this.nullCount += histogram.nullCount;
+        if (sample != null && histogram.sample != null) {
+            sample.merge(histogram.sample);
+            return;
+        }
         if (buckets == null) {
             return;
         }
@@ -234,8 +394,42 @@ public class Histogram implements Cloneable, CalculateStatistic {
         }
     }
 
+    /**
+     * Write the collecting state of a sampled histogram, see {@link RegionStats}.
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeLong(totalCount);
+        out.writeLong(nullCount);
+        out.writeBoolean(sample != null);
+        if (sample != null) {
+            sample.write(out);
+        }
+    }
+
+    /**
+     * Restore the state written by {@link #writeState(DataOutput)}.
+     * @return false if the state does not fit this histogram, e.g. a different sample size
+     */
+    boolean readState(DataInput in) throws IOException {
+        totalCount = in.readLong();
+        nullCount = in.readLong();
+        if (!in.readBoolean() || sample == null) {
+            return false;
+        }
+        ReservoirSample saved = ReservoirSample.read(in);
+        if (saved.capacity() != sample.capacity()) {
+            return false;
+        }
+        sample = saved;
+        return true;
+    }
+
     public Histogram copy() {
         Histogram histogram = new Histogram(schemaName, tableName, columnName, dingoType, index);
+        if (sample != null) {
+            histogram.initSample(sample.capacity());
+            return histogram;
+        }
         if (max == null || min == null || buckets == null) {
             return histogram;
         }
@@ -266,6 +460,9 @@ public class Histogram implements Cloneable, CalculateStatistic {
     }
 
     private double estimateSelectivityEquals(long val) {
+        if (bounds != null) {
+            return depthEquals(val) * nonNullFraction();
+        }
         if (val < min || val > max) {
             return 0;
         }
@@ -280,6 +477,9 @@ public class Histogram implements Cloneable, CalculateStatistic {
     }
 
     private double estimateSelectivityGreaterThan(long val) {
+        if (bounds != null) {
+            return Math.max(0, 1 - depthLessThan(val) - depthEquals(val)) * nonNullFraction();
+        }
         if (val < min) {
             return 1;
         } else if (val >= max) {
@@ -301,6 +501,9 @@ public class Histogram implements Cloneable, CalculateStatistic {
     }
 
     private double estimateSelectivityLessThan(long val) {
+        if (bounds != null) {
+            return depthLessThan(val) * nonNullFraction();
+        }
         if (val <= min) {
             return 0;
         } else if (val > max) {
@@ -325,6 +528,49 @@ public class Histogram implements Cloneable, CalculateStatistic {
         }
     }
 
+    private double depthEquals(long val) {
+        if (sampleCount == 0) {
+            return 0;
+        }
+        int m = Arrays.binarySearch(mcvValues, val);
+        if (m >= 0) {
+            return mcvCounts[m] / (double) sampleCount;
+        }
+        int b = Arrays.binarySearch(bounds, val);
+        if (b < 0) {
+            b = -b - 1;
+        }
+        if (b == bounds.length || val < lowers[b]) {
+            return 0;
+        }
+        return buckets[b] / (double) bucketNdv[b] / sampleCount;
+    }
+
+    private double depthLessThan(long val) {
+        if (sampleCount == 0) {
+            return 0;
+        }
+        double rows = 0;
+        for (int i = 0; i < mcvValues.length && mcvValues[i] < val; i++) {
+            rows += mcvCounts[i];
+        }
+        for (int b = 0; b < bounds.length; b++) {
+            if (bounds[b] < val) {
+                rows += buckets[b];
+                continue;
+            }
+            if (val > lowers[b]) {
+                rows += buckets[b] * (val - lowers[b]) / (double) (bounds[b] - lowers[b] + 1);
+            }
+            break;
+        }
+        return rows / sampleCount;
+    }
+
+    private double nonNullFraction() {
+        return totalCount == 0 ? 0 : 1 - estimateSelectivityIsNull();
+    }
+
     public double estimateSelectivityIsNull() {
         return nullCount / (double)totalCount;
     }
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.calcite.stats;
+
+import com.fasterxml.jackson.core.Base64Variants;
+import io.dingodb.common.partition.RangeDistribution;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized collecting state of one region: histogram samples, count-min sketches and HLL counters.
+ * A refresh restores the state of regions modified little since it was saved and only rescans the others,
+ * then merges everything with {@link TableStats#mergeStats(List)}.
+ */
+public final class RegionStats {
+    private static final int VERSION = 1;
+
+    private RegionStats() {
+    }
+
+    /**
+     * Serialize region stats, must be called before they are merged.
+     */
+    public static String serialize(RangeDistribution region, TableStats stats) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bos))) {
+            out.writeInt(VERSION);
+            writeBytes(out, region.getStartKey());
+            writeBytes(out, region.getEndKey());
+            out.writeLong(stats.getScannedRows());
+            out.writeLong(stats.getSampledRows());
+            out.writeInt(stats.getHistogramList().size());
+            for (Histogram histogram : stats.getHistogramList()) {
+                out.writeUTF(histogram.getColumnName());
+                histogram.writeState(out);
+            }
+            out.writeInt(stats.getCountMinSketchList().size());
+            for (CountMinSketch countMinSketch : stats.getCountMinSketchList()) {
+                out.writeUTF(countMinSketch.getColumnName());
+                countMinSketch.writeState(out);
+            }
+            out.writeInt(stats.getStatsNormalList().size());
+            for (StatsNormal statsNormal : stats.getStatsNormalList()) {
+                out.writeUTF(statsNormal.getColumnName());
+                statsNormal.writeState(out);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return Base64Variants.getDefaultVariant().encode(bos.toByteArray());
+    }
+
+    /**
+     * Restore region stats onto copies of the templates.
+     * @return null if the state was saved for another range or does not match the templates
+     */
+    public static TableStats deserialize(String str,
+                                         RangeDistribution region,
+                                         List<Histogram> histograms,
+                                         List<CountMinSketch> cmSketches,
+                                         List<StatsNormal> statsNormals) {
+        byte[] bytes = Base64Variants.getDefaultVariant().decode(str);
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(bytes)))) {
+            if (in.readInt() != VERSION
+                || !Arrays.equals(readBytes(in), region.getStartKey())
+                || !Arrays.equals(readBytes(in), region.getEndKey())) {
+                return null;
+            }
+            long scannedRows = in.readLong();
+            long sampledRows = in.readLong();
+            List<Histogram> histogramList = new ArrayList<>();
+            if (in.readInt() != histograms.size()) {
+                return null;
+            }
+            for (Histogram template : histograms) {
+                Histogram histogram = template.copy();
+                if (!template.getColumnName().equals(in.readUTF()) || !histogram.readState(in)) {
+                    return null;
+                }
+                histogramList.add(histogram);
+            }
+            List<CountMinSketch> cmSketchList = new ArrayList<>();
+            if (in.readInt() != cmSketches.size()) {
+                return null;
+            }
+            for (CountMinSketch template : cmSketches) {
+                CountMinSketch countMinSketch = template.copy();
+                if (!template.getColumnName().equals(in.readUTF()) || !countMinSketch.readState(in)) {
+                    return null;
+                }
+                cmSketchList.add(countMinSketch);
+            }
+            List<StatsNormal> statsNormalList = new ArrayList<>();
+            if (in.readInt() != statsNormals.size()) {
+                return null;
+            }
+            for (StatsNormal template : statsNormals) {
+                StatsNormal statsNormal = template.copy();
+                if (!template.getColumnName().equals(in.readUTF()) || !statsNormal.readState(in)) {
+                    return null;
+                }
+                statsNormalList.add(statsNormal);
+            }
+            TableStats stats = new TableStats(cmSketchList, histogramList, statsNormalList);
+            stats.setScannedRows(scannedRows);
+            stats.setSampledRows(sampledRows);
+            return stats;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
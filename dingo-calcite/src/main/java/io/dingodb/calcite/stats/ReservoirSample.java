@@ -0,0 +1,122 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.calcite.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Fixed size uniform sample of a long stream (Algorithm R). Samples collected from different
+ * regions can be merged into a uniform sample of their union.
+ */
+final class ReservoirSample {
+    private long[] values;
+    private int size;
+    private long seen;
+
+    ReservoirSample(int capacity) {
+        this.values = new long[capacity];
+    }
+
+    int capacity() {
+        return values.length;
+    }
+
+    long seen() {
+        return seen;
+    }
+
+    void add(long value) {
+        seen++;
+        if (size < values.length) {
+            values[size++] = value;
+            return;
+        }
+        long slot = ThreadLocalRandom.current().nextLong(seen);
+        if (slot < values.length) {
+            values[(int) slot] = value;
+        }
+    }
+
+    void merge(ReservoirSample that) {
+        if (that.seen == 0) {
+            return;
+        }
+        int capacity = values.length;
+        long[] merged = new long[capacity];
+        int mergedSize;
+        if (size + that.size <= capacity) {
+            // neither side has dropped a value yet
+            System.arraycopy(values, 0, merged, 0, size);
+            System.arraycopy(that.values, 0, merged, size, that.size);
+            mergedSize = size + that.size;
+        } else {
+            // take from each side in proportion to the number of values it stands for
+            long fromThis = Math.round(capacity * (seen / (double) (seen + that.seen)));
+            int taken = (int) Math.max(capacity - that.size, Math.min(size, fromThis));
+            pick(values, size, taken, merged, 0);
+            pick(that.values, that.size, capacity - taken, merged, taken);
+            mergedSize = capacity;
+        }
+        values = merged;
+        size = mergedSize;
+        seen += that.seen;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(values.length);
+        out.writeLong(seen);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(values[i]);
+        }
+    }
+
+    static ReservoirSample read(DataInput in) throws IOException {
+        ReservoirSample sample = new ReservoirSample(in.readInt());
+        sample.seen = in.readLong();
+        sample.size = in.readInt();
+        for (int i = 0; i < sample.size; i++) {
+            sample.values[i] = in.readLong();
+        }
+        return sample;
+    }
+
+    long[] sorted() {
+        long[] result = Arrays.copyOf(values, size);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Copies {@code count} randomly chosen values out of the first {@code size} of {@code src},
+     * with a partial Fisher-Yates shuffle.
+     */
+    private static void pick(long[] src, int size, int count, long[] dst, int offset) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(size - i);
+            long tmp = src[i];
+            src[i] = src[j];
+            src[j] = tmp;
+            dst[offset + i] = src[i];
+        }
+    }
+}
@@ -101,15 +101,43 @@ public class SelectivityEstimator extends RexVisitorImpl<Double> {
 
     private double computeComparison(RexCall pred) {
         if (predicateMatch(pred) && childRel instanceof TableScan) {
-            CalculateStatistic statistic = extractColStats(extractCol((TableScan) childRel, pred));
+            Pair<String, Column> col = extractCol((TableScan) childRel, pred);
+            CalculateStatistic statistic = extractColStats(col);
             if (statistic != null) {
                 return statistic.estimateSelectivity(pred.getKind(),
                     extractVal(pred));
             }
+            Double selectivity = ndvSelectivity(col, pred.getKind());
+            if (selectivity != null) {
+                return selectivity;
+            }
         }
         return defaultSelectivity(pred);
     }
 
+    /**
+     * Equality on a column without histogram or count-min sketch, assume uniform distinct values.
+     */
+    private static Double ndvSelectivity(Pair<String, Column> statsIdentifier, SqlKind kind) {
+        if (kind != EQUALS && kind != NOT_EQUALS) {
+            return null;
+        }
+        TableStats stats = StatsCache.statsMap.get(statsIdentifier.getLeft());
+        if (stats == null) {
+            return null;
+        }
+        for (StatsNormal statsNormal : stats.getStatsNormalList()) {
+            if (statsNormal.getColumnName().equals(statsIdentifier.getRight().getName())) {
+                Long ndv = statsNormal.getNdv();
+                if (ndv == null || ndv <= 0) {
+                    return null;
+                }
+                return kind == EQUALS ? 1.0 / ndv : 1 - 1.0 / ndv;
+            }
+        }
+        return null;
+    }
+
     private static Object extractVal(RexCall pred) {
         RexLiteral rexLiteral = (RexLiteral) pred.getOperands().get(1);
         return rexLiteral.getValue();
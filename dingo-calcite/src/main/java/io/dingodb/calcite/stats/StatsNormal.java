@@ -30,6 +30,9 @@ import io.dingodb.common.type.scalar.TimestampType;
 import lombok.extern.slf4j.Slf4j;
 import net.agkn.hll.HLL;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.nio.charset.Charset;
 import java.sql.Date;
 import java.sql.Time;
@@ -112,12 +115,34 @@ public class StatsNormal implements Cloneable {
     }
 
     public StatsNormal merge(StatsNormal statsNormal) {
-        this.ndv += statsNormal.getNdv();
+        if (hll != null && statsNormal.hll != null) {
+            // values seen by several regions must be counted once
+            hll.union(statsNormal.hll);
+            this.ndv = hll.cardinality();
+        } else {
+            this.ndv += statsNormal.getNdv();
+        }
         this.numNull += statsNormal.numNull;
         this.totalColSize += statsNormal.totalColSize;
+        this.totalCount += statsNormal.totalCount;
         return this;
     }
 
+    /**
+     * Extrapolate counts collected from a block sample to the whole table.
+     * A column that looks unique in the sample is taken as unique, otherwise the sample
+     * is assumed to have seen most of the distinct values.
+     * @param factor scanned rows / sampled rows
+     */
+    public void scale(double factor) {
+        long sampled = totalCount - numNull;
+        totalCount = Math.round(totalCount * factor);
+        numNull = Math.round(numNull * factor);
+        if (ndv != null && sampled > 0 && ndv >= sampled * 0.9) {
+            ndv = Math.min(Math.round(ndv * factor), totalCount - numNull);
+        }
+    }
+
     public void addVal(Object val) {
         totalCount ++;
         if (val == null) {
@@ -185,6 +210,31 @@ public class StatsNormal implements Cloneable {
         }
     }
 
+    /**
+     * Write the collecting state, see {@link RegionStats}.
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeLong(totalCount);
+        out.writeLong(numNull);
+        out.writeLong(totalColSize);
+        byte[] bytes = hll.toBytes();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Restore the state written by {@link #writeState(DataOutput)}.
+     */
+    boolean readState(DataInput in) throws IOException {
+        totalCount = in.readLong();
+        numNull = in.readLong();
+        totalColSize = in.readLong();
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        hll = HLL.fromBytes(bytes);
+        return true;
+    }
+
     public StatsNormal copy() {
         return new StatsNormal(columnName, type);
     }
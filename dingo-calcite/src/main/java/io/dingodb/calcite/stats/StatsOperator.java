@@ -47,25 +47,30 @@ public abstract class StatsOperator {
     public static final String TABLE_BUCKETS = "table_buckets";
     public static final String TABLE_STATS = "table_stats";
     public static final String CM_SKETCH = "cm_sketch";
+    public static final String REGION_STATS = "region_stats";
 
     public static Table analyzeTaskTable;
     public static Table bucketsTable;
     public static Table statsTable;
     public static Table cmSketchTable;
+    public static Table regionStatsTable;
     public static CommonId analyzeTaskTblId;
     public static CommonId bucketsTblId;
     public static CommonId statsTblId;
     public static CommonId cmSketchTblId;
+    public static CommonId regionStatsTblId;
 
     public static KeyValueCodec analyzeTaskCodec;
     public static KeyValueCodec bucketsCodec;
     public static KeyValueCodec statsCodec;
     public static KeyValueCodec cmSketchCodec;
+    public static KeyValueCodec regionStatsCodec;
 
     public static StoreInstance analyzeTaskStore;
     public static StoreInstance bucketsStore;
     public static StoreInstance statsStore;
     public static StoreInstance cmSketchStore;
+    public static StoreInstance regionStatsStore;
 
     static {
         try {
@@ -93,6 +98,12 @@ public abstract class StatsOperator {
             statsStore = storeService.getInstance(statsTblId, getRegionId(statsTblId));
             cmSketchStore = storeService
                 .getInstance(cmSketchTblId, getRegionId(cmSketchTblId));
+            // last, clusters initialized before region stats existed keep the other stores
+            regionStatsTable = metaService.getTable(REGION_STATS);
+            regionStatsTblId = regionStatsTable.tableId;
+            regionStatsCodec = CodecService.getDefault()
+                .createKeyValueCodec(regionStatsTable.tupleType(), regionStatsTable.keyMapping());
+            regionStatsStore = storeService.getInstance(regionStatsTblId, getRegionId(regionStatsTblId));
         } catch (Exception e) {
         }
     }
@@ -134,6 +145,13 @@ public abstract class StatsOperator {
             tuple[0] = schemaName;
             tuple[1] = tableName;
             delStats(bucketsStore, bucketsCodec, tuple);
+
+            if (regionStatsStore != null) {
+                tuple = new Object[6];
+                tuple[0] = schemaName;
+                tuple[1] = tableName;
+                delStats(regionStatsStore, regionStatsCodec, tuple);
+            }
         } catch (Exception ignored) {
         }
     }
@@ -159,6 +177,16 @@ public abstract class StatsOperator {
         }
     }
 
+    public static List<Object[]> scan(StoreInstance store, KeyValueCodec codec, Object[] prefixTuple) {
+        byte[] prefix = codec.encodeKeyPrefix(prefixTuple, calculatePrefixCount(prefixTuple));
+        Iterator<KeyValue> iterator = store.scan(new StoreInstance.Range(prefix, prefix, true, true));
+        List<Object[]> list = new ArrayList<>();
+        while (iterator.hasNext()) {
+            list.add(codec.decode(iterator.next()));
+        }
+        return list;
+    }
+
     public static Object[] get(StoreInstance store, KeyValueCodec codec, Object[] key) {
         try {
             KeyValue keyValue = store.get(codec.encodeKey(key));
@@ -17,6 +17,7 @@
 package io.dingodb.calcite.stats;
 
 import lombok.Getter;
+import lombok.Setter;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -37,6 +38,17 @@ public class TableStats {
     @Getter
     private final List<StatsNormal> statsNormalList;
 
+    /**
+     * rows read and rows fed to the statistics, they differ when ANALYZE uses block sampling.
+     */
+    @Getter
+    @Setter
+    private long scannedRows;
+
+    @Getter
+    @Setter
+    private long sampledRows;
+
     public TableStats(
                       List<CountMinSketch> countMinSketchList,
                       List<Histogram> histogramList,
@@ -71,11 +83,14 @@ public class TableStats {
 
     public static void mergeStats(List<TableStats> tableStatsList) {
         tableStatsList.forEach(TableStats::setNdv);
+        long scanned = tableStatsList.stream().mapToLong(TableStats::getScannedRows).sum();
+        long sampled = tableStatsList.stream().mapToLong(TableStats::getSampledRows).sum();
         // one region do not need merge
         if (tableStatsList.size() == 1) {
             List<StatsNormal> statsNormalList;
             if ((statsNormalList = tableStatsList.get(0).statsNormalList) != null) {
                 statsNormalList.forEach(StatsNormal::calculateAvgColSize);
+                extrapolate(statsNormalList, scanned, sampled);
             }
             return;
         }
@@ -114,11 +129,19 @@ public class TableStats {
                 }
                 statsNormal.calculateAvgColSize();
             }
+            extrapolate(firstStatsNormalList, scanned, sampled);
         }
 
         tableStatsList.forEach(TableStats::clear);
     }
 
+    private static void extrapolate(List<StatsNormal> statsNormalList, long scanned, long sampled) {
+        if (sampled > 0 && sampled < scanned) {
+            double factor = scanned / (double) sampled;
+            statsNormalList.forEach(statsNormal -> statsNormal.scale(factor));
+        }
+    }
+
     public String getIdentifier() {
         return schemaName.toUpperCase() + "." + tableName.toUpperCase();
     }
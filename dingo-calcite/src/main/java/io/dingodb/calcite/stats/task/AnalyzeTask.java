@@ -18,25 +18,19 @@ package io.dingodb.calcite.stats.task;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.collect.Iterators;
 import io.dingodb.calcite.stats.AnalyzeInfo;
 import io.dingodb.calcite.stats.CountMinSketch;
 import io.dingodb.calcite.stats.Histogram;
+import io.dingodb.calcite.stats.RegionStats;
 import io.dingodb.calcite.stats.StatsCache;
 import io.dingodb.calcite.stats.StatsNormal;
 import io.dingodb.calcite.stats.StatsOperator;
 import io.dingodb.calcite.stats.StatsTaskState;
 import io.dingodb.calcite.stats.TableStats;
-import io.dingodb.codec.CodecService;
 import io.dingodb.common.CommonId;
-import io.dingodb.common.CoprocessorV2;
 import io.dingodb.common.concurrent.Executors;
 import io.dingodb.common.log.LogUtils;
 import io.dingodb.common.partition.RangeDistribution;
-import io.dingodb.common.store.KeyValue;
-import io.dingodb.common.type.DingoType;
-import io.dingodb.common.type.DingoTypeFactory;
-import io.dingodb.common.type.TupleMapping;
 import io.dingodb.common.type.scalar.DateType;
 import io.dingodb.common.type.scalar.DecimalType;
 import io.dingodb.common.type.scalar.DoubleType;
@@ -46,47 +40,39 @@ import io.dingodb.common.type.scalar.LongType;
 import io.dingodb.common.type.scalar.StringType;
 import io.dingodb.common.type.scalar.TimeType;
 import io.dingodb.common.type.scalar.TimestampType;
-import io.dingodb.exec.Services;
-import io.dingodb.exec.expr.DingoCompileContext;
-import io.dingodb.exec.expr.DingoRelConfig;
-import io.dingodb.exec.utils.SchemaWrapperUtils;
-import io.dingodb.expr.rel.RelOp;
-import io.dingodb.expr.rel.op.RelOpBuilder;
-import io.dingodb.expr.runtime.expr.Expr;
-import io.dingodb.expr.runtime.expr.Exprs;
-import io.dingodb.expr.runtime.type.TupleType;
-import io.dingodb.expr.coding.CodingFlag;
-import io.dingodb.expr.coding.RelOpCoder;
 import io.dingodb.meta.MetaService;
-import io.dingodb.meta.entity.Column;
 import io.dingodb.meta.entity.Table;
-import io.dingodb.store.api.StoreInstance;
 import io.dingodb.tso.TsoService;
 import lombok.Builder;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
-import java.io.ByteArrayOutputStream;
 import java.sql.Timestamp;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
-import static io.dingodb.common.util.NoBreakFunctions.wrap;
 
 @Builder
 @Slf4j
 @ToString
 public class AnalyzeTask extends StatsOperator implements Runnable {
+    private static final int DEFAULT_SAMPLES = 100000;
+    private static final int MAX_SAMPLES = 1000000;
+    /**
+     * a saved region state is reused while the region has fewer raft commits since than this fraction of its rows.
+     */
+    private static final double REGION_MODIFY_RATE = 0.1;
+    private static final long REGION_MODIFY_MIN = 1000;
+
     private String schemaName;
     private String tableName;
     private List<String> columnList;
@@ -103,6 +89,11 @@ public class AnalyzeTask extends StatsOperator implements Runnable {
     @Builder.Default
     private long timeout = 50000;
 
+    /**
+     * restore regions modified little since the last collection instead of rescanning them.
+     */
+    private boolean incremental;
+
 
     @Override
     public void run() {
@@ -132,19 +123,38 @@ public class AnalyzeTask extends StatsOperator implements Runnable {
             // varchar -> count-min-sketch  int,float,double,date,time,timestamp -> histogram
             // ndv, nullCount -> normal
             typeMetricAdaptor(td, histogramList, cmSketchList, statsNormals, cmSketchWidth, cmSketchHeight);
-            // par scan get min, max
-            // histogram equ-width need max, min
-            buildHistogram(histogramList, rangeDistributions, tableId, td);
-
-            LogUtils.info(log, "collect stats start");
-            List<TableStats> statsList = null;
+            // histograms are built equi-depth from a per region reservoir sample, no min/max pass is needed
+            int sampleSize = (int) (samples > 0 ? Math.min(samples, MAX_SAMPLES) : DEFAULT_SAMPLES);
+            histogramList.forEach(histogram -> histogram.initSample(sampleSize));
+
+            // regions modified little since their saved collecting state are restored instead of rescanned
+            Map<Long, Long> commitIndexes = regionCommitIndexes(tableId);
+            Map<Long, Object[]> savedStats = loadRegionStats();
+            List<TableStats> statsList = new ArrayList<>();
+            List<RangeDistribution> changedRegions = new ArrayList<>();
+            for (RangeDistribution region : rangeDistributions) {
+                TableStats restored = null;
+                if (incremental) {
+                    long regionId = region.getId().seq;
+                    restored = restoreRegionStats(region, savedStats.get(regionId), commitIndexes.get(regionId),
+                        histogramList, cmSketchList, statsNormals);
+                }
+                if (restored == null) {
+                    changedRegions.add(region);
+                } else {
+                    statsList.add(restored);
+                }
+            }
+            LogUtils.info(log, "collect stats start, regions: {}, restored: {}",
+                rangeDistributions.size(), statsList.size());
             try {
-                List<CompletableFuture<TableStats>> futureList = getCompletableFutures(td, tableId, rangeDistributions,
+                List<CompletableFuture<TableStats>> futureList = getCompletableFutures(td, tableId, changedRegions,
                     cmSketchList, statsNormals, histogramList);
-                statsList = new ArrayList<>();
-                for (CompletableFuture<TableStats> completableFuture : futureList) {
+                for (int i = 0; i < futureList.size(); i++) {
                     try {
-                        statsList.add(completableFuture.get());
+                        TableStats stats = futureList.get(i).get();
+                        saveRegionStats(changedRegions.get(i), stats, commitIndexes);
+                        statsList.add(stats);
                     } catch (InterruptedException | ExecutionException e) {
                         failReason = e.getMessage();
                         LogUtils.error(log, e.getMessage(), e);
@@ -155,12 +165,15 @@ public class AnalyzeTask extends StatsOperator implements Runnable {
                 failReason = e.getMessage();
                 LogUtils.error(log, e.getMessage(), e);
             }
+            dropRegionStats(savedStats, rangeDistributions);
             // merge regions stats
-            if (statsList == null) {
+            if (!StringUtils.isBlank(failReason) || statsList.isEmpty()) {
+                endAnalyzeTask(failReason, rowCount);
                 return;
             }
             TableStats.mergeStats(statsList);
             TableStats tableStats = statsList.get(0);
+            tableStats.getHistogramList().forEach(histogram -> histogram.buildEquiDepth(bucketCount));
 
             // save stats to store
             addHistogram(tableStats.getHistogramList());
@@ -177,6 +190,75 @@ public class AnalyzeTask extends StatsOperator implements Runnable {
         endAnalyzeTask(failReason, rowCount);
     }
 
+    private static Map<Long, Long> regionCommitIndexes(CommonId tableId) {
+        if (regionStatsStore == null) {
+            return Collections.emptyMap();
+        }
+        try {
+            return MetaService.root().getTableRegionCommitCount().getOrDefault(tableId, Collections.emptyMap());
+        } catch (Exception e) {
+            LogUtils.error(log, e.getMessage(), e);
+            return Collections.emptyMap();
+        }
+    }
+
+    private Map<Long, Object[]> loadRegionStats() {
+        if (regionStatsStore == null) {
+            return Collections.emptyMap();
+        }
+        Object[] prefix = new Object[regionStatsTable.getColumns().size()];
+        prefix[0] = schemaName;
+        prefix[1] = tableName;
+        return scan(regionStatsStore, regionStatsCodec, prefix).stream()
+            .collect(Collectors.toMap(values -> (Long) values[2], values -> values));
+    }
+
+    private static TableStats restoreRegionStats(RangeDistribution region,
+                                                 Object[] saved,
+                                                 Long commitIndex,
+                                                 List<Histogram> histograms,
+                                                 List<CountMinSketch> cmSketches,
+                                                 List<StatsNormal> statsNormals) {
+        if (saved == null || commitIndex == null || saved[3] == null || commitIndex < (Long) saved[3]) {
+            return null;
+        }
+        TableStats stats = RegionStats.deserialize((String) saved[4], region, histograms, cmSketches, statsNormals);
+        if (stats == null) {
+            return null;
+        }
+        long modify = commitIndex - (Long) saved[3];
+        if (modify > Math.max(REGION_MODIFY_MIN, stats.getScannedRows() * REGION_MODIFY_RATE)) {
+            return null;
+        }
+        return stats;
+    }
+
+    private void saveRegionStats(RangeDistribution region, TableStats stats, Map<Long, Long> commitIndexes) {
+        Long commitIndex = commitIndexes.get(region.getId().seq);
+        if (regionStatsStore == null || commitIndex == null) {
+            return;
+        }
+        try {
+            upsert(regionStatsStore, regionStatsCodec, Collections.singletonList(new Object[] {
+                schemaName, tableName, region.getId().seq, commitIndex, RegionStats.serialize(region, stats),
+                new Timestamp(System.currentTimeMillis())
+            }));
+        } catch (Exception e) {
+            LogUtils.error(log, e.getMessage(), e);
+        }
+    }
+
+    private void dropRegionStats(Map<Long, Object[]> savedStats, List<RangeDistribution> rangeDistributions) {
+        Set<Long> regionIds = rangeDistributions.stream().map(region -> region.getId().seq).collect(Collectors.toSet());
+        savedStats.forEach((regionId, values) -> {
+            if (!regionIds.contains(regionId)) {
+                Object[] key = new Object[values.length];
+                System.arraycopy(values, 0, key, 0, 3);
+                delStats(regionStatsStore, regionStatsCodec, key);
+            }
+        });
+    }
+
     private List<CompletableFuture<TableStats>> getCompletableFutures(
         Table td,
         CommonId tableId,
@@ -188,7 +270,7 @@ public class AnalyzeTask extends StatsOperator implements Runnable {
         long scanTs = TsoService.getDefault().tso();
         List<CompletableFuture<TableStats>> futureList = rangeDistributions.stream().map(_i -> {
             Callable<TableStats> collectStatsTask = new CollectStatsTask(
-                _i, tableId, td, columnHistograms, cmSketchList, statsNormals, scanTs, timeout
+                _i, tableId, td, columnHistograms, cmSketchList, statsNormals, scanTs, timeout, sampleRate
             );
             return Executors.submit("collect-task", collectStatsTask);
         }).collect(Collectors.toList());
@@ -279,54 +361,6 @@ public class AnalyzeTask extends StatsOperator implements Runnable {
         StatsCache.statsMap.put(tableStats.getIdentifier(), tableStats);
     }
 
-    private void buildHistogram(List<Histogram> histogramList,
-                                List<RangeDistribution> rangeDistributions,
-                                CommonId tableId,
-                                Table td) {
-        if (!histogramList.isEmpty()) {
-            List<Iterator<Object[]>> iteratorList = rangeDistributions.stream().map(region -> {
-                DingoType outputSchema = DingoTypeFactory.tuple(
-                    histogramList.stream().flatMap(histogram ->
-                        Arrays.stream(new DingoType[]{histogram.getDingoType(),
-                            histogram.getDingoType()})).toArray(DingoType[]::new));
-                TupleMapping outputKeyMapping = TupleMapping.of(
-                    IntStream.range(0, 0).boxed().collect(Collectors.toList())
-                );
-                CoprocessorV2 coprocessor = getCoprocessor(td, histogramList, outputSchema);
-                if (coprocessor == null) {
-                    return null;
-                }
-                byte[] startKey = region.getStartKey();
-                byte[] endKey = region.getEndKey();
-                CodecService.getDefault().setId(startKey, region.getId().domain);
-                CodecService.getDefault().setId(endKey, region.getId().domain);
-                StoreInstance kvStore = Services.KV_STORE.getInstance(tableId, region.getId());
-
-                Iterator<KeyValue> iterator = kvStore.txnScan(
-                    TsoService.getDefault().tso(),
-                    new StoreInstance.Range(startKey, endKey,
-                       true, true),
-                    30000,
-                    coprocessor
-                );
-                return Iterators.transform(iterator, wrap(CodecService.getDefault().createKeyValueCodec(outputSchema, outputKeyMapping)::decode)::apply);
-            }).collect(Collectors.toList());
-            for (Iterator<Object[]> iterator : iteratorList) {
-                if (iterator == null) {
-                    continue;
-                }
-                while (iterator.hasNext()) {
-                    Object[] tuples = iterator.next();
-                    for (int i = 0; i < histogramList.size(); i ++) {
-                        histogramList.get(i).setRegionMax(tuples[2 * i]);
-                        histogramList.get(i).setRegionMin(tuples[2 * i + 1]);
-                    }
-                }
-            }
-            histogramList.forEach(histogram -> histogram.init(bucketCount));
-        }
-    }
-
     private void startAnalyzeTask(CommonId tableId) {
         Object[] values = get(analyzeTaskStore, analyzeTaskCodec, getAnalyzeTaskKeys(schemaName, tableName));
         if (values == null) {
@@ -405,50 +439,4 @@ public class AnalyzeTask extends StatsOperator implements Runnable {
             return "";
         }
     }
-
-    public static CoprocessorV2 getCoprocessor(Table table, List<Histogram> histograms, DingoType outputSchema) {
-        CommonId tableId = table.tableId;
-        List<DingoType> dingoTypes = table.getColumns().stream().map(Column::getType).collect(Collectors.toList());
-        DingoType schema = DingoTypeFactory.tuple(dingoTypes.toArray(new DingoType[]{}));
-
-        DingoRelConfig config = new DingoRelConfig();
-        Expr[] exprs = histograms.stream()
-            .flatMap(histogram ->
-                Arrays.stream(new Expr[]{makeMaxAgg(histogram.getIndex()), makeMinAgg(histogram.getIndex())})
-            ).toArray(Expr[]::new);
-        RelOp relOp = RelOpBuilder.builder().agg(exprs).build();
-
-        relOp = relOp.compile(new DingoCompileContext(
-            (TupleType) schema.getType(),
-            (TupleType) DingoTypeFactory.tuple(new DingoType[0]).getType()
-        ), config);
-
-        CoprocessorV2 coprocessor;
-        ByteArrayOutputStream os = new ByteArrayOutputStream();
-        if (RelOpCoder.INSTANCE.visit(relOp, os) == CodingFlag.OK) {
-            List<Integer> selection = IntStream.range(0, schema.fieldCount())
-                .boxed()
-                .collect(Collectors.toList());
-            TupleMapping outputKeyMapping = TupleMapping.of(new int[]{});
-            coprocessor = CoprocessorV2.builder()
-                .originalSchema(SchemaWrapperUtils.buildSchemaWrapper(schema, table.keyMapping(), tableId.seq))
-                .resultSchema(SchemaWrapperUtils.buildSchemaWrapper(outputSchema, outputKeyMapping, tableId.seq))
-                .selection(selection)
-                .relExpr(os.toByteArray())
-                .schemaVersion(table.getVersion())
-                .build();
-            return coprocessor;
-        }
-        return null;
-    }
-
-    private static Expr makeMaxAgg(int index) {
-        Expr var = DingoCompileContext.createTupleVar(index);
-        return Exprs.op(Exprs.MAX_AGG, var);
-    }
-
-    private static Expr makeMinAgg(int index) {
-        Expr var = DingoCompileContext.createTupleVar(index);
-        return Exprs.op(Exprs.MIN_AGG, var);
-    }
 }
@@ -16,7 +16,6 @@
 
 package io.dingodb.calcite.stats.task;
 
-import com.google.common.collect.Iterators;
 import io.dingodb.calcite.stats.CountMinSketch;
 import io.dingodb.calcite.stats.Histogram;
 import io.dingodb.calcite.stats.StatsNormal;
@@ -28,28 +27,33 @@ import io.dingodb.common.log.LogUtils;
 import io.dingodb.common.partition.RangeDistribution;
 import io.dingodb.common.store.KeyValue;
 import io.dingodb.exec.Services;
-import io.dingodb.exec.table.Part;
-import io.dingodb.exec.table.PartInKvStore;
 import io.dingodb.meta.entity.Table;
 import io.dingodb.store.api.StoreInstance;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
-import static io.dingodb.common.util.NoBreakFunctions.wrap;
-
 /**
  * collect region statistic. If the table has multiple partitions,
  * create multiple concurrent tasks,Then merge region statistics
  */
 @Slf4j
 public class CollectStatsTask implements Callable<TableStats> {
-    Iterator<Object[]> tupleIterator;
+    /**
+     * rows per sampling block, a block is either fed to the statistics as a whole or skipped undecoded.
+     */
+    private static final int SAMPLE_BLOCK = 256;
+
+    Iterator<KeyValue> kvIterator;
+    KeyValueCodec codec;
+    float sampleRate;
     List<Histogram> columnHistogramList;
     List<CountMinSketch> minSketchList;
     Map<String, StatsNormal> statsNormalMap;
@@ -63,6 +67,7 @@ public class CollectStatsTask implements Callable<TableStats> {
      * @param columnHistograms columnHistogram :  Unified template (All region histograms must have the same parameters)
      * @param minSketches minSketch : Unified template
      * @param statsNormals statsNormal : distinct val,null count
+     * @param sampleRate fraction of row blocks to collect, values outside (0, 1) collect every row
      */
     public CollectStatsTask(RangeDistribution region,
                             CommonId tableId,
@@ -71,40 +76,46 @@ public class CollectStatsTask implements Callable<TableStats> {
                             List<CountMinSketch> minSketches,
                             List<StatsNormal> statsNormals,
                             long scanTs,
-                            long timeout) {
+                            long timeout,
+                            float sampleRate) {
         boolean isTxn = td.getEngine().contains("TXN");
         StoreInstance kvStore = Services.KV_STORE.getInstance(tableId, region.id());
-        KeyValueCodec codec = CodecService.getDefault().createKeyValueCodec(tableId, td.tupleType(), td.keyMapping());
+        codec = CodecService.getDefault().createKeyValueCodec(tableId, td.tupleType(), td.keyMapping());
+        StoreInstance.Range range = new StoreInstance.Range(
+            region.getStartKey(), region.getEndKey(), region.isWithStart(), true
+        );
         if (!isTxn) {
-            Part part = new PartInKvStore(
-                kvStore,
-                codec
-            );
-            tupleIterator = part.scan(region.getStartKey(), region.getEndKey(),
-                region.isWithStart(), true);
+            kvIterator = kvStore.scan(range);
         } else {
-            Iterator<KeyValue> iterator = kvStore.txnScan(
-                scanTs,
-                new StoreInstance.Range(region.getStartKey(), region.getEndKey(), region.isWithStart(), true),
-                timeout
-            );
-            tupleIterator = Iterators.transform(iterator,
-                wrap(codec::decode)::apply
-            );
+            kvIterator = kvStore.txnScan(scanTs, range, timeout);
         }
+        this.sampleRate = sampleRate;
         this.minSketchList = minSketches.stream().map(CountMinSketch::copy)
             .collect(Collectors.toList());
         columnHistogramList = columnHistograms.stream().map(Histogram::copy)
             .collect(Collectors.toList());
         statsNormalMap = statsNormals.stream()
-            .collect(Collectors.toMap(StatsNormal::getColumnName, StatsNormal::copy));
+            .collect(Collectors.toMap(StatsNormal::getColumnName, StatsNormal::copy, (a, b) -> a, LinkedHashMap::new));
     }
 
     @Override
     public TableStats call() {
         LogUtils.info(log, "collect iterator start");
-        while (tupleIterator.hasNext()) {
-            Object[] tuples = tupleIterator.next();
+        boolean sampling = sampleRate > 0 && sampleRate < 1;
+        boolean keep = true;
+        long scanned = 0;
+        long sampled = 0;
+        while (kvIterator.hasNext()) {
+            KeyValue keyValue = kvIterator.next();
+            if (sampling && scanned % SAMPLE_BLOCK == 0) {
+                keep = ThreadLocalRandom.current().nextFloat() < sampleRate;
+            }
+            scanned++;
+            if (!keep) {
+                continue;
+            }
+            sampled++;
+            Object[] tuples = codec.decode(keyValue);
             if (columnHistogramList.size() > 0) {
                 columnHistogramList.forEach(e -> {
                     Object val = tuples[e.getIndex()];
@@ -120,9 +131,12 @@ public class CollectStatsTask implements Callable<TableStats> {
                 });
             }
         }
-        LogUtils.info(log, "collect iterator end...");
-        return new TableStats(minSketchList, columnHistogramList,
+        LogUtils.info(log, "collect iterator end, scanned: {}, sampled: {}", scanned, sampled);
+        TableStats tableStats = new TableStats(minSketchList, columnHistogramList,
             new ArrayList<>(statsNormalMap.values()));
+        tableStats.setScannedRows(scanned);
+        tableStats.setSampledRows(sampled);
+        return tableStats;
     }
 
 }
@@ -54,7 +54,8 @@ public class DingoAggregateVisitFun {
         public Vertex get() {
             AggregateParams params = new AggregateParams(
                 AggFactory.getAggKeys(rel.getGroupSet()),
-                AggFactory.getAggList(rel.getAggCallList(), DefinitionMapper.mapToDingoType(input.getRowType()))
+                AggFactory.getAggList(rel.getAggCallList(), DefinitionMapper.mapToDingoType(input.getRowType())),
+                DefinitionMapper.mapToDingoType(rel.getRowType())
             );
             return new Vertex(AGGREGATE, params);
         }
@@ -43,7 +43,8 @@ public class DingoReduceVisitFun {
         ReduceParam param = new ReduceParam(AggFactory.getAggKeys(rel.getGroupSet()),
             AggFactory.getAggList(rel.getAggregateCallList(),
                 DefinitionMapper.mapToDingoType(rel.getOriginalInputType())
-            )
+            ),
+            DefinitionMapper.mapToDingoType(rel.getRowType())
         );
         Vertex vertex = new Vertex(REDUCE, param);
         Vertex input = sole(inputs);
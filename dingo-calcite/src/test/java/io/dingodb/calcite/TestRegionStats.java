@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.calcite;
+
+import io.dingodb.calcite.stats.CountMinSketch;
+import io.dingodb.calcite.stats.Histogram;
+import io.dingodb.calcite.stats.RegionStats;
+import io.dingodb.calcite.stats.StatsNormal;
+import io.dingodb.calcite.stats.TableStats;
+import io.dingodb.common.CommonId;
+import io.dingodb.common.partition.RangeDistribution;
+import io.dingodb.common.type.scalar.IntegerType;
+import io.dingodb.common.type.scalar.StringType;
+import org.apache.calcite.sql.SqlKind;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestRegionStats {
+    private static final Histogram HISTOGRAM = new Histogram("dingo", "demo", "id", null, 0);
+    private static final CountMinSketch CM_SKETCH = new CountMinSketch("dingo", "demo", "name", 1, 1000, 5);
+    private static final List<StatsNormal> STATS_NORMALS = Arrays.asList(
+        new StatsNormal("id", new IntegerType(true)), new StatsNormal("name", new StringType(true))
+    );
+
+    static {
+        HISTOGRAM.initSample(1000);
+    }
+
+    private static RangeDistribution region(long id, byte start, byte end) {
+        return RangeDistribution.builder()
+            .id(new CommonId(CommonId.CommonType.DISTRIBUTION, 1, id))
+            .startKey(new byte[]{start})
+            .endKey(new byte[]{end})
+            .build();
+    }
+
+    private static TableStats collect(int from, int to) {
+        Histogram histogram = HISTOGRAM.copy();
+        CountMinSketch countMinSketch = CM_SKETCH.copy();
+        StatsNormal idStats = STATS_NORMALS.get(0).copy();
+        StatsNormal nameStats = STATS_NORMALS.get(1).copy();
+        for (int i = from; i < to; i++) {
+            histogram.addValue(i);
+            idStats.addVal(i);
+            String name = "name" + (i % 10);
+            countMinSketch.setString(name);
+            nameStats.addVal(name);
+        }
+        TableStats stats = new TableStats(
+            Collections.singletonList(countMinSketch),
+            Collections.singletonList(histogram),
+            Arrays.asList(idStats, nameStats)
+        );
+        stats.setScannedRows(to - from);
+        stats.setSampledRows(to - from);
+        return stats;
+    }
+
+    @Test
+    public void testRestoreAndMerge() {
+        RangeDistribution region1 = region(1, (byte) 0, (byte) 10);
+        RangeDistribution region2 = region(2, (byte) 10, (byte) 20);
+        String saved = RegionStats.serialize(region1, collect(0, 5000));
+
+        TableStats restored = RegionStats.deserialize(saved, region1,
+            Collections.singletonList(HISTOGRAM), Collections.singletonList(CM_SKETCH), STATS_NORMALS);
+        assertNotNull(restored);
+        List<TableStats> statsList = Arrays.asList(restored, collect(5000, 10000));
+        TableStats.mergeStats(statsList);
+        TableStats tableStats = statsList.get(0);
+        tableStats.getHistogramList().get(0).buildEquiDepth(100);
+        tableStats.initRowCount();
+
+        assertEquals(10000, tableStats.getRowCount());
+        assertTrue(Math.abs(tableStats.getStatsNormalList().get(0).getNdv() - 10000) < 300);
+        assertEquals(10L, tableStats.getStatsNormalList().get(1).getNdv().longValue());
+        double lt = tableStats.getHistogramList().get(0).estimateSelectivity(SqlKind.LESS_THAN, 5000);
+        assertTrue(Math.abs(lt - 0.5) < 0.1);
+        double eq = tableStats.getCountMinSketchList().get(0).estimateSelectivity(SqlKind.EQUALS, "name3");
+        assertTrue(Math.abs(eq - 0.1) < 0.02);
+
+        // saved for another range, e.g. before a split
+        assertNull(RegionStats.deserialize(saved, region2,
+            Collections.singletonList(HISTOGRAM), Collections.singletonList(CM_SKETCH), STATS_NORMALS));
+        // collected with another sample size
+        Histogram other = new Histogram("dingo", "demo", "id", null, 0);
+        other.initSample(2000);
+        assertNull(RegionStats.deserialize(saved, region1,
+            Collections.singletonList(other), Collections.singletonList(CM_SKETCH), STATS_NORMALS));
+    }
+}
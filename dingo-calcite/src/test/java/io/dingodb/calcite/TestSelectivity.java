@@ -18,6 +18,8 @@ package io.dingodb.calcite;
 
 import io.dingodb.calcite.stats.CountMinSketch;
 import io.dingodb.calcite.stats.Histogram;
+import io.dingodb.calcite.stats.StatsNormal;
+import io.dingodb.common.type.scalar.IntegerType;
 import org.apache.calcite.sql.SqlKind;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -29,6 +31,8 @@ import java.util.List;
 import java.util.Random;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestSelectivity {
@@ -101,4 +105,138 @@ public class TestSelectivity {
         assertTrue(() -> Math.abs(estimateSelectivity.doubleValue() - realSelectivity.doubleValue()) < 0.10);
     }
 
+    @Test
+    public void testEquiDepthHistogram() {
+        // two regions of skewed data, 30% of the rows hold the value 7
+        Random random = new Random(1);
+        Histogram template = new Histogram("dingo", "demo", "id", null, 0);
+        template.initSample(10000);
+        Histogram region1 = template.copy();
+        Histogram region2 = template.copy();
+        int total = 200000;
+        long lessThan = 0;
+        long hot = 0;
+        for (int i = 0; i < total; i++) {
+            int val = random.nextInt(10) < 3 ? 7 : random.nextInt(1000000);
+            if (val < 100000) {
+                lessThan++;
+            }
+            if (val == 7) {
+                hot++;
+            }
+            (i % 2 == 0 ? region1 : region2).addValue(val);
+        }
+        region1.merge(region2);
+        region1.buildEquiDepth(254);
+        Histogram histogram = Histogram.deserialize(region1.serialize());
+        assertNotNull(histogram);
+
+        double eqSelectivity = histogram.estimateSelectivity(SqlKind.EQUALS, 7);
+        assertTrue(Math.abs(eqSelectivity - hot / (double) total) < 0.02);
+        double ltSelectivity = histogram.estimateSelectivity(SqlKind.LESS_THAN, 100000);
+        assertTrue(Math.abs(ltSelectivity - lessThan / (double) total) < 0.02);
+        double gtSelectivity = histogram.estimateSelectivity(SqlKind.GREATER_THAN_OR_EQUAL, 100000);
+        assertTrue(Math.abs(gtSelectivity - (total - lessThan) / (double) total) < 0.02);
+        assertTrue(histogram.estimateSelectivity(SqlKind.EQUALS, 123457) < 0.001);
+        assertEquals(0.0, histogram.estimateSelectivity(SqlKind.GREATER_THAN, 1000000));
+    }
+
+    @Test
+    public void testStatsNormalMerge() {
+        StatsNormal region1 = new StatsNormal("id", new IntegerType(true));
+        StatsNormal region2 = region1.copy();
+        // both regions see the same 5000 values
+        for (int i = 0; i < 10000; i++) {
+            region1.addVal(i % 5000);
+            region2.addVal(i % 5000);
+        }
+        region1.setNdv();
+        region2.setNdv();
+        region1.merge(region2);
+        assertTrue(Math.abs(region1.getNdv() - 5000) < 250);
+        assertEquals(20000, region1.getTotalCount());
+    }
+
+    @Test
+    public void testEquiDepthBuckets() {
+        Histogram histogram = new Histogram("dingo", "demo", "id", null, 0);
+        histogram.initSample(1000);
+        for (int i = 0; i < 1000; i++) {
+            histogram.addValue(i);
+        }
+        histogram.buildEquiDepth(10);
+        // every value is distinct, so no most-common values and 10 buckets of 100 values
+        assertEquals(0.5, histogram.estimateSelectivity(SqlKind.LESS_THAN, 500), 1e-9);
+        assertEquals(0.25, histogram.estimateSelectivity(SqlKind.LESS_THAN, 250), 1e-9);
+        assertEquals(0.001, histogram.estimateSelectivity(SqlKind.EQUALS, 500), 1e-9);
+        assertEquals(0.0, histogram.estimateSelectivity(SqlKind.LESS_THAN, 0));
+        assertEquals(0.0, histogram.estimateSelectivity(SqlKind.EQUALS, 1000));
+    }
+
+    @Test
+    public void testEquiDepthNulls() {
+        Histogram histogram = new Histogram("dingo", "demo", "id", null, 0);
+        histogram.initSample(100);
+        for (int i = 0; i < 100; i++) {
+            histogram.addValue(i % 2 == 0 ? 7 : null);
+        }
+        histogram.buildEquiDepth(10);
+        // the only value goes to the most-common values, the buckets stay empty
+        assertEquals(0.5, histogram.estimateSelectivity(SqlKind.EQUALS, 7), 1e-9);
+        assertEquals(0.5, histogram.estimateSelectivity(SqlKind.IS_NULL, null), 1e-9);
+        assertEquals(0.0, histogram.estimateSelectivity(SqlKind.LESS_THAN, 7));
+        assertEquals(0.0, histogram.estimateSelectivity(SqlKind.GREATER_THAN, 7));
+    }
+
+    @Test
+    public void testEquiDepthEmptySample() {
+        Histogram histogram = new Histogram("dingo", "demo", "id", null, 0);
+        histogram.initSample(100);
+        histogram.addValue(null);
+        histogram.buildEquiDepth(10);
+        assertEquals(0.0, histogram.estimateSelectivity(SqlKind.EQUALS, 7));
+        assertEquals(1.0, histogram.estimateSelectivity(SqlKind.IS_NULL, null));
+    }
+
+    @Test
+    public void testStatsNormalScale() {
+        StatsNormal unique = new StatsNormal("id", new IntegerType(true));
+        StatsNormal repeated = unique.copy();
+        for (int i = 0; i < 1000; i++) {
+            unique.addVal(i);
+            repeated.addVal(i % 10);
+        }
+        for (int i = 0; i < 100; i++) {
+            repeated.addVal(null);
+        }
+        unique.setNdv();
+        repeated.setNdv();
+
+        // a column that is unique in the sample is taken as unique in the table
+        unique.scale(10);
+        assertEquals(10000, unique.getTotalCount());
+        assertTrue(Math.abs(unique.getNdv() - 10000) < 500);
+        assertTrue(unique.getNdv() <= 10000);
+
+        // otherwise the sample is assumed to have seen the distinct values
+        repeated.scale(10);
+        assertEquals(11000, repeated.getTotalCount());
+        assertEquals(1000, repeated.getNumNull());
+        assertEquals(10, repeated.getNdv());
+    }
+
+    @Test
+    public void testCmSketchMerge() {
+        CountMinSketch region1 = new CountMinSketch("dingo", "demo", "name", 0, 1000, 3);
+        CountMinSketch region2 = region1.copy();
+        for (int i = 0; i < 1000; i++) {
+            region1.setString("zhangsan");
+            region2.setString(i % 2 == 0 ? "zhangsan" : "lisi");
+        }
+        region1.merge(region2);
+        assertEquals(2000, region1.getTotalCount());
+        double selectivity = region1.estimateSelectivity(SqlKind.EQUALS, "zhangsan");
+        assertTrue(selectivity >= 0.75 && selectivity < 0.76);
+    }
+
 }
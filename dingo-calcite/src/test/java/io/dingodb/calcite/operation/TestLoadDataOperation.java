@@ -0,0 +1,82 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.calcite.operation;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestLoadDataOperation {
+    private static final byte[] LF = "\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ESCAPE = "\\".getBytes(StandardCharsets.UTF_8);
+
+    private static List<String> split(byte[] linesTerm, byte @Nullable [] lineStarting, String... chunks)
+        throws InterruptedException {
+        List<String> lines = new ArrayList<>();
+        byte[] pre = null;
+        for (String chunk : chunks) {
+            pre = LoadDataOperation.splitLine(
+                chunk.getBytes(StandardCharsets.UTF_8),
+                pre,
+                linesTerm,
+                lineStarting,
+                ESCAPE,
+                line -> lines.add(new String(line, StandardCharsets.UTF_8))
+            );
+        }
+        if (pre != null) {
+            lines.add("<" + new String(pre, StandardCharsets.UTF_8) + ">");
+        }
+        return lines;
+    }
+
+    @Test
+    public void testSingleChunk() throws InterruptedException {
+        assertThat(split(LF, null, "1,a\n2,b\n3,c")).containsExactly("1,a", "2,b", "<3,c>");
+    }
+
+    @Test
+    public void testLineAcrossChunks() throws InterruptedException {
+        assertThat(split(LF, null, "1,a\n2,", "b\n3", ",c\n")).containsExactly("1,a", "2,b", "3,c");
+    }
+
+    @Test
+    public void testChunkEndsAtTerminator() throws InterruptedException {
+        assertThat(split(LF, null, "1,a\n", "\n2,b\n")).containsExactly("1,a", "", "2,b");
+    }
+
+    @Test
+    public void testTerminatorAcrossChunks() throws InterruptedException {
+        assertThat(split(CRLF, null, "1,a\r", "\n2,b\r\n")).containsExactly("1,a", "2,b");
+    }
+
+    @Test
+    public void testEscapedTerminator() throws InterruptedException {
+        assertThat(split(LF, null, "1,a\\\nb\n2,c\n")).containsExactly("1,a\\\nb", "2,c");
+    }
+
+    @Test
+    public void testEscapeAtChunkEnd() throws InterruptedException {
+        assertThat(split(LF, null, "1,a\\", "\nb\n2,c\n")).containsExactly("1,a\\\nb", "2,c");
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.calcite.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestReservoirSample {
+
+    private static long count(long[] values, long value) {
+        return Arrays.stream(values).filter(v -> v == value).count();
+    }
+
+    @Test
+    public void testBelowCapacity() {
+        ReservoirSample sample = new ReservoirSample(10);
+        for (int i = 5; i > 0; i--) {
+            sample.add(i);
+        }
+        assertEquals(5, sample.seen());
+        assertArrayEquals(new long[]{1, 2, 3, 4, 5}, sample.sorted());
+    }
+
+    @Test
+    public void testUniform() {
+        ReservoirSample sample = new ReservoirSample(10000);
+        for (int i = 0; i < 100000; i++) {
+            sample.add(i);
+        }
+        long[] values = sample.sorted();
+        assertEquals(100000, sample.seen());
+        assertEquals(10000, values.length);
+        // a tenth of the stream is below 10000, so about a tenth of the sample
+        long below = Arrays.stream(values).filter(v -> v < 10000).count();
+        assertTrue(Math.abs(below - 1000) < 150);
+    }
+
+    @Test
+    public void testMergeBelowCapacity() {
+        ReservoirSample sample1 = new ReservoirSample(10);
+        ReservoirSample sample2 = new ReservoirSample(10);
+        sample1.add(1);
+        sample1.add(2);
+        sample2.add(3);
+        sample1.merge(sample2);
+        sample1.merge(new ReservoirSample(10));
+        assertEquals(3, sample1.seen());
+        assertArrayEquals(new long[]{1, 2, 3}, sample1.sorted());
+    }
+
+    @Test
+    public void testMergeWeighted() {
+        // the first region stands for 9 times the rows of the second one
+        ReservoirSample sample1 = new ReservoirSample(1000);
+        ReservoirSample sample2 = new ReservoirSample(1000);
+        for (int i = 0; i < 90000; i++) {
+            sample1.add(0);
+        }
+        for (int i = 0; i < 10000; i++) {
+            sample2.add(1);
+        }
+        sample1.merge(sample2);
+        long[] values = sample1.sorted();
+        assertEquals(100000, sample1.seen());
+        assertEquals(1000, values.length);
+        assertEquals(900, count(values, 0));
+        assertEquals(100, count(values, 1));
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        ReservoirSample sample = new ReservoirSample(100);
+        for (int i = 0; i < 1000; i++) {
+            sample.add(i);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sample.write(new DataOutputStream(bytes));
+        ReservoirSample read = ReservoirSample.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(100, read.capacity());
+        assertEquals(1000, read.seen());
+        assertArrayEquals(sample.sorted(), read.sorted());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.common.concurrent;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-thread scopes of the store scans started by an operator, so that scans still prefetching pages are
+ * cancelled as soon as the operator is done with them, also when it stops consuming early.
+ *
+ * <p>Storage iterators are wrapped several times before they reach the operators, so they register their
+ * cancel action here and the operator exits the scope it entered before creating them. Scopes nest: exiting
+ * one cancels only the scans registered since it was entered. Scans started outside any scope are not
+ * tracked.
+ */
+@Slf4j
+public final class ScanScope {
+    private static final ThreadLocal<Frames> FRAMES = ThreadLocal.withInitial(Frames::new);
+
+    private ScanScope() {
+    }
+
+    /**
+     * Enter a scope on the current thread.
+     *
+     * @return the mark to pass to {@link #exit(int)}
+     */
+    public static int enter() {
+        Frames frames = FRAMES.get();
+        ++frames.depth;
+        return frames.cancels.size();
+    }
+
+    public static void register(Runnable cancel) {
+        Frames frames = FRAMES.get();
+        if (frames.depth > 0) {
+            frames.cancels.add(cancel);
+        }
+    }
+
+    /**
+     * Exit the scope and cancel the scans registered in it, latest first.
+     *
+     * @param mark the mark returned by {@link #enter()}
+     */
+    public static void exit(int mark) {
+        Frames frames = FRAMES.get();
+        --frames.depth;
+        List<Runnable> cancels = frames.cancels;
+        while (cancels.size() > mark) {
+            try {
+                cancels.remove(cancels.size() - 1).run();
+            } catch (RuntimeException e) {
+                log.warn("Cancel scan failed.", e);
+            }
+        }
+    }
+
+    private static final class Frames {
+        private final List<Runnable> cancels = new ArrayList<>();
+        private int depth;
+    }
+}
@@ -52,6 +52,7 @@ public class DingoConfiguration {
     private ExchangeConfiguration exchange = new ExchangeConfiguration();
     private SecurityConfiguration security = new SecurityConfiguration();
     private VariableConfiguration variable = new VariableConfiguration();
+    private ExecConfiguration exec = new ExecConfiguration();
 
     public static synchronized void parse(final String configPath) throws Exception {
         if (configPath != null) {
@@ -60,6 +61,7 @@ public class DingoConfiguration {
         INSTANCE.exchange = INSTANCE.getConfig("exchange", ExchangeConfiguration.class);
         INSTANCE.security = INSTANCE.getConfig("security", SecurityConfiguration.class);
         INSTANCE.variable = INSTANCE.getConfig("variable", VariableConfiguration.class);
+        INSTANCE.exec = INSTANCE.getConfig("exec", ExecConfiguration.class);
     }
 
     private static void copyConfig(Map<String, Object> from, Map<String, Object> to) {
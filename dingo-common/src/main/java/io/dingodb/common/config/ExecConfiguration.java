@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.common.config;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import io.dingodb.common.util.Optional;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.File;
+
+@Getter
+@Setter
+@ToString
+@JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
+public class ExecConfiguration {
+    public static final long DEFAULT_JOIN_MEMORY_BUDGET = 256L * 1024 * 1024;
+    public static final long DEFAULT_SORT_MEMORY_BUDGET = 256L * 1024 * 1024;
+    public static final long DEFAULT_AGG_MEMORY_BUDGET = 256L * 1024 * 1024;
+    public static final int DEFAULT_EXCHANGE_WINDOW = 65536 * 9;
+
+    // Directory for operator spill files, defaults to a sub directory of `java.io.tmpdir`.
+    private String spillPath;
+    // Max bytes of build side tuples held on heap by one hash join, spill to disk if exceeded.
+    private Long joinMemoryBudget;
+    // Max number of workers to build and probe one hash join in parallel.
+    private Integer joinParallelism;
+    // Max bytes of tuples held on heap by one sort, write sorted runs to disk if exceeded.
+    private Long sortMemoryBudget;
+    // Max bytes of groups held on heap by one aggregation, spill cold groups to disk if exceeded.
+    private Long aggMemoryBudget;
+    // Format of tuples sent to other nodes, `avro`, `columnar` or `columnar_compressed`.
+    private String exchangeFormat;
+    // Max bytes in flight of one exchange tag, granted to the sender as credits by the receiver.
+    private Integer exchangeWindow;
+
+    private static ExecConfiguration current() {
+        return DingoConfiguration.instance().getExec();
+    }
+
+    public static String spillPath() {
+        return Optional.ofNullable(current())
+            .map(c -> c.spillPath)
+            .orElse(System.getProperty("java.io.tmpdir") + File.separator + "dingo-spill");
+    }
+
+    public static long joinMemoryBudget() {
+        return Optional.ofNullable(current())
+            .map(c -> c.joinMemoryBudget)
+            .orElse(DEFAULT_JOIN_MEMORY_BUDGET);
+    }
+
+    public static int joinParallelism() {
+        return Optional.ofNullable(current())
+            .map(c -> c.joinParallelism)
+            .orElse(Math.min(Runtime.getRuntime().availableProcessors(), 8));
+    }
+
+    public static long sortMemoryBudget() {
+        return Optional.ofNullable(current())
+            .map(c -> c.sortMemoryBudget)
+            .orElse(DEFAULT_SORT_MEMORY_BUDGET);
+    }
+
+    public static long aggMemoryBudget() {
+        return Optional.ofNullable(current())
+            .map(c -> c.aggMemoryBudget)
+            .orElse(DEFAULT_AGG_MEMORY_BUDGET);
+    }
+
+    public static String exchangeFormat() {
+        return Optional.ofNullable(current())
+            .map(c -> c.exchangeFormat)
+            .orElse("avro");
+    }
+
+    public static int exchangeWindow() {
+        return Optional.ofNullable(current())
+            .map(c -> c.exchangeWindow)
+            .orElse(DEFAULT_EXCHANGE_WINDOW);
+    }
+}
@@ -17,6 +17,7 @@
 package io.dingodb.common.metrics;
 
 import com.codahale.metrics.CachedGauge;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Slf4jReporter;
@@ -103,6 +104,10 @@ public final class DingoMetrics {
         metricRegistry.timer(name).update(durationMs, TimeUnit.MILLISECONDS);
     }
 
+    public static Histogram histogram(final @NonNull String name) {
+        return metricRegistry.histogram(name);
+    }
+
     public static void histogram(final @NonNull String name, final long size) {
         metricRegistry.histogram(name).update(size);
     }
@@ -53,6 +53,17 @@ public class Profile {
     @JsonProperty("hasAutoInc")
     boolean hasAutoInc;
 
+    @JsonProperty("memoryBudget")
+    long memoryBudget;
+    @JsonProperty("spillCount")
+    long spillCount;
+    @JsonProperty("spillRows")
+    long spillRows;
+    @JsonProperty("spillBytes")
+    long spillBytes;
+    @JsonProperty("stallTime")
+    long stallTime;
+
     @JsonProperty("location")
     String location = "";
     @JsonIgnore
@@ -96,8 +107,17 @@ public class Profile {
         if (!"base".equals(profile.type)) {
             dagText.append(node).append(profile.type)
                 .append(",duration:").append(profile.duration)
-                .append(",count:").append(profile.count)
-                .append("  ").append(profile.location).append("\r\n");
+                .append(",count:").append(profile.count);
+            if (profile.spillCount > 0) {
+                dagText.append(",memoryBudget:").append(profile.memoryBudget)
+                    .append(",spillCount:").append(profile.spillCount)
+                    .append(",spillRows:").append(profile.spillRows)
+                    .append(",spillBytes:").append(profile.spillBytes);
+            }
+            if (profile.stallTime > 0) {
+                dagText.append(",stallTime:").append(profile.stallTime);
+            }
+            dagText.append("  ").append(profile.location).append("\r\n");
         }
         for (Profile child : profile.children) {
             byte[] prefix1 = new byte[prefix.length + 2];
@@ -136,6 +156,11 @@ public class Profile {
         this.avg = 0;
         this.hasAutoInc = false;
         this.autoIncId = 0;
+        this.memoryBudget = 0;
+        this.spillCount = 0;
+        this.spillRows = 0;
+        this.spillBytes = 0;
+        this.stallTime = 0;
         this.location = "";
     }
 
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.common.profile;
+
+/**
+ * Per-thread accumulator of the time a scan consumer spent blocked on pages that were not fetched yet.
+ *
+ * <p>Storage iterators are wrapped several times before they reach the operators, so they record stalls
+ * here and the scanning loop reads the delta of {@link #current()} around its own iteration.
+ */
+public final class ScanStall {
+    private static final ThreadLocal<long[]> STALL_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private ScanStall() {
+    }
+
+    public static void record(long nanos) {
+        STALL_NANOS.get()[0] += nanos;
+    }
+
+    public static long current() {
+        return STALL_NANOS.get()[0];
+    }
+}
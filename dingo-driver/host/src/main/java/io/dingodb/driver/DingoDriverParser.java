@@ -22,6 +22,7 @@ import io.dingodb.calcite.DingoParserContext;
 import io.dingodb.calcite.DingoRelOptTable;
 import io.dingodb.calcite.DingoTable;
 import io.dingodb.calcite.grammar.ddl.DingoSqlCreateTable;
+import io.dingodb.calcite.grammar.ddl.SqlAnalyze;
 import io.dingodb.calcite.grammar.ddl.SqlCommit;
 import io.dingodb.calcite.operation.DdlOperation;
 import io.dingodb.calcite.operation.DmlOperation;
@@ -237,6 +238,28 @@ public final class DingoDriverParser extends DingoParser {
         long jobSeqId,
         String sql
     ) {
+        // Read the version before planning, so a plan overlapping with DDL is never cached as up to date.
+        long metaVersion = MetaService.root().cacheVersion();
+        PlanCache.Key planKey = PlanCache.key(sql, getContext());
+        // SHOW, SET, DDL and so on are never cached, so do not look them up.
+        PlanCache.Plan plan = planKey.isCacheable() ? PlanCache.INSTANCE.get(planKey) : null;
+        if (plan != null) {
+            planProfile.endParse();
+            planProfile.setStmtType(plan.getSqlNode().getKind().lowerName);
+            planProfile.endValidator();
+            planProfile.endOptimize();
+            return createJobSignature(
+                jobManager,
+                jobSeqId,
+                sql,
+                plan.getSqlNode(),
+                plan.getRelNode(),
+                plan.getParasType(),
+                plan.getColumns(),
+                plan.getStatementType(),
+                null
+            );
+        }
         SqlNode sqlNode;
         try {
             sqlNode = parse(sql);
@@ -253,6 +276,10 @@ public final class DingoDriverParser extends DingoParser {
         // for compatible mysql protocol
         MysqlSignature mysqlSignature = getMysqlSignature(sql, sqlNode, typeFactory, cursorFactory);
         if (mysqlSignature != null) {
+            if (sqlNode instanceof SqlAnalyze) {
+                // The costs of plans change with the statistics.
+                PlanCache.INSTANCE.clear();
+            }
             return mysqlSignature;
         }
 
@@ -261,6 +288,8 @@ public final class DingoDriverParser extends DingoParser {
             execProfile = new ExecProfile("DDL");
             final DdlExecutor ddlExecutor = PARSER_CONFIG.parserFactory().getDdlExecutor();
             ddlExecutor.executeDdl(connection, sqlNode);
+            // Privileges may be changed too, which are not covered by the meta cache version.
+            PlanCache.INSTANCE.clear();
             execProfile.end();
             return new DingoSignature(
                 ImmutableList.of(),
@@ -307,9 +336,33 @@ public final class DingoDriverParser extends DingoParser {
 
         final RelNode relNode = optimize(relRoot.rel);
         planProfile.endOptimize();
+        RelDataType parasType = validator.getParameterRowType(sqlNode);
+        if (explain == null && !needExport(sqlNode) && planKey.isCacheable()) {
+            PlanCache.INSTANCE.put(
+                planKey,
+                new PlanCache.Plan(metaVersion, sqlNode, relNode, parasType, columns, statementType)
+            );
+        }
+        return createJobSignature(
+            jobManager, jobSeqId, sql, sqlNode, relNode, parasType, columns, statementType, explain
+        );
+    }
+
+    private Meta.Signature createJobSignature(
+        JobManager jobManager,
+        long jobSeqId,
+        String sql,
+        SqlNode sqlNode,
+        RelNode relNode,
+        RelDataType parasType,
+        List<ColumnMetaData> columns,
+        Meta.StatementType statementType,
+        @Nullable SqlExplain explain
+    ) {
+        JavaTypeFactory typeFactory = connection.getTypeFactory();
+        final Meta.CursorFactory cursorFactory = Meta.CursorFactory.ARRAY;
         markAutoIncForDml(relNode);
         Location currentLocation = MetaService.root().currentLocation();
-        RelDataType parasType = validator.getParameterRowType(sqlNode);
         Set<RelOptTable> tables = useTables(relNode, sqlNode);
 
         boolean isTxn = checkEngine(sqlNode, tables, connection.getTransaction(), planProfile);
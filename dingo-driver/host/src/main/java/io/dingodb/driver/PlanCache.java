@@ -0,0 +1,187 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.driver;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import io.dingodb.calcite.DingoParserContext;
+import io.dingodb.common.metrics.DingoMetrics;
+import io.dingodb.meta.MetaService;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.apache.calcite.avatica.ColumnMetaData;
+import org.apache.calcite.avatica.Meta;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.sql.SqlNode;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Server side cache of optimized plans, shared by all connections.
+ *
+ * <p>Plans are keyed by the normalized sql text together with everything of the connection that the planning
+ * depends on, and are dropped once the version of the meta cache changes, i.e. on any DDL seen by this server. Only
+ * queries and DML are cached, which is told by the leading keyword before parsing.
+ */
+public final class PlanCache {
+    public static final PlanCache INSTANCE = new PlanCache(1024);
+
+    private static final Set<String> CACHEABLE_KEYWORDS = ImmutableSet.of(
+        "SELECT", "WITH", "VALUES", "INSERT", "UPDATE", "DELETE"
+    );
+
+    private final Cache<Key, Plan> plans;
+
+    private PlanCache(long capacity) {
+        plans = CacheBuilder.newBuilder().maximumSize(capacity).build();
+    }
+
+    public @Nullable Plan get(@NonNull Key key) {
+        Plan plan = plans.getIfPresent(key);
+        if (plan != null && plan.metaVersion != MetaService.root().cacheVersion()) {
+            plans.invalidate(key);
+            plan = null;
+        }
+        DingoMetrics.meter(plan == null ? "plan_cache_miss" : "plan_cache_hit").mark();
+        return plan;
+    }
+
+    public void put(@NonNull Key key, @NonNull Plan plan) {
+        plans.put(key, plan);
+    }
+
+    public void clear() {
+        plans.invalidateAll();
+    }
+
+    public static @NonNull Key key(@NonNull String sql, @NonNull DingoParserContext context) {
+        return new Key(
+            normalize(sql),
+            context.getDefaultSchemaName(),
+            context.getOption("user"),
+            context.getOption("host"),
+            context.getTimeZone().getID(),
+            context.isUsingRelOp(),
+            context.isPushDown()
+        );
+    }
+
+    /**
+     * Whether the normalized sql is a query or DML, by its leading keyword.
+     */
+    static boolean isCacheable(@NonNull String sql) {
+        int start = 0;
+        while (start < sql.length() && (sql.charAt(start) == '(' || sql.charAt(start) == ' ')) {
+            ++start;
+        }
+        int end = start;
+        while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+            ++end;
+        }
+        return CACHEABLE_KEYWORDS.contains(sql.substring(start, end).toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Collapse whitespaces and comments out of quotes, and strip trailing semicolons. Hints
+     * ({@code /*+ ... *}{@code /}) and executable comments ({@code /*! ... *}{@code /}) are kept. The case is kept too,
+     * for it may change the names of output columns.
+     *
+     * @param sql the sql text
+     * @return the normalized sql text
+     */
+    static @NonNull String normalize(@NonNull String sql) {
+        StringBuilder builder = new StringBuilder(sql.length());
+        char quote = 0;
+        boolean space = false;
+        for (int i = 0; i < sql.length(); ++i) {
+            char ch = sql.charAt(i);
+            if (quote != 0) {
+                builder.append(ch);
+                if (ch == '\\' && i + 1 < sql.length()) {
+                    builder.append(sql.charAt(++i));
+                } else if (ch == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
+            if (sql.startsWith("--", i)) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? sql.length() : end;
+                space = builder.length() > 0;
+                continue;
+            }
+            if (sql.startsWith("/*", i) && !sql.startsWith("/*+", i) && !sql.startsWith("/*!", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? sql.length() : end + 1;
+                space = builder.length() > 0;
+                continue;
+            }
+            if (Character.isWhitespace(ch)) {
+                space = builder.length() > 0;
+                continue;
+            }
+            if (space) {
+                builder.append(' ');
+                space = false;
+            }
+            if (ch == '\'' || ch == '"' || ch == '`') {
+                quote = ch;
+            }
+            builder.append(ch);
+        }
+        int end = builder.length();
+        while (end > 0 && (builder.charAt(end - 1) == ';' || builder.charAt(end - 1) == ' ')) {
+            --end;
+        }
+        builder.setLength(end);
+        return builder.toString();
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    public static final class Key {
+        private final String sql;
+        private final String schema;
+        private final String user;
+        private final String host;
+        private final String timeZone;
+        private final boolean usingRelOp;
+        private final boolean pushDown;
+
+        public boolean isCacheable() {
+            return PlanCache.isCacheable(sql);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Plan {
+        private final long metaVersion;
+        private final SqlNode sqlNode;
+        private final RelNode relNode;
+        private final RelDataType parasType;
+        private final List<ColumnMetaData> columns;
+        private final Meta.StatementType statementType;
+    }
+}
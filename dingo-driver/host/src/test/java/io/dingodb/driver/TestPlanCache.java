@@ -0,0 +1,76 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.driver;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestPlanCache {
+    private static PlanCache.Key key(String sql) {
+        return new PlanCache.Key(PlanCache.normalize(sql), "DINGO", "root", "%", "UTC", false, true);
+    }
+
+    @Test
+    public void testWhitespace() {
+        assertThat(PlanCache.normalize("  select *\n\tfrom  t\r\nwhere a = 1 ;; "))
+            .isEqualTo("select * from t where a = 1");
+        assertThat(key("select * from t")).isEqualTo(key("select  *\nfrom t;"));
+        // Whitespaces in quotes are kept.
+        assertThat(PlanCache.normalize("select 'a  b',  \"c  d\" from t"))
+            .isEqualTo("select 'a  b', \"c  d\" from t");
+        assertThat(key("select 'a b'")).isNotEqualTo(key("select 'a  b'"));
+        assertThat(PlanCache.normalize("select 'it\\'s  ok'  from t")).isEqualTo("select 'it\\'s  ok' from t");
+    }
+
+    @Test
+    public void testCase() {
+        assertThat(PlanCache.normalize("SELECT A FROM T")).isEqualTo("SELECT A FROM T");
+        assertThat(key("select a from t")).isNotEqualTo(key("SELECT A FROM T"));
+        assertThat(key("select a from t")).isNotEqualTo(key("select a from t where b = 'X'"));
+    }
+
+    @Test
+    public void testComments() {
+        assertThat(PlanCache.normalize("select a -- the column\nfrom t")).isEqualTo("select a from t");
+        assertThat(PlanCache.normalize("/* leading */ select a /* inner */ from t -- trailing"))
+            .isEqualTo("select a from t");
+        assertThat(key("select a from t")).isEqualTo(key("select/* c */a from t"));
+        // Hints and executable comments change the plan.
+        assertThat(PlanCache.normalize("select /*+ index(t i) */ a from t"))
+            .isEqualTo("select /*+ index(t i) */ a from t");
+        assertThat(PlanCache.normalize("select /*! 1 */ a from t")).isEqualTo("select /*! 1 */ a from t");
+        // Comment markers in quotes are not comments.
+        assertThat(PlanCache.normalize("select '-- a', '/* b */' from t")).isEqualTo("select '-- a', '/* b */' from t");
+    }
+
+    @Test
+    public void testCacheable() {
+        assertThat(key("select 1").isCacheable()).isTrue();
+        assertThat(key(" (SELECT a FROM t) UNION (SELECT b FROM t)").isCacheable()).isTrue();
+        assertThat(key("with x as (select 1) select * from x").isCacheable()).isTrue();
+        assertThat(key("/* c */ insert into t values(1)").isCacheable()).isTrue();
+        assertThat(key("update t set a = 1").isCacheable()).isTrue();
+        assertThat(key("delete from t").isCacheable()).isTrue();
+        assertThat(key("show tables").isCacheable()).isFalse();
+        assertThat(key("set autocommit = 1").isCacheable()).isFalse();
+        assertThat(key("create table t(a int)").isCacheable()).isFalse();
+        assertThat(key("analyze table t").isCacheable()).isFalse();
+        assertThat(key("explain select 1").isCacheable()).isFalse();
+        assertThat(key("").isCacheable()).isFalse();
+    }
+}
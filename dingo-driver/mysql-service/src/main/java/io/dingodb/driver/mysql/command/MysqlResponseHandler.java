@@ -29,7 +29,6 @@ import io.dingodb.driver.mysql.packet.MysqlPacketFactory;
 import io.dingodb.driver.mysql.packet.OKPacket;
 import io.dingodb.driver.mysql.packet.PreparePacket;
 import io.dingodb.driver.mysql.packet.PrepareResultSetRowPacket;
-import io.dingodb.driver.mysql.packet.ResultSetRowPacket;
 import io.dingodb.exec.exception.TaskFinException;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
@@ -94,8 +93,12 @@ public final class MysqlResponseHandler {
         // 5. eof packet
         boolean deprecateEof = (mysqlConnection.authPacket.extendClientFlags
             & ExtendedClientCapabilities.CLIENT_DEPRECATE_EOF) != 0;
+        MysqlResultWriter writer = null;
         try {
-            ByteBuf buffer = ByteBufAllocator.DEFAULT.buffer();
+            writer = new MysqlResultWriter(mysqlConnection.channel, getCharacterSet(
+                mysqlConnection.getConnection().getClientInfo(CONNECTION_CHARSET)
+            ));
+            ByteBuf buffer = writer.buffer();
             ResultSetMetaData metaData = resultSet.getMetaData();
             ColumnsNumberPacket columnsNumberPacket = new ColumnsNumberPacket();
             columnsNumberPacket.packetId = (byte) packetId.getAndIncrement();
@@ -110,41 +113,45 @@ public final class MysqlResponseHandler {
 
             int initServerStatus = getInitServerStatus((DingoConnection) mysqlConnection.getConnection());
             if (deprecateEof) {
-                handlerRowPacket(resultSet, packetId, mysqlConnection, buffer, columnCount);
+                handlerRowPacket(resultSet, packetId, mysqlConnection, writer, columnCount);
                 OKPacket okEofPacket = factory.getOkEofPacket(
                     0, packetId, initServerStatus
                 );
-                okEofPacket.write(buffer);
+                okEofPacket.write(writer.buffer());
             } else {
                 // intermediate eof
                 factory.getEofPacket(packetId).write(buffer);
                 // row packet...
-                handlerRowPacket(resultSet, packetId, mysqlConnection, buffer, columnCount);
+                handlerRowPacket(resultSet, packetId, mysqlConnection, writer, columnCount);
                 // response EOF
                 //resultSetPacket.rowsEof = getEofPacket(packetId);
-                factory.getEofPacket(packetId).write(buffer);
+                factory.getEofPacket(packetId).write(writer.buffer());
             }
 
-            mysqlConnection.channel.writeAndFlush(buffer);
+            writer.finish();
         } catch (SQLException e) {
+            if (writer != null) {
+                writer.discard();
+            }
             responseError(packetId, mysqlConnection.channel, e);
         }
     }
 
     private static void handlerRowPacket(ResultSet resultSet, AtomicLong packetId, MysqlConnection mysqlConnection,
-                                  ByteBuf buffer, int columnCount) throws SQLException {
+                                  MysqlResultWriter writer, int columnCount) throws SQLException {
         ResultSetMetaData metaData = resultSet.getMetaData();
-        String typeName;
+        boolean[] isBoolean = new boolean[columnCount];
+        boolean[] isArray = new boolean[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            String typeName = metaData.getColumnTypeName(i + 1);
+            isBoolean[i] = typeName.equalsIgnoreCase("BOOLEAN");
+            isArray[i] = typeName.equalsIgnoreCase("ARRAY");
+        }
+        Object[] values = new Object[columnCount];
         while (resultSet.next()) {
-            ResultSetRowPacket resultSetRowPacket = new ResultSetRowPacket();
-            resultSetRowPacket.packetId = (byte) packetId.getAndIncrement();
-            String characterSet = mysqlConnection.getConnection().getClientInfo(CONNECTION_CHARSET);
-            characterSet = getCharacterSet(characterSet);
-            resultSetRowPacket.setCharacterSet(characterSet);
-            for (int i = 1; i <= columnCount; i ++) {
-                Object val = resultSet.getObject(i);
-                typeName = metaData.getColumnTypeName(i);
-                if (typeName.equalsIgnoreCase("BOOLEAN")) {
+            for (int i = 0; i < columnCount; i++) {
+                Object val = resultSet.getObject(i + 1);
+                if (isBoolean[i]) {
                     if (val != null) {
                         if ("TRUE".equalsIgnoreCase(val.toString())) {
                             val = "1";
@@ -152,12 +159,14 @@ public final class MysqlResponseHandler {
                             val = "0";
                         }
                     }
-                } else if (typeName.equalsIgnoreCase("ARRAY")) {
+                } else if (isArray[i]) {
                     val = getArrayObject(mysqlConnection, val);
                 }
-                resultSetRowPacket.addColumnValue(val);
+                values[i] = val;
             }
-            resultSetRowPacket.write(buffer);
+            int packets = writer.writeRow((byte) packetId.get(), values);
+            packetId.addAndGet(packets);
+            writer.rowWritten();
         }
     }
 
@@ -186,19 +195,20 @@ public final class MysqlResponseHandler {
     private static void handlerPrepareRowPacket(ResultSet resultSet,
                                                 AtomicLong packetId,
                                                 MysqlConnection mysqlConnection,
-                                                ByteBuf buffer,
+                                                MysqlResultWriter writer,
                                                 int columnCount) throws SQLException {
+        String characterSet = getCharacterSet(mysqlConnection.getConnection().getClientInfo(CONNECTION_CHARSET));
+        ResultSetMetaData metaData = resultSet.getMetaData();
         while (resultSet.next()) {
             PrepareResultSetRowPacket resultSetRowPacket = new PrepareResultSetRowPacket();
-            String characterSet = mysqlConnection.getConnection().getClientInfo(CONNECTION_CHARSET);
-            characterSet = getCharacterSet(characterSet);
             resultSetRowPacket.setCharacterSet(characterSet);
             resultSetRowPacket.packetId = (byte) packetId.getAndIncrement();
-            resultSetRowPacket.setMetaData(resultSet.getMetaData());
+            resultSetRowPacket.setMetaData(metaData);
             for (int i = 1; i <= columnCount; i ++) {
                 resultSetRowPacket.addColumnValue(resultSet.getObject(i), mysqlConnection);
             }
-            resultSetRowPacket.write(buffer);
+            resultSetRowPacket.write(writer.buffer());
+            writer.rowWritten();
         }
     }
 
@@ -281,8 +291,12 @@ public final class MysqlResponseHandler {
         // 5. eof packet
         boolean deprecateEof = (mysqlConnection.authPacket.extendClientFlags
             & ExtendedClientCapabilities.CLIENT_DEPRECATE_EOF) != 0;
+        MysqlResultWriter writer = null;
         try {
-            ByteBuf buffer = ByteBufAllocator.DEFAULT.buffer();
+            writer = new MysqlResultWriter(mysqlConnection.channel, getCharacterSet(
+                mysqlConnection.getConnection().getClientInfo(CONNECTION_CHARSET)
+            ));
+            ByteBuf buffer = writer.buffer();
             ResultSetMetaData metaData = resultSet.getMetaData();
             ColumnsNumberPacket columnsNumberPacket = new ColumnsNumberPacket();
             columnsNumberPacket.packetId = (byte) packetId.getAndIncrement();
@@ -297,23 +311,26 @@ public final class MysqlResponseHandler {
             int serverStatus = getInitServerStatus((DingoConnection) mysqlConnection.getConnection());
 
             if (deprecateEof) {
-                handlerPrepareRowPacket(resultSet, packetId, mysqlConnection, buffer, columnCount);
+                handlerPrepareRowPacket(resultSet, packetId, mysqlConnection, writer, columnCount);
                 OKPacket okEofPacket = factory.getOkEofPacket(
                     0, packetId, serverStatus
                 );
-                okEofPacket.write(buffer);
+                okEofPacket.write(writer.buffer());
             } else {
                 // intermediate eof
                 factory.getEofPacket(packetId).write(buffer);
                 // row packet...
-                handlerPrepareRowPacket(resultSet, packetId, mysqlConnection, buffer, columnCount);
+                handlerPrepareRowPacket(resultSet, packetId, mysqlConnection, writer, columnCount);
                 // response EOF
                 //resultSetPacket.rowsEof = getEofPacket(packetId);
-                factory.getEofPacket(packetId).write(buffer);
+                factory.getEofPacket(packetId).write(writer.buffer());
             }
 
-            mysqlConnection.channel.writeAndFlush(buffer);
+            writer.finish();
         } catch (SQLException e) {
+            if (writer != null) {
+                writer.discard();
+            }
             responseError(packetId, mysqlConnection.channel, e);
         }
     }
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.driver.mysql.command;
+
+import io.dingodb.driver.mysql.util.BufferUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams result set packets to the client.
+ *
+ * <p>Packets are written into a pooled buffer of the channel, which is handed over to netty every
+ * {@link #FLUSH_THRESHOLD} bytes. When the channel is not writable, the writer waits for the last chunk to be
+ * written out before encoding more rows, so the direct memory held by a result set is bounded by the write buffer
+ * water mark of the channel.
+ *
+ * <p>A row packet whose payload reaches the max packet size is split into packets of the max size, followed by a
+ * shorter (maybe empty) one, as the protocol requires.
+ */
+final class MysqlResultWriter {
+    static final int FLUSH_THRESHOLD = 64 * 1024;
+
+    private static final int MAX_PACKET_SIZE = 16777215;
+    private static final byte NULL_MARK = (byte) 251;
+
+    private final Channel channel;
+    private final Charset charset;
+    private final boolean utf8;
+
+    private ByteBuf buffer;
+    private ChannelFuture lastWrite;
+
+    MysqlResultWriter(Channel channel, String characterSet) {
+        this.channel = channel;
+        this.charset = Charset.forName(characterSet);
+        this.utf8 = charset.equals(StandardCharsets.UTF_8);
+        this.buffer = channel.alloc().buffer();
+    }
+
+    ByteBuf buffer() {
+        return buffer;
+    }
+
+    /**
+     * Encode a text protocol row packet directly into the buffer.
+     *
+     * @param packetId the packet id
+     * @param values the column values, converted by {@link Object#toString()} if not {@code byte[]}
+     * @return the number of packets written, more than {@code 1} if the row is split, which takes the following ids
+     */
+    int writeRow(byte packetId, Object[] values) {
+        int start = buffer.writerIndex();
+        buffer.writeMedium(0);
+        buffer.writeByte(packetId);
+        for (Object value : values) {
+            if (value == null) {
+                buffer.writeByte(NULL_MARK);
+            } else if (value instanceof byte[]) {
+                byte[] bytes = (byte[]) value;
+                BufferUtil.writeLength(buffer, bytes.length);
+                buffer.writeBytes(bytes);
+            } else if (utf8) {
+                String str = value.toString();
+                BufferUtil.writeLength(buffer, ByteBufUtil.utf8Bytes(str));
+                ByteBufUtil.writeUtf8(buffer, str);
+            } else {
+                byte[] bytes = value.toString().getBytes(charset);
+                BufferUtil.writeLength(buffer, bytes.length);
+                buffer.writeBytes(bytes);
+            }
+        }
+        int size = buffer.writerIndex() - start - 4;
+        if (size < MAX_PACKET_SIZE) {
+            buffer.setMediumLE(start, size);
+            return 1;
+        }
+        return split(start, packetId, size);
+    }
+
+    private int split(int start, byte packetId, int size) {
+        ByteBuf payload = channel.alloc().buffer(size, size);
+        try {
+            payload.writeBytes(buffer, start + 4, size);
+            buffer.writerIndex(start);
+            int packets = 0;
+            int chunk;
+            do {
+                chunk = Math.min(payload.readableBytes(), MAX_PACKET_SIZE);
+                buffer.writeMediumLE(chunk);
+                buffer.writeByte(packetId + packets++);
+                buffer.writeBytes(payload, chunk);
+            } while (chunk == MAX_PACKET_SIZE);
+            return packets;
+        } finally {
+            payload.release();
+        }
+    }
+
+    /**
+     * Hand over the buffered packets if there are enough of them, and wait if the channel is not writable.
+     */
+    void rowWritten() {
+        if (buffer.readableBytes() < FLUSH_THRESHOLD) {
+            return;
+        }
+        lastWrite = channel.writeAndFlush(buffer);
+        buffer = channel.alloc().buffer();
+        // Cannot wait in the event loop, for the pending writes are flushed by the event loop itself.
+        if (!channel.isWritable() && !channel.eventLoop().inEventLoop()) {
+            lastWrite.awaitUninterruptibly();
+        }
+    }
+
+    void finish() {
+        channel.writeAndFlush(buffer);
+        buffer = null;
+    }
+
+    /**
+     * Drop the packets not handed over yet, used when an error packet is going to be sent instead.
+     */
+    void discard() {
+        if (buffer != null) {
+            buffer.release();
+            buffer = null;
+        }
+    }
+}
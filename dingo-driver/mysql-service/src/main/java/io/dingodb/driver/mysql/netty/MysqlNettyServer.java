@@ -23,10 +23,14 @@ import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioChannelOption;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutorGroup;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -44,16 +48,22 @@ public class MysqlNettyServer {
     public static final Map<String, MysqlConnection> connections = new ConcurrentHashMap<>();
 
     private EventLoopGroup eventLoopGroup;
+    // Commands are blocking, so run them out of the event loops, which is also required to wait for the channel
+    // being writable when streaming result sets.
+    private EventExecutorGroup commandExecutorGroup;
     private ServerBootstrap server;
 
     public void start() throws Exception {
         server = new ServerBootstrap();
-        eventLoopGroup = new NioEventLoopGroup(151,
-            new ThreadPoolBuilder().name("mysql server " + port).coreThreads(151).maximumThreads(151).build());
+        int ioThreads = Runtime.getRuntime().availableProcessors() * 2;
+        eventLoopGroup = new NioEventLoopGroup(ioThreads, new ThreadPoolBuilder()
+            .name("mysql server " + port).coreThreads(ioThreads).maximumThreads(ioThreads).build());
+        commandExecutorGroup = new DefaultEventExecutorGroup(151, new DefaultThreadFactory("mysql command " + port));
         server
             .channel(NioServerSocketChannel.class)
             .group(eventLoopGroup)
             .childOption(ChannelOption.TCP_NODELAY, true)
+            .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(256 * 1024, 1024 * 1024))
             .childOption(ChannelOption.SO_KEEPALIVE, Boolean.TRUE)
             .childOption(NioChannelOption.of(StandardSocketOptions.SO_KEEPALIVE), Boolean.TRUE)
             .childHandler(channelInitializer());
@@ -87,7 +97,7 @@ public class MysqlNettyServer {
                 mysqlConnection.mysqlIdleStateHandler = mysqlIdleStateHandler;
                 ch.pipeline().addLast("idleStateHandler", mysqlIdleStateHandler);
                 ch.pipeline()
-                    .addLast("mysqlHandler", new MysqlHandler(mysqlConnection));
+                    .addLast(commandExecutorGroup, "mysqlHandler", new MysqlHandler(mysqlConnection));
                 ch.pipeline().addLast("exception", new NettyHandlers.ExceptionHandler());
             }
         };
@@ -95,5 +105,6 @@ public class MysqlNettyServer {
 
     public void close() {
         eventLoopGroup.shutdownGracefully();
+        commandExecutorGroup.shutdownGracefully();
     }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.driver.mysql.command;
+
+import io.dingodb.driver.mysql.util.BufferUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestMysqlResultWriter {
+    private static final int MAX_PACKET_SIZE = 0xFFFFFF;
+
+    private static ByteBuf finish(EmbeddedChannel channel, MysqlResultWriter writer) {
+        writer.finish();
+        ByteBuf out = Unpooled.buffer();
+        ByteBuf buf;
+        while ((buf = channel.readOutbound()) != null) {
+            out.writeBytes(buf);
+            buf.release();
+        }
+        return out;
+    }
+
+    private static byte[] payload(byte[] value) {
+        ByteBuf buf = Unpooled.buffer();
+        BufferUtil.writeLength(buf, value.length);
+        buf.writeBytes(value);
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    private static byte[] readPacket(ByteBuf out, int size, byte packetId) {
+        assertThat(out.readUnsignedMediumLE()).isEqualTo(size);
+        assertThat(out.readByte()).isEqualTo(packetId);
+        byte[] bytes = new byte[size];
+        out.readBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void testWriteRow() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        MysqlResultWriter writer = new MysqlResultWriter(channel, "UTF-8");
+        assertThat(writer.writeRow((byte) 5, new Object[]{"abc", null, 12, new byte[]{1, 2}, "中"})).isEqualTo(1);
+        ByteBuf out = finish(channel, writer);
+        assertThat(readPacket(out, 15, (byte) 5)).containsExactly(
+            3, 'a', 'b', 'c',
+            0xFB,
+            2, '1', '2',
+            2, 1, 2,
+            3, 0xE4, 0xB8, 0xAD
+        );
+        assertThat(out.isReadable()).isFalse();
+    }
+
+    @Test
+    public void testWriteRowCharset() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        MysqlResultWriter writer = new MysqlResultWriter(channel, "GBK");
+        assertThat(writer.writeRow((byte) 1, new Object[]{"中"})).isEqualTo(1);
+        ByteBuf out = finish(channel, writer);
+        assertThat(readPacket(out, 3, (byte) 1)).containsExactly(2, 0xD6, 0xD0);
+    }
+
+    @Test
+    public void testBelowMaxPacket() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        MysqlResultWriter writer = new MysqlResultWriter(channel, "UTF-8");
+        // 4 bytes of length prefix.
+        byte[] value = new byte[MAX_PACKET_SIZE - 5];
+        assertThat(writer.writeRow((byte) 1, new Object[]{value})).isEqualTo(1);
+        ByteBuf out = finish(channel, writer);
+        assertThat(readPacket(out, MAX_PACKET_SIZE - 1, (byte) 1)).isEqualTo(payload(value));
+        assertThat(out.isReadable()).isFalse();
+    }
+
+    @Test
+    public void testExactMaxPacket() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        MysqlResultWriter writer = new MysqlResultWriter(channel, "UTF-8");
+        byte[] value = new byte[MAX_PACKET_SIZE - 4];
+        Arrays.fill(value, (byte) 'x');
+        assertThat(writer.writeRow((byte) 1, new Object[]{value})).isEqualTo(2);
+        assertThat(writer.writeRow((byte) 3, new Object[]{"a"})).isEqualTo(1);
+        ByteBuf out = finish(channel, writer);
+        assertThat(readPacket(out, MAX_PACKET_SIZE, (byte) 1)).isEqualTo(payload(value));
+        // A payload of exactly the max size must be followed by an empty packet.
+        assertThat(readPacket(out, 0, (byte) 2)).isEmpty();
+        assertThat(readPacket(out, 2, (byte) 3)).containsExactly(1, 'a');
+        assertThat(out.isReadable()).isFalse();
+    }
+
+    @Test
+    public void testSplitPacket() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        MysqlResultWriter writer = new MysqlResultWriter(channel, "UTF-8");
+        // 9 bytes of length prefix.
+        byte[] value = new byte[MAX_PACKET_SIZE + 1];
+        value[0] = 1;
+        value[value.length - 1] = 2;
+        assertThat(writer.writeRow((byte) 1, new Object[]{value, "b"})).isEqualTo(2);
+        ByteBuf out = finish(channel, writer);
+        byte[] first = readPacket(out, MAX_PACKET_SIZE, (byte) 1);
+        byte[] second = readPacket(out, 12, (byte) 2);
+        assertThat(out.isReadable()).isFalse();
+        ByteBuf expected = Unpooled.wrappedBuffer(payload(value), payload("b".getBytes(StandardCharsets.UTF_8)));
+        assertThat(Unpooled.wrappedBuffer(first, second)).isEqualTo(expected);
+    }
+}
@@ -17,78 +17,232 @@
 package io.dingodb.exec.aggregate;
 
 import com.google.common.collect.Iterators;
+import io.dingodb.common.profile.Profile;
+import io.dingodb.common.type.DingoType;
 import io.dingodb.common.type.TupleMapping;
-import io.dingodb.common.util.ArrayUtils;
-import io.dingodb.exec.tuple.TupleKey;
+import io.dingodb.exec.spill.SpillFile;
 import lombok.extern.slf4j.Slf4j;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
 
+/**
+ * Groups and aggregating contexts of an aggregation operator.
+ *
+ * <p>Each pushing thread aggregates into its own {@link AggTable} without locking, the tables are merged when
+ * iterating, which must be after all the pushing finished.
+ *
+ * <p>If the groups held on heap exceed the memory budget, the thread exceeding it evicts cold groups of its table to
+ * spill files, partitioned by the hash of keys. The spilled partial results are merged back partition by partition
+ * when iterating, so only one partition is held on heap at a time.
+ */
 @Slf4j
 public class AggCache implements Iterable<Object[]> {
+    static final int PARTITION_BITS = 4;
+    static final int PARTITION_NUM = 1 << PARTITION_BITS;
+
     private final TupleMapping keyMapping;
     private final List<Agg> aggList;
-    private final Map<TupleKey, Object[]> cache;
+    private final DingoType schema;
+    private final long memoryBudget;
+    private final int[] keyIndices;
+    private final int[] identity;
+    private final Map<Thread, AggTable> tables;
+    private final AtomicLong memoryUsed = new AtomicLong(0);
+    private final AtomicLong spillCount = new AtomicLong(0);
+    private final AtomicLong spillRows = new AtomicLong(0);
+
+    private SpillFile[] spillFiles;
+    private volatile boolean spilled;
 
     public AggCache(TupleMapping keyMapping, @NonNull List<Agg> aggList) {
+        this(keyMapping, aggList, null, Long.MAX_VALUE);
+    }
+
+    /**
+     * Create an aggregation cache.
+     *
+     * @param keyMapping   the mapping of group keys in input tuples
+     * @param aggList      the aggregations
+     * @param schema       the schema of keys followed by aggregation values, spilling is disabled if {@code null}
+     * @param memoryBudget max estimated bytes of groups held on heap
+     */
+    public AggCache(
+        TupleMapping keyMapping,
+        @NonNull List<Agg> aggList,
+        @Nullable DingoType schema,
+        long memoryBudget
+    ) {
         this.keyMapping = keyMapping;
         this.aggList = aggList;
-        this.cache = new ConcurrentHashMap<>();
+        this.schema = schema;
+        this.memoryBudget = (schema != null ? memoryBudget : Long.MAX_VALUE);
+        this.keyIndices = keyMapping.getMappings();
+        this.identity = IntStream.range(0, keyMapping.size()).toArray();
+        this.tables = new ConcurrentHashMap<>();
+        this.spilled = false;
     }
 
-    private Object @NonNull [] getVars(TupleKey key) {
-        return cache.computeIfAbsent(key, k -> new Object[aggList.size()]);
+    private static int partition(int hash) {
+        return hash >>> (Integer.SIZE - PARTITION_BITS);
+    }
+
+    private @NonNull AggTable localTable() {
+        Thread thread = Thread.currentThread();
+        AggTable table = tables.get(thread);
+        if (table == null) {
+            table = tables.computeIfAbsent(thread, t -> new AggTable(keyMapping.size(), aggList));
+        }
+        return table;
     }
 
     public void addTuple(Object[] tuple) {
-        Object[] keyTuple = keyMapping.revMap(tuple);
-        Object[] vars = getVars(new TupleKey(keyTuple));
-        for (int i = 0; i < vars.length; ++i) {
-            Agg agg = aggList.get(i);
-            if (vars[i] == null) {
-                vars[i] = agg.first(tuple);
-            } else {
-                vars[i] = agg.add(vars[i], tuple);
-            }
+        AggTable table = localTable();
+        long size = table.add(tuple, keyIndices);
+        if (size > 0 && memoryUsed.addAndGet(size) > memoryBudget) {
+            spill(table);
         }
     }
 
     public void reduce(Object[] tuple) {
         // Here the keys are leading elements in the tuple.
-        int length = keyMapping.size();
-        Object[] keyTuple = Arrays.copyOf(tuple, length);
-        Object[] vars = getVars(new TupleKey(keyTuple));
-        for (int i = 0; i < vars.length; ++i) {
-            vars[i] = aggList.get(i).merge(vars[i], tuple[length + i]);
+        AggTable table = localTable();
+        long size = table.merge(tuple, identity);
+        if (size > 0 && memoryUsed.addAndGet(size) > memoryBudget) {
+            spill(table);
+        }
+    }
+
+    private synchronized @NonNull SpillFile spillFile(int partition) {
+        if (spillFiles == null) {
+            spillFiles = new SpillFile[PARTITION_NUM];
+        }
+        SpillFile file = spillFiles[partition];
+        if (file == null) {
+            file = new SpillFile("agg-" + partition + "-", schema);
+            spillFiles[partition] = file;
         }
+        return file;
     }
 
-    private Object @NonNull [] calValue(Object @NonNull [] vars) {
-        Object[] result = new Object[vars.length];
-        for (int i = 0; i < vars.length; ++i) {
-            result[i] = aggList.get(i).getValue(vars[i]);
+    private void spill(@NonNull AggTable table) {
+        spilled = true;
+        long released = table.evict(false, this::spillPartial);
+        if (memoryUsed.addAndGet(-released) > memoryBudget / 2) {
+            // Hot groups of this table take the memory, evict them too.
+            memoryUsed.addAndGet(-table.evict(true, this::spillPartial));
         }
+        spillCount.incrementAndGet();
+        if (log.isDebugEnabled()) {
+            log.debug("Aggregation groups spilled, memory used = {}, budget = {}.", memoryUsed.get(), memoryBudget);
+        }
+    }
+
+    private void spillPartial(Object[] partial, int hash) {
+        spillFile(partition(hash)).write(partial);
+        spillRows.incrementAndGet();
+    }
+
+    private @NonNull AggTable mergeTables() {
+        List<AggTable> list = new ArrayList<>(tables.values());
+        if (list.isEmpty()) {
+            return new AggTable(keyMapping.size(), aggList);
+        }
+        list.sort(Comparator.comparingInt(AggTable::size).reversed());
+        AggTable result = list.get(0);
+        for (int i = 1; i < list.size(); ++i) {
+            AggTable table = list.get(i);
+            for (int group = 0; group < table.size(); ++group) {
+                result.merge(table, group, identity);
+            }
+        }
+        // Keep only the merged one, so the cache can be iterated again.
+        tables.clear();
+        tables.put(Thread.currentThread(), result);
         return result;
     }
 
+    private @NonNull Iterator<Object[]> partitionIterator(int partition) {
+        AggTable result = new AggTable(keyMapping.size(), aggList);
+        for (AggTable table : tables.values()) {
+            for (int group = 0; group < table.size(); ++group) {
+                if (partition(table.getHash(group)) == partition) {
+                    result.merge(table, group, identity);
+                }
+            }
+        }
+        SpillFile file;
+        synchronized (this) {
+            file = spillFiles[partition];
+        }
+        if (file != null) {
+            Iterator<Object[]> it = file.iterator();
+            while (it.hasNext()) {
+                result.merge(it.next(), identity);
+            }
+        }
+        return resultIterator(result);
+    }
+
+    private static @NonNull Iterator<Object[]> resultIterator(@NonNull AggTable table) {
+        return IntStream.range(0, table.size()).mapToObj(table::getResult).iterator();
+    }
+
     @Override
-    public Iterator<Object[]> iterator() {
-        if (cache.isEmpty() && keyMapping.size() == 0) {
+    public @NonNull Iterator<Object[]> iterator() {
+        if (spilled) {
+            return Iterators.concat(
+                IntStream.range(0, PARTITION_NUM).mapToObj(this::partitionIterator).iterator()
+            );
+        }
+        AggTable result = mergeTables();
+        if (result.size() == 0 && keyMapping.size() == 0) {
             return Collections.singleton(aggList.stream().map(agg -> agg.getValue(null)).toArray()).iterator();
         }
-        return Iterators.transform(
-            cache.entrySet().iterator(),
-            e -> ArrayUtils.concat(e.getKey().getTuple(), calValue(e.getValue()))
-        );
+        return resultIterator(result);
+    }
+
+    public void fillProfile(@NonNull Profile profile) {
+        profile.setMemoryBudget(memoryBudget == Long.MAX_VALUE ? 0 : memoryBudget);
+        profile.setSpillCount(spillCount.get());
+        profile.setSpillRows(spillRows.get());
+        long bytes = 0;
+        synchronized (this) {
+            if (spillFiles != null) {
+                for (SpillFile file : spillFiles) {
+                    if (file != null) {
+                        bytes += file.getBytes();
+                    }
+                }
+            }
+        }
+        profile.setSpillBytes(bytes);
     }
 
     public void clear() {
-        cache.clear();
+        tables.clear();
+        synchronized (this) {
+            if (spillFiles != null) {
+                for (SpillFile file : spillFiles) {
+                    if (file != null) {
+                        file.close();
+                    }
+                }
+                spillFiles = null;
+            }
+        }
+        memoryUsed.set(0);
+        spillCount.set(0);
+        spillRows.set(0);
+        spilled = false;
     }
 }
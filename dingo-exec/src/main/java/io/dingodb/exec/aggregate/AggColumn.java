@@ -0,0 +1,375 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.aggregate;
+
+import io.dingodb.common.type.DingoType;
+import io.dingodb.common.type.scalar.DoubleType;
+import io.dingodb.common.type.scalar.IntegerType;
+import io.dingodb.common.type.scalar.LongType;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Aggregating contexts of one aggregation for all the groups of an {@link AggTable}, indexed by group.
+ *
+ * <p>COUNT and SUM/MIN/MAX over long, int and double values are accumulated in primitive arrays, so no object is
+ * allocated for each row. Other aggregations fall back to the boxed contexts of {@link Agg}. The value got by
+ * {@link #get(int)} is the same as the aggregating context of the {@link Agg}, so it can be finished by
+ * {@link Agg#getValue(Object)} and merged by {@link Agg#merge(Object, Object)}.
+ */
+abstract class AggColumn {
+    static @NonNull AggColumn of(@NonNull Agg agg, int capacity) {
+        if (agg instanceof CountAllAgg) {
+            return new CountColumn(-1, capacity);
+        }
+        if (agg instanceof CountAgg) {
+            return new CountColumn(agg.getIndex(), capacity);
+        }
+        if (agg instanceof UnityEvaluatorAgg) {
+            DingoType type = ((UnityEvaluatorAgg) agg).getType();
+            Op op;
+            if (agg instanceof SumAgg) {
+                op = Op.SUM;
+            } else if (agg instanceof MinAgg) {
+                op = Op.MIN;
+            } else if (agg instanceof MaxAgg) {
+                op = Op.MAX;
+            } else {
+                op = null;
+            }
+            if (op != null) {
+                if (type instanceof LongType) {
+                    return new LongColumn(agg.getIndex(), op, false, capacity);
+                } else if (type instanceof IntegerType) {
+                    return new LongColumn(agg.getIndex(), op, true, capacity);
+                } else if (type instanceof DoubleType) {
+                    return new DoubleColumn(agg.getIndex(), op, capacity);
+                }
+            }
+        }
+        return new ObjectColumn(agg, capacity);
+    }
+
+    /**
+     * Grow the column to hold at least {@code capacity} groups.
+     */
+    abstract void grow(int capacity);
+
+    /**
+     * Reset the context of a new group.
+     */
+    abstract void init(int group);
+
+    /**
+     * Accumulate a row of input.
+     */
+    abstract void add(int group, Object @NonNull [] tuple);
+
+    /**
+     * Merge an aggregating context, i.e. a partial result of the same aggregation.
+     */
+    abstract void merge(int group, @Nullable Object var);
+
+    /**
+     * Merge the context of a group in another column of the same aggregation.
+     */
+    abstract void merge(int group, @NonNull AggColumn other, int otherGroup);
+
+    abstract @Nullable Object get(int group);
+
+    /**
+     * Move the context of a group to another position, used to compact the column.
+     */
+    abstract void move(int from, int to);
+
+    enum Op {
+        SUM,
+        MIN,
+        MAX,
+    }
+
+    static final class CountColumn extends AggColumn {
+        private final int index;
+        private long[] counts;
+
+        CountColumn(int index, int capacity) {
+            this.index = index;
+            this.counts = new long[capacity];
+        }
+
+        @Override
+        void grow(int capacity) {
+            counts = Arrays.copyOf(counts, capacity);
+        }
+
+        @Override
+        void init(int group) {
+            counts[group] = 0;
+        }
+
+        @Override
+        void add(int group, Object @NonNull [] tuple) {
+            if (index < 0 || tuple[index] != null) {
+                ++counts[group];
+            }
+        }
+
+        @Override
+        void merge(int group, @Nullable Object var) {
+            if (var != null) {
+                counts[group] += (long) var;
+            }
+        }
+
+        @Override
+        void merge(int group, @NonNull AggColumn other, int otherGroup) {
+            counts[group] += ((CountColumn) other).counts[otherGroup];
+        }
+
+        @Override
+        @Nullable Object get(int group) {
+            long count = counts[group];
+            return count != 0 ? count : null;
+        }
+
+        @Override
+        void move(int from, int to) {
+            counts[to] = counts[from];
+        }
+    }
+
+    static final class LongColumn extends AggColumn {
+        private final int index;
+        private final Op op;
+        // Values of int type are accumulated as long and narrowed when got, the same as overflowing int.
+        private final boolean isInt;
+        private long[] values;
+        private boolean[] present;
+
+        LongColumn(int index, Op op, boolean isInt, int capacity) {
+            this.index = index;
+            this.op = op;
+            this.isInt = isInt;
+            this.values = new long[capacity];
+            this.present = new boolean[capacity];
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+            present = Arrays.copyOf(present, capacity);
+        }
+
+        @Override
+        void init(int group) {
+            values[group] = 0;
+            present[group] = false;
+        }
+
+        private void accumulate(int group, long value) {
+            if (!present[group]) {
+                values[group] = value;
+                present[group] = true;
+                return;
+            }
+            switch (op) {
+                case SUM:
+                    values[group] += value;
+                    break;
+                case MIN:
+                    values[group] = Math.min(values[group], value);
+                    break;
+                case MAX:
+                    values[group] = Math.max(values[group], value);
+                    break;
+                default:
+                    throw new IllegalStateException("Unsupported op \"" + op + "\".");
+            }
+        }
+
+        @Override
+        void add(int group, Object @NonNull [] tuple) {
+            Object value = tuple[index];
+            if (value != null) {
+                accumulate(group, ((Number) value).longValue());
+            }
+        }
+
+        @Override
+        void merge(int group, @Nullable Object var) {
+            if (var != null) {
+                accumulate(group, ((Number) var).longValue());
+            }
+        }
+
+        @Override
+        void merge(int group, @NonNull AggColumn other, int otherGroup) {
+            LongColumn column = (LongColumn) other;
+            if (column.present[otherGroup]) {
+                accumulate(group, column.values[otherGroup]);
+            }
+        }
+
+        @Override
+        @Nullable Object get(int group) {
+            if (!present[group]) {
+                return null;
+            }
+            return isInt ? (Object) (int) values[group] : (Object) values[group];
+        }
+
+        @Override
+        void move(int from, int to) {
+            values[to] = values[from];
+            present[to] = present[from];
+        }
+    }
+
+    static final class DoubleColumn extends AggColumn {
+        private final int index;
+        private final Op op;
+        private double[] values;
+        private boolean[] present;
+
+        DoubleColumn(int index, Op op, int capacity) {
+            this.index = index;
+            this.op = op;
+            this.values = new double[capacity];
+            this.present = new boolean[capacity];
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+            present = Arrays.copyOf(present, capacity);
+        }
+
+        @Override
+        void init(int group) {
+            values[group] = 0;
+            present[group] = false;
+        }
+
+        private void accumulate(int group, double value) {
+            if (!present[group]) {
+                values[group] = value;
+                present[group] = true;
+                return;
+            }
+            switch (op) {
+                case SUM:
+                    values[group] += value;
+                    break;
+                case MIN:
+                    if (Double.compare(value, values[group]) < 0) {
+                        values[group] = value;
+                    }
+                    break;
+                case MAX:
+                    if (Double.compare(value, values[group]) > 0) {
+                        values[group] = value;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unsupported op \"" + op + "\".");
+            }
+        }
+
+        @Override
+        void add(int group, Object @NonNull [] tuple) {
+            Object value = tuple[index];
+            if (value != null) {
+                accumulate(group, ((Number) value).doubleValue());
+            }
+        }
+
+        @Override
+        void merge(int group, @Nullable Object var) {
+            if (var != null) {
+                accumulate(group, ((Number) var).doubleValue());
+            }
+        }
+
+        @Override
+        void merge(int group, @NonNull AggColumn other, int otherGroup) {
+            DoubleColumn column = (DoubleColumn) other;
+            if (column.present[otherGroup]) {
+                accumulate(group, column.values[otherGroup]);
+            }
+        }
+
+        @Override
+        @Nullable Object get(int group) {
+            return present[group] ? values[group] : null;
+        }
+
+        @Override
+        void move(int from, int to) {
+            values[to] = values[from];
+            present[to] = present[from];
+        }
+    }
+
+    static final class ObjectColumn extends AggColumn {
+        private final Agg agg;
+        private Object[] vars;
+
+        ObjectColumn(Agg agg, int capacity) {
+            this.agg = agg;
+            this.vars = new Object[capacity];
+        }
+
+        @Override
+        void grow(int capacity) {
+            vars = Arrays.copyOf(vars, capacity);
+        }
+
+        @Override
+        void init(int group) {
+            vars[group] = null;
+        }
+
+        @Override
+        void add(int group, Object @NonNull [] tuple) {
+            Object var = vars[group];
+            vars[group] = (var == null ? agg.first(tuple) : agg.add(var, tuple));
+        }
+
+        @Override
+        void merge(int group, @Nullable Object var) {
+            vars[group] = agg.merge(vars[group], var);
+        }
+
+        @Override
+        void merge(int group, @NonNull AggColumn other, int otherGroup) {
+            merge(group, ((ObjectColumn) other).vars[otherGroup]);
+        }
+
+        @Override
+        @Nullable Object get(int group) {
+            return vars[group];
+        }
+
+        @Override
+        void move(int from, int to) {
+            vars[to] = vars[from];
+            vars[from] = null;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.aggregate;
+
+import io.dingodb.exec.spill.SpillUtils;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Hash table of aggregating groups, not thread safe.
+ *
+ * <p>Groups are stored contiguously in insertion order and found by open addressing, keys are compared in place of
+ * the input tuple, so no key object is allocated unless a new group is created. The contexts of aggregations are held
+ * by {@link AggColumn}s.
+ *
+ * <p>Each access to a group marks it with the current epoch. The epoch advances after as many accesses as there are
+ * groups, and at each eviction. Groups not accessed in the current or the previous epoch are cold and are evicted first
+ * when spilling, so the first eviction of a table can tell hot groups from cold ones too.
+ */
+final class AggTable {
+    private static final int INIT_CAPACITY = 16;
+    // Slots, hash, epoch and references of a group, roughly.
+    private static final int GROUP_OVERHEAD = 48;
+
+    private final List<Agg> aggList;
+    private final int keySize;
+
+    private AggColumn[] columns;
+    private Object[][] keys;
+    private int[] hashes;
+    private int[] epochs;
+    private int[] slots;
+    private int size;
+    private int epoch;
+    private int accesses;
+
+    AggTable(int keySize, @NonNull List<Agg> aggList) {
+        this.keySize = keySize;
+        this.aggList = aggList;
+        clear();
+    }
+
+    static int hash(Object @NonNull [] tuple, int @NonNull [] keyIndices) {
+        int hash = 1;
+        for (int index : keyIndices) {
+            hash = 31 * hash + Objects.hashCode(tuple[index]);
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private static int tableSizeFor(int size) {
+        int capacity = INIT_CAPACITY;
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int getHash(int group) {
+        return hashes[group];
+    }
+
+    Object[] getKey(int group) {
+        return keys[group];
+    }
+
+    /**
+     * Estimated heap size of a group.
+     */
+    long sizeOf(int group) {
+        return SpillUtils.estimateSize(keys[group]) + GROUP_OVERHEAD + 8L * columns.length;
+    }
+
+    private boolean keyEquals(int group, Object @NonNull [] tuple, int @NonNull [] keyIndices) {
+        Object[] key = keys[group];
+        for (int i = 0; i < keySize; ++i) {
+            if (!Objects.equals(key[i], tuple[keyIndices[i]])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find the group of the key in a tuple, create it if not exists.
+     *
+     * @return the group, negative ({@code ~group}) if the group is newly created
+     */
+    private int findOrCreate(int hash, Object @NonNull [] tuple, int @NonNull [] keyIndices) {
+        if (++accesses > Math.max(size, INIT_CAPACITY)) {
+            ++epoch;
+            accesses = 0;
+        }
+        int mask = slots.length - 1;
+        int pos = hash & mask;
+        while (true) {
+            int group = slots[pos] - 1;
+            if (group < 0) {
+                break;
+            }
+            if (hashes[group] == hash && keyEquals(group, tuple, keyIndices)) {
+                epochs[group] = epoch;
+                return group;
+            }
+            pos = (pos + 1) & mask;
+        }
+        int group = size++;
+        if (group == keys.length) {
+            grow(keys.length * 2);
+        }
+        Object[] key = new Object[keySize];
+        for (int i = 0; i < keySize; ++i) {
+            key[i] = tuple[keyIndices[i]];
+        }
+        keys[group] = key;
+        hashes[group] = hash;
+        epochs[group] = epoch;
+        for (AggColumn column : columns) {
+            column.init(group);
+        }
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        } else {
+            slots[pos] = group + 1;
+        }
+        return ~group;
+    }
+
+    private void grow(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        epochs = Arrays.copyOf(epochs, capacity);
+        for (AggColumn column : columns) {
+            column.grow(capacity);
+        }
+    }
+
+    private void rehash(int tableSize) {
+        slots = new int[tableSize];
+        int mask = tableSize - 1;
+        for (int group = 0; group < size; ++group) {
+            int pos = hashes[group] & mask;
+            while (slots[pos] != 0) {
+                pos = (pos + 1) & mask;
+            }
+            slots[pos] = group + 1;
+        }
+    }
+
+    /**
+     * Accumulate an input tuple.
+     *
+     * @return estimated heap size newly used, {@code 0} if the group exists
+     */
+    long add(Object @NonNull [] tuple, int @NonNull [] keyIndices) {
+        int group = findOrCreate(hash(tuple, keyIndices), tuple, keyIndices);
+        boolean created = group < 0;
+        if (created) {
+            group = ~group;
+        }
+        for (AggColumn column : columns) {
+            column.add(group, tuple);
+        }
+        return created ? sizeOf(group) : 0;
+    }
+
+    /**
+     * Merge a partial result, in which the keys are leading elements and followed by aggregating contexts.
+     *
+     * @return estimated heap size newly used, {@code 0} if the group exists
+     */
+    long merge(Object @NonNull [] tuple, int @NonNull [] keyIndices) {
+        int group = findOrCreate(hash(tuple, keyIndices), tuple, keyIndices);
+        boolean created = group < 0;
+        if (created) {
+            group = ~group;
+        }
+        for (int i = 0; i < columns.length; ++i) {
+            columns[i].merge(group, tuple[keySize + i]);
+        }
+        return created ? sizeOf(group) : 0;
+    }
+
+    /**
+     * Merge a group of another table of the same aggregations.
+     */
+    void merge(@NonNull AggTable other, int otherGroup, int @NonNull [] identity) {
+        int group = findOrCreate(other.hashes[otherGroup], other.keys[otherGroup], identity);
+        if (group < 0) {
+            group = ~group;
+        }
+        for (int i = 0; i < columns.length; ++i) {
+            columns[i].merge(group, other.columns[i], otherGroup);
+        }
+    }
+
+    /**
+     * The keys and final values of aggregations of a group. It is also a partial result which can be merged by
+     * {@link #merge(Object[], int[])}, the same as the output of aggregating is merged by reducing.
+     */
+    Object @NonNull [] getResult(int group) {
+        Object[] tuple = Arrays.copyOf(keys[group], keySize + columns.length);
+        for (int i = 0; i < columns.length; ++i) {
+            tuple[keySize + i] = aggList.get(i).getValue(columns[i].get(group));
+        }
+        return tuple;
+    }
+
+    /**
+     * Remove groups from the table and pass their results (with hash) to the consumer. Cold groups which are
+     * not accessed in the current or the previous epoch are removed if {@code all} is {@code false}.
+     *
+     * @return estimated heap size released
+     */
+    long evict(boolean all, @NonNull ObjIntConsumer<Object[]> consumer) {
+        long released = 0;
+        int kept = 0;
+        for (int group = 0; group < size; ++group) {
+            if (all || epoch - epochs[group] > 1) {
+                consumer.accept(getResult(group), hashes[group]);
+                released += sizeOf(group);
+                continue;
+            }
+            if (kept != group) {
+                keys[kept] = keys[group];
+                hashes[kept] = hashes[group];
+                epochs[kept] = epochs[group];
+                for (AggColumn column : columns) {
+                    column.move(group, kept);
+                }
+            }
+            ++kept;
+        }
+        Arrays.fill(keys, kept, size, null);
+        size = kept;
+        rehash(tableSizeFor(size));
+        ++epoch;
+        accesses = 0;
+        return released;
+    }
+
+    void clear() {
+        columns = new AggColumn[aggList.size()];
+        for (int i = 0; i < columns.length; ++i) {
+            columns[i] = AggColumn.of(aggList.get(i), INIT_CAPACITY);
+        }
+        keys = new Object[INIT_CAPACITY][];
+        hashes = new int[INIT_CAPACITY];
+        epochs = new int[INIT_CAPACITY];
+        slots = new int[INIT_CAPACITY * 2];
+        size = 0;
+        epoch = 0;
+        accesses = 0;
+    }
+}
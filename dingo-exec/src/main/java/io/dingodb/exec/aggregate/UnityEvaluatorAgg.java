@@ -20,11 +20,13 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import io.dingodb.common.type.DingoType;
 import io.dingodb.expr.runtime.expr.Exprs;
 import io.dingodb.expr.runtime.op.BinaryOp;
+import lombok.Getter;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public abstract class UnityEvaluatorAgg extends UnityAgg {
     @JsonProperty("type")
+    @Getter
     protected final DingoType type;
 
     private BinaryOp op;
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.channel;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Send credits (in bytes) granted by the receiver of a tag.
+ *
+ * <p>A message can be sent if there is any credit left, and the credits may be overdrawn by the last message, so a
+ * message larger than the window never blocks the sender forever.
+ */
+final class Credits {
+    private final AtomicLong available = new AtomicLong(0);
+    private final AtomicLong stallCount = new AtomicLong(0);
+    private final AtomicLong stallNanos = new AtomicLong(0);
+
+    @Getter
+    private volatile boolean stopped = false;
+
+    void grant(int bytes) {
+        available.addAndGet(bytes);
+    }
+
+    void stop() {
+        stopped = true;
+    }
+
+    boolean tryAcquire(int bytes) {
+        while (true) {
+            long current = available.get();
+            if (current <= 0) {
+                return false;
+            }
+            if (available.compareAndSet(current, current - bytes)) {
+                return true;
+            }
+        }
+    }
+
+    boolean hasCredit() {
+        return available.get() > 0;
+    }
+
+    void recordStall(long nanos) {
+        stallCount.incrementAndGet();
+        stallNanos.addAndGet(nanos);
+    }
+
+    long getStallCount() {
+        return stallCount.get();
+    }
+
+    long getStallNanos() {
+        return stallNanos.get();
+    }
+}
@@ -27,18 +27,18 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 public final class EndpointManager {
     public static EndpointManager INSTANCE = new EndpointManager();
 
     private final Map<String, SendEndpoint> sendEndpointMap;
-    private final Map<String, AtomicInteger> availableBufferCounts;
+    // Credits may be granted before the send endpoint is registered, so they are kept separately.
+    private final Map<String, Credits> creditsMap;
 
     private EndpointManager() {
         sendEndpointMap = new ConcurrentHashMap<>();
-        availableBufferCounts = new ConcurrentHashMap<>();
+        creditsMap = new ConcurrentHashMap<>();
     }
 
     public void onControlMessage(@NonNull Message message) {
@@ -51,11 +51,11 @@ public final class EndpointManager {
         }
         LogUtils.debug(log, "Received control message {}.", msg);
         String tag = msg.getTag();
-        AtomicInteger bufferCount = getBufferCount(tag);
+        Credits credits = getCredits(tag);
         if (msg instanceof StopTx) {
-            bufferCount.set(-1);
+            credits.stop();
         } else if (msg instanceof IncreaseBuffer) {
-            bufferCount.getAndAdd(((IncreaseBuffer) msg).getBytes());
+            credits.grant(((IncreaseBuffer) msg).getBytes());
         }
         SendEndpoint sendEndpoint = sendEndpointMap.get(tag);
         if (sendEndpoint != null) {
@@ -70,13 +70,10 @@ public final class EndpointManager {
     public void unregisterSendEndpoint(@NonNull SendEndpoint endpoint) {
         String tag = endpoint.getTag();
         sendEndpointMap.remove(tag);
-        availableBufferCounts.remove(tag);
+        creditsMap.remove(tag);
     }
 
-    AtomicInteger getBufferCount(String tag) {
-        return availableBufferCounts.computeIfAbsent(
-            tag,
-            (t) -> new AtomicInteger(0)
-        );
+    Credits getCredits(String tag) {
+        return creditsMap.computeIfAbsent(tag, t -> new Credits());
     }
 }
@@ -17,6 +17,7 @@
 package io.dingodb.exec.channel;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import io.dingodb.common.config.ExecConfiguration;
 import io.dingodb.common.log.LogUtils;
 import io.dingodb.exec.Services;
 import io.dingodb.exec.channel.message.Control;
@@ -29,18 +30,21 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 import static io.dingodb.exec.Services.CTRL_TAG;
 
 @Slf4j
 public class ReceiveEndpoint {
-    private static final int BUFFER_LENGTH = 65536 * 9;
-
     private final String host;
     private final int port;
     private final String tag;
     private final Consumer<byte[]> handler;
+    private final int window;
+    // Credits are granted back in batches, not for every message.
+    private final int creditBatch;
+    private final AtomicInteger consumed;
 
     @Getter
     private boolean stopped;
@@ -53,6 +57,9 @@ public class ReceiveEndpoint {
         this.port = port;
         this.tag = tag;
         this.handler = handler;
+        this.window = ExecConfiguration.exchangeWindow();
+        this.creditBatch = Math.max(window / 4, 1);
+        this.consumed = new AtomicInteger(0);
     }
 
     public void init() {
@@ -61,7 +68,7 @@ public class ReceiveEndpoint {
         messageListener = new ReceiveMessageListener();
         Services.NET.registerTagMessageListener(tag, messageListener);
         stopped = false;
-        sendIncreaseBuffer(BUFFER_LENGTH);
+        sendIncreaseBuffer(window);
     }
 
     public void stop() {
@@ -100,9 +107,13 @@ public class ReceiveEndpoint {
     private class ReceiveMessageListener implements MessageListener {
         @Override
         public void onMessage(@NonNull Message message, @NonNull Channel channel) {
-            sendIncreaseBuffer(message.length());
             final byte[] content = message.content();
+            // Grant credits after the message is consumed by the handler, which may block if the queue is full.
             handler.accept(content);
+            int bytes = consumed.addAndGet(message.length());
+            if (bytes >= creditBatch && consumed.compareAndSet(bytes, 0)) {
+                sendIncreaseBuffer(bytes);
+            }
         }
     }
 }
@@ -17,7 +17,10 @@
 package io.dingodb.exec.channel;
 
 import io.dingodb.common.codec.PrimitiveCodec;
+import io.dingodb.common.concurrent.Executors;
+import io.dingodb.common.config.ExecConfiguration;
 import io.dingodb.common.log.LogUtils;
+import io.dingodb.common.metrics.DingoMetrics;
 import io.dingodb.exec.Services;
 import io.dingodb.net.BufferOutputStream;
 import io.dingodb.net.Channel;
@@ -26,16 +29,39 @@ import lombok.extern.slf4j.Slf4j;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 import java.io.IOException;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Sending side of an exchange tag, flow controlled by the credits granted by the receiver.
+ *
+ * <p>Messages are queued and sent in order as long as there are credits. The queue is drained by the sending thread, or
+ * by an executor thread when credits are received, so that the event loop receiving credits never writes. A sender
+ * returns at once without credits, and only parks if the queued bytes exceed the window, which is the back pressure
+ * of the receiver.
+ */
 @Slf4j
 public class SendEndpoint {
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
     private final String host;
     private final int port;
     @Getter
     private final String tag;
     private final byte[] binaryTag;
+    private final long window;
+    private final Queue<BufferOutputStream> pending;
+    private final AtomicLong pendingBytes;
+    private final AtomicBoolean draining;
+    private final Set<Thread> waiters;
 
+    private Credits credits;
     private Channel channel;
 
     public SendEndpoint(String host, int port, String tag) {
@@ -43,55 +69,126 @@ public class SendEndpoint {
         this.port = port;
         this.tag = tag;
         this.binaryTag = PrimitiveCodec.encodeString(tag);
+        this.window = ExecConfiguration.exchangeWindow();
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.pendingBytes = new AtomicLong(0);
+        this.draining = new AtomicBoolean(false);
+        this.waiters = ConcurrentHashMap.newKeySet();
     }
 
     public void init() {
+        credits = EndpointManager.INSTANCE.getCredits(tag);
         EndpointManager.INSTANCE.registerSendEndpoint(this);
         // This may block.
         channel = Services.openNewChannel(host, port);
         LogUtils.debug(log, "(tag = {}) Opened channel to {}:{}.", tag, host, port);
     }
 
-    synchronized void wakeUp() {
-        notify();
+    /**
+     * Called on the event loop when credits are received or the receiver stopped.
+     */
+    void wakeUp() {
+        if (canDrain()) {
+            Executors.execute("exchange-drain-" + tag, this::drain);
+        }
+        for (Thread waiter : waiters) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    private boolean canDrain() {
+        return !pending.isEmpty() && (credits.isStopped() || credits.hasCredit());
     }
 
-    synchronized boolean checkAvailableBufferCount(int size) {
-        boolean successful = false;
-        AtomicInteger bufferCount = EndpointManager.INSTANCE.getBufferCount(tag);
-        while (!successful) {
-            int origSize = bufferCount.get();
-            if (origSize < 0) {
-                return false;
-            }
-            if (origSize > size) {
-                successful = bufferCount.compareAndSet(origSize, origSize - size);
-            } else {
-                try {
-                    wait();
-                } catch (InterruptedException e) {
-                    LogUtils.warn(log, "Catch (tag = {}) Interrupted while waiting for channel to be ready.", tag);
+    /**
+     * Send queued messages while there are credits. Only one thread drains at a time, which keeps the order.
+     */
+    private void drain() {
+        while (canDrain() && draining.compareAndSet(false, true)) {
+            try {
+                BufferOutputStream content;
+                while ((content = pending.peek()) != null) {
+                    boolean stopped = credits.isStopped();
+                    if (!stopped && !credits.tryAcquire(content.bytes())) {
+                        break;
+                    }
+                    pending.poll();
+                    pendingBytes.addAndGet(-content.bytes());
+                    // Data are dropped if the receiver stopped.
+                    if (!stopped) {
+                        channel.send(content, false);
+                    }
                 }
+            } finally {
+                draining.set(false);
+            }
+        }
+    }
+
+    /**
+     * Park the current thread until the condition is met or the receiver stopped.
+     */
+    private void await(@NonNull Condition condition) {
+        if (condition.isMet() || credits.isStopped()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Thread current = Thread.currentThread();
+        waiters.add(current);
+        try {
+            while (!condition.isMet() && !credits.isStopped()) {
+                // Timed to recover from a missed wake up.
+                LockSupport.parkNanos(this, PARK_NANOS);
+                drain();
             }
+        } finally {
+            waiters.remove(current);
+            credits.recordStall(System.nanoTime() - start);
         }
-        return true;
     }
 
-    public boolean send(BufferOutputStream content) {
-        return send(content, false);
+    public boolean send(@NonNull BufferOutputStream content) {
+        if (credits.isStopped()) {
+            return false;
+        }
+        pendingBytes.addAndGet(content.bytes());
+        pending.add(content);
+        drain();
+        if (pendingBytes.get() > window) {
+            await(() -> pendingBytes.get() <= window / 2);
+        }
+        return !credits.isStopped();
     }
 
+    /**
+     * Send a message which must be delivered even if the receiver stopped, like FIN. It is sent synchronously after
+     * all queued messages.
+     */
     public boolean send(@NonNull BufferOutputStream content, boolean needed) {
-        boolean ok = checkAvailableBufferCount(content.bytes());
-        if (ok || needed) {
-            channel.send(content, needed);
+        if (!needed) {
+            return send(content);
         }
-        return ok;
+        await(() -> pending.isEmpty() && credits.tryAcquire(content.bytes()));
+        channel.send(content, true);
+        return !credits.isStopped();
+    }
+
+    /**
+     * Total time (in ms) the senders of this tag were parked for credits.
+     */
+    public long getStallMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(credits.getStallNanos());
     }
 
     public void close() {
         EndpointManager.INSTANCE.unregisterSendEndpoint(this);
         channel.close();
+        long stallCount = credits.getStallCount();
+        if (stallCount > 0) {
+            long stallMillis = getStallMillis();
+            DingoMetrics.latency("exchange_send_stall", stallMillis);
+            LogUtils.debug(log, "(tag = {}) Sender stalled {} times, {} ms in total.", tag, stallCount, stallMillis);
+        }
         LogUtils.debug(log, "(tag = {}) Closed channel to {}:{}.", tag, host, port);
     }
 
@@ -100,4 +197,9 @@ public class SendEndpoint {
         bos.write(binaryTag);
         return bos;
     }
+
+    @FunctionalInterface
+    private interface Condition {
+        boolean isMet();
+    }
 }
@@ -0,0 +1,447 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.codec;
+
+import io.dingodb.common.type.DingoType;
+import io.dingodb.common.type.DingoTypeFactory;
+import io.dingodb.common.type.scalar.BinaryType;
+import io.dingodb.common.type.scalar.BooleanType;
+import io.dingodb.common.type.scalar.DateType;
+import io.dingodb.common.type.scalar.DecimalType;
+import io.dingodb.common.type.scalar.DoubleType;
+import io.dingodb.common.type.scalar.FloatType;
+import io.dingodb.common.type.scalar.IntegerType;
+import io.dingodb.common.type.scalar.LongType;
+import io.dingodb.common.type.scalar.StringType;
+import io.dingodb.common.type.scalar.TimeType;
+import io.dingodb.common.type.scalar.TimestampType;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encode a batch of tuples column by column.
+ *
+ * <p>Each column is written as an optional null bitmap followed by the non-null values in a typed vector. Strings with
+ * few distinct values are dictionary encoded. Columns of types without a vector encoding (objects, lists, maps, ...)
+ * are encoded by Avro. The whole batch may be compressed if it is large enough.
+ */
+public class ColumnarTupleCodec implements TupleCodec {
+    private static final int NO_NULLS = 0;
+    private static final int WITH_NULLS = 1;
+    private static final int PLAIN = 0;
+    private static final int DICTIONARY = 1;
+    private static final int MAX_DICTIONARY_SIZE = 0xFFFF;
+    private static final int COMPRESS_THRESHOLD = 1024;
+
+    private final Kind[] kinds;
+    private final TupleCodec[] fallbackCodecs;
+    private final boolean compress;
+
+    public ColumnarTupleCodec(@NonNull DingoType schema, boolean compress) {
+        int size = schema.fieldCount();
+        this.kinds = new Kind[size];
+        this.fallbackCodecs = new TupleCodec[size];
+        for (int i = 0; i < size; ++i) {
+            DingoType type = schema.getChild(i);
+            kinds[i] = Kind.of(type);
+            if (kinds[i] == Kind.OTHER) {
+                fallbackCodecs[i] = new AvroTupleCodec(DingoTypeFactory.tuple(new DingoType[]{type}));
+            }
+        }
+        this.compress = compress;
+    }
+
+    private static void writeString(@NonNull DataOutputStream os, @NonNull Object value) throws IOException {
+        writeBytes(os, value.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(@NonNull DataOutputStream os, byte @NonNull [] bytes) throws IOException {
+        os.writeInt(bytes.length);
+        os.write(bytes);
+    }
+
+    private static @NonNull String readString(@NonNull DataInputStream is) throws IOException {
+        return new String(readBytes(is), StandardCharsets.UTF_8);
+    }
+
+    private static byte @NonNull [] readBytes(@NonNull DataInputStream is) throws IOException {
+        byte[] bytes = new byte[is.readInt()];
+        is.readFully(bytes);
+        return bytes;
+    }
+
+    @Override
+    public void encode(@NonNull OutputStream os, @NonNull List<Object @NonNull []> tuples) throws IOException {
+        int rows = tuples.size();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(buffer);
+        for (int i = 0; i < kinds.length; ++i) {
+            encodeColumn(body, tuples, i);
+        }
+        body.flush();
+        DataOutputStream dos = new DataOutputStream(os);
+        dos.writeInt(rows);
+        if (compress && buffer.size() >= COMPRESS_THRESHOLD) {
+            byte[] raw = buffer.toByteArray();
+            byte[] compressed = deflate(raw);
+            if (compressed.length < raw.length) {
+                dos.writeBoolean(true);
+                dos.writeInt(raw.length);
+                writeBytes(dos, compressed);
+                dos.flush();
+                return;
+            }
+        }
+        dos.writeBoolean(false);
+        buffer.writeTo(dos);
+        dos.flush();
+    }
+
+    private void encodeColumn(
+        @NonNull DataOutputStream os,
+        @NonNull List<Object[]> tuples,
+        int column
+    ) throws IOException {
+        int rows = tuples.size();
+        byte[] nulls = null;
+        for (int i = 0; i < rows; ++i) {
+            if (tuples.get(i)[column] == null) {
+                if (nulls == null) {
+                    nulls = new byte[(rows + 7) >>> 3];
+                }
+                nulls[i >>> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        if (nulls == null) {
+            os.writeByte(NO_NULLS);
+        } else {
+            os.writeByte(WITH_NULLS);
+            os.write(nulls);
+        }
+        Kind kind = kinds[column];
+        if (kind == Kind.STRING) {
+            encodeStrings(os, tuples, column);
+            return;
+        }
+        if (kind == Kind.OTHER) {
+            List<Object[]> values = new ArrayList<>(rows);
+            for (Object[] tuple : tuples) {
+                if (tuple[column] != null) {
+                    values.add(new Object[]{tuple[column]});
+                }
+            }
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            fallbackCodecs[column].encode(bos, values);
+            writeBytes(os, bos.toByteArray());
+            return;
+        }
+        for (Object[] tuple : tuples) {
+            Object value = tuple[column];
+            if (value == null) {
+                continue;
+            }
+            switch (kind) {
+                case INT:
+                    os.writeInt(((Number) value).intValue());
+                    break;
+                case LONG:
+                    os.writeLong(((Number) value).longValue());
+                    break;
+                case FLOAT:
+                    os.writeFloat(((Number) value).floatValue());
+                    break;
+                case DOUBLE:
+                    os.writeDouble(((Number) value).doubleValue());
+                    break;
+                case BOOLEAN:
+                    os.writeBoolean((Boolean) value);
+                    break;
+                case DATE:
+                case TIME:
+                case TIMESTAMP:
+                    os.writeLong(((java.util.Date) value).getTime());
+                    break;
+                case DECIMAL:
+                    writeString(os, value);
+                    break;
+                case BINARY:
+                    writeBytes(os, (byte[]) value);
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected column kind \"" + kind + "\".");
+            }
+        }
+    }
+
+    private static void encodeStrings(
+        @NonNull DataOutputStream os,
+        @NonNull List<Object[]> tuples,
+        int column
+    ) throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> entries = new ArrayList<>();
+        int count = 0;
+        for (Object[] tuple : tuples) {
+            Object value = tuple[column];
+            if (value != null) {
+                ++count;
+                if (entries.size() <= MAX_DICTIONARY_SIZE) {
+                    dictionary.computeIfAbsent(value.toString(), k -> {
+                        entries.add(k);
+                        return entries.size() - 1;
+                    });
+                }
+            }
+        }
+        // Use dictionary only if the values are repeated enough.
+        if (entries.size() > MAX_DICTIONARY_SIZE || entries.size() * 2 > count) {
+            os.writeByte(PLAIN);
+            for (Object[] tuple : tuples) {
+                Object value = tuple[column];
+                if (value != null) {
+                    writeString(os, value);
+                }
+            }
+            return;
+        }
+        os.writeByte(DICTIONARY);
+        os.writeInt(entries.size());
+        for (String entry : entries) {
+            writeString(os, entry);
+        }
+        boolean narrow = entries.size() <= 0xFF + 1;
+        for (Object[] tuple : tuples) {
+            Object value = tuple[column];
+            if (value != null) {
+                int index = dictionary.get(value.toString());
+                if (narrow) {
+                    os.writeByte(index);
+                } else {
+                    os.writeShort(index);
+                }
+            }
+        }
+    }
+
+    @Override
+    public @NonNull List<Object[]> decode(@NonNull InputStream is) throws IOException {
+        DataInputStream dis = new DataInputStream(is);
+        List<Object[]> result = new ArrayList<>();
+        while (true) {
+            int rows;
+            try {
+                rows = dis.readInt();
+            } catch (EOFException e) {
+                break;
+            }
+            DataInputStream body = dis;
+            if (dis.readBoolean()) {
+                int rawLength = dis.readInt();
+                body = new DataInputStream(new ByteArrayInputStream(inflate(readBytes(dis), rawLength)));
+            }
+            Object[][] tuples = new Object[rows][kinds.length];
+            for (int i = 0; i < kinds.length; ++i) {
+                decodeColumn(body, tuples, i);
+            }
+            result.addAll(Arrays.asList(tuples));
+        }
+        return result;
+    }
+
+    private void decodeColumn(
+        @NonNull DataInputStream is,
+        Object @NonNull [] @NonNull [] tuples,
+        int column
+    ) throws IOException {
+        int rows = tuples.length;
+        byte[] nulls = null;
+        if (is.readUnsignedByte() == WITH_NULLS) {
+            nulls = new byte[(rows + 7) >>> 3];
+            is.readFully(nulls);
+        }
+        Kind kind = kinds[column];
+        Iterator<Object[]> values = null;
+        String[] dictionary = null;
+        boolean narrow = false;
+        if (kind == Kind.STRING && is.readUnsignedByte() == DICTIONARY) {
+            dictionary = new String[is.readInt()];
+            for (int i = 0; i < dictionary.length; ++i) {
+                dictionary[i] = readString(is);
+            }
+            narrow = dictionary.length <= 0xFF + 1;
+        } else if (kind == Kind.OTHER) {
+            values = fallbackCodecs[column].decode(new ByteArrayInputStream(readBytes(is))).iterator();
+        }
+        for (int i = 0; i < rows; ++i) {
+            if (nulls != null && (nulls[i >>> 3] & (1 << (i & 7))) != 0) {
+                continue;
+            }
+            Object value;
+            switch (kind) {
+                case INT:
+                    value = is.readInt();
+                    break;
+                case LONG:
+                    value = is.readLong();
+                    break;
+                case FLOAT:
+                    value = is.readFloat();
+                    break;
+                case DOUBLE:
+                    value = is.readDouble();
+                    break;
+                case BOOLEAN:
+                    value = is.readBoolean();
+                    break;
+                case DATE:
+                    value = new Date(is.readLong());
+                    break;
+                case TIME:
+                    value = new Time(is.readLong());
+                    break;
+                case TIMESTAMP:
+                    value = new Timestamp(is.readLong());
+                    break;
+                case DECIMAL:
+                    value = new BigDecimal(readString(is));
+                    break;
+                case BINARY:
+                    value = readBytes(is);
+                    break;
+                case STRING:
+                    if (dictionary != null) {
+                        value = dictionary[narrow ? is.readUnsignedByte() : is.readUnsignedShort()];
+                    } else {
+                        value = readString(is);
+                    }
+                    break;
+                case OTHER:
+                    value = values.next()[0];
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected column kind \"" + kind + "\".");
+            }
+            tuples[i][column] = value;
+        }
+    }
+
+    private static byte @NonNull [] deflate(byte @NonNull [] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(raw.length / 2);
+            byte[] buf = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buf);
+                bos.write(buf, 0, n);
+            }
+            return bos.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte @NonNull [] inflate(byte @NonNull [] compressed, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int offset = 0;
+            while (offset < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, offset, rawLength - offset);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += n;
+            }
+            if (offset != rawLength) {
+                throw new IOException("Corrupted compressed tuple block, expected " + rawLength + " bytes, got "
+                    + offset + ".");
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private enum Kind {
+        INT,
+        LONG,
+        FLOAT,
+        DOUBLE,
+        BOOLEAN,
+        STRING,
+        DECIMAL,
+        DATE,
+        TIME,
+        TIMESTAMP,
+        BINARY,
+        OTHER;
+
+        static @NonNull Kind of(DingoType type) {
+            if (type instanceof IntegerType) {
+                return INT;
+            } else if (type instanceof LongType) {
+                return LONG;
+            } else if (type instanceof FloatType) {
+                return FLOAT;
+            } else if (type instanceof DoubleType) {
+                return DOUBLE;
+            } else if (type instanceof BooleanType) {
+                return BOOLEAN;
+            } else if (type instanceof StringType) {
+                return STRING;
+            } else if (type instanceof DecimalType) {
+                return DECIMAL;
+            } else if (type instanceof DateType) {
+                return DATE;
+            } else if (type instanceof TimeType) {
+                return TIME;
+            } else if (type instanceof TimestampType) {
+                return TIMESTAMP;
+            } else if (type instanceof BinaryType) {
+                return BINARY;
+            }
+            return OTHER;
+        }
+    }
+}
@@ -14,20 +14,21 @@
  * limitations under the License.
  */
 
-package io.dingodb.exec.operator.data;
+package io.dingodb.exec.codec;
 
-import lombok.Getter;
-import lombok.Setter;
-
-public class TupleWithJoinFlag {
-    @Getter
-    private final Object[] tuple;
-    @Getter
-    @Setter
-    private boolean joined;
+/**
+ * Format of tuples sent through an exchange edge. The receiver recognizes the format by the flag of each message, so
+ * the format can be chosen by the sender.
+ */
+public enum TupleFormat {
+    AVRO,
+    COLUMNAR,
+    COLUMNAR_COMPRESSED;
 
-    public TupleWithJoinFlag(Object[] tuple) {
-        this.tuple = tuple;
-        this.joined = false;
+    public static TupleFormat of(String name) {
+        if (name == null) {
+            return AVRO;
+        }
+        return valueOf(name.toUpperCase());
     }
 }
@@ -38,22 +38,49 @@ public class TxRxCodecImpl implements TxRxCodec {
     public static final int NORMAL_FIN_FLAG = 1;
     public static final int ABNORMAL_FIN_FLAG = 2;
     public static final int TUPLES_ID_FLAG = 3;
+    public static final int COLUMNAR_TUPLES_FLAG = 4;
+    public static final int COLUMNAR_TUPLES_ID_FLAG = 5;
 
+    private final DingoType schema;
+    private final TupleFormat format;
     private final TupleCodec codec;
+    private TupleCodec columnarCodec;
 
     public TxRxCodecImpl(@NonNull DingoType schema) {
+        this(schema, TupleFormat.AVRO);
+    }
+
+    public TxRxCodecImpl(@NonNull DingoType schema, @NonNull TupleFormat format) {
+        this.schema = schema;
+        this.format = format;
         this.codec = new AvroTupleCodec(schema);
+        if (format != TupleFormat.AVRO) {
+            columnarCodec = new ColumnarTupleCodec(schema, format == TupleFormat.COLUMNAR_COMPRESSED);
+        }
+    }
+
+    private @NonNull TupleCodec columnarCodec() {
+        // The decoder of columnar format is only needed when the sender chose it.
+        if (columnarCodec == null) {
+            columnarCodec = new ColumnarTupleCodec(schema, false);
+        }
+        return columnarCodec;
     }
 
     @Override
     public void encodeTuples(@NonNull OutputStream os, @NonNull List<Object[]> tuples) throws IOException {
-        os.write(TUPLES_FLAG);
-        codec.encode(os, tuples);
+        if (format == TupleFormat.AVRO) {
+            os.write(TUPLES_FLAG);
+            codec.encode(os, tuples);
+        } else {
+            os.write(COLUMNAR_TUPLES_FLAG);
+            columnarCodec.encode(os, tuples);
+        }
     }
 
     @Override
     public void encodeTupleIds(OutputStream os, List<TupleId> tupleIds) throws IOException {
-        os.write(TUPLES_ID_FLAG);
+        os.write(format == TupleFormat.AVRO ? TUPLES_ID_FLAG : COLUMNAR_TUPLES_ID_FLAG);
         os.write(PrimitiveCodec.encodeInt(tupleIds.size()));
         List<Object[]> tuples = new ArrayList<>();
         for (TupleId tupleId : tupleIds) {
@@ -61,7 +88,11 @@ public class TxRxCodecImpl implements TxRxCodec {
             os.write(tupleId.getIndexId() == null ? CommonId.EMPTY_INDEX.encode(): tupleId.getIndexId().encode());
             tuples.add(tupleId.getTuple());
         }
-        codec.encode(os, tuples);
+        if (format == TupleFormat.AVRO) {
+            codec.encode(os, tuples);
+        } else {
+            columnarCodec.encode(os, tuples);
+        }
     }
 
     @Override
@@ -81,11 +112,16 @@ public class TxRxCodecImpl implements TxRxCodec {
         switch (flag) {
             case TUPLES_FLAG:
                 return codec.decode(is).stream().map(t -> TupleId.builder().tuple(t).build()).collect(Collectors.toList());
+            case COLUMNAR_TUPLES_FLAG:
+                return columnarCodec().decode(is).stream()
+                    .map(t -> TupleId.builder().tuple(t).build())
+                    .collect(Collectors.toList());
             case NORMAL_FIN_FLAG:
                 return Collections.singletonList(TupleId.builder().tuple(new Object[]{FinWithProfiles.deserialize(is)}).build());
             case ABNORMAL_FIN_FLAG:
                 return Collections.singletonList(TupleId.builder().tuple(new Object[]{FinWithException.deserialize(is)}).build());
             case TUPLES_ID_FLAG:
+            case COLUMNAR_TUPLES_ID_FLAG:
                 byte[] sizeByte = new byte[4];
                 is.read(sizeByte, 0, 4);
                 int size = PrimitiveCodec.decodeInt(sizeByte);
@@ -99,7 +135,7 @@ public class TxRxCodecImpl implements TxRxCodec {
                     is.read(b2, 0 ,CommonId.LEN);
                     indexIds.add(CommonId.decode(b2));
                 }
-                List<Object[]> tuples = codec.decode(is);
+                List<Object[]> tuples = (flag == TUPLES_ID_FLAG ? codec : columnarCodec()).decode(is);
                 List<TupleId> tupleIds = new ArrayList<>();
                 for (int i = 0; i < partIds.size(); i++) {
                     CommonId indexId = indexIds.get(i);
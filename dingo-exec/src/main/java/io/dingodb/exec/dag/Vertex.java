@@ -48,7 +48,7 @@ public class Vertex {
     @JsonDeserialize(using = CommonId.JacksonDeserializer.class)
     private CommonId id;
     @Setter
-    private Task task;
+    private transient Task task;
 
     @JsonProperty("op")
     @JsonSerialize(using = CommonId.JacksonSerializer.class)
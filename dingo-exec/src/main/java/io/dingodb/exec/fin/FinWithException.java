@@ -20,6 +20,8 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import io.dingodb.expr.json.runtime.Parser;
+import io.dingodb.store.api.transaction.exception.DuplicateEntryException;
+import io.dingodb.store.api.transaction.exception.WriteConflictException;
 import lombok.Getter;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
@@ -47,6 +49,24 @@ public class FinWithException implements Fin {
         return new FinWithException(taskStatus);
     }
 
+    /**
+     * Report a failure of the task, with the error types the transaction tells apart.
+     */
+    public static @NonNull FinWithException of(String taskId, @NonNull Throwable e) {
+        TaskStatus taskStatus = new TaskStatus();
+        taskStatus.setStatus(false);
+        taskStatus.setTaskId(taskId);
+        taskStatus.setErrorMsg(e.toString());
+        if (e instanceof WriteConflictException) {
+            taskStatus.setErrorType(ErrorType.WriteConflict);
+        } else if (e instanceof DuplicateEntryException) {
+            taskStatus.setErrorType(ErrorType.DuplicateEntry);
+        } else {
+            taskStatus.setErrorType(ErrorType.TaskFin);
+        }
+        return new FinWithException(taskStatus);
+    }
+
     @Override
     public void writeStream(@NonNull OutputStream os) throws IOException {
         PARSER.writeStream(os, this);
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.fun.vector;
+
+import io.dingodb.common.exception.DingoSqlException;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * In-process distance kernels over primitive float arrays.
+ *
+ * <p>Results follow the store conventions: L2 is the squared euclidean distance, inner product is
+ * {@code 1 - dot} and cosine is {@code 1 - cos}.
+ */
+public final class VectorDistances {
+
+    private static final double EPSILON = 1E-30;
+
+    private VectorDistances() {
+    }
+
+    public enum Metric {
+        L2 {
+            @Override
+            public double distance(float @NonNull [] vectorA, float @NonNull [] vectorB) {
+                return l2(vectorA, vectorB);
+            }
+        },
+        INNER_PRODUCT {
+            @Override
+            public double distance(float @NonNull [] vectorA, float @NonNull [] vectorB) {
+                return innerProduct(vectorA, vectorB);
+            }
+        },
+        COSINE {
+            @Override
+            public double distance(float @NonNull [] vectorA, float @NonNull [] vectorB) {
+                return cosine(vectorA, vectorB);
+            }
+        };
+
+        public abstract double distance(float @NonNull [] vectorA, float @NonNull [] vectorB);
+
+        /**
+         * Resolve the metric from an index metric type or distance type name, defaults to L2 like the store does.
+         */
+        public static @NonNull Metric of(@Nullable String name) {
+            if (name != null) {
+                String upper = name.toUpperCase(Locale.ROOT);
+                if (upper.contains("INNER_PRODUCT")) {
+                    return INNER_PRODUCT;
+                }
+                if (upper.contains("COSINE")) {
+                    return COSINE;
+                }
+            }
+            return L2;
+        }
+    }
+
+    public static float @NonNull [] toFloatArray(@NonNull List<?> vector) {
+        float[] result = new float[vector.size()];
+        int i = 0;
+        for (Object value : vector) {
+            result[i++] = ((Number) value).floatValue();
+        }
+        return result;
+    }
+
+    public static double l2(float @NonNull [] vectorA, float @NonNull [] vectorB) {
+        checkDimension(vectorA, vectorB);
+        int length = vectorA.length;
+        int bound = length & ~3;
+        double sum0 = 0.0;
+        double sum1 = 0.0;
+        double sum2 = 0.0;
+        double sum3 = 0.0;
+        int i = 0;
+        for (; i < bound; i += 4) {
+            double diff0 = vectorA[i] - vectorB[i];
+            double diff1 = vectorA[i + 1] - vectorB[i + 1];
+            double diff2 = vectorA[i + 2] - vectorB[i + 2];
+            double diff3 = vectorA[i + 3] - vectorB[i + 3];
+            sum0 += diff0 * diff0;
+            sum1 += diff1 * diff1;
+            sum2 += diff2 * diff2;
+            sum3 += diff3 * diff3;
+        }
+        for (; i < length; i++) {
+            double diff = vectorA[i] - vectorB[i];
+            sum0 += diff * diff;
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    public static double innerProduct(float @NonNull [] vectorA, float @NonNull [] vectorB) {
+        checkDimension(vectorA, vectorB);
+        return 1 - dot(vectorA, vectorB);
+    }
+
+    public static double cosine(float @NonNull [] vectorA, float @NonNull [] vectorB) {
+        checkDimension(vectorA, vectorB);
+        double normA = Math.sqrt(dot(vectorA, vectorA)) + EPSILON;
+        double normB = Math.sqrt(dot(vectorB, vectorB)) + EPSILON;
+        return 1 - dot(vectorA, vectorB) / (normA * normB);
+    }
+
+    static double dot(float @NonNull [] vectorA, float @NonNull [] vectorB) {
+        int length = vectorA.length;
+        int bound = length & ~3;
+        double sum0 = 0.0;
+        double sum1 = 0.0;
+        double sum2 = 0.0;
+        double sum3 = 0.0;
+        int i = 0;
+        for (; i < bound; i += 4) {
+            sum0 += vectorA[i] * vectorB[i];
+            sum1 += vectorA[i + 1] * vectorB[i + 1];
+            sum2 += vectorA[i + 2] * vectorB[i + 2];
+            sum3 += vectorA[i + 3] * vectorB[i + 3];
+        }
+        for (; i < length; i++) {
+            sum0 += vectorA[i] * vectorB[i];
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    private static void checkDimension(float @NonNull [] vectorA, float @NonNull [] vectorB) {
+        if (vectorA.length != vectorB.length) {
+            throw new DingoSqlException(
+                "The dimensions of the source vector and the target vector must be consistent", 5001, "45000"
+            );
+        }
+    }
+}
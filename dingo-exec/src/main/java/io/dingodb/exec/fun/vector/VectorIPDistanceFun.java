@@ -16,7 +16,6 @@
 
 package io.dingodb.exec.fun.vector;
 
-import io.dingodb.common.exception.DingoSqlException;
 import io.dingodb.expr.runtime.ExprConfig;
 import io.dingodb.expr.runtime.op.BinaryOp;
 import io.dingodb.expr.runtime.op.OpKey;
@@ -30,6 +29,8 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
 
+import static io.dingodb.exec.fun.vector.VectorDistances.toFloatArray;
+
 @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 public class VectorIPDistanceFun extends BinaryVectorVectorFun {
     public static final VectorIPDistanceFun INSTANCE = new VectorIPDistanceFun();
@@ -38,24 +39,11 @@ public class VectorIPDistanceFun extends BinaryVectorVectorFun {
     private static final long serialVersionUID = 7869256649847747534L;
 
     public static double innerProduct(List<Float> vectorA, List<Float> vectorB) {
-        double dotProduct = 0.0;
-        for (int i = 0; i < vectorA.size(); i++) {
-            dotProduct += vectorA.get(i) * vectorB.get(i);
-        }
-        return 1 - dotProduct;
+        return VectorDistances.innerProduct(toFloatArray(vectorA), toFloatArray(vectorB));
     }
 
     public static double innerProductCombine(List<Float> vectorA, List<Number> vectorB) {
-        if (vectorA != null && vectorA.size() != vectorB.size()) {
-            throw new DingoSqlException(
-                "The dimensions of the source vector and the target vector must be consistent",5001, "45000"
-            );
-        }
-        double dotProduct = 0.0;
-        for (int i = 0; i < vectorA.size(); i++) {
-            dotProduct += vectorA.get(i) * vectorB.get(i).floatValue();
-        }
-        return 1 - dotProduct;
+        return VectorDistances.innerProduct(toFloatArray(vectorA), toFloatArray(vectorB));
     }
 
     @Override
@@ -16,7 +16,6 @@
 
 package io.dingodb.exec.fun.vector;
 
-import io.dingodb.common.exception.DingoSqlException;
 import io.dingodb.expr.runtime.ExprConfig;
 import io.dingodb.expr.runtime.op.BinaryOp;
 import io.dingodb.expr.runtime.op.OpKey;
@@ -26,6 +25,8 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 
 import java.util.List;
 
+import static io.dingodb.exec.fun.vector.VectorDistances.toFloatArray;
+
 public class VectorL2DistanceFun extends BinaryVectorVectorFun {
     public static final VectorL2DistanceFun INSTANCE = new VectorL2DistanceFun();
 
@@ -37,16 +38,7 @@ public class VectorL2DistanceFun extends BinaryVectorVectorFun {
     }
 
     public static double l2DistanceCombine(@NonNull List<Float> vectorA, List<Number> vectorB) {
-        if (vectorA.size() != vectorB.size()) {
-            throw new DingoSqlException(
-                "The dimensions of the source vector and the target vector must be consistent",5001, "45000"
-            );
-        }
-        double distance = 0.0;
-        for (int i = 0; i < vectorA.size(); i++) {
-            distance += Math.pow(vectorA.get(i) - vectorB.get(i).floatValue(), 2);
-        }
-        return distance;
+        return VectorDistances.l2(toFloatArray(vectorA), toFloatArray(vectorB));
     }
 
     @Override
@@ -20,6 +20,7 @@ import com.codahale.metrics.Timer;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import io.dingodb.common.CommonId;
 import io.dingodb.common.Location;
+import io.dingodb.common.codec.ProtostuffCodec;
 import io.dingodb.common.log.LogUtils;
 import io.dingodb.common.metrics.DingoMetrics;
 import io.dingodb.common.type.DingoType;
@@ -32,6 +33,7 @@ import io.dingodb.exec.base.Task;
 import io.dingodb.exec.base.TaskManager;
 import io.dingodb.exec.impl.message.CreateTaskMessage;
 import io.dingodb.exec.impl.message.DestroyTaskMessage;
+import io.dingodb.exec.impl.message.ResendTaskMessage;
 import io.dingodb.exec.impl.message.RunTaskMessage;
 import io.dingodb.exec.impl.message.TaskMessage;
 import io.dingodb.exec.operator.params.RootParam;
@@ -45,10 +47,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Slf4j
 public final class JobManagerImpl implements JobManager {
@@ -57,6 +62,12 @@ public final class JobManagerImpl implements JobManager {
 
     private final Map<CommonId, Job> jobMap = new ConcurrentHashMap<>();
     private final Map<Location, Channel> channelMap;
+    // Fragments sent through the channels opened by this job manager.
+    private final Map<Channel, PlanFragmentCache> sentFragments = new ConcurrentHashMap<>();
+    // Fragments received from the channels of remote job managers.
+    private final Map<Channel, PlanFragmentCache> receivedFragments = new ConcurrentHashMap<>();
+    // Messages of the tasks waiting for their fragments to be resent, by task id.
+    private final Map<CommonId, List<TaskMessage>> waitingTasks = new ConcurrentHashMap<>();
     @Getter
     private final TaskManager taskManager;
     private final IdGenerator idGenerator;
@@ -139,7 +150,7 @@ public final class JobManagerImpl implements JobManager {
             // Currently only root task is run at localhost, if a task is at localhost but not root task,
             // it is just ignored. Just distribute all the tasks to avoid this.
             try {
-                sendTaskMessage(task, new Message(TASK_TAG, new CreateTaskMessage(task).toBytes()));
+                sendCreateTaskMessage(task);
             } catch (Exception e) {
                 LogUtils.error(log, "jobId:{}, Error to distribute tasks.",job.getJobId(), e);
                 throw new RuntimeException("jobId:" + job.getJobId() + "taskId:" + task.getId() + ", Error to distribute tasks.", e);
@@ -157,13 +168,48 @@ public final class JobManagerImpl implements JobManager {
         }
     }
 
-    private void sendTaskMessage(@NonNull Task task, Message message) {
-        Location location = task.getLocation();
-        Channel channel = channelMap.computeIfAbsent(
-            location,
-            l -> Services.openNewSysChannel(l.getHost(), l.getPort())
+    private void sendCreateTaskMessage(@NonNull Task task) {
+        sendCreateTaskMessage(task, getChannel(task.getLocation()), false);
+    }
+
+    private void sendCreateTaskMessage(@NonNull Task task, @NonNull Channel channel, boolean resend) {
+        byte[] fragment = ProtostuffCodec.write(((TaskImpl) task).toFragment());
+        long fingerprint = PlanFragmentCache.fingerprint(fragment);
+        PlanFragmentCache cache = sentFragments.computeIfAbsent(
+            channel,
+            __ -> new PlanFragmentCache(PlanFragmentCache.DEFAULT_CAPACITY)
+        );
+        Consumer<byte[]> sender = bytes -> sendTaskMessage(
+            task,
+            channel,
+            new Message(TASK_TAG, new CreateTaskMessage(task, fingerprint, bytes).toBytes())
         );
-        channel.setCloseListener(__ -> channelMap.remove(location));
+        if (resend) {
+            DingoMetrics.meter("plan_fragment_resend").mark();
+            cache.resend(fingerprint, fragment, sender);
+        } else if (cache.send(fingerprint, fragment, sender)) {
+            DingoMetrics.meter("plan_fragment_hit").mark();
+        } else {
+            DingoMetrics.meter("plan_fragment_miss").mark();
+        }
+    }
+
+    private Channel getChannel(@NonNull Location location) {
+        return channelMap.computeIfAbsent(location, l -> {
+            Channel channel = Services.openNewSysChannel(l.getHost(), l.getPort());
+            channel.addCloseListener(ch -> {
+                channelMap.remove(l);
+                sentFragments.remove(ch);
+            });
+            return channel;
+        });
+    }
+
+    private void sendTaskMessage(@NonNull Task task, Message message) {
+        sendTaskMessage(task, getChannel(task.getLocation()), message);
+    }
+
+    private static void sendTaskMessage(@NonNull Task task, @NonNull Channel channel, Message message) {
         channel.send(message);
         ITransaction transaction = TransactionManager.getTransaction(task.getTxnId());
         if (transaction != null) {
@@ -171,7 +217,7 @@ public final class JobManagerImpl implements JobManager {
         }
     }
 
-    public void processMessage(@NonNull Message message) {
+    public void processMessage(@NonNull Message message, @NonNull Channel channel) {
         final Timer.Context timeCtx = DingoMetrics.getTimeContext("deserialize");
         TaskMessage taskMessage;
         try {
@@ -181,19 +227,61 @@ public final class JobManagerImpl implements JobManager {
             throw new RuntimeException("Cannot deserialize received TaskMessage.", e);
         }
         timeCtx.stop();
+        processMessage(taskMessage, channel);
+    }
+
+    private void processMessage(@NonNull TaskMessage taskMessage, @NonNull Channel channel) {
         if (taskMessage instanceof CreateTaskMessage) {
-            processCommand((CreateTaskMessage) taskMessage);
+            processCommand((CreateTaskMessage) taskMessage, channel);
         } else if (taskMessage instanceof RunTaskMessage) {
-            processCommand((RunTaskMessage) taskMessage);
+            RunTaskMessage cmd = (RunTaskMessage) taskMessage;
+            if (!waitFragment(cmd.getTaskId(), cmd)) {
+                processCommand(cmd);
+            }
         } else if (taskMessage instanceof DestroyTaskMessage) {
-            processCommand((DestroyTaskMessage) taskMessage);
+            DestroyTaskMessage cmd = (DestroyTaskMessage) taskMessage;
+            // The task is not created yet, nothing to destroy.
+            if (waitingTasks.remove(cmd.getTaskId()) == null) {
+                processCommand(cmd);
+            }
+        } else if (taskMessage instanceof ResendTaskMessage) {
+            processCommand((ResendTaskMessage) taskMessage, channel);
         }
     }
 
-    private void processCommand(@NonNull CreateTaskMessage cmd) {
+    /**
+     * Hold the message if the task is waiting for its fragment.
+     *
+     * @return {@code true} if the message is held
+     */
+    private boolean waitFragment(CommonId taskId, TaskMessage message) {
+        boolean[] waiting = {false};
+        waitingTasks.computeIfPresent(taskId, (k, messages) -> {
+            messages.add(message);
+            waiting[0] = true;
+            return messages;
+        });
+        return waiting[0];
+    }
+
+    private void processCommand(@NonNull CreateTaskMessage cmd, @NonNull Channel channel) {
         final long startTime = System.currentTimeMillis();
+        List<TaskMessage> waiting = null;
         try {
-            Task task = cmd.getTask();
+            byte[] fragment = resolveFragment(cmd, channel);
+            if (fragment == null) {
+                // Evicted or never received, ask for the full fragment and hold the following messages of the task.
+                LogUtils.warn(log, "Plan fragment {} of task {} is not cached.", cmd.getFingerprint(), cmd.getTaskId());
+                waitingTasks.put(cmd.getTaskId(), new ArrayList<>());
+                channel.send(new Message(TASK_TAG, new ResendTaskMessage(cmd.getJobId(), cmd.getTaskId()).toBytes()));
+                return;
+            }
+            Task task = TaskImpl.fromFragment(
+                cmd.getTaskId(),
+                cmd.getJobId(),
+                cmd.getTxnId(),
+                ProtostuffCodec.read(fragment)
+            );
             // 1、cross node need add transaction
             // 2、check whether the current node can execute transactions
             ITransaction transaction = TransactionManager.getTransaction(task.getTxnId() == null ? CommonId.EMPTY_TRANSACTION : task.getTxnId());
@@ -203,11 +291,38 @@ public final class JobManagerImpl implements JobManager {
                     task.getIsolationLevel().getCode());
             }
             taskManager.addTask(task);
+            waiting = waitingTasks.remove(cmd.getTaskId());
         } finally {
             final long cost = System.currentTimeMillis() - startTime;
             LogUtils.debug(log, "jobTime cost: {}ms.", cost);
             DingoMetrics.latency("on_task_message", cost);
         }
+        if (waiting != null) {
+            waiting.forEach(message -> processMessage(message, channel));
+        }
+    }
+
+    private byte @Nullable [] resolveFragment(@NonNull CreateTaskMessage cmd, @NonNull Channel channel) {
+        PlanFragmentCache cache = receivedFragments.computeIfAbsent(channel, ch -> {
+            ch.addCloseListener(receivedFragments::remove);
+            return new PlanFragmentCache(PlanFragmentCache.DEFAULT_CAPACITY);
+        });
+        byte[] fragment = cmd.getFragment();
+        if (fragment != null) {
+            cache.put(cmd.getFingerprint(), fragment);
+            return fragment;
+        }
+        return cache.get(cmd.getFingerprint());
+    }
+
+    private void processCommand(@NonNull ResendTaskMessage cmd, @NonNull Channel channel) {
+        Job job = jobMap.get(cmd.getJobId());
+        Task task = job == null ? null : job.getTask(cmd.getTaskId());
+        if (task == null) {
+            LogUtils.debug(log, "Task {} of job {} to resend is gone.", cmd.getTaskId(), cmd.getJobId());
+            return;
+        }
+        sendCreateTaskMessage(task, channel, true);
     }
 
     private void processCommand(@NonNull RunTaskMessage cmd) {
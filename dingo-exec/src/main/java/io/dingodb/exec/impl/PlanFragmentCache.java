@@ -0,0 +1,103 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.impl;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A bounded cache of serialized {@link TaskFragment}s, keyed by fingerprint.
+ *
+ * <p>One cache is kept for each channel at both ends: the job manager records the fragments it has sent, the
+ * executor records the fragments it has received. Entries are only put when a full fragment is sent successfully
+ * (received), and evicted in insertion order, so both ends hold the same entries as long as the messages of a channel
+ * are processed in order. The job manager can then send the fingerprint alone for a fragment already in its cache. If
+ * the executor misses it anyway, it asks for the full fragment by a
+ * {@link io.dingodb.exec.impl.message.ResendTaskMessage}.
+ */
+public final class PlanFragmentCache {
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final Map<Long, byte[]> fragments;
+
+    public PlanFragmentCache(int capacity) {
+        this.fragments = new LinkedHashMap<Long, byte[]>(capacity * 4 / 3 + 1) {
+            private static final long serialVersionUID = 2487296471528283627L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public static long fingerprint(byte[] bytes) {
+        // FNV-1a 64
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash ^ bytes.length;
+    }
+
+    /**
+     * Send a fragment by the sender, which is given {@code null} instead of the fragment if the same fragment is
+     * cached. The fragment is put into the cache only after it is sent, and the cache is held while sending, so the
+     * receiver gets the fragments in the order they are put.
+     *
+     * @param fingerprint the fingerprint of the fragment
+     * @param bytes the serialized fragment
+     * @param sender the function to send the fragment
+     * @return {@code true} if the same fragment is already cached
+     */
+    public synchronized boolean send(long fingerprint, byte[] bytes, @NonNull Consumer<byte @Nullable []> sender) {
+        byte[] old = fragments.get(fingerprint);
+        if (old != null && Arrays.equals(old, bytes)) {
+            sender.accept(null);
+            return true;
+        }
+        sender.accept(bytes);
+        fragments.put(fingerprint, bytes);
+        return false;
+    }
+
+    /**
+     * Send the full fragment by the sender, even if it is cached.
+     */
+    public synchronized void resend(long fingerprint, byte[] bytes, @NonNull Consumer<byte @Nullable []> sender) {
+        sender.accept(bytes);
+        fragments.put(fingerprint, bytes);
+    }
+
+    public synchronized void put(long fingerprint, byte[] bytes) {
+        fragments.put(fingerprint, bytes);
+    }
+
+    public synchronized byte[] get(long fingerprint) {
+        return fragments.get(fingerprint);
+    }
+
+    public synchronized int size() {
+        return fragments.size();
+    }
+}
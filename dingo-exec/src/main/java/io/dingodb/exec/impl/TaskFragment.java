@@ -0,0 +1,48 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.impl;
+
+import io.dingodb.common.CommonId;
+import io.dingodb.common.Location;
+import io.dingodb.common.type.DingoType;
+import io.dingodb.exec.dag.Vertex;
+import io.dingodb.exec.transaction.base.TransactionType;
+import io.dingodb.store.api.transaction.data.IsolationLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The job independent part of a task, i.e. everything except the task id, the job id and the txn id.
+ * Tasks of the same plan sent to the same location produce the same fragment bytes, which lets the executors
+ * cache them by fingerprint.
+ */
+@Getter
+@AllArgsConstructor
+public final class TaskFragment {
+    private final Location location;
+    private final Map<CommonId, Vertex> vertexes;
+    private final List<CommonId> runList;
+    private final DingoType parasType;
+    private final TransactionType transactionType;
+    private final IsolationLevel isolationLevel;
+    private final boolean bachTask;
+    private final long maxExecutionTime;
+    private final Boolean isSelect;
+}
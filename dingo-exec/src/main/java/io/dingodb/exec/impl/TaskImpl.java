@@ -34,15 +34,12 @@ import io.dingodb.exec.base.Operator;
 import io.dingodb.exec.base.Status;
 import io.dingodb.exec.base.Task;
 import io.dingodb.exec.dag.Vertex;
-import io.dingodb.exec.fin.ErrorType;
 import io.dingodb.exec.fin.FinWithException;
 import io.dingodb.exec.fin.TaskStatus;
 import io.dingodb.exec.operator.SourceOperator;
 import io.dingodb.exec.operator.data.Context;
 import io.dingodb.exec.transaction.base.TransactionType;
 import io.dingodb.store.api.transaction.data.IsolationLevel;
-import io.dingodb.store.api.transaction.exception.DuplicateEntryException;
-import io.dingodb.store.api.transaction.exception.WriteConflictException;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -254,18 +251,7 @@ public final class TaskImpl implements Task {
                 } catch (RuntimeException e) {
                     LogUtils.error(log, "Run Task:{} catch operator:{} run Exception:{}",
                         getId().toString(), vertex.getId(), e, e);
-                    TaskStatus taskStatus = new TaskStatus();
-                    taskStatus.setStatus(false);
-                    taskStatus.setTaskId(vertex.getTask().getId().toString());
-                    taskStatus.setErrorMsg(e.toString());
-                    if (e instanceof WriteConflictException) {
-                        taskStatus.setErrorType(ErrorType.WriteConflict);
-                    } else if (e instanceof DuplicateEntryException) {
-                        taskStatus.setErrorType(ErrorType.DuplicateEntry);
-                    } else {
-                        taskStatus.setErrorType(ErrorType.TaskFin);
-                    }
-                    operator.fin(0, FinWithException.of(taskStatus), vertex);
+                    operator.fin(0, FinWithException.of(vertex.getTask().getId().toString(), e), vertex);
                 } finally {
                     activeTaskCount.decrementAndGet();
                     LogUtils.debug(log, "TaskImpl run cost: {}ms.", System.currentTimeMillis() - startTime);
@@ -295,6 +281,43 @@ public final class TaskImpl implements Task {
         this.bachTask = bathTask;
     }
 
+    public TaskFragment toFragment() {
+        return new TaskFragment(
+            location,
+            vertexes,
+            runList,
+            parasType,
+            transactionType,
+            isolationLevel,
+            bachTask,
+            maxExecutionTime,
+            isSelect
+        );
+    }
+
+    public static @NonNull TaskImpl fromFragment(
+        CommonId id,
+        CommonId jobId,
+        CommonId txnId,
+        @NonNull TaskFragment fragment
+    ) {
+        TaskImpl task = new TaskImpl(
+            id,
+            jobId,
+            txnId,
+            fragment.getLocation(),
+            fragment.getParasType(),
+            fragment.getTransactionType(),
+            fragment.getIsolationLevel(),
+            fragment.getMaxExecutionTime(),
+            fragment.getIsSelect()
+        );
+        task.vertexes.putAll(fragment.getVertexes());
+        task.runList.addAll(fragment.getRunList());
+        task.bachTask = fragment.isBachTask();
+        return task;
+    }
+
     @Override
     public String toString() {
         try {
@@ -17,24 +17,62 @@
 package io.dingodb.exec.impl.message;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.dingodb.common.CommonId;
 import io.dingodb.exec.base.Task;
-import io.dingodb.exec.impl.TaskImpl;
 import lombok.Getter;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
+/**
+ * Create a task on the executor. The job independent part of the task is sent as serialized
+ * {@link io.dingodb.exec.impl.TaskFragment} bytes, which are omitted if the executor has cached them already.
+ */
 @JsonTypeName("create")
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class CreateTaskMessage extends TaskMessage {
+    @JsonProperty("job")
+    @Getter
+    @JsonSerialize(using = CommonId.JacksonSerializer.class)
+    @JsonDeserialize(using = CommonId.JacksonDeserializer.class)
+    private final CommonId jobId;
     @JsonProperty("task")
     @Getter
-    private final Task task;
+    @JsonSerialize(using = CommonId.JacksonSerializer.class)
+    @JsonDeserialize(using = CommonId.JacksonDeserializer.class)
+    private final CommonId taskId;
+    @JsonProperty("txn")
+    @Getter
+    @JsonSerialize(using = CommonId.JacksonSerializer.class)
+    @JsonDeserialize(using = CommonId.JacksonDeserializer.class)
+    private final CommonId txnId;
+    @JsonProperty("fingerprint")
+    @Getter
+    private final long fingerprint;
+    @JsonProperty("fragment")
+    @Getter
+    private final byte @Nullable [] fragment;
 
     @JsonCreator
     public CreateTaskMessage(
-        @JsonDeserialize(as = TaskImpl.class)
-        @JsonProperty("task") Task task
+        @JsonProperty("job") CommonId jobId,
+        @JsonProperty("task") CommonId taskId,
+        @JsonProperty("txn") CommonId txnId,
+        @JsonProperty("fingerprint") long fingerprint,
+        @JsonProperty("fragment") byte @Nullable [] fragment
     ) {
-        this.task = task;
+        this.jobId = jobId;
+        this.taskId = taskId;
+        this.txnId = txnId;
+        this.fingerprint = fingerprint;
+        this.fragment = fragment;
+    }
+
+    public CreateTaskMessage(@NonNull Task task, long fingerprint, byte @Nullable [] fragment) {
+        this(task.getJobId(), task.getId(), task.getTxnId(), fingerprint, fragment);
     }
 }
@@ -16,9 +16,12 @@
 
 package io.dingodb.exec.operator;
 
+import io.dingodb.common.profile.OperatorProfile;
+import io.dingodb.exec.aggregate.AggCache;
 import io.dingodb.exec.dag.Edge;
 import io.dingodb.exec.dag.Vertex;
 import io.dingodb.exec.fin.Fin;
+import io.dingodb.exec.fin.FinWithProfiles;
 import io.dingodb.exec.operator.data.Context;
 import io.dingodb.exec.operator.params.AggregateParams;
 import lombok.extern.slf4j.Slf4j;
@@ -42,11 +45,17 @@ public final class AggregateOperator extends SoleOutOperator {
     public  void fin(int pin, Fin fin, Vertex vertex) {
         AggregateParams params = vertex.getParam();
         Edge edge = vertex.getSoleEdge();
-        for (Object[] t : params.getCache()) {
+        AggCache cache = params.getCache();
+        for (Object[] t : cache) {
             if (!edge.transformToNext(t)) {
                 break;
             }
         }
+        if (fin instanceof FinWithProfiles) {
+            OperatorProfile profile = params.getProfile("aggregate");
+            cache.fillProfile(profile);
+            ((FinWithProfiles) fin).addProfile(profile);
+        }
         edge.fin(fin);
         // Reset
         params.clear();
@@ -19,18 +19,19 @@ package io.dingodb.exec.operator;
 import com.google.common.primitives.Bytes;
 import io.dingodb.common.exception.DingoSqlException;
 import io.dingodb.common.log.LogUtils;
-import io.dingodb.exec.dag.Edge;
 import io.dingodb.exec.dag.Vertex;
 import io.dingodb.exec.fin.Fin;
+import io.dingodb.exec.fin.FinWithException;
 import io.dingodb.exec.operator.data.Context;
+import io.dingodb.exec.operator.data.ExportFile;
+import io.dingodb.exec.operator.data.ExportWriter;
 import io.dingodb.exec.operator.params.ExportDataParam;
 import lombok.extern.slf4j.Slf4j;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.ArrayList;
@@ -53,7 +54,7 @@ public class ExportDataOperator extends SoleOutOperator {
     private final String FILE_EXISTS = "Error 1086(HY000): File '%s' already exists";
     private final byte[] EMPTY_BYTES = "\\N".getBytes();
 
-    private final Map<String, FileOutputStream> fileMap = new ConcurrentHashMap<>();
+    private final Map<String, ExportFile> fileMap = new ConcurrentHashMap<>();
 
     @Override
     public boolean push(Context context, @Nullable Object[] tuple, Vertex vertex) {
@@ -71,17 +72,11 @@ public class ExportDataOperator extends SoleOutOperator {
         byte[] lineStarting = param.getLineStarting();
         String charset = param.getCharset();
 
-        FileOutputStream writer = fileMap.get(param.getId());
         try {
+            ExportWriter writer = param.getWriter();
             if (writer == null) {
-                File file = new File(param.getOutfile());
-                if (!file.exists()) {
-                    file.createNewFile();
-                } else {
-                    throw new DingoSqlException(String.format(FILE_EXISTS, param.getOutfile()));
-                }
-                writer = new FileOutputStream(param.getOutfile());
-                fileMap.put(param.getId(), writer);
+                writer = new ExportWriter(openFile(param));
+                param.setWriter(writer);
             }
 
             int tupleLength = tuple.length;
@@ -97,9 +92,7 @@ public class ExportDataOperator extends SoleOutOperator {
                 if (val == null) {
                     writer.write(EMPTY_BYTES);
                 } else if (val instanceof byte[]) {
-                    byte[] bytes = (byte[]) val;
-                    String base64String = Base64.getEncoder().encodeToString(bytes);
-                    writer.write(base64String.getBytes());
+                    writer.write(Base64.getEncoder().encode((byte[]) val));
                 } else if (val instanceof Timestamp) {
                     writer.write(getTimeStamp((Timestamp) val).getBytes());
                 } else if (val instanceof Time) {
@@ -113,7 +106,7 @@ public class ExportDataOperator extends SoleOutOperator {
                     }
                 } else if (val instanceof ArrayList) {
                     List<Object> list = (List<Object>) val;
-                    writer.write("[".getBytes());
+                    writer.write('[');
                     StringBuilder line = new StringBuilder();
                     int len = list.size();
                     int limitLen = len - 1;
@@ -124,7 +117,7 @@ public class ExportDataOperator extends SoleOutOperator {
                         }
                     }
                     writer.write(line.toString().getBytes(charset));
-                    writer.write("]".getBytes());
+                    writer.write(']');
                 } else if (val instanceof String) {
                     byte[] bytes = val.toString().getBytes(charset);
                     bytes = combineEscaped(bytes, terminated, lineTerminated, lineStarting, param.getEscaped());
@@ -144,26 +137,53 @@ public class ExportDataOperator extends SoleOutOperator {
                 }
             }
             writer.write(lineTerminated);
+            writer.endRow();
         } catch (IOException e) {
             throw new DingoSqlException(String.format(WRITE_FILE_ERROR, param.getOutfile()));
         }
     }
 
+    private ExportFile openFile(ExportDataParam param) throws IOException {
+        // vertices of one statement share the file
+        synchronized (fileMap) {
+            ExportFile file = fileMap.get(param.getId());
+            if (file == null) {
+                try {
+                    file = ExportFile.create(param.getOutfile());
+                } catch (FileAlreadyExistsException e) {
+                    throw new DingoSqlException(String.format(FILE_EXISTS, param.getOutfile()));
+                }
+                fileMap.put(param.getId(), file);
+            }
+            return file;
+        }
+    }
+
     @Override
     public void fin(int pin, @Nullable Fin fin, Vertex vertex) {
-        Edge edge = vertex.getSoleEdge();
-        try {
-            ExportDataParam param = vertex.getParam();
-            FileOutputStream writer = fileMap.get(param.getId());
-            if (writer != null) {
-                writer.close();
-                fileMap.remove(param.getId());
+        ExportDataParam param = vertex.getParam();
+        ExportWriter writer = param.getWriter();
+        if (writer != null) {
+            param.setWriter(null);
+            try {
+                synchronized (fileMap) {
+                    if (writer.close()) {
+                        fileMap.remove(param.getId());
+                    }
+                }
+                LogUtils.info(log, "Exported {} rows to {}.", writer.getRows(), param.getOutfile());
+            } catch (IOException | RuntimeException e) {
+                LogUtils.error(log, e.getMessage(), e);
+                // The tail of the file is lost, so the export must not be reported as done.
+                if (!(fin instanceof FinWithException)) {
+                    fin = FinWithException.of(
+                        vertex.getTask().getId().toString(),
+                        new DingoSqlException(String.format(WRITE_FILE_ERROR, param.getOutfile()))
+                    );
+                }
             }
-        } catch (IOException e) {
-            LogUtils.error(log, e.getMessage(), e);
-        } finally {
-            edge.fin(fin);
         }
+        vertex.getSoleEdge().fin(fin);
     }
 
     public static byte[] combineEscaped(byte[] source, byte[] fieldTerm, byte[] lineTerm,
@@ -17,14 +17,14 @@
 package io.dingodb.exec.operator;
 
 import com.google.common.collect.Iterators;
-import io.dingodb.common.CommonId;
+import io.dingodb.codec.KeyValueCodec;
 import io.dingodb.common.partition.RangeDistribution;
-import io.dingodb.common.store.KeyValue;
 import io.dingodb.common.type.TupleMapping;
 import io.dingodb.common.util.ByteArrayUtils;
 import io.dingodb.common.util.Optional;
 import io.dingodb.exec.Services;
 import io.dingodb.exec.dag.Vertex;
+import io.dingodb.exec.operator.data.BatchLookupIterator;
 import io.dingodb.exec.operator.data.Context;
 import io.dingodb.exec.operator.params.GetByIndexParam;
 import io.dingodb.meta.MetaService;
@@ -37,7 +37,6 @@ import io.dingodb.store.api.StoreService;
 import lombok.extern.slf4j.Slf4j;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
@@ -62,38 +61,39 @@ public final class GetByIndexOperator extends FilterProjectOperator {
             store.scan(System.identityHashCode(keys), keys),
             wrap(param.getCodec()::decode)::apply
         );
-        List<Object[]> objectList = new ArrayList<>();
-        while (iterator.hasNext()) {
-            Object[] objects = iterator.next();
-            if (param.isLookup()) {
-                Object[] val = lookUp(objects, param);
-                if (val != null) {
-                    objectList.add(val);
-                }
-            } else {
-                objectList.add(transformTuple(objects, param));
-            }
+        if (!param.isLookup()) {
+            return Iterators.transform(iterator, objects -> transformTuple(objects, param));
         }
-
-        return objectList.iterator();
+        return lookUp(iterator, param);
     }
 
-    private static Object[] lookUp(Object[] tuples, GetByIndexParam param) {
+    private static Iterator<Object[]> lookUp(Iterator<Object[]> iterator, GetByIndexParam param) {
         TupleMapping indices = param.getKeyMapping();
         Table tableDefinition = param.getTable();
         NavigableMap<ByteArrayUtils.ComparableByteArray, RangeDistribution> ranges =
             MetaService.root().getRangeDistribution(tableDefinition.tableId);
-        Object[] keyTuples = new Object[tableDefinition.getColumns().size()];
-        for (int i = 0; i < indices.getMappings().length; i ++) {
-            keyTuples[indices.get(i)] = tuples[i];
-        }
-        byte[] keys = param.getLookupCodec().encodeKey(keyTuples);
-        CommonId regionId = PartitionService.getService(
-                Optional.ofNullable(tableDefinition.getPartitionStrategy())
-                    .orElse(DingoPartitionServiceProvider.RANGE_FUNC_NAME))
-                .calcPartId(keys, ranges);
-        StoreInstance storeInstance = StoreService.getDefault().getInstance(param.getTableId(), regionId);
-        return param.getLookupCodec().decode(storeInstance.get(keys));
+        PartitionService ps = PartitionService.getService(
+            Optional.ofNullable(tableDefinition.getPartitionStrategy())
+                .orElse(DingoPartitionServiceProvider.RANGE_FUNC_NAME));
+        KeyValueCodec lookupCodec = param.getLookupCodec();
+        Iterator<byte[]> keys = Iterators.transform(iterator, tuples -> {
+            Object[] keyTuples = new Object[tableDefinition.getColumns().size()];
+            for (int i = 0; i < indices.getMappings().length; i ++) {
+                keyTuples[indices.get(i)] = tuples[i];
+            }
+            return lookupCodec.encodeKey(keyTuples);
+        });
+        return new BatchLookupIterator(
+            "get-by-index",
+            keys,
+            key -> ps.calcPartId(key, ranges),
+            null,
+            (regionId, batch) -> StoreService.getDefault().getInstance(param.getTableId(), regionId)
+                .get(System.identityHashCode(batch), batch),
+            lookupCodec::decode,
+            BatchLookupIterator.DEFAULT_BATCH_SIZE,
+            BatchLookupIterator.DEFAULT_MAX_IN_FLIGHT
+        );
     }
 
     private static Object[] transformTuple(Object[] tuple, GetByIndexParam param) {
@@ -18,23 +18,20 @@ package io.dingodb.exec.operator;
 
 import io.dingodb.common.profile.OperatorProfile;
 import io.dingodb.common.profile.Profile;
-import io.dingodb.common.type.TupleMapping;
 import io.dingodb.exec.dag.Edge;
 import io.dingodb.exec.dag.Vertex;
 import io.dingodb.exec.fin.Fin;
 import io.dingodb.exec.fin.FinWithException;
 import io.dingodb.exec.fin.FinWithProfiles;
 import io.dingodb.exec.operator.data.Context;
-import io.dingodb.exec.operator.data.TupleWithJoinFlag;
+import io.dingodb.exec.operator.hash.HashJoinTable;
+import io.dingodb.exec.operator.hash.HashJoinWorkers;
+import io.dingodb.exec.operator.hash.JoinHashMap;
 import io.dingodb.exec.operator.params.HashJoinParam;
-import io.dingodb.exec.tuple.TupleKey;
 import lombok.extern.slf4j.Slf4j;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
 
 @Slf4j
 public class HashJoinOperator extends SoleOutOperator {
@@ -45,76 +42,85 @@ public class HashJoinOperator extends SoleOutOperator {
 
     @Override
     public boolean push(Context context, @Nullable Object[] tuple, Vertex vertex) {
-        Edge edge = vertex.getSoleEdge();
         HashJoinParam param = vertex.getParam();
         OperatorProfile profile = param.getProfile("hashJoin");
         long start = System.currentTimeMillis();
-        TupleMapping leftMapping = param.getLeftMapping();
-        TupleMapping rightMapping = param.getRightMapping();
-        int leftLength = param.getLeftLength();
-        int rightLength = param.getRightLength();
-        boolean leftRequired = param.isLeftRequired();
         int pin = context.getPin();
         param.setContext(context);
+        boolean goOn = true;
         if (pin == 0) { // left
             waitRightFinFlag(param);
-            TupleKey leftKey = new TupleKey(leftMapping.revMap(tuple));
-            List<TupleWithJoinFlag> rightList = param.getHashMap().get(leftKey);
-            if (rightList != null) {
-                for (TupleWithJoinFlag t : rightList) {
-                    Object[] newTuple = Arrays.copyOf(tuple, leftLength + rightLength);
-                    System.arraycopy(t.getTuple(), 0, newTuple, leftLength, rightLength);
-                    t.setJoined(true);
-                    if (!edge.transformToNext(context, newTuple)) {
-                        profile.time(start);
-                        return false;
-                    }
+            HashJoinTable table = param.getTable();
+            Edge edge = vertex.getSoleEdge();
+            if (param.isParallel()) {
+                HashJoinWorkers workers = param.getProbeWorkers();
+                if (!workers.isStarted()) {
+                    workers.start((c, t) -> probeOrDefer(c, t, table.probeHash(t), table, param, edge));
                 }
-            } else if (leftRequired) {
-                Object[] newTuple = Arrays.copyOf(tuple, leftLength + rightLength);
-                Arrays.fill(newTuple, leftLength, leftLength + rightLength, null);
-                profile.time(start);
-                return edge.transformToNext(context, newTuple);
+                int worker = HashJoinTable.workerOf(table.probeHash(tuple), param.getParallelism());
+                goOn = workers.submit(worker, context.duplicate(), tuple);
+            } else {
+                goOn = probeOrDefer(context, tuple, table.probeHash(tuple), table, param, edge);
             }
         } else if (pin == 1) { //right
-            TupleKey rightKey = new TupleKey(rightMapping.revMap(tuple));
-            List<TupleWithJoinFlag> list = param.getHashMap()
-                .computeIfAbsent(rightKey, k -> Collections.synchronizedList(new LinkedList<>()));
-            list.add(new TupleWithJoinFlag(tuple));
+            HashJoinTable table = param.getTable();
+            if (param.isParallel()) {
+                HashJoinWorkers workers = param.getBuildWorkers();
+                if (!workers.isStarted()) {
+                    workers.start((c, t) -> {
+                        table.build(t);
+                        return true;
+                    });
+                }
+                workers.submit(HashJoinTable.workerOf(table.buildHash(tuple), param.getParallelism()), null, tuple);
+            } else {
+                // Without workers, the right tuples may be pushed by different threads.
+                synchronized (table) {
+                    table.build(tuple);
+                }
+            }
         }
         profile.time(start);
-        return true;
+        return goOn;
     }
 
     @Override
     public void fin(int pin, Fin fin, Vertex vertex) {
         Edge edge = vertex.getSoleEdge();
+        HashJoinParam param = vertex.getParam();
         if (fin instanceof FinWithException) {
+            if (param.isParallel()) {
+                param.getBuildWorkers().close();
+                param.getProbeWorkers().close();
+            }
+            // drop the partitions and their spill files now, not at the next init
+            param.getTable().clear();
             edge.fin(fin);
             return;
         }
-        HashJoinParam param = vertex.getParam();
-        boolean rightRequired = param.isRightRequired();
-        int leftLength = param.getLeftLength();
-        int rightLength = param.getRightLength();
         if (pin == 0) { // left
-            if (rightRequired) {
-                // should wait in case of no data push to left.
-                waitRightFinFlag(param);
-                outer:
-                for (List<TupleWithJoinFlag> tList : param.getHashMap().values()) {
-                    for (TupleWithJoinFlag t : tList) {
-                        if (!t.isJoined()) {
-                            Object[] newTuple = new Object[leftLength + rightLength];
-                            Arrays.fill(newTuple, 0, leftLength, null);
-                            System.arraycopy(t.getTuple(), 0, newTuple, leftLength, rightLength);
-                            if (!edge.transformToNext(param.getContext(), newTuple)) {
-                                break outer;
-                            }
-                        }
+            // should wait in case of no data push to left.
+            waitRightFinFlag(param);
+            HashJoinTable table = param.getTable();
+            boolean goOn = true;
+            if (param.isParallel()) {
+                param.getProbeWorkers().finish();
+                goOn = !param.getProbeWorkers().isStopped();
+            }
+            if (goOn && param.isRightRequired()) {
+                for (JoinHashMap map : table.getInMemoryMaps()) {
+                    goOn = outputUnmatched(map, param, edge);
+                    if (!goOn) {
+                        break;
                     }
                 }
             }
+            for (HashJoinTable.Partition partition : table.getSpilledPartitions()) {
+                if (goOn) {
+                    goOn = joinSpilled(partition, param, edge);
+                }
+                partition.clear();
+            }
             if (fin instanceof FinWithProfiles) {
                 FinWithProfiles finWithProfiles = (FinWithProfiles) fin;
                 param.setProfileLeft(finWithProfiles.getProfile());
@@ -122,6 +128,7 @@ public class HashJoinOperator extends SoleOutOperator {
                 if (profile == null) {
                     profile = param.getProfile("hashJoin");
                 }
+                table.fillProfile(profile);
                 profile.getChildren().add(param.profileLeft);
                 profile.getChildren().add(param.profileRight);
                 finWithProfiles.setProfile(profile);
@@ -130,6 +137,14 @@ public class HashJoinOperator extends SoleOutOperator {
             // Reset
             param.clear();
         } else if (pin == 1) { //right
+            if (param.isParallel()) {
+                try {
+                    param.getBuildWorkers().finish();
+                } catch (RuntimeException e) {
+                    param.getFuture().completeExceptionally(e);
+                    throw e;
+                }
+            }
             param.setRightFinFlag(true);
             param.getFuture().complete(null);
 
@@ -140,6 +155,123 @@ public class HashJoinOperator extends SoleOutOperator {
         }
     }
 
+    private static boolean probeOrDefer(
+        Context context,
+        Object[] tuple,
+        int hash,
+        HashJoinTable table,
+        HashJoinParam param,
+        Edge edge
+    ) {
+        HashJoinTable.Partition partition = table.partition(hash);
+        if (partition.isSpilled()) {
+            // Joined when the left side is finished.
+            if (param.isParallel()) {
+                partition.deferProbe(context, tuple);
+            } else {
+                // Without workers, the left tuples may be pushed by different threads.
+                synchronized (partition) {
+                    partition.deferProbe(context, tuple);
+                }
+            }
+            return true;
+        }
+        return probe(context, tuple, hash, partition.getMap(), param, edge);
+    }
+
+    private static boolean probe(
+        Context context,
+        Object[] tuple,
+        int hash,
+        JoinHashMap map,
+        HashJoinParam param,
+        Edge edge
+    ) {
+        int leftLength = param.getLeftLength();
+        int rightLength = param.getRightLength();
+        boolean rightRequired = param.isRightRequired();
+        int row = map.find(hash, tuple);
+        if (row >= 0) {
+            do {
+                Object[] newTuple = Arrays.copyOf(tuple, leftLength + rightLength);
+                System.arraycopy(map.getRow(row), 0, newTuple, leftLength, rightLength);
+                if (rightRequired) {
+                    map.setMatched(row);
+                }
+                if (!edge.transformToNext(context, newTuple)) {
+                    return false;
+                }
+                row = map.next(row);
+            } while (row >= 0);
+        } else if (param.isLeftRequired()) {
+            Object[] newTuple = Arrays.copyOf(tuple, leftLength + rightLength);
+            Arrays.fill(newTuple, leftLength, leftLength + rightLength, null);
+            return edge.transformToNext(context, newTuple);
+        }
+        return true;
+    }
+
+    private static boolean outputUnmatched(JoinHashMap map, HashJoinParam param, Edge edge) {
+        int leftLength = param.getLeftLength();
+        int rightLength = param.getRightLength();
+        for (int row = 0; row < map.size(); ++row) {
+            if (!map.isMatched(row)) {
+                Object[] newTuple = new Object[leftLength + rightLength];
+                Arrays.fill(newTuple, 0, leftLength, null);
+                System.arraycopy(map.getRow(row), 0, newTuple, leftLength, rightLength);
+                if (!edge.transformToNext(param.getContext(), newTuple)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean joinSpilled(HashJoinTable.Partition partition, HashJoinParam param, Edge edge) {
+        HashJoinTable table = param.getTable();
+        if (partition.isOversized()) {
+            HashJoinTable subTable = partition.repartition();
+            try {
+                return joinRepartitioned(subTable, partition, param, edge);
+            } finally {
+                subTable.clear();
+            }
+        }
+        partition.load();
+        JoinHashMap map = partition.getMap();
+        if (!partition.forEachProbe((c, t) -> probe(c, t, table.probeHash(t), map, param, edge))) {
+            return false;
+        }
+        if (param.isRightRequired()) {
+            return outputUnmatched(partition.getMap(), param, edge);
+        }
+        return true;
+    }
+
+    private static boolean joinRepartitioned(
+        HashJoinTable subTable,
+        HashJoinTable.Partition partition,
+        HashJoinParam param,
+        Edge edge
+    ) {
+        if (!partition.forEachProbe((c, t) -> probeOrDefer(c, t, subTable.probeHash(t), subTable, param, edge))) {
+            return false;
+        }
+        if (param.isRightRequired()) {
+            for (JoinHashMap map : subTable.getInMemoryMaps()) {
+                if (!outputUnmatched(map, param, edge)) {
+                    return false;
+                }
+            }
+        }
+        for (HashJoinTable.Partition spilled : subTable.getSpilledPartitions()) {
+            if (!joinSpilled(spilled, param, edge)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static void waitRightFinFlag(HashJoinParam param) {
         param.getFuture().join();
         if (!param.isRightFinFlag()) {
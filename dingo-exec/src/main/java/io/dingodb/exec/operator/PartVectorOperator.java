@@ -17,11 +17,12 @@
 package io.dingodb.exec.operator;
 
 import io.dingodb.common.CommonId;
-import io.dingodb.common.partition.PartitionDefinition;
 import io.dingodb.common.store.KeyValue;
+import io.dingodb.common.util.ByteArrayUtils.ComparableByteArray;
 import io.dingodb.common.util.Optional;
 import io.dingodb.common.vector.VectorSearchResponse;
 import io.dingodb.exec.dag.Vertex;
+import io.dingodb.exec.operator.data.BatchLookupIterator;
 import io.dingodb.exec.operator.params.PartVectorParam;
 import io.dingodb.partition.DingoPartitionServiceProvider;
 import io.dingodb.partition.PartitionService;
@@ -34,6 +35,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import static io.dingodb.common.util.ByteArrayUtils.SKIP_LONG_POS;
 
 @Slf4j
 public final class PartVectorOperator extends FilterProjectSourceOperator {
@@ -46,7 +52,6 @@ public final class PartVectorOperator extends FilterProjectSourceOperator {
     protected @NonNull Iterator<Object[]> createSourceIterator(Vertex vertex) {
         PartVectorParam param = vertex.getParam();
         StoreInstance instance = StoreService.getDefault().getInstance(param.getTableId(), param.getPartId());
-        List<Object[]> results = new ArrayList<>();
 
         // Get all table data response
         List<VectorSearchResponse> searchResponseList = instance.vectorSearch(
@@ -54,19 +59,49 @@ public final class PartVectorOperator extends FilterProjectSourceOperator {
             param.getFloatArray(),
             param.getTopN(),
             param.getParameterMap());
-        for (VectorSearchResponse response : searchResponseList) {
-            CommonId regionId = PartitionService.getService(
-                    Optional.ofNullable(param.getTable().getPartitionStrategy())
-                        .orElse(DingoPartitionServiceProvider.RANGE_FUNC_NAME))
-                .calcPartId(response.getKey(), param.getDistributions());
-            StoreInstance storeInstance = StoreService.getDefault().getInstance(param.getTableId(), regionId);
-            KeyValue keyValue = storeInstance.get(response.getKey());
-            Object[] decode = param.getCodec().decode(keyValue);
-            Object[] result = Arrays.copyOf(decode, decode.length + 1);
-            result[decode.length] = response.getDistance();
-            results.add(result);
+        PartitionService ps = PartitionService.getService(
+            Optional.ofNullable(param.getTable().getPartitionStrategy())
+                .orElse(DingoPartitionServiceProvider.RANGE_FUNC_NAME));
+        return lookup(
+            searchResponseList,
+            key -> ps.calcPartId(key, param.getDistributions()),
+            (regionId, batch) -> StoreService.getDefault().getInstance(param.getTableId(), regionId).get(batch),
+            param.getCodec()::decode
+        );
+    }
+
+    /**
+     * Fetch the table rows of the search hits region by region and append the distance of its hit to each row.
+     * Hits whose row is missing are skipped.
+     */
+    static @NonNull Iterator<Object[]> lookup(
+        @NonNull List<VectorSearchResponse> hits,
+        @NonNull Function<byte[], CommonId> router,
+        BatchLookupIterator.@NonNull Fetcher fetcher,
+        @NonNull Function<KeyValue, Object[]> decoder
+    ) {
+        // The store rewrites the namespace and id of the keys in place, so match rows by the rest of the key.
+        NavigableMap<ComparableByteArray, Float> distances = new TreeMap<>();
+        List<byte[]> keys = new ArrayList<>(hits.size());
+        for (VectorSearchResponse hit : hits) {
+            distances.put(new ComparableByteArray(hit.getKey(), SKIP_LONG_POS), hit.getDistance());
+            keys.add(hit.getKey());
         }
-        return results.iterator();
+        return new BatchLookupIterator(
+            "part-vector",
+            keys.iterator(),
+            router,
+            null,
+            fetcher,
+            keyValue -> {
+                Object[] decode = decoder.apply(keyValue);
+                Object[] result = Arrays.copyOf(decode, decode.length + 1);
+                result[decode.length] = distances.get(new ComparableByteArray(keyValue.getKey(), SKIP_LONG_POS));
+                return result;
+            },
+            BatchLookupIterator.DEFAULT_BATCH_SIZE,
+            BatchLookupIterator.DEFAULT_MAX_IN_FLIGHT
+        );
     }
 
 }
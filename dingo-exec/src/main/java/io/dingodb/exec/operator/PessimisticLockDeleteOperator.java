@@ -27,27 +27,22 @@ import io.dingodb.exec.Services;
 import io.dingodb.exec.converter.ValueConverter;
 import io.dingodb.exec.dag.Vertex;
 import io.dingodb.exec.fin.Fin;
+import io.dingodb.exec.fin.FinWithException;
 import io.dingodb.exec.operator.data.Context;
+import io.dingodb.exec.operator.data.IndexWritePlan;
 import io.dingodb.exec.operator.params.PessimisticLockDeleteParam;
+import io.dingodb.exec.transaction.util.PessimisticLockBatcher;
 import io.dingodb.exec.transaction.util.TransactionUtil;
 import io.dingodb.exec.utils.ByteUtils;
-import io.dingodb.meta.MetaService;
-import io.dingodb.meta.entity.Column;
-import io.dingodb.meta.entity.IndexTable;
-import io.dingodb.meta.entity.Table;
 import io.dingodb.store.api.StoreInstance;
 import io.dingodb.store.api.transaction.data.Op;
-import io.dingodb.store.api.transaction.data.pessimisticlock.TxnPessimisticLock;
 import io.dingodb.tso.TsoService;
 import lombok.extern.slf4j.Slf4j;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
 
 import static io.dingodb.common.util.NoBreakFunctions.wrap;
-import static io.dingodb.exec.utils.ByteUtils.decodePessimisticKey;
 import static io.dingodb.exec.utils.ByteUtils.encode;
 import static io.dingodb.exec.utils.ByteUtils.getKeyByOp;
 
@@ -64,26 +59,18 @@ public class PessimisticLockDeleteOperator extends SoleOutOperator {
             CommonId tableId = param.getTableId();
             CommonId partId = context.getDistribution().getId();
             CommonId jobId = vertex.getTask().getJobId();
-            byte[] primaryLockKey = param.getPrimaryLockKey();
             DingoType schema = param.getSchema();
             StoreInstance localStore = Services.LOCAL_STORE.getInstance(tableId, partId);
             KeyValueCodec codec = param.getCodec();
             boolean isVector = false;
             if (context.getIndexId() != null) {
-                Table indexTable = MetaService.root().getTable(context.getIndexId());
-                List<Integer> columnIndices = param.getTable().getColumnIndices(indexTable.columns.stream()
-                    .map(Column::getName)
-                    .collect(Collectors.toList()));
-                tableId = context.getIndexId();
-                Object[] finalTuple = tuple;
-                tuple = columnIndices.stream().map(i -> finalTuple[i]).toArray();
-                schema = indexTable.tupleType();
-                IndexTable index = TransactionUtil.getIndexDefinitions(tableId);
-                if (index.indexType.isVector) {
-                    isVector = true;
-                }
-                localStore = Services.LOCAL_STORE.getInstance(context.getIndexId(), partId);
-                codec = CodecService.getDefault().createKeyValueCodec(indexTable.tupleType(), indexTable.keyMapping());
+                IndexWritePlan indexPlan = param.getIndexPlan(context.getIndexId());
+                tableId = indexPlan.getIndexId();
+                tuple = indexPlan.project(tuple);
+                schema = indexPlan.getSchema();
+                isVector = indexPlan.isVector();
+                localStore = Services.LOCAL_STORE.getInstance(tableId, partId);
+                codec = indexPlan.getCodec();
             }
             StoreInstance kvStore = Services.KV_STORE.getInstance(tableId, partId);
             Object[] newTuple = (Object[]) schema.convertFrom(tuple, ValueConverter.INSTANCE);
@@ -110,6 +97,10 @@ public class PessimisticLockDeleteOperator extends SoleOutOperator {
                 tableIdByte,
                 partIdByte
             );
+            PessimisticLockBatcher batcher = param.lockBatcher(txnId, jobId.seq);
+            if (batcher.isPending(key)) {
+                batcher.flush();
+            }
             KeyValue oldKeyValue = localStore.get(lockKeyBytes);
             if (oldKeyValue == null) {
                 // for check deadLock
@@ -124,84 +115,73 @@ public class PessimisticLockDeleteOperator extends SoleOutOperator {
                 );
                 KeyValue deadLockKeyValue = new KeyValue(deadLockKeyBytes, null);
                 localStore.put(deadLockKeyValue);
-                byte[] primaryLockKeyBytes = decodePessimisticKey(primaryLockKey);
-                long forUpdateTs = vertex.getTask().getJobId().seq;
-                byte[] forUpdateTsByte = PrimitiveCodec.encodeLong(forUpdateTs);
-                LogUtils.debug(log, "{}, forUpdateTs:{} txnPessimisticLock :{}", txnId, forUpdateTs, Arrays.toString(key));
-                try {
-                    TxnPessimisticLock txnPessimisticLock = TransactionUtil.pessimisticLock(
-                        param.getLockTimeOut(),
-                        txnId,
-                        tableId,
-                        partId,
-                        primaryLockKeyBytes,
-                        key,
-                        param.getStartTs(),
-                        forUpdateTs,
-                        param.getIsolationLevel()
-                    );
-                    long newForUpdateTs = txnPessimisticLock.getForUpdateTs();
-                    if (newForUpdateTs != forUpdateTs) {
-                        forUpdateTs = newForUpdateTs;
-                        forUpdateTsByte = PrimitiveCodec.encodeLong(newForUpdateTs);
+                LogUtils.debug(log, "{}, forUpdateTs:{} txnPessimisticLock :{}",
+                    txnId, jobId.seq, Arrays.toString(key));
+                CommonId lockTableId = tableId;
+                StoreInstance lockStore = localStore;
+                KeyValueCodec lockCodec = codec;
+                boolean lockVector = isVector;
+                Object[] lockTuple = tuple;
+                Context lockContext = context.duplicate();
+                batcher.add(lockTableId, partId, key, forUpdateTs -> {
+                    LogUtils.debug(log, "{}, forUpdateTs:{} txnPessimisticLock :{} end",
+                        txnId, forUpdateTs, Arrays.toString(key));
+                    // get lock success, delete deadLockKey
+                    lockStore.delete(deadLockKeyBytes);
+                    byte[] lockKey = getKeyByOp(CommonId.CommonType.TXN_CACHE_LOCK, Op.LOCK, deadLockKeyBytes);
+                    // lockKeyValue
+                    KeyValue lockKeyValue = new KeyValue(lockKey, PrimitiveCodec.encodeLong(forUpdateTs));
+                    lockStore.put(lockKeyValue);
+                    KeyValue kvKeyValue = null;
+                    try {
+                        // index use keyPrefix
+                        kvKeyValue = kvStore.txnGet(
+                            TsoService.getDefault().tso(), vectorKey, param.getLockTimeOut()
+                        );
+                    } catch (Throwable throwable) {
+                        throw new RuntimeException(throwable);
+                    } finally {
+                        if (kvKeyValue != null && kvKeyValue.getValue() != null) {
+                            // extraKeyValue
+                            KeyValue extraKeyValue = new KeyValue(
+                                ByteUtils.encode(
+                                    CommonId.CommonType.TXN_CACHE_EXTRA_DATA,
+                                    key,
+                                    Op.NONE.getCode(),
+                                    len,
+                                    jobIdByte,
+                                    tableIdByte,
+                                    partIdByte),
+                                kvKeyValue.getValue()
+                            );
+                            lockStore.put(extraKeyValue);
+                        }
                     }
-                    LogUtils.debug(log, "{}, forUpdateTs:{} txnPessimisticLock :{}", txnId, newForUpdateTs, Arrays.toString(key));
-                } catch (Throwable throwable) {
-                    LogUtils.error(log, throwable.getMessage(), throwable);
-                    TransactionUtil.resolvePessimisticLock(
-                        param.getIsolationLevel(),
-                        txnId,
-                        tableId,
-                        partId,
-                        deadLockKeyBytes,
-                        key,
-                        param.getStartTs(),
-                        forUpdateTs,
-                        true,
-                        throwable
-                    );
-                }
-                // get lock success, delete deadLockKey
-                localStore.delete(deadLockKeyBytes);
-                byte[] lockKey = getKeyByOp(CommonId.CommonType.TXN_CACHE_LOCK, Op.LOCK, deadLockKeyBytes);
-                // lockKeyValue
-                KeyValue lockKeyValue = new KeyValue(lockKey, forUpdateTsByte);
-                localStore.put(lockKeyValue);
-                KeyValue kvKeyValue = null;
-                try {
-                    // index use keyPrefix
-                    kvKeyValue = kvStore.txnGet(TsoService.getDefault().tso(), vectorKey, param.getLockTimeOut());
-                } catch (Throwable throwable) {
-                    throw new RuntimeException(throwable);
-                } finally {
-                    if (kvKeyValue != null && kvKeyValue.getValue() != null) {
-                        // extraKeyValue
-                        KeyValue extraKeyValue = new KeyValue(
-                            ByteUtils.encode(
-                                CommonId.CommonType.TXN_CACHE_EXTRA_DATA,
-                                key,
-                                Op.NONE.getCode(),
-                                len,
-                                jobIdByte,
-                                tableIdByte,
-                                partIdByte),
-                            kvKeyValue.getValue()
+                    if (kvKeyValue == null || kvKeyValue.getValue() == null) {
+                        byte[] rollBackKey = ByteUtils.getKeyByOp(
+                            CommonId.CommonType.TXN_CACHE_RESIDUAL_LOCK, Op.DELETE, deadLockKeyBytes
                         );
-                        localStore.put(extraKeyValue);
+                        lockStore.put(new KeyValue(rollBackKey, null));
+                        vertex.getOutList().forEach(o -> o.transformToNext(lockContext, lockTuple));
+                        return;
                     }
-                }
-                if (kvKeyValue == null || kvKeyValue.getValue() == null) {
-                    byte[] rollBackKey = ByteUtils.getKeyByOp(CommonId.CommonType.TXN_CACHE_RESIDUAL_LOCK, Op.DELETE, deadLockKeyBytes);
-                    localStore.put(new KeyValue(rollBackKey, null));
-                    @Nullable Object[] finalTuple1 = tuple;
-                    vertex.getOutList().forEach(o -> o.transformToNext(context, finalTuple1));
-                    return true;
-                }
-                if (isVector) {
-                    kvKeyValue.setKey(codec.encodeKey(newTuple));
-                }
-                Object[] result = codec.decode(kvKeyValue);
-                vertex.getOutList().forEach(o -> o.transformToNext(context, result));
+                    if (lockVector) {
+                        kvKeyValue.setKey(lockCodec.encodeKey(newTuple));
+                    }
+                    Object[] result = lockCodec.decode(kvKeyValue);
+                    vertex.getOutList().forEach(o -> o.transformToNext(lockContext, result));
+                }, e -> TransactionUtil.resolvePessimisticLock(
+                    param.getIsolationLevel(),
+                    txnId,
+                    lockTableId,
+                    partId,
+                    deadLockKeyBytes,
+                    key,
+                    param.getStartTs(),
+                    jobId.seq,
+                    false,
+                    e
+                ));
             } else {
                 @Nullable Object[] finalTuple1 = tuple;
                 vertex.getOutList().forEach(o -> o.transformToNext(context, finalTuple1));
@@ -213,8 +193,21 @@ public class PessimisticLockDeleteOperator extends SoleOutOperator {
     @Override
     public synchronized void fin(int pin, Fin fin, Vertex vertex) {
         PessimisticLockDeleteParam param = vertex.getParam();
-        vertex.getSoleEdge().fin(fin);
-        // Reset
-        param.reset();
+        try {
+            synchronized (vertex) {
+                param.flushLocks();
+            }
+        } catch (RuntimeException e) {
+            LogUtils.error(log, e.getMessage(), e);
+            if (!(fin instanceof FinWithException)) {
+                fin = FinWithException.of(vertex.getTask().getId().toString(), e);
+            }
+        }
+        try {
+            vertex.getSoleEdge().fin(fin);
+        } finally {
+            // Reset
+            param.reset();
+        }
     }
 }
@@ -28,6 +28,7 @@ import io.dingodb.exec.converter.ValueConverter;
 import io.dingodb.exec.dag.Vertex;
 import io.dingodb.exec.fin.Fin;
 import io.dingodb.exec.operator.data.Context;
+import io.dingodb.exec.operator.data.IndexWritePlan;
 import io.dingodb.exec.operator.params.PessimisticLockParam;
 import io.dingodb.exec.transaction.base.ITransaction;
 import io.dingodb.exec.transaction.base.TransactionType;
@@ -35,10 +36,6 @@ import io.dingodb.exec.transaction.impl.TransactionManager;
 import io.dingodb.exec.transaction.util.TransactionCacheToMutation;
 import io.dingodb.exec.transaction.util.TransactionUtil;
 import io.dingodb.exec.utils.ByteUtils;
-import io.dingodb.meta.MetaService;
-import io.dingodb.meta.entity.Column;
-import io.dingodb.meta.entity.IndexTable;
-import io.dingodb.meta.entity.Table;
 import io.dingodb.store.api.StoreInstance;
 import io.dingodb.store.api.transaction.data.IsolationLevel;
 import io.dingodb.store.api.transaction.data.Op;
@@ -51,9 +48,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.List;
 import java.util.concurrent.Future;
-import java.util.stream.Collectors;
 
 import static io.dingodb.common.util.NoBreakFunctions.wrap;
 import static io.dingodb.exec.utils.ByteUtils.encode;
@@ -85,20 +80,13 @@ public class PessimisticLockOperator extends SoleOutOperator {
                 if (primaryLockKey == null) {
                     return true;
                 }
-                Table indexTable = MetaService.root().getTable(context.getIndexId());
-                List<Integer> columnIndices = param.getTable().getColumnIndices(indexTable.columns.stream()
-                    .map(Column::getName)
-                    .collect(Collectors.toList()));
-                tableId = context.getIndexId();
-                Object[] finalTuple = tuple;
-                tuple = columnIndices.stream().map(i -> finalTuple[i]).toArray();
-                schema = indexTable.tupleType();
-                IndexTable index = TransactionUtil.getIndexDefinitions(tableId);
-                if (index.indexType.isVector) {
-                    isVector = true;
-                }
-                localStore = Services.LOCAL_STORE.getInstance(context.getIndexId(), partId);
-                codec = CodecService.getDefault().createKeyValueCodec(indexTable.tupleType(), indexTable.keyMapping());
+                IndexWritePlan indexPlan = param.getIndexPlan(context.getIndexId());
+                tableId = indexPlan.getIndexId();
+                tuple = indexPlan.project(tuple);
+                schema = indexPlan.getSchema();
+                isVector = indexPlan.isVector();
+                localStore = Services.LOCAL_STORE.getInstance(tableId, partId);
+                codec = indexPlan.getCodec();
             }
             StoreInstance kvStore = Services.KV_STORE.getInstance(tableId, partId);
             Object[] newTuple;
@@ -31,15 +31,15 @@ import io.dingodb.exec.converter.ValueConverter;
 import io.dingodb.exec.dag.Vertex;
 import io.dingodb.exec.expr.SqlExpr;
 import io.dingodb.exec.fin.Fin;
+import io.dingodb.exec.fin.FinWithException;
 import io.dingodb.exec.operator.data.Context;
+import io.dingodb.exec.operator.data.IndexWritePlan;
 import io.dingodb.exec.operator.params.PessimisticLockUpdateParam;
 import io.dingodb.exec.transaction.base.TxnLocalData;
+import io.dingodb.exec.transaction.util.PessimisticLockBatcher;
 import io.dingodb.exec.transaction.util.TransactionUtil;
 import io.dingodb.exec.utils.ByteUtils;
 import io.dingodb.meta.MetaService;
-import io.dingodb.meta.entity.Column;
-import io.dingodb.meta.entity.IndexTable;
-import io.dingodb.meta.entity.Table;
 import io.dingodb.partition.DingoPartitionServiceProvider;
 import io.dingodb.partition.PartitionService;
 import io.dingodb.store.api.StoreInstance;
@@ -52,7 +52,6 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static io.dingodb.common.util.NoBreakFunctions.wrap;
 import static io.dingodb.exec.utils.ByteUtils.decode;
@@ -97,28 +96,20 @@ public class PessimisticLockUpdateOperator extends SoleOutOperator {
             boolean calcPartId = false;
             Object[] oldIndexTuple = tuple;
             if (context.getIndexId() != null) {
-                Table indexTable = MetaService.root().getTable(context.getIndexId());
-                List<Integer> columnIndices = param.getTable().getColumnIndices(indexTable.columns.stream()
-                    .map(Column::getName)
-                    .collect(Collectors.toList()));
-                tableId = context.getIndexId();
+                IndexWritePlan indexPlan = param.getIndexPlan(context.getIndexId());
+                tableId = indexPlan.getIndexId();
                 // old key
-                Object[] finalTuple = tuple;
-                tuple = columnIndices.stream().map(i -> finalTuple[i]).toArray();
+                tuple = indexPlan.project(tuple);
                 oldIndexTuple = Arrays.copyOf(tuple, tuple.length);
                 if (updated) {
-                    Object[] finalNewIndexTuple = newTuple;
-                    tuple = columnIndices.stream().map(i -> finalNewIndexTuple[i]).toArray();
+                    tuple = indexPlan.project(newTuple);
                 }
-                schema = indexTable.tupleType();
-                IndexTable index = TransactionUtil.getIndexDefinitions(tableId);
-                if (index.indexType.isVector) {
-                    isVector = true;
-                }
-                codec = CodecService.getDefault().createKeyValueCodec(indexTable.tupleType(), indexTable.keyMapping());
-                if (updated && columnIndices.stream().anyMatch(c -> mapping.contains(c))) {
+                schema = indexPlan.getSchema();
+                isVector = indexPlan.isVector();
+                codec = indexPlan.getCodec();
+                if (updated && indexPlan.touches(mapping)) {
                     PartitionService ps = PartitionService.getService(
-                        Optional.ofNullable(indexTable.getPartitionStrategy())
+                        Optional.ofNullable(indexPlan.getIndexTable().getPartitionStrategy())
                             .orElse(DingoPartitionServiceProvider.RANGE_FUNC_NAME));
                     byte[] key = wrap(codec::encodeKey).apply(tuple);
                     partId = ps.calcPartId(key, MetaService.root().getRangeDistribution(tableId));
@@ -160,6 +151,10 @@ public class PessimisticLockUpdateOperator extends SoleOutOperator {
                 tableIdByte,
                 partIdByte
             );
+            PessimisticLockBatcher batcher = param.lockBatcher(txnId, jobId.seq);
+            if (batcher.isPending(key)) {
+                batcher.flush();
+            }
             KeyValue oldKeyValue = localStore.get(lockKeyBytes);
             if (oldKeyValue == null) {
                 if (calcPartId) {
@@ -178,89 +173,81 @@ public class PessimisticLockUpdateOperator extends SoleOutOperator {
                 );
                 KeyValue deadLockKeyValue = new KeyValue(deadLockKeyBytes, null);
                 localStore.put(deadLockKeyValue);
-                byte[] primaryLockKeyBytes = decodePessimisticKey(primaryLockKey);
-                long forUpdateTs = vertex.getTask().getJobId().seq;
-                byte[] forUpdateTsByte = PrimitiveCodec.encodeLong(forUpdateTs);
-                LogUtils.debug(log, "{}, forUpdateTs:{} txnPessimisticLock :{}", txnId, forUpdateTs, Arrays.toString(key));
-                try {
-                    TxnPessimisticLock txnPessimisticLock = TransactionUtil.pessimisticLock(
-                        param.getLockTimeOut(),
-                        txnId,
-                        tableId,
-                        partId,
-                        primaryLockKeyBytes,
-                        key,
-                        param.getStartTs(),
-                        forUpdateTs,
-                        param.getIsolationLevel()
-                    );
-                    long newForUpdateTs = txnPessimisticLock.getForUpdateTs();
-                    if (newForUpdateTs != forUpdateTs) {
-                        forUpdateTs = newForUpdateTs;
-                        forUpdateTsByte = PrimitiveCodec.encodeLong(newForUpdateTs);
+                LogUtils.debug(log, "{}, forUpdateTs:{} txnPessimisticLock :{}",
+                    txnId, jobId.seq, Arrays.toString(key));
+                CommonId lockTableId = tableId;
+                CommonId lockPartId = partId;
+                StoreInstance lockStore = localStore;
+                KeyValueCodec lockCodec = codec;
+                boolean lockVector = isVector;
+                Object[] lockTuple = tuple;
+                Object[] lockDest = dest;
+                Context lockContext = context.duplicate();
+                batcher.add(lockTableId, lockPartId, key, forUpdateTs -> {
+                    LogUtils.debug(log, "{}, forUpdateTs:{} txnPessimisticLock :{} end",
+                        txnId, forUpdateTs, Arrays.toString(key));
+                    // get lock success, delete deadLockKey
+                    lockStore.delete(deadLockKeyBytes);
+                    byte[] lockKey = getKeyByOp(CommonId.CommonType.TXN_CACHE_LOCK, Op.LOCK, deadLockKeyBytes);
+                    // lockKeyValue
+                    KeyValue lockKeyValue = new KeyValue(lockKey, PrimitiveCodec.encodeLong(forUpdateTs));
+                    lockStore.put(lockKeyValue);
+                    KeyValue kvKeyValue = null;
+                    try {
+                        // index use keyPrefix
+                        kvKeyValue = kvStore.txnGet(
+                            TsoService.getDefault().tso(), vectorKey, param.getLockTimeOut()
+                        );
+                    } catch (Throwable throwable) {
+                        throw new RuntimeException(throwable);
+                    } finally {
+                        if (kvKeyValue != null && kvKeyValue.getValue() != null) {
+                            // extraKeyValue
+                            KeyValue extraKeyValue = new KeyValue(
+                                ByteUtils.encode(
+                                    CommonId.CommonType.TXN_CACHE_EXTRA_DATA,
+                                    key,
+                                    Op.NONE.getCode(),
+                                    len,
+                                    jobIdByte,
+                                    tableIdByte,
+                                    partIdByte),
+                                kvKeyValue.getValue()
+                            );
+                            lockStore.put(extraKeyValue);
+                        }
                     }
-                    LogUtils.debug(log, "{}, forUpdateTs:{} txnPessimisticLock :{}", txnId, newForUpdateTs, Arrays.toString(key));
-                } catch (Throwable throwable) {
-                    LogUtils.error(log, throwable.getMessage(), throwable);
-                    TransactionUtil.resolvePessimisticLock(
-                        param.getIsolationLevel(),
-                        txnId,
-                        tableId,
-                        partId,
-                        deadLockKeyBytes,
-                        key,
-                        param.getStartTs(),
-                        forUpdateTs,
-                        true,
-                        throwable
-                    );
-                }
-                // get lock success, delete deadLockKey
-                localStore.delete(deadLockKeyBytes);
-                byte[] lockKey = getKeyByOp(CommonId.CommonType.TXN_CACHE_LOCK, Op.LOCK, deadLockKeyBytes);
-                // lockKeyValue
-                KeyValue lockKeyValue = new KeyValue(lockKey, forUpdateTsByte);
-                localStore.put(lockKeyValue);
-                KeyValue kvKeyValue = null;
-                try {
-                    // index use keyPrefix
-                    kvKeyValue = kvStore.txnGet(TsoService.getDefault().tso(), vectorKey, param.getLockTimeOut());
-                } catch (Throwable throwable) {
-                    throw new RuntimeException(throwable);
-                } finally {
-                    if (kvKeyValue != null && kvKeyValue.getValue() != null) {
-                        // extraKeyValue
-                        KeyValue extraKeyValue = new KeyValue(
-                            ByteUtils.encode(
-                                CommonId.CommonType.TXN_CACHE_EXTRA_DATA,
-                                key,
-                                Op.NONE.getCode(),
-                                len,
-                                jobIdByte,
-                                tableIdByte,
-                                partIdByte),
-                            kvKeyValue.getValue()
+                    if (lockContext.getIndexId() != null) {
+                        LogUtils.info(log, "{}, txnPessimisticLock :{} , index is not null",
+                            txnId, Arrays.toString(key));
+                        vertex.getOutList().forEach(o -> o.transformToNext(lockContext, copyTuple));
+                        return;
+                    }
+                    if (kvKeyValue == null || kvKeyValue.getValue() == null) {
+                        byte[] rollBackKey = ByteUtils.getKeyByOp(
+                            CommonId.CommonType.TXN_CACHE_RESIDUAL_LOCK, Op.DELETE, deadLockKeyBytes
                         );
-                        localStore.put(extraKeyValue);
+                        lockStore.put(new KeyValue(rollBackKey, null));
+                        vertex.getOutList().forEach(o -> o.transformToNext(lockContext, lockTuple));
+                        return;
                     }
-                }
-                if (context.getIndexId() != null) {
-                    LogUtils.info(log, "{}, txnPessimisticLock :{} , index is not null", txnId, Arrays.toString(key));
-                    vertex.getOutList().forEach(o -> o.transformToNext(context, copyTuple));
-                    return true;
-                }
-                if (kvKeyValue == null || kvKeyValue.getValue() == null) {
-                    byte[] rollBackKey = ByteUtils.getKeyByOp(CommonId.CommonType.TXN_CACHE_RESIDUAL_LOCK, Op.DELETE, deadLockKeyBytes);
-                    localStore.put(new KeyValue(rollBackKey, null));
-                    @Nullable Object[] finalTuple1 = tuple;
-                    vertex.getOutList().forEach(o -> o.transformToNext(context, finalTuple1));
-                    return true;
-                }
-                if (isVector) {
-                    kvKeyValue.setKey(codec.encodeKey(dest));
-                }
-                Object[] result = codec.decode(kvKeyValue);
-                vertex.getOutList().forEach(o -> o.transformToNext(context, result));
+                    if (lockVector) {
+                        kvKeyValue.setKey(lockCodec.encodeKey(lockDest));
+                    }
+                    Object[] result = lockCodec.decode(kvKeyValue);
+                    vertex.getOutList().forEach(o -> o.transformToNext(lockContext, result));
+                }, e -> TransactionUtil.resolvePessimisticLock(
+                    param.getIsolationLevel(),
+                    txnId,
+                    lockTableId,
+                    lockPartId,
+                    deadLockKeyBytes,
+                    key,
+                    param.getStartTs(),
+                    jobId.seq,
+                    false,
+                    e
+                ));
                 return true;
             } else {
                 byte[] dataKey = getKeyByOp(CommonId.CommonType.TXN_CACHE_DATA, Op.PUT, lockKeyBytes);
@@ -432,8 +419,21 @@ public class PessimisticLockUpdateOperator extends SoleOutOperator {
     @Override
     public synchronized void fin(int pin, Fin fin, Vertex vertex) {
         PessimisticLockUpdateParam param = vertex.getParam();
-        vertex.getSoleEdge().fin(fin);
-        // Reset
-        param.reset();
+        try {
+            synchronized (vertex) {
+                param.flushLocks();
+            }
+        } catch (RuntimeException e) {
+            LogUtils.error(log, e.getMessage(), e);
+            if (!(fin instanceof FinWithException)) {
+                fin = FinWithException.of(vertex.getTask().getId().toString(), e);
+            }
+        }
+        try {
+            vertex.getSoleEdge().fin(fin);
+        } finally {
+            // Reset
+            param.reset();
+        }
     }
 }
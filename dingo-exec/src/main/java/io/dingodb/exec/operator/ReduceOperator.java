@@ -16,9 +16,12 @@
 
 package io.dingodb.exec.operator;
 
+import io.dingodb.common.profile.OperatorProfile;
+import io.dingodb.exec.aggregate.AggCache;
 import io.dingodb.exec.dag.Edge;
 import io.dingodb.exec.dag.Vertex;
 import io.dingodb.exec.fin.Fin;
+import io.dingodb.exec.fin.FinWithProfiles;
 import io.dingodb.exec.operator.data.Context;
 import io.dingodb.exec.operator.params.ReduceParam;
 import lombok.extern.slf4j.Slf4j;
@@ -44,12 +47,20 @@ public final class ReduceOperator extends SoleOutOperator {
         synchronized (vertex) {
             ReduceParam param = vertex.getParam();
             Edge edge = vertex.getSoleEdge();
-            for (Object[] t : param.getCache()) {
+            AggCache cache = param.getCache();
+            for (Object[] t : cache) {
                 if (!edge.transformToNext(t)) {
                     break;
                 }
             }
+            if (fin instanceof FinWithProfiles) {
+                OperatorProfile profile = param.getProfile("reduce");
+                cache.fillProfile(profile);
+                ((FinWithProfiles) fin).addProfile(profile);
+            }
             edge.fin(fin);
+            // Reset
+            param.clear();
         }
     }
 }
@@ -16,6 +16,7 @@
 
 package io.dingodb.exec.operator;
 
+import io.dingodb.common.concurrent.ScanScope;
 import io.dingodb.common.log.LogUtils;
 import io.dingodb.exec.dag.Vertex;
 import io.dingodb.exec.fin.Fin;
@@ -39,8 +40,14 @@ public abstract class ScanOperatorBase extends SoleOutOperator {
 
     @Override
     public boolean push(Context context, @Nullable Object[] tuple, Vertex vertex) {
-        Iterator<Object[]> iterator = createIterator(context, vertex);
-        getScanner(context, vertex).apply(context, vertex, iterator);
+        // Cancel the pages still prefetched if the scanner stops early.
+        int scope = ScanScope.enter();
+        try {
+            Iterator<Object[]> iterator = createIterator(context, vertex);
+            getScanner(context, vertex).apply(context, vertex, iterator);
+        } finally {
+            ScanScope.exit(scope);
+        }
         // Scan operator is not source operator, so may be push multiple times.
         return true;
     }
@@ -17,10 +17,12 @@
 package io.dingodb.exec.operator;
 
 import io.dingodb.common.log.LogUtils;
+import io.dingodb.common.profile.OperatorProfile;
 import io.dingodb.exec.channel.SendEndpoint;
 import io.dingodb.exec.dag.Vertex;
 import io.dingodb.exec.fin.Fin;
 import io.dingodb.exec.fin.FinWithException;
+import io.dingodb.exec.fin.FinWithProfiles;
 import io.dingodb.exec.operator.data.Context;
 import io.dingodb.exec.operator.params.SendParam;
 import io.dingodb.exec.tuple.TupleId;
@@ -66,11 +68,17 @@ public final class SendOperator extends SinkOperator {
         try {
             SendParam param = vertex.getParam();
             SendEndpoint endpoint = param.getEndpoint();
-            BufferOutputStream bos = endpoint.getOutputStream(param.getMaxBufferSize());
-            param.getCodec().encodeFin(bos, fin);
             if (!(fin instanceof FinWithException)) {
                 sendTupleList(param);
             }
+            if (fin instanceof FinWithProfiles) {
+                // Time waiting for credits of this tag.
+                OperatorProfile profile = param.getProfile("send");
+                profile.setStallTime(endpoint.getStallMillis());
+                ((FinWithProfiles) fin).addProfile(profile);
+            }
+            BufferOutputStream bos = endpoint.getOutputStream(param.getMaxBufferSize());
+            param.getCodec().encodeFin(bos, fin);
             LogUtils.debug(log, "Send FIN with detail:\n{}", fin.detail());
             endpoint.send(bos, true);
         } catch (IOException e) {
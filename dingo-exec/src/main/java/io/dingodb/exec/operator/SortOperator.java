@@ -24,9 +24,10 @@ import io.dingodb.exec.fin.FinWithProfiles;
 import io.dingodb.exec.operator.data.Context;
 import io.dingodb.exec.operator.data.SortCollation;
 import io.dingodb.exec.operator.params.SortParam;
+import io.dingodb.exec.operator.sort.SortBuffer;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
-import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 
 public class SortOperator extends SoleOutOperator {
@@ -46,8 +47,9 @@ public class SortOperator extends SoleOutOperator {
             if (limit == 0) {
                 return false;
             }
-            param.getCache().add(tuple);
-            return collations.size() > 0 || limit < 0 || param.getCache().size() < offset + limit;
+            SortBuffer buffer = param.getBuffer();
+            buffer.add(tuple);
+            return collations.size() > 0 || limit < 0 || buffer.size() < offset + limit;
         }
     }
 
@@ -59,16 +61,15 @@ public class SortOperator extends SoleOutOperator {
             profile.start();
             int limit = param.getLimit();
             int offset = param.getOffset();
-            List<Object[]> cache = param.getCache();
-            Comparator<Object[]> comparator = param.getComparator();
-            if (comparator != null) {
-                cache.sort(comparator);
-            }
+            SortBuffer buffer = param.getBuffer();
+            Iterator<Object[]> iterator = buffer.iterator();
             profile.end();
+            buffer.fillProfile(profile);
             int o = 0;
             int c = 0;
             Edge edge = vertex.getSoleEdge();
-            for (Object[] tuple : cache) {
+            while (iterator.hasNext()) {
+                Object[] tuple = iterator.next();
                 if (o < offset) {
                     ++o;
                     continue;
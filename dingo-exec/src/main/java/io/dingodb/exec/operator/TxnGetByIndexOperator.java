@@ -29,6 +29,7 @@ import io.dingodb.common.util.Optional;
 import io.dingodb.exec.Services;
 import io.dingodb.exec.base.Task;
 import io.dingodb.exec.dag.Vertex;
+import io.dingodb.exec.operator.data.BatchLookupIterator;
 import io.dingodb.exec.operator.data.Context;
 import io.dingodb.exec.operator.params.TxnGetByIndexParam;
 import io.dingodb.exec.transaction.base.TransactionType;
@@ -79,53 +80,50 @@ public final class TxnGetByIndexOperator extends FilterProjectOperator {
             param.getTimeout());
         Iterator<Object[]> iterator = createMergedIterator(localIterator, storeIterator, param.getCodec());
 
-        List<Object[]> objectList = new ArrayList<>();
-        while (iterator.hasNext()) {
-            Object[] objects = iterator.next();
-            if (param.isLookup()) {
-                Object[] val = lookUp(objects, param, vertex.getTask());
-                if (val != null) {
-                    objectList.add(val);
-                }
-            } else {
-                objectList.add(transformTuple(objects, param));
-            }
+        if (!param.isLookup()) {
+            iterator = Iterators.transform(iterator, objects -> transformTuple(objects, param));
+        } else {
+            iterator = lookUp(iterator, param, vertex.getTask());
         }
         profile.time(start);
-        return objectList.iterator();
+        return iterator;
     }
 
-    private static Object[] lookUp(Object[] tuples, TxnGetByIndexParam param, Task task) {
+    private static Iterator<Object[]> lookUp(Iterator<Object[]> iterator, TxnGetByIndexParam param, Task task) {
         CommonId txnId = task.getTxnId();
         TransactionType transactionType = task.getTransactionType();
         TupleMapping indices = param.getKeyMapping();
         Table tableDefinition = param.getTable();
         NavigableMap<ByteArrayUtils.ComparableByteArray, RangeDistribution> ranges =
             MetaService.root().getRangeDistribution(tableDefinition.tableId);
-        Object[] keyTuples = new Object[tableDefinition.getColumns().size()];
-        for (int i = 0; i < indices.getMappings().length; i ++) {
-            keyTuples[indices.get(i)] = tuples[i];
-        }
-        byte[] keys = param.getLookupCodec().encodeKey(keyTuples);
-        CommonId regionId = PartitionService.getService(
-                Optional.ofNullable(tableDefinition.getPartitionStrategy())
-                    .orElse(DingoPartitionServiceProvider.RANGE_FUNC_NAME))
-            .calcPartId(keys, ranges);
-
-        keys = CodecService.getDefault().setId(keys, regionId.domain);
-        Object[] local = createGetLocal(
+        PartitionService ps = PartitionService.getService(
+            Optional.ofNullable(tableDefinition.getPartitionStrategy())
+                .orElse(DingoPartitionServiceProvider.RANGE_FUNC_NAME));
+        KeyValueCodec lookupCodec = param.getLookupCodec();
+        Iterator<byte[]> keys = Iterators.transform(iterator, tuples -> {
+            Object[] keyTuples = new Object[tableDefinition.getColumns().size()];
+            for (int i = 0; i < indices.getMappings().length; i ++) {
+                keyTuples[indices.get(i)] = tuples[i];
+            }
+            return lookupCodec.encodeKey(keyTuples);
+        });
+        return new BatchLookupIterator(
+            "txn-get-by-index",
             keys,
-            txnId,
-            regionId,
-            param.getTableId(),
-            param.getLookupCodec(),
-            transactionType);
-        if (local != null) {
-            return local;
-        }
-
-        StoreInstance store = Services.KV_STORE.getInstance(param.getTableId(), regionId);
-        return param.getLookupCodec().decode(store.txnGet(param.getScanTs(), keys, param.getTimeout()));
+            key -> ps.calcPartId(key, ranges),
+            (key, regionId) -> createGetLocal(
+                CodecService.getDefault().setId(key, regionId.domain),
+                txnId,
+                regionId,
+                param.getTableId(),
+                lookupCodec,
+                transactionType),
+            (regionId, batch) -> Services.KV_STORE.getInstance(param.getTableId(), regionId)
+                .txnGet(param.getScanTs(), batch, param.getTimeout()),
+            lookupCodec::decode,
+            BatchLookupIterator.DEFAULT_BATCH_SIZE,
+            BatchLookupIterator.DEFAULT_MAX_IN_FLIGHT
+        );
     }
 
     private static Object[] transformTuple(Object[] tuple, TxnGetByIndexParam param) {
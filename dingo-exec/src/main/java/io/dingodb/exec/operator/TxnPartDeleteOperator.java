@@ -25,11 +25,9 @@ import io.dingodb.common.store.KeyValue;
 import io.dingodb.exec.Services;
 import io.dingodb.exec.dag.Vertex;
 import io.dingodb.exec.operator.data.Context;
+import io.dingodb.exec.operator.data.IndexWritePlan;
 import io.dingodb.exec.operator.params.TxnPartDeleteParam;
 import io.dingodb.exec.utils.ByteUtils;
-import io.dingodb.meta.MetaService;
-import io.dingodb.meta.entity.Column;
-import io.dingodb.meta.entity.Table;
 import io.dingodb.store.api.StoreInstance;
 import io.dingodb.store.api.transaction.data.Op;
 import lombok.extern.slf4j.Slf4j;
@@ -37,7 +35,6 @@ import lombok.extern.slf4j.Slf4j;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static io.dingodb.common.util.NoBreakFunctions.wrap;
 
@@ -60,17 +57,13 @@ public class TxnPartDeleteOperator extends PartModifyOperator {
         StoreInstance localStore = Services.LOCAL_STORE.getInstance(tableId, partId);
         KeyValueCodec codec = param.getCodec();
         if (context.getIndexId() != null) {
-            Table indexTable = MetaService.root().getTable(context.getIndexId());
-            List<Integer> columnIndices = param.getTable().getColumnIndices(indexTable.columns.stream()
-                .map(Column::getName)
-                .collect(Collectors.toList()));
-            tableId = context.getIndexId();
+            IndexWritePlan indexPlan = param.getIndexPlan(context.getIndexId());
+            tableId = indexPlan.getIndexId();
             if (!param.isPessimisticTxn()) {
-                Object[] finalTuple = tuple;
-                tuple = columnIndices.stream().map(i -> finalTuple[i]).toArray();
+                tuple = indexPlan.project(tuple);
             }
-            localStore = Services.LOCAL_STORE.getInstance(context.getIndexId(), partId);
-            codec = CodecService.getDefault().createKeyValueCodec(indexTable.tupleType(), indexTable.keyMapping());
+            localStore = Services.LOCAL_STORE.getInstance(tableId, partId);
+            codec = indexPlan.getCodec();
         }
         byte[] keys = wrap(codec::encodeKey).apply(tuple);
         CodecService.getDefault().setId(keys, partId.domain);
@@ -31,12 +31,11 @@ import io.dingodb.exec.fin.Fin;
 import io.dingodb.exec.fin.FinWithException;
 import io.dingodb.exec.fin.FinWithProfiles;
 import io.dingodb.exec.operator.data.Context;
+import io.dingodb.exec.operator.data.IndexWritePlan;
 import io.dingodb.exec.operator.params.TxnPartInsertParam;
 import io.dingodb.exec.transaction.util.TransactionUtil;
 import io.dingodb.exec.utils.ByteUtils;
 import io.dingodb.meta.MetaService;
-import io.dingodb.meta.entity.Column;
-import io.dingodb.meta.entity.Table;
 import io.dingodb.store.api.StoreInstance;
 import io.dingodb.store.api.transaction.data.Op;
 import io.dingodb.store.api.transaction.exception.DuplicateEntryException;
@@ -45,7 +44,6 @@ import lombok.extern.slf4j.Slf4j;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static io.dingodb.common.util.NoBreakFunctions.wrap;
 
@@ -77,26 +75,25 @@ public class TxnPartInsertOperator extends PartModifyOperator {
         DingoType schema = param.getSchema();
         StoreInstance localStore = Services.LOCAL_STORE.getInstance(tableId, partId);
         KeyValueCodec codec = param.getCodec();
+        byte[] tableIdByte;
         if (context.getIndexId() != null) {
-            Table indexTable = MetaService.root().getTable(context.getIndexId());
-            List<Integer> columnIndices = param.getTable().getColumnIndices(indexTable.columns.stream()
-                .map(Column::getName)
-                .collect(Collectors.toList()));
-            tableId = context.getIndexId();
+            IndexWritePlan indexPlan = param.getIndexPlan(context.getIndexId());
+            tableId = indexPlan.getIndexId();
             if (!param.isPessimisticTxn()) {
-                Object[] finalTuple = tuple;
-                tuple = columnIndices.stream().map(i -> finalTuple[i]).toArray();
+                tuple = indexPlan.project(tuple);
             }
-            schema = indexTable.tupleType();
-            localStore = Services.LOCAL_STORE.getInstance(context.getIndexId(), partId);
-            codec = CodecService.getDefault().createKeyValueCodec(indexTable.tupleType(), indexTable.keyMapping());
+            schema = indexPlan.getSchema();
+            localStore = Services.LOCAL_STORE.getInstance(tableId, partId);
+            codec = indexPlan.getCodec();
+            tableIdByte = indexPlan.getIndexIdBytes();
+        } else {
+            tableIdByte = tableId.encode();
         }
         Object[] newTuple = (Object[]) schema.convertFrom(tuple, ValueConverter.INSTANCE);
         KeyValue keyValue = wrap(codec::encode).apply(newTuple);
         CodecService.getDefault().setId(keyValue.getKey(), partId.domain);
         byte[] key = keyValue.getKey();
         byte[] txnIdByte = txnId.encode();
-        byte[] tableIdByte = tableId.encode();
         byte[] partIdByte = partId.encode();
         if (param.isPessimisticTxn()) {
             byte[] keyValueKey = keyValue.getKey();
@@ -31,11 +31,10 @@ import io.dingodb.exec.converter.ValueConverter;
 import io.dingodb.exec.dag.Vertex;
 import io.dingodb.exec.expr.SqlExpr;
 import io.dingodb.exec.operator.data.Context;
+import io.dingodb.exec.operator.data.IndexWritePlan;
 import io.dingodb.exec.operator.params.TxnPartUpdateParam;
 import io.dingodb.exec.utils.ByteUtils;
 import io.dingodb.meta.MetaService;
-import io.dingodb.meta.entity.Column;
-import io.dingodb.meta.entity.Table;
 import io.dingodb.partition.DingoPartitionServiceProvider;
 import io.dingodb.partition.PartitionService;
 import io.dingodb.store.api.StoreInstance;
@@ -45,7 +44,6 @@ import lombok.extern.slf4j.Slf4j;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static io.dingodb.common.util.NoBreakFunctions.wrap;
 
@@ -93,20 +91,15 @@ public class TxnPartUpdateOperator extends PartModifyOperator {
             KeyValueCodec codec = param.getCodec();
             boolean calcPartId = false;
             if (context.getIndexId() != null) {
-                Table indexTable = MetaService.root().getTable(context.getIndexId());
-                List<Integer> columnIndices = param.getTable().getColumnIndices(indexTable.columns.stream()
-                    .map(Column::getName)
-                    .collect(Collectors.toList()));
-                tableId = context.getIndexId();
-                schema = indexTable.tupleType();
-                codec = CodecService.getDefault().createKeyValueCodec(indexTable.tupleType(), indexTable.keyMapping());
-                Object[] finalNewTuple = newTuple;
-                newTuple = columnIndices.stream().map(c -> finalNewTuple[c]).toArray();
-                Object[] copyNewTuple = copyTuple;
-                copyTuple = columnIndices.stream().map(c -> copyNewTuple[c]).toArray();
-                if (updated && columnIndices.stream().anyMatch(c -> mapping.contains(c))) {
+                IndexWritePlan indexPlan = param.getIndexPlan(context.getIndexId());
+                tableId = indexPlan.getIndexId();
+                schema = indexPlan.getSchema();
+                codec = indexPlan.getCodec();
+                newTuple = indexPlan.project(newTuple);
+                copyTuple = indexPlan.project(copyTuple);
+                if (updated && indexPlan.touches(mapping)) {
                     PartitionService ps = PartitionService.getService(
-                        Optional.ofNullable(indexTable.getPartitionStrategy())
+                        Optional.ofNullable(indexPlan.getIndexTable().getPartitionStrategy())
                             .orElse(DingoPartitionServiceProvider.RANGE_FUNC_NAME));
                     byte[] key = wrap(codec::encodeKey).apply(newTuple);
                     partId = ps.calcPartId(key, MetaService.root().getRangeDistribution(tableId));
@@ -16,6 +16,7 @@
 
 package io.dingodb.exec.operator;
 
+import com.google.common.collect.Iterators;
 import io.dingodb.codec.CodecService;
 import io.dingodb.codec.KeyValueCodec;
 import io.dingodb.common.CommonId;
@@ -23,11 +24,14 @@ import io.dingodb.common.profile.OperatorProfile;
 import io.dingodb.common.store.KeyValue;
 import io.dingodb.common.type.ListType;
 import io.dingodb.common.type.TupleMapping;
+import io.dingodb.common.util.ByteArrayUtils.ComparableByteArray;
 import io.dingodb.common.util.Optional;
 import io.dingodb.common.vector.TxnVectorSearchResponse;
 import io.dingodb.common.vector.VectorSearchResponse;
 import io.dingodb.exec.Services;
 import io.dingodb.exec.dag.Vertex;
+import io.dingodb.exec.fun.vector.VectorDistances;
+import io.dingodb.exec.operator.data.BatchLookupIterator;
 import io.dingodb.exec.operator.params.TxnPartVectorParam;
 import io.dingodb.meta.entity.Column;
 import io.dingodb.partition.DingoPartitionServiceProvider;
@@ -43,10 +47,10 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
-import static io.dingodb.exec.fun.vector.VectorCosineDistanceFun.cosine;
-import static io.dingodb.exec.fun.vector.VectorIPDistanceFun.innerProduct;
-import static io.dingodb.exec.fun.vector.VectorL2DistanceFun.l2DistanceCombine;
+import static io.dingodb.common.util.ByteArrayUtils.SKIP_LONG_POS;
 import static io.dingodb.exec.operator.TxnGetByKeysOperator.getLocalStore;
 
 @Slf4j
@@ -61,6 +65,8 @@ public class TxnPartVectorOperator extends FilterProjectSourceOperator {
         long start = System.currentTimeMillis();
         int vecIdx = param.getVectorIndex();
         String distanceType = param.getDistanceType();
+        VectorDistances.Metric metric = VectorDistances.Metric.of(distanceType);
+        float[] target = VectorDistances.toFloatArray(Arrays.asList(param.getFloatArray()));
         KeyValueCodec tableCodec;
         tableCodec = CodecService.getDefault().createKeyValueCodec(
             param.getTableDataSchema(), param.tableDataKeyMapping()
@@ -76,19 +82,20 @@ public class TxnPartVectorOperator extends FilterProjectSourceOperator {
         List<Object[]> results = new ArrayList<>();
         if (param.isLookUp()) {
             Map<Integer, Integer> vecPriIdxMapping = getVecPriIdxMapping(param);
+            PartitionService ps = PartitionService.getService(
+                Optional.ofNullable(param.getTable().getPartitionStrategy())
+                    .orElse(DingoPartitionServiceProvider.RANGE_FUNC_NAME));
+            CommonId txnId = vertex.getTask().getTxnId();
+            List<Object[]> locals = new ArrayList<>();
+            // The store rewrites the namespace and id of the keys in place, so match rows by the rest of the key.
+            NavigableMap<ComparableByteArray, TxnVectorSearchResponse> responses = new TreeMap<>();
+            List<byte[]> keys = new ArrayList<>(searchResponseList.size());
             for (VectorSearchResponse response : searchResponseList) {
                 TxnVectorSearchResponse txnResponse = (TxnVectorSearchResponse) response;
-                KeyValue tableData = new KeyValue(txnResponse.getTableKey(), txnResponse.getTableVal());
-                Object[] vecTuples = tableCodec.decode(tableData);
-
                 byte[] tmp1 = new byte[txnResponse.getKey().length];
                 System.arraycopy(txnResponse.getKey(), 0, tmp1, 0, txnResponse.getKey().length);
-                CommonId regionId = PartitionService.getService(
-                        Optional.ofNullable(param.getTable().getPartitionStrategy())
-                            .orElse(DingoPartitionServiceProvider.RANGE_FUNC_NAME))
-                    .calcPartId(txnResponse.getKey(), param.getDistributions());
+                CommonId regionId = ps.calcPartId(txnResponse.getKey(), param.getDistributions());
                 CodecService.getDefault().setId(tmp1, regionId.domain);
-                CommonId txnId = vertex.getTask().getTxnId();
                 Iterator<Object[]> local = getLocalStore(
                     regionId,
                     param.getCodec(),
@@ -106,37 +113,45 @@ public class TxnPartVectorOperator extends FilterProjectSourceOperator {
                         } else {
                             Object ov = objects[vecIdx];
                             if (ov instanceof List) {
-                                Object targetVector = Arrays.asList(param.getFloatArray());
-                                float distance = 0.0f;
-                                if (distanceType.contains("L2")) {
-                                    distance = (float) l2DistanceCombine((List<Float>) ov, (List<Number>) targetVector);
-                                } else if (distanceType.contains("INNER_PRODUCT")) {
-                                    distance = (float) innerProduct((List<Float>) ov, (List<Float>) targetVector);
-                                } else if (distanceType.contains("COSINE")) {
-                                    distance = cosine((List<Float>) ov, targetVector);
-                                }
-                                objects[objects.length - 1] = distance;
+                                objects[objects.length - 1] = (float) metric.distance(
+                                    VectorDistances.toFloatArray((List<?>) ov), target
+                                );
                             } else {
                                 objects[objects.length - 1] = 0.0;
                             }
                         }
-                        results.add(objects);
+                        locals.add(objects);
                     }
                     continue;
                 }
-
-                StoreInstance storeInstance = StoreService.getDefault().getInstance(param.getTableId(), regionId);
-                KeyValue keyValue = storeInstance.txnGet(param.getScanTs(), txnResponse.getKey(), param.getTimeOut());
-                if (keyValue == null || keyValue.getValue() == null) {
-                    continue;
-                }
-                Object[] decode = param.getCodec().decode(keyValue);
-                decode[decode.length - 1] = response.getDistance();
-                decode[vecIdx] = response.getFloatValues();
-
-                vecPriIdxMapping.forEach((key, value) -> decode[value] = vecTuples[key]);
-                results.add(decode);
+                responses.put(new ComparableByteArray(txnResponse.getKey(), SKIP_LONG_POS), txnResponse);
+                keys.add(txnResponse.getKey());
             }
+            KeyValueCodec codec = param.getCodec();
+            profile.time(start);
+            return Iterators.concat(locals.iterator(), new BatchLookupIterator(
+                "txn-part-vector",
+                keys.iterator(),
+                key -> ps.calcPartId(key, param.getDistributions()),
+                null,
+                (regionId, batch) -> StoreService.getDefault().getInstance(param.getTableId(), regionId)
+                    .txnGet(param.getScanTs(), batch, param.getTimeOut()),
+                keyValue -> {
+                    TxnVectorSearchResponse response = responses.get(
+                        new ComparableByteArray(keyValue.getKey(), SKIP_LONG_POS)
+                    );
+                    Object[] vecTuples = tableCodec.decode(
+                        new KeyValue(response.getTableKey(), response.getTableVal())
+                    );
+                    Object[] decode = codec.decode(keyValue);
+                    decode[decode.length - 1] = response.getDistance();
+                    decode[vecIdx] = response.getFloatValues();
+                    vecPriIdxMapping.forEach((key, value) -> decode[value] = vecTuples[key]);
+                    return decode;
+                },
+                BatchLookupIterator.DEFAULT_BATCH_SIZE,
+                BatchLookupIterator.DEFAULT_MAX_IN_FLIGHT
+            ));
         } else {
             TupleMapping vecSelection = mapping2VecSelection(param);
             for (VectorSearchResponse response : searchResponseList) {
@@ -17,22 +17,16 @@
 package io.dingodb.exec.operator;
 
 import io.dingodb.common.profile.OperatorProfile;
-import io.dingodb.common.type.TupleMapping;
-import io.dingodb.common.vector.VectorCalcDistance;
-import io.dingodb.exec.dag.Edge;
 import io.dingodb.exec.dag.Vertex;
 import io.dingodb.exec.fin.Fin;
-import io.dingodb.exec.fin.FinWithException;
+import io.dingodb.exec.fun.vector.VectorDistances;
 import io.dingodb.exec.operator.data.Context;
 import io.dingodb.exec.operator.params.VectorPointDistanceParam;
-import io.dingodb.tool.api.ToolService;
 import lombok.extern.slf4j.Slf4j;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 public class VectorPointDistanceOperator extends SoleOutOperator {
@@ -44,52 +38,24 @@ public class VectorPointDistanceOperator extends SoleOutOperator {
 
     @Override
     public boolean push(Context context, @Nullable Object[] tuple, Vertex vertex) {
-        VectorPointDistanceParam param = vertex.getParam();
-        param.setContext(context);
-        param.getCache().add(tuple);
-        return true;
+        synchronized (vertex) {
+            VectorPointDistanceParam param = vertex.getParam();
+            OperatorProfile profile = param.getProfile("vectorPointDistance");
+            long start = System.currentTimeMillis();
+            List<?> vector = (List<?>) tuple[param.getVectorIndex()];
+            Object[] result = Arrays.copyOf(tuple, tuple.length + 1);
+            if (vector != null) {
+                result[tuple.length] = (float) param.getMetric().distance(
+                    VectorDistances.toFloatArray(vector), param.getTarget()
+                );
+            }
+            profile.time(start);
+            return vertex.getSoleEdge().transformToNext(context, param.getSelection().revMap(result));
+        }
     }
 
     @Override
     public void fin(int pin, @Nullable Fin fin, Vertex vertex) {
-        Edge edge = vertex.getSoleEdge();
-        VectorPointDistanceParam param = vertex.getParam();
-        OperatorProfile profile = param.getProfile("vectorPointDistance");
-        long start = System.currentTimeMillis();
-        TupleMapping selection = param.getSelection();
-        List<Object[]> cache = param.getCache();
-        if (fin instanceof FinWithException) {
-            edge.fin(fin);
-            return;
-        }
-        List<List<Float>> rightList = cache.stream().map(e ->
-            (List<Float>) e[param.getVectorIndex()]
-        ).collect(Collectors.toList());
-
-        if (rightList.size() == 0) {
-            edge.fin(fin);
-            return;
-        }
-        VectorCalcDistance vectorCalcDistance = VectorCalcDistance.builder()
-            .leftList(Collections.singletonList(param.getTargetVector()))
-            .rightList(rightList)
-            .dimension(param.getDimension())
-            .algorithmType(param.getAlgType())
-            .metricType(param.getMetricType())
-            .build();
-        List<Float> floatArray = ToolService.getDefault().vectorCalcDistance(
-            param.getIndexTableId(),
-            param.getRangeDistribution().getId(),
-            vectorCalcDistance).get(0);
-
-        for (int i = 0; i < cache.size(); i ++) {
-            Object[] tuple = cache.get(i);
-            Object[] result = Arrays.copyOf(tuple, tuple.length + 1);
-            result[tuple.length] = floatArray.get(i);
-            edge.transformToNext(param.getContext(), selection.revMap(result));
-        }
-        param.clear();
-        profile.time(start);
-        edge.fin(fin);
+        vertex.getSoleEdge().fin(fin);
     }
 }
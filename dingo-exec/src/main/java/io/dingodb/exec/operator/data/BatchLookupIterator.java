@@ -0,0 +1,178 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.data;
+
+import io.dingodb.common.CommonId;
+import io.dingodb.common.concurrent.Executors;
+import io.dingodb.common.store.KeyValue;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Looks up primary table rows for a stream of keys. Keys are grouped by region and fetched with one multi-get per
+ * batch, up to {@code maxInFlight} batches are fetched concurrently and rows are emitted as batches complete,
+ * so nothing is materialized beyond the batches in flight.
+ *
+ * <p>Keys and rows are encoded and decoded on the calling thread, only the fetches run in the background.
+ * Not thread safe.
+ */
+public final class BatchLookupIterator implements Iterator<Object[]> {
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    private final String name;
+    private final Iterator<byte[]> keys;
+    private final Function<byte[], CommonId> router;
+    private final @Nullable LocalLookup local;
+    private final Fetcher fetcher;
+    private final Function<KeyValue, Object[]> decoder;
+    private final int batchSize;
+    private final int maxInFlight;
+
+    private final Map<CommonId, List<byte[]>> pending = new LinkedHashMap<>();
+    private final Deque<CompletableFuture<List<KeyValue>>> inFlight = new ArrayDeque<>();
+    private final Deque<Object[]> ready = new ArrayDeque<>();
+    private int pendingCount;
+
+    public BatchLookupIterator(
+        String name,
+        Iterator<byte[]> keys,
+        Function<byte[], CommonId> router,
+        @Nullable LocalLookup local,
+        Fetcher fetcher,
+        Function<KeyValue, Object[]> decoder,
+        int batchSize,
+        int maxInFlight
+    ) {
+        this.name = name;
+        this.keys = keys;
+        this.router = router;
+        this.local = local;
+        this.fetcher = fetcher;
+        this.decoder = decoder;
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (ready.isEmpty()) {
+            while (inFlight.size() < maxInFlight && keys.hasNext()) {
+                add(keys.next());
+            }
+            if (!keys.hasNext()) {
+                Iterator<CommonId> regions = pending.keySet().iterator();
+                while (inFlight.size() < maxInFlight && regions.hasNext()) {
+                    CommonId regionId = regions.next();
+                    List<byte[]> batch = pending.get(regionId);
+                    regions.remove();
+                    send(regionId, batch);
+                }
+            }
+            if (inFlight.isEmpty()) {
+                return false;
+            }
+            collect(inFlight.poll());
+        }
+        return true;
+    }
+
+    @Override
+    public Object[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return ready.poll();
+    }
+
+    private void add(byte[] key) {
+        CommonId regionId = router.apply(key);
+        if (local != null) {
+            Object[] row = local.get(key, regionId);
+            if (row != null) {
+                ready.add(row);
+                return;
+            }
+        }
+        List<byte[]> batch = pending.computeIfAbsent(regionId, k -> new ArrayList<>());
+        batch.add(key);
+        pendingCount++;
+        if (batch.size() >= batchSize) {
+            pending.remove(regionId);
+            send(regionId, batch);
+        } else if (pendingCount >= batchSize * maxInFlight) {
+            // keys spread over many regions, send the largest batch instead of buffering them all
+            CommonId largest = null;
+            for (Map.Entry<CommonId, List<byte[]>> entry : pending.entrySet()) {
+                if (largest == null || entry.getValue().size() > pending.get(largest).size()) {
+                    largest = entry.getKey();
+                }
+            }
+            send(largest, pending.remove(largest));
+        }
+    }
+
+    private void send(CommonId regionId, List<byte[]> batch) {
+        pendingCount -= batch.size();
+        inFlight.add(Executors.submit(name, () -> fetcher.fetch(regionId, batch)));
+    }
+
+    private void collect(CompletableFuture<List<KeyValue>> future) {
+        List<KeyValue> keyValues;
+        try {
+            keyValues = future.join();
+        } catch (CompletionException e) {
+            inFlight.clear();
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        for (KeyValue keyValue : keyValues) {
+            if (keyValue != null && keyValue.getValue() != null) {
+                ready.add(decoder.apply(keyValue));
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Fetcher {
+        /**
+         * Fetch the rows of the keys in one region, missing keys are left out.
+         */
+        List<KeyValue> fetch(CommonId regionId, List<byte[]> keys);
+    }
+
+    @FunctionalInterface
+    public interface LocalLookup {
+        /**
+         * The row written by the current transaction, or null to fetch it from the store.
+         */
+        Object @Nullable [] get(byte[] key, CommonId regionId);
+    }
+}
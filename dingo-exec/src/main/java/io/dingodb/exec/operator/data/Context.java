@@ -21,9 +21,11 @@ import io.dingodb.common.partition.RangeDistribution;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 @Setter
 @Getter
@@ -44,6 +46,26 @@ public class Context {
         return Context.builder().pin(pin).keyState(keyState).build();
     }
 
+    /**
+     * Copy everything, for tuples that are passed on later than they were received.
+     */
+    public Context duplicate() {
+        return Context.builder().pin(pin).indexId(indexId).distribution(distribution).keyState(keyState).build();
+    }
+
+    /**
+     * Whether two contexts carry the same values, so that one duplicate can be shared by the tuples of both.
+     */
+    public static boolean same(@Nullable Context context1, @Nullable Context context2) {
+        if (context1 == null || context2 == null) {
+            return context1 == context2;
+        }
+        return context1.pin == context2.pin
+            && Objects.equals(context1.indexId, context2.indexId)
+            && Objects.equals(context1.distribution, context2.distribution)
+            && context1.keyState == context2.keyState;
+    }
+
     public void addKeyState(boolean state) {
         keyState.add(state);
     }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.data;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Output file of one SELECT ... INTO OUTFILE, shared by the {@link ExportWriter}s of the statement.
+ * Each write is a buffer of whole rows, so rows of different writers never interleave.
+ * An outfile ending with ".gz" is gzip compressed.
+ */
+public final class ExportFile {
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final OutputStream gzip;
+    private final byte[] chunk;
+    private int refs;
+
+    private ExportFile(FileChannel channel, boolean compress) throws IOException {
+        this.channel = channel;
+        if (compress) {
+            this.gzip = new GZIPOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), GZIP_BUFFER_SIZE), GZIP_BUFFER_SIZE
+            );
+            this.chunk = new byte[GZIP_BUFFER_SIZE];
+        } else {
+            this.gzip = null;
+            this.chunk = null;
+        }
+    }
+
+    /**
+     * Create the file, fails with {@link java.nio.file.FileAlreadyExistsException} if it exists.
+     */
+    public static ExportFile create(String path) throws IOException {
+        FileChannel channel = FileChannel.open(
+            Paths.get(path), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE
+        );
+        try {
+            return new ExportFile(channel, path.endsWith(".gz"));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    synchronized void retain() {
+        refs++;
+    }
+
+    synchronized void write(ByteBuffer buffer) throws IOException {
+        if (gzip != null) {
+            while (buffer.hasRemaining()) {
+                int len = Math.min(chunk.length, buffer.remaining());
+                buffer.get(chunk, 0, len);
+                gzip.write(chunk, 0, len);
+            }
+            return;
+        }
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Release a writer reference, the last one closes the file.
+     * @return true if the file was closed
+     */
+    synchronized boolean release() throws IOException {
+        if (--refs > 0) {
+            return false;
+        }
+        if (gzip != null) {
+            gzip.close();
+        }
+        channel.close();
+        return true;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.data;
+
+import io.dingodb.common.concurrent.Executors;
+import io.dingodb.common.metrics.DingoMetrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Row writer of one export vertex. Rows are formatted into a direct buffer; a full buffer is handed over
+ * to a background write while the next one fills, so formatting does not wait on every syscall.
+ * Only complete rows are handed over, a partial row moves on to the next buffer.
+ */
+public final class ExportWriter {
+    private static final int BUFFER_SIZE = 4 << 20;
+
+    private final ExportFile file;
+
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private ByteBuffer spare = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
+
+    private int rowStart;
+    private long bufferedRows;
+    private long rows;
+
+    public ExportWriter(ExportFile file) {
+        this.file = file;
+        file.retain();
+    }
+
+    public void write(byte[] bytes) throws IOException {
+        ensure(bytes.length);
+        buffer.put(bytes);
+    }
+
+    public void write(int b) throws IOException {
+        ensure(1);
+        buffer.put((byte) b);
+    }
+
+    public void endRow() {
+        rowStart = buffer.position();
+        bufferedRows++;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Write out the buffered rows and release the file.
+     * @return true if the file was closed, i.e. this was its last writer
+     */
+    public boolean close() throws IOException {
+        boolean closed = false;
+        try {
+            if (rowStart > 0) {
+                handOver(buffer, rowStart);
+            }
+            await();
+        } finally {
+            buffer = null;
+            spare = null;
+            closed = file.release();
+        }
+        return closed;
+    }
+
+    private void ensure(int len) throws IOException {
+        if (buffer.remaining() >= len) {
+            return;
+        }
+        int end = buffer.position();
+        int partial = end - rowStart;
+        ByteBuffer full = buffer;
+        ByteBuffer next;
+        if (rowStart == 0 || partial + len > spare.capacity()) {
+            // the row alone does not fit, grow instead of handing over a partial row
+            next = ByteBuffer.allocate(Math.max(2 * full.capacity(), partial + len));
+        } else {
+            await();
+            next = spare;
+            next.clear();
+        }
+        full.position(rowStart).limit(end);
+        next.put(full);
+        if (rowStart > 0) {
+            handOver(full, rowStart);
+        }
+        buffer = next;
+        rowStart = 0;
+    }
+
+    private void handOver(ByteBuffer full, int len) throws IOException {
+        await();
+        full.position(0).limit(len);
+        long chunkRows = bufferedRows;
+        bufferedRows = 0;
+        rows += chunkRows;
+        spare = full;
+        pending = Executors.submit("export-write", () -> {
+            try {
+                file.write(full);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+            DingoMetrics.meter("export_rows").mark(chunkRows);
+            DingoMetrics.meter("export_bytes").mark(len);
+        });
+    }
+
+    private void await() throws IOException {
+        try {
+            pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
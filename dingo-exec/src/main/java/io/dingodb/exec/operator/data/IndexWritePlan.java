@@ -0,0 +1,89 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.data;
+
+import io.dingodb.codec.CodecService;
+import io.dingodb.codec.KeyValueCodec;
+import io.dingodb.common.CommonId;
+import io.dingodb.common.metrics.DingoMetrics;
+import io.dingodb.common.type.DingoType;
+import io.dingodb.common.type.TupleMapping;
+import io.dingodb.meta.MetaService;
+import io.dingodb.meta.entity.Column;
+import io.dingodb.meta.entity.IndexTable;
+import io.dingodb.meta.entity.Table;
+import lombok.Getter;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.stream.Collectors;
+
+/**
+ * Everything needed to turn a row of the primary table into a row of one of its indexes.
+ * Built once per index and vertex, so that writing a row does not touch meta service or create codecs.
+ */
+@Getter
+public final class IndexWritePlan {
+    private final CommonId indexId;
+    private final Table indexTable;
+    private final TupleMapping columns;
+    private final DingoType schema;
+    private final KeyValueCodec codec;
+    private final byte[] indexIdBytes;
+    private final boolean vector;
+
+    IndexWritePlan(@NonNull Table table, @NonNull CommonId indexId, @NonNull Table indexTable, KeyValueCodec codec) {
+        this.indexId = indexId;
+        this.indexTable = indexTable;
+        this.columns = TupleMapping.of(table.getColumnIndices(indexTable.columns.stream()
+            .map(Column::getName)
+            .collect(Collectors.toList())));
+        this.schema = indexTable.tupleType();
+        this.codec = codec;
+        this.indexIdBytes = indexId.encode();
+        this.vector = indexTable instanceof IndexTable && ((IndexTable) indexTable).indexType.isVector;
+    }
+
+    public static @NonNull IndexWritePlan of(@NonNull Table table, @NonNull CommonId indexId) {
+        DingoMetrics.meter("index_plan_build").mark();
+        Table indexTable = MetaService.root().getTable(indexId);
+        return new IndexWritePlan(
+            table,
+            indexId,
+            indexTable,
+            CodecService.getDefault().createKeyValueCodec(indexTable.tupleType(), indexTable.keyMapping())
+        );
+    }
+
+    /**
+     * Pick the index columns out of a row of the primary table.
+     */
+    public Object @NonNull [] project(Object[] tuple) {
+        return columns.revMap(tuple);
+    }
+
+    /**
+     * Check if any of the updated columns of the primary table is an index column.
+     */
+    public boolean touches(@NonNull TupleMapping updated) {
+        for (int column : columns.getMappings()) {
+            if (updated.contains(column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
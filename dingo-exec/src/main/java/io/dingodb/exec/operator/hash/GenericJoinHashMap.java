@@ -0,0 +1,140 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.hash;
+
+import io.dingodb.common.type.TupleMapping;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.Objects;
+
+/**
+ * Join hash map of any keys. Keys are not copied out of the tuples, but compared with the head row of each slot
+ * in place.
+ */
+public final class GenericJoinHashMap extends JoinHashMap {
+    private final int[] buildIndices;
+    private final int[] probeIndices;
+
+    private int[] hashes;
+    // Head row index + 1 of each slot, 0 means empty.
+    private int[] heads;
+    private int mask;
+    private int keyCount;
+
+    public GenericJoinHashMap(@NonNull TupleMapping buildMapping, @NonNull TupleMapping probeMapping) {
+        super();
+        this.buildIndices = buildMapping.getMappings();
+        this.probeIndices = probeMapping.getMappings();
+        clearSlots();
+    }
+
+    public static int hash(Object @NonNull [] tuple, @NonNull TupleMapping mapping) {
+        int hash = 1;
+        for (int i = 0; i < mapping.size(); ++i) {
+            hash = 31 * hash + Objects.hashCode(tuple[mapping.get(i)]);
+        }
+        return mix(hash);
+    }
+
+    private static boolean isNull(Object @NonNull [] tuple, int @NonNull [] indices) {
+        // Keep the same as comparing keys by `Arrays.equals`, all null keys are equal.
+        for (int index : indices) {
+            if (tuple[index] != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean keyEquals(Object @NonNull [] row, Object @NonNull [] tuple, int @NonNull [] indices) {
+        for (int i = 0; i < buildIndices.length; ++i) {
+            if (!Objects.equals(row[buildIndices[i]], tuple[indices[i]])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean isNullKey(Object @NonNull [] tuple) {
+        return isNull(tuple, buildIndices);
+    }
+
+    @Override
+    protected boolean isNullProbeKey(Object @NonNull [] tuple) {
+        return isNull(tuple, probeIndices);
+    }
+
+    @Override
+    protected int link(int hash, int row) {
+        Object[] tuple = rows[row];
+        int slot = hash & mask;
+        while (heads[slot] != 0) {
+            if (hashes[slot] == hash && keyEquals(rows[heads[slot] - 1], tuple, buildIndices)) {
+                int head = heads[slot] - 1;
+                heads[slot] = row + 1;
+                return head;
+            }
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        heads[slot] = row + 1;
+        if (++keyCount * 2 > heads.length) {
+            rehash();
+        }
+        return -1;
+    }
+
+    @Override
+    protected int lookup(int hash, Object @NonNull [] probeTuple) {
+        int slot = hash & mask;
+        while (heads[slot] != 0) {
+            if (hashes[slot] == hash && keyEquals(rows[heads[slot] - 1], probeTuple, probeIndices)) {
+                return heads[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash() {
+        int[] oldHashes = hashes;
+        int[] oldHeads = heads;
+        int capacity = oldHeads.length * 2;
+        hashes = new int[capacity];
+        heads = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldHeads.length; ++i) {
+            if (oldHeads[i] != 0) {
+                int slot = oldHashes[i] & mask;
+                while (heads[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                hashes[slot] = oldHashes[i];
+                heads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    @Override
+    protected void clearSlots() {
+        hashes = new int[INIT_CAPACITY];
+        heads = new int[INIT_CAPACITY];
+        mask = INIT_CAPACITY - 1;
+        keyCount = 0;
+    }
+}
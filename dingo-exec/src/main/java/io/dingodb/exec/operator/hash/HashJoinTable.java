@@ -0,0 +1,385 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.hash;
+
+import io.dingodb.common.profile.Profile;
+import io.dingodb.common.type.DingoType;
+import io.dingodb.common.type.TupleMapping;
+import io.dingodb.exec.operator.data.Context;
+import io.dingodb.exec.spill.SpillFile;
+import io.dingodb.exec.spill.SpillUtils;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Build side table of hash join, in hybrid hash join mode.
+ *
+ * <p>Build tuples are partitioned by the hash of join keys. If the tuples held on heap exceed the memory budget,
+ * the largest in-memory partition is spilled to a file, and the later build and probe tuples of this partition are
+ * written to files too. The spilled partitions are joined pair by pair after the probe side finished. A spilled
+ * partition still larger than the memory budget is repartitioned by the next bits of the hash into a sub table, which
+ * may spill again, up to {@link #MAX_LEVEL} levels.
+ *
+ * <p>The partitions are distributed to workers by {@link #workerOf(int, int)}, each worker has an even share of the
+ * memory budget and only spills its own partitions, so a partition is written by one thread only and needs no lock.
+ * Without workers, the caller must serialize the building.
+ */
+@Slf4j
+public class HashJoinTable {
+    private static final int PARTITION_BITS = 4;
+    public static final int PARTITION_NUM = 1 << PARTITION_BITS;
+    // Keep the low half bits of hash for the hash maps in partitions.
+    public static final int MAX_LEVEL = Integer.SIZE / 2 / PARTITION_BITS - 1;
+
+    private final TupleMapping leftMapping;
+    private final TupleMapping rightMapping;
+    private final @Nullable DingoType leftSchema;
+    private final @Nullable DingoType rightSchema;
+    @Getter
+    private final long memoryBudget;
+    private final JoinHashMap.Kind kind;
+    private final int level;
+    private final int parallelism;
+    private final Partition[] partitions;
+    // Memory used by the partitions of each worker, only updated by the worker.
+    private final long[] workerMemory;
+    private final AtomicLong spillCount;
+    private final AtomicLong spillRows;
+    private final AtomicLong spillBytes;
+
+    public HashJoinTable(
+        TupleMapping leftMapping,
+        TupleMapping rightMapping,
+        @Nullable DingoType leftSchema,
+        @Nullable DingoType rightSchema,
+        long memoryBudget
+    ) {
+        this(leftMapping, rightMapping, leftSchema, rightSchema, memoryBudget, 1);
+    }
+
+    public HashJoinTable(
+        TupleMapping leftMapping,
+        TupleMapping rightMapping,
+        @Nullable DingoType leftSchema,
+        @Nullable DingoType rightSchema,
+        long memoryBudget,
+        int parallelism
+    ) {
+        this.leftMapping = leftMapping;
+        this.rightMapping = rightMapping;
+        this.leftSchema = leftSchema;
+        this.rightSchema = rightSchema;
+        // Spilling needs the schemas to encode tuples, which are missing in plans of old versions.
+        this.memoryBudget = (leftSchema != null && rightSchema != null) ? memoryBudget : Long.MAX_VALUE;
+        this.kind = JoinHashMap.kindOf(rightMapping, leftMapping, rightSchema, leftSchema);
+        this.level = 0;
+        this.parallelism = Math.max(parallelism, 1);
+        this.workerMemory = new long[this.parallelism];
+        this.spillCount = new AtomicLong(0);
+        this.spillRows = new AtomicLong(0);
+        this.spillBytes = new AtomicLong(0);
+        this.partitions = createPartitions();
+    }
+
+    private HashJoinTable(@NonNull HashJoinTable parent) {
+        this.leftMapping = parent.leftMapping;
+        this.rightMapping = parent.rightMapping;
+        this.leftSchema = parent.leftSchema;
+        this.rightSchema = parent.rightSchema;
+        this.memoryBudget = parent.memoryBudget;
+        this.kind = parent.kind;
+        this.level = parent.level + 1;
+        // Sub tables are built in one thread.
+        this.parallelism = 1;
+        this.workerMemory = new long[1];
+        // Sub tables are counted in the statistics of the top table.
+        this.spillCount = parent.spillCount;
+        this.spillRows = parent.spillRows;
+        this.spillBytes = parent.spillBytes;
+        this.partitions = createPartitions();
+    }
+
+    private Partition[] createPartitions() {
+        Partition[] result = new Partition[PARTITION_NUM];
+        for (int i = 0; i < PARTITION_NUM; ++i) {
+            result[i] = new Partition(i);
+        }
+        return result;
+    }
+
+    private static int partitionIndex(int hash, int level) {
+        // Use high bits, for the low bits are used by the hash map in partition.
+        return (hash << (level * PARTITION_BITS)) >>> (Integer.SIZE - PARTITION_BITS);
+    }
+
+    /**
+     * Get the worker owning the partition of a hash, all the partitions are distributed to workers evenly.
+     */
+    public static int workerOf(int hash, int parallelism) {
+        return partitionIndex(hash, 0) % parallelism;
+    }
+
+    public int probeHash(Object @NonNull [] tuple) {
+        return JoinHashMap.hash(kind, tuple, leftMapping);
+    }
+
+    public int buildHash(Object @NonNull [] tuple) {
+        return JoinHashMap.hash(kind, tuple, rightMapping);
+    }
+
+    public @NonNull Partition partition(int hash) {
+        return partitions[partitionIndex(hash, level)];
+    }
+
+    public void build(Object @NonNull [] tuple) {
+        build(buildHash(tuple), tuple);
+    }
+
+    /**
+     * Add a build tuple, must be called by the worker owning the partition of the hash.
+     */
+    public void build(int hash, Object @NonNull [] tuple) {
+        Partition partition = partition(hash);
+        partition.add(hash, tuple);
+        int worker = partition.index % parallelism;
+        if (workerMemory[worker] > memoryBudget / parallelism) {
+            spillLargest(worker);
+        }
+    }
+
+    private void spillLargest(int worker) {
+        while (workerMemory[worker] > memoryBudget / parallelism) {
+            Partition victim = null;
+            for (int i = worker; i < PARTITION_NUM; i += parallelism) {
+                Partition partition = partitions[i];
+                if (!partition.spilled && (victim == null || partition.memory > victim.memory)) {
+                    victim = partition;
+                }
+            }
+            if (victim == null || victim.memory == 0) {
+                break;
+            }
+            victim.spill();
+        }
+    }
+
+    public @NonNull List<Partition> getSpilledPartitions() {
+        List<Partition> spilled = new ArrayList<>();
+        for (Partition partition : partitions) {
+            if (partition.spilled) {
+                spilled.add(partition);
+            }
+        }
+        return spilled;
+    }
+
+    /**
+     * Get the build tuples in memory, for outputting the unmatched ones in right/full outer join.
+     */
+    public @NonNull List<JoinHashMap> getInMemoryMaps() {
+        List<JoinHashMap> maps = new ArrayList<>(PARTITION_NUM);
+        for (Partition partition : partitions) {
+            if (!partition.spilled) {
+                maps.add(partition.map);
+            }
+        }
+        return maps;
+    }
+
+    public void fillProfile(@NonNull Profile profile) {
+        profile.setMemoryBudget(memoryBudget == Long.MAX_VALUE ? 0 : memoryBudget);
+        profile.setSpillCount(spillCount.get());
+        profile.setSpillRows(spillRows.get());
+        profile.setSpillBytes(spillBytes.get());
+    }
+
+    public void clear() {
+        for (Partition partition : partitions) {
+            partition.clear();
+        }
+        Arrays.fill(workerMemory, 0);
+    }
+
+    public final class Partition {
+        private final int index;
+        @Getter
+        private final JoinHashMap map = JoinHashMap.create(kind, rightMapping, leftMapping);
+        private long memory = 0;
+        private long spilledMemory = 0;
+        private volatile boolean spilled = false;
+        private SpillFile buildFile;
+        private SpillFile probeFile;
+        // Contexts of the deferred probe tuples, each is used by the tuples up to the row count at the same index.
+        private final List<Context> probeContexts = new ArrayList<>();
+        private final List<Long> probeContextEnds = new ArrayList<>();
+        private long probeRows = 0;
+
+        private Partition(int index) {
+            this.index = index;
+        }
+
+        private void add(int hash, Object[] tuple) {
+            if (spilled) {
+                buildFile.write(tuple);
+                spilledMemory += SpillUtils.estimateSize(tuple);
+                spillRows.incrementAndGet();
+                return;
+            }
+            map.put(hash, tuple);
+            long size = SpillUtils.estimateSize(tuple);
+            memory += size;
+            workerMemory[index % parallelism] += size;
+        }
+
+        private void spill() {
+            assert rightSchema != null;
+            assert leftSchema != null;
+            buildFile = new SpillFile("join-build-" + index + "-", rightSchema);
+            probeFile = new SpillFile("join-probe-" + index + "-", leftSchema);
+            int rows = map.size();
+            for (int i = 0; i < rows; ++i) {
+                buildFile.write(map.getRow(i));
+            }
+            map.clear();
+            workerMemory[index % parallelism] -= memory;
+            spilledMemory = memory;
+            memory = 0;
+            spilled = true;
+            spillCount.incrementAndGet();
+            spillRows.addAndGet(rows);
+            if (log.isDebugEnabled()) {
+                log.debug("Hash join partition {} spilled, rows = {}.", index, rows);
+            }
+        }
+
+        public boolean isSpilled() {
+            return spilled;
+        }
+
+        /**
+         * Whether the spilled build tuples would exceed the memory budget if loaded, and can still be repartitioned.
+         */
+        public boolean isOversized() {
+            return spilled && spilledMemory > memoryBudget && level < MAX_LEVEL;
+        }
+
+        /**
+         * Distribute the spilled build tuples into a sub table by the next bits of hash, must be called after the probe
+         * side finished. The deferred probe tuples are still got by {@link #forEachProbe(HashJoinWorkers.Handler)}.
+         */
+        public @NonNull HashJoinTable repartition() {
+            buildFile.finish();
+            spillBytes.addAndGet(buildFile.getBytes());
+            HashJoinTable table = new HashJoinTable(HashJoinTable.this);
+            Iterator<Object[]> it = buildFile.iterator();
+            while (it.hasNext()) {
+                table.build(it.next());
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Hash join partition {} of level {} repartitioned.", index, level);
+            }
+            return table;
+        }
+
+        /**
+         * Defer a probe tuple to the pass of spilled partitions, must be called by the worker owning the partition.
+         */
+        public void deferProbe(@Nullable Context context, Object[] tuple) {
+            probeFile.write(tuple);
+            ++probeRows;
+            int last = probeContexts.size() - 1;
+            if (last >= 0 && Context.same(probeContexts.get(last), context)) {
+                probeContextEnds.set(last, probeRows);
+            } else {
+                probeContexts.add(context == null ? null : context.duplicate());
+                probeContextEnds.add(probeRows);
+            }
+            spillRows.incrementAndGet();
+        }
+
+        /**
+         * Load the spilled build tuples into memory, must be called after the probe side finished.
+         */
+        public void load() {
+            buildFile.finish();
+            spillBytes.addAndGet(buildFile.getBytes());
+            long size = 0;
+            Iterator<Object[]> it = buildFile.iterator();
+            while (it.hasNext()) {
+                Object[] tuple = it.next();
+                map.put(JoinHashMap.hash(kind, tuple, rightMapping), tuple);
+                size += SpillUtils.estimateSize(tuple);
+            }
+            if (size > memoryBudget) {
+                log.warn(
+                    "Spilled hash join partition {} is larger than memory budget after loaded, size = {}.",
+                    index,
+                    size
+                );
+            }
+        }
+
+        /**
+         * Pass the deferred probe tuples with their contexts to the handler, until it returns {@code false}.
+         *
+         * @return {@code false} if the handler stopped
+         */
+        public boolean forEachProbe(HashJoinWorkers.@NonNull Handler handler) {
+            probeFile.finish();
+            spillBytes.addAndGet(probeFile.getBytes());
+            Iterator<Object[]> it = probeFile.iterator();
+            long row = 0;
+            int run = 0;
+            while (it.hasNext()) {
+                ++row;
+                while (probeContextEnds.get(run) < row) {
+                    ++run;
+                }
+                if (!handler.handle(probeContexts.get(run), it.next())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public void clear() {
+            map.clear();
+            memory = 0;
+            spilledMemory = 0;
+            spilled = false;
+            if (buildFile != null) {
+                buildFile.close();
+                buildFile = null;
+            }
+            if (probeFile != null) {
+                probeFile.close();
+                probeFile = null;
+            }
+            probeContexts.clear();
+            probeContextEnds.clear();
+            probeRows = 0;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.hash;
+
+import io.dingodb.common.concurrent.Executors;
+import io.dingodb.exec.operator.data.Context;
+import io.dingodb.exec.utils.QueueUtils;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Workers of partition-parallel hash join. Each worker owns a set of hash join partitions and processes the tuples
+ * routed to them in its own thread, so the partitions are never touched by different workers. The context of a tuple
+ * is queued with it, for the tuples are processed later than they were pushed.
+ */
+@Slf4j
+public class HashJoinWorkers {
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final Entry END = new Entry(null, new Object[0]);
+    private static final long PUT_TIMEOUT_MS = 100;
+
+    private final String name;
+    private final int parallelism;
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private final AtomicBoolean ended = new AtomicBoolean(false);
+
+    private volatile BlockingQueue<Entry>[] queues;
+    private CompletableFuture<Void>[] futures;
+    private volatile boolean stopped = false;
+
+    public HashJoinWorkers(String name, int parallelism) {
+        this.name = name;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Start the workers if not started.
+     *
+     * @param handler the handler of tuples, which returns {@code false} if no more tuples are wanted
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void start(@NonNull Handler handler) {
+        if (queues != null || stopped) {
+            return;
+        }
+        BlockingQueue<Entry>[] newQueues = new BlockingQueue[parallelism];
+        futures = new CompletableFuture[parallelism];
+        for (int i = 0; i < parallelism; ++i) {
+            BlockingQueue<Entry> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+            newQueues[i] = queue;
+            futures[i] = Executors.submit(name + "-" + i, () -> run(queue, handler));
+        }
+        queues = newQueues;
+    }
+
+    private void run(BlockingQueue<Entry> queue, Handler handler) {
+        while (true) {
+            Entry entry = QueueUtils.forceTake(queue);
+            if (entry == END) {
+                break;
+            }
+            // Keep draining the queue to unblock the producers.
+            if (stopped || error.get() != null) {
+                continue;
+            }
+            try {
+                if (!handler.handle(entry.context, entry.tuple)) {
+                    stopped = true;
+                }
+            } catch (Throwable e) {
+                log.error("Hash join worker \"{}\" failed.", name, e);
+                error.compareAndSet(null, e);
+            }
+        }
+    }
+
+    public boolean isStarted() {
+        return queues != null;
+    }
+
+    /**
+     * Route a tuple to a worker.
+     *
+     * @param context the context of the tuple, which must not be changed afterwards
+     * @return {@code false} if no more tuples are wanted
+     */
+    public boolean submit(int worker, @Nullable Context context, Object @NonNull [] tuple) {
+        checkError();
+        checkEnded();
+        if (stopped) {
+            return false;
+        }
+        BlockingQueue<Entry> queue = queues[worker];
+        Entry entry = new Entry(context, tuple);
+        while (true) {
+            try {
+                if (queue.offer(entry, PUT_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException ignored) {
+            }
+            // The workers may be closed while waiting.
+            if (ended.get()) {
+                checkEnded();
+                return false;
+            }
+        }
+        return !stopped;
+    }
+
+    /**
+     * Wait for all the submitted tuples processed.
+     */
+    public void finish() {
+        if (queues != null) {
+            end();
+            CompletableFuture.allOf(futures).join();
+        }
+        checkError();
+    }
+
+    /**
+     * Stop the workers without waiting, the tuples not processed are dropped.
+     */
+    public synchronized void close() {
+        stopped = true;
+        if (queues != null) {
+            end();
+        }
+    }
+
+    private void end() {
+        if (ended.compareAndSet(false, true)) {
+            for (BlockingQueue<Entry> queue : queues) {
+                QueueUtils.forcePut(queue, END);
+            }
+        }
+    }
+
+    /**
+     * Make the workers ready to be started again, for the operator is reused. Must be called after {@link #finish()}
+     * or {@link #close()}.
+     */
+    public synchronized void reset() {
+        if (queues != null) {
+            end();
+            CompletableFuture.allOf(futures).exceptionally(e -> null).join();
+        }
+        queues = null;
+        futures = null;
+        ended.set(false);
+        stopped = false;
+        error.set(null);
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    private void checkEnded() {
+        if (ended.get()) {
+            // Tuples submitted after the end would never be processed.
+            if (stopped) {
+                return;
+            }
+            throw new IllegalStateException("Hash join workers \"" + name + "\" are finished, but tuples arrived.");
+        }
+    }
+
+    private void checkError() {
+        Throwable e = error.get();
+        if (e != null) {
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            throw new RuntimeException(e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Handler {
+        boolean handle(@Nullable Context context, Object @NonNull [] tuple);
+    }
+
+    @AllArgsConstructor
+    private static final class Entry {
+        private final @Nullable Context context;
+        private final Object[] tuple;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.hash;
+
+import io.dingodb.common.type.DingoType;
+import io.dingodb.common.type.TupleMapping;
+import io.dingodb.common.type.scalar.IntegerType;
+import io.dingodb.common.type.scalar.LongType;
+import io.dingodb.common.type.scalar.StringType;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hash table of the build side of hash join.
+ *
+ * <p>Rows are stored in a contiguous array in insertion order, rows of the same key are chained by {@code next}, and
+ * the head row of each key is found by open addressing in the slots of subclasses. Matched flags are kept in a bitmap,
+ * for right/full outer join.
+ *
+ * <p>Insertion is not thread safe, but lookup and setting matched flags are, after the building finished.
+ */
+public abstract class JoinHashMap {
+    protected static final int INIT_CAPACITY = 16;
+    protected static final int NULL_HASH = 0;
+
+    protected Object[][] rows;
+    protected int[] next;
+    protected int size;
+    protected int nullHead;
+    private AtomicLongArray matched;
+
+    protected JoinHashMap() {
+        rows = new Object[INIT_CAPACITY][];
+        next = new int[INIT_CAPACITY];
+        size = 0;
+        nullHead = -1;
+    }
+
+    public static @NonNull Kind kindOf(
+        @NonNull TupleMapping buildMapping,
+        @NonNull TupleMapping probeMapping,
+        @Nullable DingoType buildSchema,
+        @Nullable DingoType probeSchema
+    ) {
+        if (buildMapping.size() != 1 || buildSchema == null || probeSchema == null) {
+            return Kind.GENERIC;
+        }
+        DingoType buildType = buildSchema.getChild(buildMapping.get(0));
+        DingoType probeType = probeSchema.getChild(probeMapping.get(0));
+        if (buildType == null || probeType == null || buildType.getClass() != probeType.getClass()) {
+            return Kind.GENERIC;
+        }
+        if (buildType instanceof LongType || buildType instanceof IntegerType) {
+            return Kind.LONG;
+        }
+        if (buildType instanceof StringType) {
+            return Kind.STRING;
+        }
+        return Kind.GENERIC;
+    }
+
+    public static @NonNull JoinHashMap create(
+        @NonNull Kind kind,
+        @NonNull TupleMapping buildMapping,
+        @NonNull TupleMapping probeMapping
+    ) {
+        switch (kind) {
+            case LONG:
+                return new LongJoinHashMap(buildMapping.get(0), probeMapping.get(0));
+            case STRING:
+                return new StringJoinHashMap(buildMapping.get(0), probeMapping.get(0));
+            default:
+                return new GenericJoinHashMap(buildMapping, probeMapping);
+        }
+    }
+
+    /**
+     * Hash of the join key in a tuple, the same key gets the same hash for both sides.
+     */
+    public static int hash(@NonNull Kind kind, Object @NonNull [] tuple, @NonNull TupleMapping mapping) {
+        switch (kind) {
+            case LONG:
+                return LongJoinHashMap.hash(tuple[mapping.get(0)]);
+            case STRING:
+                return StringJoinHashMap.hash(tuple[mapping.get(0)]);
+            default:
+                return GenericJoinHashMap.hash(tuple, mapping);
+        }
+    }
+
+    protected static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    protected static int tableSizeFor(int size) {
+        int capacity = INIT_CAPACITY;
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    public void put(int hash, Object @NonNull [] tuple) {
+        if (size == rows.length) {
+            rows = Arrays.copyOf(rows, size * 2);
+            next = Arrays.copyOf(next, size * 2);
+        }
+        int row = size++;
+        rows[row] = tuple;
+        if (isNullKey(tuple)) {
+            next[row] = nullHead;
+            nullHead = row;
+            return;
+        }
+        next[row] = link(hash, row);
+    }
+
+    /**
+     * Get the first row of the same key as the probe tuple.
+     *
+     * @return the row index, or {@code -1} if not found
+     */
+    public int find(int hash, Object @NonNull [] probeTuple) {
+        if (isNullProbeKey(probeTuple)) {
+            return nullHead;
+        }
+        return lookup(hash, probeTuple);
+    }
+
+    public int next(int row) {
+        return next[row];
+    }
+
+    public Object[] getRow(int row) {
+        return rows[row];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void setMatched(int row) {
+        AtomicLongArray bitmap = matched;
+        if (bitmap == null) {
+            synchronized (this) {
+                if (matched == null) {
+                    matched = new AtomicLongArray((size + Long.SIZE - 1) / Long.SIZE);
+                }
+                bitmap = matched;
+            }
+        }
+        int index = row / Long.SIZE;
+        long mask = 1L << (row % Long.SIZE);
+        long bits = bitmap.get(index);
+        while ((bits & mask) == 0 && !bitmap.compareAndSet(index, bits, bits | mask)) {
+            bits = bitmap.get(index);
+        }
+    }
+
+    public boolean isMatched(int row) {
+        AtomicLongArray bitmap = matched;
+        return bitmap != null && (bitmap.get(row / Long.SIZE) & (1L << (row % Long.SIZE))) != 0;
+    }
+
+    public void clear() {
+        rows = new Object[INIT_CAPACITY][];
+        next = new int[INIT_CAPACITY];
+        size = 0;
+        nullHead = -1;
+        matched = null;
+        clearSlots();
+    }
+
+    protected abstract boolean isNullKey(Object @NonNull [] tuple);
+
+    protected abstract boolean isNullProbeKey(Object @NonNull [] tuple);
+
+    /**
+     * Put a new row as the head of its key.
+     *
+     * @return the previous head row of the key, or {@code -1} if the key is new
+     */
+    protected abstract int link(int hash, int row);
+
+    protected abstract int lookup(int hash, Object @NonNull [] probeTuple);
+
+    protected abstract void clearSlots();
+
+    public enum Kind {
+        LONG,
+        STRING,
+        GENERIC,
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.hash;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Join hash map of single integral key, keys are kept unboxed in the slots.
+ */
+public final class LongJoinHashMap extends JoinHashMap {
+    private final int buildIndex;
+    private final int probeIndex;
+
+    private long[] keys;
+    // Head row index + 1 of each slot, 0 means empty.
+    private int[] heads;
+    private int mask;
+    private int keyCount;
+
+    public LongJoinHashMap(int buildIndex, int probeIndex) {
+        super();
+        this.buildIndex = buildIndex;
+        this.probeIndex = probeIndex;
+        clearSlots();
+    }
+
+    public static int hash(Object value) {
+        if (value == null) {
+            return NULL_HASH;
+        }
+        return hash(((Number) value).longValue());
+    }
+
+    public static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    @Override
+    protected boolean isNullKey(Object @NonNull [] tuple) {
+        return tuple[buildIndex] == null;
+    }
+
+    @Override
+    protected boolean isNullProbeKey(Object @NonNull [] tuple) {
+        return tuple[probeIndex] == null;
+    }
+
+    @Override
+    protected int link(int hash, int row) {
+        long key = ((Number) rows[row][buildIndex]).longValue();
+        int slot = hash & mask;
+        while (heads[slot] != 0) {
+            if (keys[slot] == key) {
+                int head = heads[slot] - 1;
+                heads[slot] = row + 1;
+                return head;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        heads[slot] = row + 1;
+        if (++keyCount * 2 > heads.length) {
+            rehash();
+        }
+        return -1;
+    }
+
+    @Override
+    protected int lookup(int hash, Object @NonNull [] probeTuple) {
+        long key = ((Number) probeTuple[probeIndex]).longValue();
+        int slot = hash & mask;
+        while (heads[slot] != 0) {
+            if (keys[slot] == key) {
+                return heads[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldHeads = heads;
+        int capacity = oldHeads.length * 2;
+        keys = new long[capacity];
+        heads = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldHeads.length; ++i) {
+            if (oldHeads[i] != 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (heads[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                heads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    @Override
+    protected void clearSlots() {
+        keys = new long[INIT_CAPACITY];
+        heads = new int[INIT_CAPACITY];
+        mask = INIT_CAPACITY - 1;
+        keyCount = 0;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.hash;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Join hash map of single string key, hashes are cached in the slots to skip most of the string comparisons.
+ */
+public final class StringJoinHashMap extends JoinHashMap {
+    private final int buildIndex;
+    private final int probeIndex;
+
+    private String[] keys;
+    private int[] hashes;
+    // Head row index + 1 of each slot, 0 means empty.
+    private int[] heads;
+    private int mask;
+    private int keyCount;
+
+    public StringJoinHashMap(int buildIndex, int probeIndex) {
+        super();
+        this.buildIndex = buildIndex;
+        this.probeIndex = probeIndex;
+        clearSlots();
+    }
+
+    public static int hash(Object value) {
+        if (value == null) {
+            return NULL_HASH;
+        }
+        return mix(value.hashCode());
+    }
+
+    @Override
+    protected boolean isNullKey(Object @NonNull [] tuple) {
+        return tuple[buildIndex] == null;
+    }
+
+    @Override
+    protected boolean isNullProbeKey(Object @NonNull [] tuple) {
+        return tuple[probeIndex] == null;
+    }
+
+    @Override
+    protected int link(int hash, int row) {
+        String key = (String) rows[row][buildIndex];
+        int slot = hash & mask;
+        while (heads[slot] != 0) {
+            if (hashes[slot] == hash && keys[slot].equals(key)) {
+                int head = heads[slot] - 1;
+                heads[slot] = row + 1;
+                return head;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        hashes[slot] = hash;
+        heads[slot] = row + 1;
+        if (++keyCount * 2 > heads.length) {
+            rehash();
+        }
+        return -1;
+    }
+
+    @Override
+    protected int lookup(int hash, Object @NonNull [] probeTuple) {
+        String key = (String) probeTuple[probeIndex];
+        int slot = hash & mask;
+        while (heads[slot] != 0) {
+            if (hashes[slot] == hash && keys[slot].equals(key)) {
+                return heads[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash() {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        int[] oldHeads = heads;
+        int capacity = oldHeads.length * 2;
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        heads = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldHeads.length; ++i) {
+            if (oldHeads[i] != 0) {
+                int slot = oldHashes[i] & mask;
+                while (heads[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                hashes[slot] = oldHashes[i];
+                heads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    @Override
+    protected void clearSlots() {
+        keys = new String[INIT_CAPACITY];
+        hashes = new int[INIT_CAPACITY];
+        heads = new int[INIT_CAPACITY];
+        mask = INIT_CAPACITY - 1;
+        keyCount = 0;
+    }
+}
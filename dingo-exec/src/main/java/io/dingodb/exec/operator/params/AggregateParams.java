@@ -21,6 +21,8 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.dingodb.common.config.ExecConfiguration;
+import io.dingodb.common.type.DingoType;
 import io.dingodb.common.type.TupleMapping;
 import io.dingodb.exec.aggregate.AbstractAgg;
 import io.dingodb.exec.aggregate.Agg;
@@ -31,7 +33,7 @@ import lombok.Getter;
 import java.util.List;
 
 @JsonTypeName("aggregate")
-@JsonPropertyOrder({"keys", "aggregates"})
+@JsonPropertyOrder({"keys", "aggregates", "schema"})
 public class AggregateParams extends AbstractParams {
 
     @JsonProperty("keys")
@@ -41,21 +43,26 @@ public class AggregateParams extends AbstractParams {
     @JsonSerialize(contentAs = AbstractAgg.class)
     @JsonDeserialize(contentAs = AbstractAgg.class)
     private final List<Agg> aggList;
+    // Schema of output tuples, i.e. the keys followed by aggregation values, for spilling.
+    @JsonProperty("schema")
+    private final DingoType schema;
     @Getter
     private transient AggCache cache;
 
     public AggregateParams(@JsonProperty("keys") TupleMapping keyMapping,
-                           @JsonProperty("aggregates") List<Agg> aggList) {
+                           @JsonProperty("aggregates") List<Agg> aggList,
+                           @JsonProperty("schema") DingoType schema) {
         this.keyMapping = keyMapping;
         this.aggList = aggList;
+        this.schema = schema;
     }
 
 
     public void init(Vertex vertex) {
-        cache = new AggCache(keyMapping, aggList);
+        cache = new AggCache(keyMapping, aggList, schema, ExecConfiguration.aggMemoryBudget());
     }
 
-    public synchronized void addTuple(Object[] tuple) {
+    public void addTuple(Object[] tuple) {
         cache.addTuple(tuple);
     }
 
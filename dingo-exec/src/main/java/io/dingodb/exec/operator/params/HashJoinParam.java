@@ -19,21 +19,21 @@ package io.dingodb.exec.operator.params;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.annotation.JsonTypeName;
+import io.dingodb.common.config.ExecConfiguration;
 import io.dingodb.common.profile.Profile;
+import io.dingodb.common.type.DingoType;
 import io.dingodb.common.type.TupleMapping;
 import io.dingodb.exec.dag.Vertex;
-import io.dingodb.exec.operator.data.TupleWithJoinFlag;
-import io.dingodb.exec.tuple.TupleKey;
+import io.dingodb.exec.operator.hash.HashJoinTable;
+import io.dingodb.exec.operator.hash.HashJoinWorkers;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Getter
 @JsonTypeName("hashJoin")
-@JsonPropertyOrder({"joinType", "leftMapping", "rightMapping"})
+@JsonPropertyOrder({"joinType", "leftMapping", "rightMapping", "leftSchema", "rightSchema", "parallelism"})
 public class HashJoinParam extends AbstractParams {
 
     @JsonProperty("leftMapping")
@@ -49,10 +49,20 @@ public class HashJoinParam extends AbstractParams {
     private final boolean leftRequired;
     @JsonProperty("rightRequired")
     private final boolean rightRequired;
+    // Schemas are used to encode tuples when spilling.
+    @JsonProperty("leftSchema")
+    private final DingoType leftSchema;
+    @JsonProperty("rightSchema")
+    private final DingoType rightSchema;
+    // Number of workers to build and probe in parallel, `1` means running in the threads of inputs.
+    @JsonProperty("parallelism")
+    private final int parallelism;
 
     @Setter
     private transient boolean rightFinFlag;
-    private transient ConcurrentHashMap<TupleKey, List<TupleWithJoinFlag>> hashMap;
+    private transient HashJoinTable table;
+    private transient HashJoinWorkers buildWorkers;
+    private transient HashJoinWorkers probeWorkers;
     @Setter
     private transient CompletableFuture<Void> future;
 
@@ -69,7 +79,10 @@ public class HashJoinParam extends AbstractParams {
         int leftLength,
         int rightLength,
         boolean leftRequired,
-        boolean rightRequired
+        boolean rightRequired,
+        DingoType leftSchema,
+        DingoType rightSchema,
+        int parallelism
     ) {
         this.leftMapping = leftMapping;
         this.rightMapping = rightMapping;
@@ -77,16 +90,38 @@ public class HashJoinParam extends AbstractParams {
         this.rightLength = rightLength;
         this.leftRequired = leftRequired;
         this.rightRequired = rightRequired;
+        this.leftSchema = leftSchema;
+        this.rightSchema = rightSchema;
+        this.parallelism = Math.min(parallelism, HashJoinTable.PARTITION_NUM);
     }
 
     @Override
     public void init(Vertex vertex) {
         rightFinFlag = false;
-        hashMap = new ConcurrentHashMap<>();
+        table = new HashJoinTable(
+            leftMapping,
+            rightMapping,
+            leftSchema,
+            rightSchema,
+            ExecConfiguration.joinMemoryBudget(),
+            Math.max(parallelism, 1)
+        );
         future = new CompletableFuture<>();
+        if (isParallel()) {
+            buildWorkers = new HashJoinWorkers("hash-join-build", parallelism);
+            probeWorkers = new HashJoinWorkers("hash-join-probe", parallelism);
+        }
+    }
+
+    public boolean isParallel() {
+        return parallelism > 1;
     }
 
     public void clear() {
-        hashMap.clear();
+        table.clear();
+        if (isParallel()) {
+            buildWorkers.reset();
+            probeWorkers.reset();
+        }
     }
 }
@@ -22,15 +22,19 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import io.dingodb.codec.CodecService;
 import io.dingodb.codec.KeyValueCodec;
 import io.dingodb.common.CommonId;
+import io.dingodb.common.metrics.DingoMetrics;
 import io.dingodb.common.partition.RangeDistribution;
 import io.dingodb.common.type.DingoType;
 import io.dingodb.common.type.TupleMapping;
 import io.dingodb.common.util.ByteArrayUtils;
 import io.dingodb.exec.dag.Vertex;
+import io.dingodb.exec.operator.data.IndexWritePlan;
 import io.dingodb.meta.entity.Table;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.NavigableMap;
 
 @Getter
@@ -50,6 +54,7 @@ public abstract class PartModifyParam extends AbstractParams {
     protected KeyValueCodec codec;
     @Setter
     protected NavigableMap<ByteArrayUtils.ComparableByteArray, RangeDistribution> distributions;
+    private transient Map<CommonId, IndexWritePlan> indexPlans;
 
     public PartModifyParam(
         CommonId tableId,
@@ -68,6 +73,18 @@ public abstract class PartModifyParam extends AbstractParams {
     @Override
     public void init(Vertex vertex) {
         count = 0;
+        indexPlans = new HashMap<>();
+    }
+
+    public IndexWritePlan getIndexPlan(CommonId indexId) {
+        IndexWritePlan plan = indexPlans.get(indexId);
+        if (plan == null) {
+            plan = IndexWritePlan.of(table, indexId);
+            indexPlans.put(indexId, plan);
+        } else {
+            DingoMetrics.meter("index_plan_hit").mark();
+        }
+        return plan;
     }
 
     public void reset() {
@@ -21,6 +21,8 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.dingodb.common.config.ExecConfiguration;
+import io.dingodb.common.type.DingoType;
 import io.dingodb.common.type.TupleMapping;
 import io.dingodb.exec.aggregate.AbstractAgg;
 import io.dingodb.exec.aggregate.Agg;
@@ -34,7 +36,7 @@ import java.util.List;
 @Slf4j
 @Getter
 @JsonTypeName("reduce")
-@JsonPropertyOrder({"inputNum", "keys", "aggregates"})
+@JsonPropertyOrder({"inputNum", "keys", "aggregates", "schema"})
 public class ReduceParam extends AbstractParams {
 
     @JsonProperty("keys")
@@ -43,20 +45,32 @@ public class ReduceParam extends AbstractParams {
     @JsonSerialize(contentAs = AbstractAgg.class)
     @JsonDeserialize(contentAs = AbstractAgg.class)
     private final List<Agg> aggList;
+    // Schema of input and output tuples, i.e. the keys followed by aggregation values, for spilling.
+    @JsonProperty("schema")
+    private final DingoType schema;
 
     private transient AggCache cache;
 
-    public ReduceParam(TupleMapping keys, List<Agg> aggList) {
+    public ReduceParam(
+        @JsonProperty("keys") TupleMapping keys,
+        @JsonProperty("aggregates") List<Agg> aggList,
+        @JsonProperty("schema") DingoType schema
+    ) {
         this.keys = keys;
         this.aggList = aggList;
+        this.schema = schema;
     }
 
     @Override
     public void init(Vertex vertex) {
-        cache = new AggCache(keys, aggList);
+        cache = new AggCache(keys, aggList, schema, ExecConfiguration.aggMemoryBudget());
     }
 
-    public synchronized void reduce(Object[] tuple) {
+    public void reduce(Object[] tuple) {
         cache.reduce(tuple);
     }
+
+    public void clear() {
+        cache.clear();
+    }
 }
@@ -24,6 +24,7 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import io.dingodb.common.CommonId;
 import io.dingodb.common.type.DingoType;
 import io.dingodb.exec.channel.SendEndpoint;
+import io.dingodb.exec.codec.TupleFormat;
 import io.dingodb.exec.codec.TxRxCodec;
 import io.dingodb.exec.codec.TxRxCodecImpl;
 import io.dingodb.exec.dag.Vertex;
@@ -36,7 +37,7 @@ import java.util.LinkedList;
 import java.util.List;
 
 @Getter
-@JsonPropertyOrder({"host", "port", "tag", "schema"})
+@JsonPropertyOrder({"host", "port", "tag", "schema", "format"})
 @JsonTypeName("send")
 public class SendParam extends AbstractParams {
 
@@ -50,6 +51,8 @@ public class SendParam extends AbstractParams {
     private final CommonId receiveId;
     @JsonProperty("schema")
     private final DingoType schema;
+    @JsonProperty("format")
+    private final TupleFormat format;
 
     private transient List<TupleId> tupleList;
     private transient TxRxCodec codec;
@@ -58,18 +61,19 @@ public class SendParam extends AbstractParams {
     @Setter
     private transient int maxBufferSize;
 
-    public SendParam(String host, int port, CommonId receiveId, DingoType schema) {
+    public SendParam(String host, int port, CommonId receiveId, DingoType schema, TupleFormat format) {
         this.host = host;
         this.port = port;
         this.receiveId = receiveId;
         this.schema = schema;
+        this.format = format;
         this.maxBufferSize = 4096;
     }
 
     @Override
     public void init(Vertex vertex) {
         tupleList = new LinkedList<>();
-        codec = new TxRxCodecImpl(schema);
+        codec = new TxRxCodecImpl(schema, format == null ? TupleFormat.AVRO : format);
         endpoint = new SendEndpoint(host, port, TagUtils.tag(vertex.getTask().getJobId(), receiveId));
         endpoint.init();
     }
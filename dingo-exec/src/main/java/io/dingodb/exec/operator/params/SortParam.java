@@ -20,20 +20,26 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.annotation.JsonTypeName;
+import io.dingodb.common.config.ExecConfiguration;
 import io.dingodb.common.profile.OperatorProfile;
+import io.dingodb.common.type.DingoType;
 import io.dingodb.exec.dag.Vertex;
 import io.dingodb.exec.operator.data.SortCollation;
+import io.dingodb.exec.operator.sort.ExternalSortBuffer;
+import io.dingodb.exec.operator.sort.SortBuffer;
+import io.dingodb.exec.operator.sort.TopNSortBuffer;
 import lombok.Getter;
 import lombok.NonNull;
 
 import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
 
 @Getter
 @JsonTypeName("sort")
-@JsonPropertyOrder({"collations", "limit", "offset"})
+@JsonPropertyOrder({"collations", "limit", "offset", "schema"})
 public class SortParam extends AbstractParams {
+    // Use top-N heap if the number of tuples to keep is not larger than this.
+    private static final int TOP_N_MAX = 100000;
 
     @JsonProperty("collations")
     private final List<SortCollation> collations;
@@ -41,19 +47,23 @@ public class SortParam extends AbstractParams {
     private final int limit;
     @JsonProperty("offset")
     private final int offset;
-    private final List<Object[]> cache;
+    // The schema is used to encode tuples when spilling.
+    @JsonProperty("schema")
+    private final DingoType schema;
+    private transient SortBuffer buffer;
     private transient Comparator<Object[]> comparator;
 
     @JsonCreator
     public SortParam(
         @JsonProperty("collations") @NonNull List<SortCollation> collations,
         @JsonProperty("limit") int limit,
-        @JsonProperty("offset") int offset
+        @JsonProperty("offset") int offset,
+        @JsonProperty("schema") DingoType schema
     ) {
         this.collations = collations;
         this.limit = limit;
         this.offset = offset;
-        this.cache = new LinkedList<>();
+        this.schema = schema;
         if (!collations.isEmpty()) {
             Comparator<Object[]> c = collations.get(0).makeComparator();
             for (int i = 1; i < collations.size(); ++i) {
@@ -77,10 +87,15 @@ public class SortParam extends AbstractParams {
         } else {
             comparator = null;
         }
+        if (comparator != null && limit >= 0 && (long) offset + limit <= TOP_N_MAX) {
+            buffer = new TopNSortBuffer(comparator, offset + limit);
+        } else {
+            buffer = new ExternalSortBuffer(comparator, schema, ExecConfiguration.sortMemoryBudget());
+        }
     }
 
     public void clear() {
-        cache.clear();
+        buffer.clear();
     }
 
     public OperatorProfile getProfile() {
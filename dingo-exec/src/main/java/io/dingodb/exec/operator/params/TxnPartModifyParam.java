@@ -20,6 +20,9 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import io.dingodb.common.CommonId;
 import io.dingodb.common.type.DingoType;
 import io.dingodb.common.type.TupleMapping;
+import io.dingodb.exec.transaction.util.PessimisticLockBatcher;
+import io.dingodb.exec.transaction.util.TransactionUtil;
+import io.dingodb.exec.utils.ByteUtils;
 import io.dingodb.meta.entity.Table;
 import lombok.Getter;
 import lombok.Setter;
@@ -38,6 +41,7 @@ public abstract class TxnPartModifyParam extends PartModifyParam {
     private final long forUpdateTs;
     @JsonProperty("lockTimeOut")
     private final long lockTimeOut;
+    private transient PessimisticLockBatcher lockBatcher;
 
     public TxnPartModifyParam(
         CommonId tableId,
@@ -63,4 +67,33 @@ public abstract class TxnPartModifyParam extends PartModifyParam {
     public void setStartTs(long startTs) {
         this.startTs = startTs;
     }
+
+    public PessimisticLockBatcher lockBatcher(CommonId txnId, long forUpdateTs) {
+        if (lockBatcher == null) {
+            byte[] primaryLock = ByteUtils.decodePessimisticKey(primaryLockKey);
+            lockBatcher = new PessimisticLockBatcher(
+                PessimisticLockBatcher.DEFAULT_BATCH_SIZE,
+                PessimisticLockBatcher.DEFAULT_MAX_IN_FLIGHT,
+                (tableId, partId, keys) -> TransactionUtil.pessimisticLockAsync(
+                    lockTimeOut, txnId, tableId, partId, primaryLock, keys, startTs, forUpdateTs, isolationLevel
+                )
+            );
+        }
+        return lockBatcher;
+    }
+
+    /**
+     * Lock all buffered keys and run their callbacks, see {@link PessimisticLockBatcher#flush()}.
+     */
+    public void flushLocks() {
+        if (lockBatcher != null) {
+            lockBatcher.flush();
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        lockBatcher = null;
+    }
 }
@@ -22,9 +22,10 @@ import com.fasterxml.jackson.annotation.JsonTypeName;
 import io.dingodb.common.CommonId;
 import io.dingodb.common.partition.RangeDistribution;
 import io.dingodb.common.type.TupleMapping;
+import io.dingodb.exec.dag.Vertex;
+import io.dingodb.exec.fun.vector.VectorDistances;
 import lombok.Getter;
 
-import java.util.LinkedList;
 import java.util.List;
 
 @Getter
@@ -46,10 +47,12 @@ public class VectorPointDistanceParam extends AbstractParams {
 
     private final CommonId indexTableId;
 
-    private final List<Object[]> cache;
-
     private final TupleMapping selection;
 
+    private transient float[] target;
+
+    private transient VectorDistances.Metric metric;
+
     public VectorPointDistanceParam(
         RangeDistribution rangeDistribution,
         Integer vectorIndex,
@@ -67,12 +70,14 @@ public class VectorPointDistanceParam extends AbstractParams {
         this.algType = algType;
         this.metricType = metricType;
         this.indexTableId = indexTableId;
-        cache = new LinkedList<>();
         this.selection = selection;
     }
 
-    public void clear() {
-        cache.clear();
+    @Override
+    public void init(Vertex vertex) {
+        super.init(vertex);
+        target = VectorDistances.toFloatArray(targetVector);
+        metric = VectorDistances.Metric.of(metricType);
     }
 
 }
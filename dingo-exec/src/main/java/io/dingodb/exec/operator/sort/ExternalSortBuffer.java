@@ -0,0 +1,188 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.sort;
+
+import com.google.common.collect.Iterators;
+import io.dingodb.common.profile.Profile;
+import io.dingodb.common.type.DingoType;
+import io.dingodb.exec.spill.SpillFile;
+import io.dingodb.exec.spill.SpillUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Sort tuples in memory, and write sorted runs to disk once the memory budget is exceeded. The runs are merged when
+ * iterating.
+ */
+@Slf4j
+public class ExternalSortBuffer implements SortBuffer {
+    private final @Nullable Comparator<Object[]> comparator;
+    private final @Nullable DingoType schema;
+    private final long memoryBudget;
+
+    private final List<SpillFile> runs;
+    private List<Object[]> cache;
+    private long memoryUsed;
+    private long size;
+
+    public ExternalSortBuffer(
+        @Nullable Comparator<Object[]> comparator,
+        @Nullable DingoType schema,
+        long memoryBudget
+    ) {
+        this.comparator = comparator;
+        this.schema = schema;
+        // Spilling needs the schema to encode tuples, which is missing in plans of old versions.
+        this.memoryBudget = schema != null ? memoryBudget : Long.MAX_VALUE;
+        this.runs = new ArrayList<>();
+        this.cache = new ArrayList<>();
+        this.memoryUsed = 0;
+        this.size = 0;
+    }
+
+    @Override
+    public void add(Object @NonNull [] tuple) {
+        cache.add(tuple);
+        ++size;
+        memoryUsed += SpillUtils.estimateSize(tuple);
+        if (memoryUsed > memoryBudget) {
+            spillRun();
+        }
+    }
+
+    private void spillRun() {
+        assert schema != null;
+        if (comparator != null) {
+            cache.sort(comparator);
+        }
+        SpillFile run = new SpillFile("sort-run-" + runs.size() + "-", schema);
+        for (Object[] tuple : cache) {
+            run.write(tuple);
+        }
+        run.finish();
+        runs.add(run);
+        if (log.isDebugEnabled()) {
+            log.debug("Sort run {} spilled, rows = {}, bytes = {}.", runs.size(), run.getRows(), run.getBytes());
+        }
+        // Release the memory of the list too.
+        cache = new ArrayList<>();
+        memoryUsed = 0;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public @NonNull Iterator<Object[]> iterator() {
+        if (comparator != null) {
+            cache.sort(comparator);
+        }
+        if (runs.isEmpty()) {
+            return cache.iterator();
+        }
+        List<Iterator<Object[]>> iterators = new ArrayList<>(runs.size() + 1);
+        for (SpillFile run : runs) {
+            iterators.add(run.iterator());
+        }
+        iterators.add(cache.iterator());
+        if (comparator == null) {
+            return Iterators.concat(iterators.iterator());
+        }
+        return new MergeIterator(iterators, comparator);
+    }
+
+    @Override
+    public void fillProfile(@NonNull Profile profile) {
+        if (!runs.isEmpty()) {
+            profile.setMemoryBudget(memoryBudget);
+            profile.setSpillCount(runs.size());
+            profile.setSpillRows(runs.stream().mapToLong(SpillFile::getRows).sum());
+            profile.setSpillBytes(runs.stream().mapToLong(SpillFile::getBytes).sum());
+        }
+    }
+
+    @Override
+    public void clear() {
+        runs.forEach(SpillFile::close);
+        runs.clear();
+        cache = new ArrayList<>();
+        memoryUsed = 0;
+        size = 0;
+    }
+
+    /**
+     * K-way merge of sorted iterators.
+     */
+    private static class MergeIterator implements Iterator<Object[]> {
+        private final PriorityQueue<Head> heap;
+
+        MergeIterator(@NonNull List<Iterator<Object[]>> iterators, @NonNull Comparator<Object[]> comparator) {
+            heap = new PriorityQueue<>(
+                iterators.size(),
+                Comparator.<Head, Object[]>comparing(h -> h.tuple, comparator).thenComparingInt(h -> h.order)
+            );
+            for (int i = 0; i < iterators.size(); ++i) {
+                Iterator<Object[]> it = iterators.get(i);
+                if (it.hasNext()) {
+                    heap.offer(new Head(it, it.next(), i));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heap.isEmpty();
+        }
+
+        @Override
+        public Object[] next() {
+            Head head = heap.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            Object[] tuple = head.tuple;
+            if (head.iterator.hasNext()) {
+                head.tuple = head.iterator.next();
+                heap.offer(head);
+            }
+            return tuple;
+        }
+    }
+
+    private static class Head {
+        private final Iterator<Object[]> iterator;
+        // Keep the order of runs for equal tuples, so the sort is stable.
+        private final int order;
+        private Object[] tuple;
+
+        Head(Iterator<Object[]> iterator, Object[] tuple, int order) {
+            this.iterator = iterator;
+            this.tuple = tuple;
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.sort;
+
+import io.dingodb.common.profile.Profile;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.Iterator;
+
+/**
+ * Collect tuples of sort operator and output them in order.
+ */
+public interface SortBuffer {
+    void add(Object @NonNull [] tuple);
+
+    /**
+     * Number of tuples collected.
+     */
+    long size();
+
+    /**
+     * Iterate the collected tuples in order, should be called only once after all tuples added.
+     */
+    @NonNull Iterator<Object[]> iterator();
+
+    default void fillProfile(@NonNull Profile profile) {
+    }
+
+    void clear();
+}
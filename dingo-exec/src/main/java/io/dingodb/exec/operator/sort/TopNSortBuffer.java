@@ -0,0 +1,92 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.sort;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keep only the first {@code n} tuples in a bounded heap, for sorting with limit.
+ *
+ * <p>Tuples comparing equal are kept and output in the order they arrived, the same as a stable full sort.
+ */
+public class TopNSortBuffer implements SortBuffer {
+    private final Comparator<Object[]> comparator;
+    private final Comparator<Entry> entryComparator;
+    private final int n;
+    // The root is the largest one of the kept tuples.
+    private final PriorityQueue<Entry> heap;
+    private long size;
+
+    public TopNSortBuffer(@NonNull Comparator<Object[]> comparator, int n) {
+        this.comparator = comparator;
+        this.entryComparator = Comparator.<Entry, Object[]>comparing(e -> e.tuple, comparator)
+            .thenComparingLong(e -> e.seq);
+        this.n = n;
+        this.heap = new PriorityQueue<>(Math.max(n, 1), entryComparator.reversed());
+        this.size = 0;
+    }
+
+    @Override
+    public void add(Object @NonNull [] tuple) {
+        long seq = size++;
+        if (heap.size() < n) {
+            heap.offer(new Entry(seq, tuple));
+        } else if (n > 0 && comparator.compare(tuple, heap.peek().tuple) < 0) {
+            // A tuple equal to the root arrived later, so it is never kept instead of the root.
+            heap.poll();
+            heap.offer(new Entry(seq, tuple));
+        }
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public @NonNull Iterator<Object[]> iterator() {
+        List<Entry> entries = new ArrayList<>(heap);
+        entries.sort(entryComparator);
+        List<Object[]> list = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            list.add(entry.tuple);
+        }
+        return list.iterator();
+    }
+
+    @Override
+    public void clear() {
+        heap.clear();
+        size = 0;
+    }
+
+    private static final class Entry {
+        private final long seq;
+        private final Object[] tuple;
+
+        private Entry(long seq, Object[] tuple) {
+            this.seq = seq;
+            this.tuple = tuple;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.spill;
+
+import io.dingodb.common.type.DingoType;
+import io.dingodb.exec.codec.AvroTupleCodec;
+import io.dingodb.exec.codec.TupleCodec;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A temporary file of tuples. Tuples are encoded in length-prefixed blocks, so the file can be read back in a
+ * streaming way without loading it all.
+ */
+@Slf4j
+public class SpillFile implements AutoCloseable {
+    private static final int BLOCK_ROWS = 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final TupleCodec codec;
+    private final List<Object[]> block;
+    private final ByteArrayOutputStream blockBuffer;
+    private final List<InputStream> readers;
+
+    private DataOutputStream os;
+    @Getter
+    private long rows;
+    @Getter
+    private long bytes;
+
+    public SpillFile(String prefix, @NonNull DingoType schema) {
+        try {
+            this.file = SpillUtils.createSpillFile(prefix);
+            this.os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.codec = new AvroTupleCodec(schema);
+        this.block = new ArrayList<>(BLOCK_ROWS);
+        this.blockBuffer = new ByteArrayOutputStream();
+        this.readers = new ArrayList<>();
+        this.rows = 0;
+        this.bytes = 0;
+    }
+
+    public synchronized void write(Object[] tuple) {
+        block.add(tuple);
+        ++rows;
+        if (block.size() >= BLOCK_ROWS) {
+            writeBlock();
+        }
+    }
+
+    private void writeBlock() {
+        if (block.isEmpty()) {
+            return;
+        }
+        try {
+            blockBuffer.reset();
+            codec.encode(blockBuffer, block);
+            os.writeInt(blockBuffer.size());
+            blockBuffer.writeTo(os);
+            bytes += Integer.BYTES + blockBuffer.size();
+            block.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Flush buffered tuples and close the output, the file is readable after this.
+     */
+    public synchronized void finish() {
+        if (os == null) {
+            return;
+        }
+        writeBlock();
+        try {
+            os.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            os = null;
+        }
+    }
+
+    public @NonNull Iterator<Object[]> iterator() {
+        finish();
+        if (rows == 0) {
+            return Collections.emptyIterator();
+        }
+        try {
+            DataInputStream is = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE)
+            );
+            synchronized (this) {
+                readers.add(is);
+            }
+            return new BlockIterator(is);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (os != null) {
+            try {
+                os.close();
+            } catch (IOException e) {
+                log.warn("Close spill file \"{}\" failed.", file, e);
+            }
+            os = null;
+        }
+        // Readers may be left open if the iterating is stopped early.
+        for (InputStream is : readers) {
+            try {
+                is.close();
+            } catch (IOException e) {
+                log.warn("Close reader of spill file \"{}\" failed.", file, e);
+            }
+        }
+        readers.clear();
+        block.clear();
+        if (file.exists() && !file.delete()) {
+            log.warn("Delete spill file \"{}\" failed.", file);
+        }
+    }
+
+    private class BlockIterator implements Iterator<Object[]> {
+        private final DataInputStream is;
+        private Iterator<Object[]> current;
+        private boolean eof;
+
+        private BlockIterator(DataInputStream is) {
+            this.is = is;
+            this.current = Collections.emptyIterator();
+            this.eof = false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (eof) {
+                    return false;
+                }
+                readBlock();
+            }
+            return true;
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        private void readBlock() {
+            try {
+                int size;
+                try {
+                    size = is.readInt();
+                } catch (EOFException e) {
+                    eof = true;
+                    is.close();
+                    return;
+                }
+                byte[] buf = new byte[size];
+                is.readFully(buf);
+                current = codec.decode(new ByteArrayInputStream(buf)).iterator();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
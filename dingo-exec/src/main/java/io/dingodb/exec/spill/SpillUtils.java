@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.spill;
+
+import io.dingodb.common.config.ExecConfiguration;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+public final class SpillUtils {
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 8;
+
+    private SpillUtils() {
+    }
+
+    public static @NonNull File createSpillFile(String prefix) throws IOException {
+        File dir = new File(ExecConfiguration.spillPath());
+        if (!dir.exists() && !dir.mkdirs() && !dir.isDirectory()) {
+            throw new IOException("Cannot create spill directory \"" + dir + "\".");
+        }
+        return File.createTempFile(prefix, ".spill", dir);
+    }
+
+    /**
+     * Estimate the heap size of a tuple roughly, used to decide when to spill.
+     */
+    public static long estimateSize(Object[] tuple) {
+        if (tuple == null) {
+            return 0;
+        }
+        long size = OBJECT_HEADER + (long) REFERENCE * tuple.length;
+        for (Object value : tuple) {
+            size += estimateValueSize(value);
+        }
+        return size;
+    }
+
+    private static long estimateValueSize(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return OBJECT_HEADER * 2 + ((String) value).length();
+        }
+        if (value instanceof byte[]) {
+            return OBJECT_HEADER + ((byte[]) value).length;
+        }
+        if (value instanceof BigDecimal) {
+            return OBJECT_HEADER * 4;
+        }
+        if (value instanceof Object[]) {
+            return estimateSize((Object[]) value);
+        }
+        if (value instanceof List) {
+            return OBJECT_HEADER + (long) ((List<?>) value).size() * (OBJECT_HEADER + REFERENCE);
+        }
+        if (value instanceof Map) {
+            return OBJECT_HEADER + (long) ((Map<?, ?>) value).size() * (OBJECT_HEADER + REFERENCE) * 3;
+        }
+        return OBJECT_HEADER + REFERENCE;
+    }
+}
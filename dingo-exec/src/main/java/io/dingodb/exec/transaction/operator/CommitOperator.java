@@ -33,6 +33,7 @@ import io.dingodb.exec.fin.FinWithException;
 import io.dingodb.exec.operator.data.Context;
 import io.dingodb.exec.transaction.base.TxnLocalData;
 import io.dingodb.exec.transaction.params.CommitParam;
+import io.dingodb.exec.transaction.util.RegionBatcher;
 import io.dingodb.exec.transaction.util.TransactionUtil;
 import io.dingodb.meta.entity.IndexTable;
 import io.dingodb.store.api.StoreInstance;
@@ -80,43 +81,43 @@ public class CommitOperator extends TransactionOperator {
                     key = vectorCodec.encodeKeyPrefix(new Object[]{decodeKey[0]}, 1);
                 }
             }
-            CommonId partId = param.getPartId();
-            if (partId == null) {
-                partId = newPartId;
-                param.setPartId(partId);
-                param.setTableId(tableId);
-                param.addKey(key);
-            } else if (partId.equals(newPartId)) {
-                param.addKey(key);
-                if (param.getKeys().size() == TransactionUtil.max_pre_write_count) {
-                    boolean result = txnCommit(param, txnId, tableId, partId);
-                    if (!result) {
-                        throw new RuntimeException(txnId + " " + partId + ",txnCommit false,PrimaryKey:" + param.getPrimaryKey().toString());
+            batcher(param, txnId).add(tableId, newPartId, key);
+            return true;
+        }
+    }
+
+    private static RegionBatcher<byte[]> batcher(CommitParam param, CommonId txnId) {
+        RegionBatcher<byte[]> batcher = param.getBatcher();
+        if (batcher == null) {
+            batcher = new RegionBatcher<>(
+                "txn-commit",
+                TransactionUtil.max_pre_write_count,
+                RegionBatcher.DEFAULT_MAX_IN_FLIGHT,
+                (tableId, partId, keys) -> {
+                    if (!txnCommit(param, txnId, tableId, partId, keys)) {
+                        throw new RuntimeException(txnId + " " + partId + ",txnCommit false,"
+                            + " PrimaryKey:" + Arrays.toString(param.getPrimaryKey()));
                     }
-                    param.getKeys().clear();
-                    param.setPartId(null);
-                }
-            } else {
-                boolean result = txnCommit(param, txnId, param.getTableId(), partId);
-                if (!result) {
-                    throw new RuntimeException(txnId + " " + partId + ",txnCommit false,PrimaryKey:" + param.getPrimaryKey().toString());
                 }
-                param.getKeys().clear();
-                param.addKey(key);
-                param.setPartId(newPartId);
-                param.setTableId(tableId);
-            }
-            return true;
+            );
+            param.setBatcher(batcher);
         }
+        return batcher;
     }
 
-    private boolean txnCommit(CommitParam param, CommonId txnId, CommonId tableId, CommonId newPartId) {
+    private static boolean txnCommit(
+        CommitParam param,
+        CommonId txnId,
+        CommonId tableId,
+        CommonId newPartId,
+        List<byte[]> keys
+    ) {
         // 1、Async call sdk TxnCommit
         TxnCommit commitRequest = TxnCommit.builder()
             .isolationLevel(IsolationLevel.of(param.getIsolationLevel()))
             .startTs(param.getStartTs())
             .commitTs(param.getCommitTs())
-            .keys(param.getKeys())
+            .keys(keys)
             .build();
         try {
             StoreInstance store = Services.KV_STORE.getInstance(tableId, newPartId);
@@ -124,7 +125,7 @@ public class CommitOperator extends TransactionOperator {
         } catch (RegionSplitException e) {
             LogUtils.error(log, e.getMessage(), e);
             // 2、regin split
-            Map<CommonId, List<byte[]>> partMap = TransactionUtil.multiKeySplitRegionId(tableId, txnId, param.getKeys());
+            Map<CommonId, List<byte[]>> partMap = TransactionUtil.multiKeySplitRegionId(tableId, txnId, keys);
             for (Map.Entry<CommonId, List<byte[]>> entry : partMap.entrySet()) {
                 CommonId regionId = entry.getKey();
                 List<byte[]> value = entry.getValue();
@@ -143,19 +144,25 @@ public class CommitOperator extends TransactionOperator {
     public void fin(int pin, @Nullable Fin fin, Vertex vertex) {
         synchronized (vertex) {
             CommitParam param = vertex.getParam();
-            if (!(fin instanceof FinWithException)) {
-                if (param.getKeys().size() > 0) {
-                    CommonId txnId = vertex.getTask().getTxnId();
-                    boolean result = txnCommit(param, txnId, param.getTableId(), param.getPartId());
-                    if (!result) {
-                        throw new RuntimeException(
-                            txnId + " " + param.getPartId()
-                            + ",txnCommit false,"
-                            + " PrimaryKey:" + Arrays.toString(param.getPrimaryKey()));
-                    }
+            RegionBatcher<byte[]> batcher = param.getBatcher();
+            param.setBatcher(null);
+            if (fin instanceof FinWithException) {
+                if (batcher != null) {
+                    batcher.cancel();
+                }
+                vertex.getSoleEdge().fin(fin);
+                return;
+            }
+            try {
+                if (batcher != null) {
+                    batcher.flush();
                 }
-                vertex.getSoleEdge().transformToNext(new Object[]{true});
+            } catch (RuntimeException e) {
+                LogUtils.error(log, e.getMessage(), e);
+                vertex.getSoleEdge().fin(FinWithException.of(vertex.getTask().getId().toString(), e));
+                return;
             }
+            vertex.getSoleEdge().transformToNext(new Object[]{true});
             vertex.getSoleEdge().fin(fin);
         }
     }
@@ -29,6 +29,7 @@ import io.dingodb.exec.transaction.base.TransactionType;
 import io.dingodb.exec.transaction.base.TxnLocalData;
 import io.dingodb.exec.transaction.impl.TransactionManager;
 import io.dingodb.exec.transaction.params.PreWriteParam;
+import io.dingodb.exec.transaction.util.RegionBatcher;
 import io.dingodb.exec.transaction.util.TransactionCacheToMutation;
 import io.dingodb.exec.transaction.util.TransactionUtil;
 import io.dingodb.exec.utils.ByteUtils;
@@ -41,6 +42,7 @@ import io.dingodb.store.api.transaction.exception.RegionSplitException;
 import lombok.extern.slf4j.Slf4j;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -109,48 +111,47 @@ public final class PreWriteOperator extends TransactionOperator {
             // cache to mutations
             Mutation mutation = TransactionCacheToMutation.cacheToMutation(op, key, value, forUpdateTs, tableId, newPartId);
             LogUtils.debug(log, "mutation: {}", mutation);
-            CommonId partId = param.getPartId();
-            if (partId == null) {
-                partId = newPartId;
-                param.setPartId(partId);
-                param.setTableId(tableId);
-                param.addMutation(mutation);
-            } else if (partId.equals(newPartId)) {
-                param.addMutation(mutation);
-                if (param.getMutations().size() == TransactionUtil.max_pre_write_count) {
-                    boolean result = txnPreWrite(param, txnId, tableId, partId);
-                    if (!result) {
-                        throw new RuntimeException(txnId + " " + partId + ",txnPreWrite false,PrimaryKey:" + param.getPrimaryKey().toString());
+            batcher(param, txnId).add(tableId, newPartId, mutation);
+            return true;
+        }
+    }
+
+    private static RegionBatcher<Mutation> batcher(PreWriteParam param, CommonId txnId) {
+        RegionBatcher<Mutation> batcher = param.getBatcher();
+        if (batcher == null) {
+            batcher = new RegionBatcher<>(
+                "txn-pre-write",
+                TransactionUtil.max_pre_write_count,
+                RegionBatcher.DEFAULT_MAX_IN_FLIGHT,
+                (tableId, partId, mutations) -> {
+                    if (!txnPreWrite(param, txnId, tableId, partId, mutations)) {
+                        throw new RuntimeException(txnId + " " + partId + ",txnPreWrite false,PrimaryKey:"
+                            + Arrays.toString(param.getPrimaryKey()));
                     }
-                    param.getMutations().clear();
-                    param.setPartId(null);
-                }
-            } else {
-                boolean result = txnPreWrite(param, txnId, param.getTableId(), partId);
-                if (!result) {
-                    throw new RuntimeException(txnId + " " + partId + ",txnPreWrite false,PrimaryKey:" + param.getPrimaryKey().toString());
                 }
-                param.getMutations().clear();
-                param.addMutation(mutation);
-                param.setPartId(newPartId);
-                param.setTableId(tableId);
-            }
-            return true;
+            );
+            param.setBatcher(batcher);
         }
+        return batcher;
     }
 
-    private boolean txnPreWrite(PreWriteParam param, CommonId txnId, CommonId tableId, CommonId partId) {
+    private static boolean txnPreWrite(
+        PreWriteParam param,
+        CommonId txnId,
+        CommonId tableId,
+        CommonId partId,
+        List<Mutation> mutations
+    ) {
         // 1、call sdk TxnPreWrite
-        param.setTxnSize(param.getMutations().size());
         TxnPreWrite txnPreWrite;
         if (param.getTransactionType() == TransactionType.OPTIMISTIC) {
             txnPreWrite = TxnPreWrite.builder()
                 .isolationLevel(IsolationLevel.of(param.getIsolationLevel()))
-                .mutations(param.getMutations())
+                .mutations(mutations)
                 .primaryLock(param.getPrimaryKey())
                 .startTs(param.getStartTs())
                 .lockTtl(TransactionManager.lockTtlTm())
-                .txnSize(param.getTxnSize())
+                .txnSize(mutations.size())
                 .tryOnePc(param.isTryOnePc())
                 .maxCommitTs(param.getMaxCommitTs())
                 .lockExtraDatas(TransactionUtil.toLockExtraDataList(
@@ -158,28 +159,28 @@ public final class PreWriteOperator extends TransactionOperator {
                     partId,
                     txnId,
                     param.getTransactionType().getCode(),
-                    param.getMutations().size())
+                    mutations.size())
                 )
                 .build();
         } else {
             // ToDo Non-unique indexes do not require pessimistic locks and are equivalent to optimistic transactions
             txnPreWrite = TxnPreWrite.builder()
                 .isolationLevel(IsolationLevel.of(param.getIsolationLevel()))
-                .mutations(param.getMutations())
+                .mutations(mutations)
                 .primaryLock(param.getPrimaryKey())
                 .startTs(param.getStartTs())
                 .lockTtl(TransactionManager.lockTtlTm())
-                .txnSize(param.getTxnSize())
+                .txnSize(mutations.size())
                 .tryOnePc(param.isTryOnePc())
                 .maxCommitTs(param.getMaxCommitTs())
-                .pessimisticChecks(TransactionUtil.toPessimisticCheck(param.getMutations().size()))
-                .forUpdateTsChecks(TransactionUtil.toForUpdateTsChecks(param.getMutations()))
+                .pessimisticChecks(TransactionUtil.toPessimisticCheck(mutations.size()))
+                .forUpdateTsChecks(TransactionUtil.toForUpdateTsChecks(mutations))
                 .lockExtraDatas(TransactionUtil.toLockExtraDataList(
                     tableId,
                     partId,
                     txnId,
                     param.getTransactionType().getCode(),
-                    param.getMutations().size())
+                    mutations.size())
                 )
                 .build();
         }
@@ -192,13 +193,13 @@ public final class PreWriteOperator extends TransactionOperator {
             Map<CommonId, List<byte[]>> partMap = TransactionUtil.multiKeySplitRegionId(
                 tableId,
                 txnId,
-                TransactionUtil.mutationToKey(param.getMutations())
+                TransactionUtil.mutationToKey(mutations)
             );
             for (Map.Entry<CommonId, List<byte[]>> entry : partMap.entrySet()) {
                 CommonId regionId = entry.getKey();
                 List<byte[]> value = entry.getValue();
                 StoreInstance store = Services.KV_STORE.getInstance(tableId, regionId);
-                txnPreWrite.setMutations(TransactionUtil.keyToMutation(value, param.getMutations()));
+                txnPreWrite.setMutations(TransactionUtil.keyToMutation(value, mutations));
                 boolean result = store.txnPreWrite(txnPreWrite, param.getTimeOut());
                 if (!result) {
                     return false;
@@ -211,23 +212,26 @@ public final class PreWriteOperator extends TransactionOperator {
     @Override
     public void fin(int pin, @Nullable Fin fin, Vertex vertex) {
         synchronized (vertex) {
-            if (!(fin instanceof FinWithException)) {
-                PreWriteParam param = vertex.getParam();
-                if (param.getMutations().size() > 0) {
-                    boolean result = txnPreWrite(
-                        param,
-                        vertex.getTask().getTxnId(),
-                        param.getTableId(),
-                        param.getPartId()
-                    );
-                    if (!result) {
-                        throw new RuntimeException(vertex.getTask().getTxnId() + " " + param.getPartId()
-                            + ",txnPreWrite false,PrimaryKey:" + param.getPrimaryKey().toString());
-                    }
-                    param.getMutations().clear();
+            PreWriteParam param = vertex.getParam();
+            RegionBatcher<Mutation> batcher = param.getBatcher();
+            param.setBatcher(null);
+            if (fin instanceof FinWithException) {
+                if (batcher != null) {
+                    batcher.cancel();
+                }
+                vertex.getSoleEdge().fin(fin);
+                return;
+            }
+            try {
+                if (batcher != null) {
+                    batcher.flush();
                 }
-                vertex.getSoleEdge().transformToNext(new Object[]{true});
+            } catch (RuntimeException e) {
+                LogUtils.error(log, e.getMessage(), e);
+                vertex.getSoleEdge().fin(FinWithException.of(vertex.getTask().getId().toString(), e));
+                return;
             }
+            vertex.getSoleEdge().transformToNext(new Object[]{true});
             vertex.getSoleEdge().fin(fin);
         }
     }
@@ -19,17 +19,13 @@ package io.dingodb.exec.transaction.params;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.annotation.JsonTypeName;
-import io.dingodb.common.CommonId;
 import io.dingodb.common.type.DingoType;
-import io.dingodb.exec.dag.Vertex;
 import io.dingodb.exec.operator.params.AbstractParams;
 import io.dingodb.exec.transaction.base.TransactionType;
+import io.dingodb.exec.transaction.util.RegionBatcher;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.ArrayList;
-import java.util.List;
-
 @Getter
 @JsonTypeName("commit")
 @JsonPropertyOrder({"txnType", "isolationLevel", "primaryKey", "startTs", "commitTs", "schema"})
@@ -47,11 +43,8 @@ public class CommitParam extends AbstractParams {
     private final byte[] primaryKey;
     @JsonProperty("txnType")
     private final TransactionType transactionType;
-    private List<byte[]> keys;
-    @Setter
-    private CommonId tableId;
     @Setter
-    private CommonId partId;
+    private transient RegionBatcher<byte[]> batcher;
 
     public CommitParam(
         @JsonProperty("schema") DingoType schema,
@@ -68,14 +61,4 @@ public class CommitParam extends AbstractParams {
         this.primaryKey = primaryKey;
         this.transactionType = transactionType;
     }
-
-    @Override
-    public void init(Vertex vertex) {
-        super.init(vertex);
-        keys = new ArrayList<>();
-    }
-
-    public void addKey(byte[] key) {
-        keys.add(key);
-    }
 }
@@ -19,18 +19,14 @@ package io.dingodb.exec.transaction.params;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.annotation.JsonTypeName;
-import io.dingodb.common.CommonId;
 import io.dingodb.common.type.DingoType;
-import io.dingodb.exec.dag.Vertex;
 import io.dingodb.exec.operator.params.AbstractParams;
 import io.dingodb.exec.transaction.base.TransactionType;
+import io.dingodb.exec.transaction.util.RegionBatcher;
 import io.dingodb.store.api.transaction.data.Mutation;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.ArrayList;
-import java.util.List;
-
 @Getter
 @JsonTypeName("preWrite")
 @JsonPropertyOrder({"txnType", "isolationLevel", "primaryKey", "startTs", "timeOut", "schema"})
@@ -49,13 +45,7 @@ public class PreWriteParam extends AbstractParams {
     @JsonProperty("timeOut")
     private final long timeOut;
     @Setter
-    private List<Mutation> mutations;
-    @Setter
-    private long txnSize;
-    @Setter
-    private CommonId tableId;
-    @Setter
-    private CommonId partId;
+    private transient RegionBatcher<Mutation> batcher;
     private boolean tryOnePc = false;
     private long maxCommitTs = 0L;
 
@@ -74,14 +64,4 @@ public class PreWriteParam extends AbstractParams {
         this.transactionType = transactionType;
         this.timeOut = timeOut;
     }
-
-    @Override
-    public void init(Vertex vertex) {
-        super.init(vertex);
-        mutations = new ArrayList<>();
-    }
-
-    public void addMutation(Mutation mutation) {
-        mutations.add(mutation);
-    }
 }
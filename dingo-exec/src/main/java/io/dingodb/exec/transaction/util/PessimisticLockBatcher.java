@@ -0,0 +1,219 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.transaction.util;
+
+import io.dingodb.common.CommonId;
+import io.dingodb.common.log.LogUtils;
+import io.dingodb.common.metrics.DingoMetrics;
+import io.dingodb.common.util.ByteArrayUtils.ComparableByteArray;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Collects the keys to be pessimistically locked by region and locks each region batch with one request,
+ * keeping at most {@code maxInFlight} requests outstanding.
+ *
+ * <p>The callbacks of a key run on the calling thread once its batch has been locked, in the order the batches
+ * were sent. Lock conflicts are waited out by the store without blocking the caller, which only waits when the
+ * window is full or on {@link #flush()}.
+ *
+ * <p>Not thread safe, the owning operator calls it under the vertex lock.
+ */
+@Slf4j
+public final class PessimisticLockBatcher {
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    private final int batchSize;
+    private final int maxInFlight;
+    private final Locker locker;
+
+    private final Map<CommonId, Batch> batches = new LinkedHashMap<>();
+    private final Deque<Batch> inFlight = new ArrayDeque<>();
+    private final Set<ComparableByteArray> pending = new HashSet<>();
+
+    public PessimisticLockBatcher(int batchSize, int maxInFlight, Locker locker) {
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+        this.locker = locker;
+    }
+
+    /**
+     * Check if a key has been added but its callbacks have not run yet.
+     */
+    public boolean isPending(byte[] key) {
+        return pending.contains(new ComparableByteArray(key));
+    }
+
+    /**
+     * Add a key to be locked.
+     *
+     * @param onLocked called with the for-update ts of the lock once the key is locked
+     * @param onAbort  called with the failure if the key is not locked, or must be released because another
+     *                 batch failed
+     */
+    public void add(
+        CommonId tableId,
+        CommonId partId,
+        byte[] key,
+        LongConsumer onLocked,
+        Consumer<Throwable> onAbort
+    ) {
+        // The store may rewrite the key in place, so keep a copy for the pending check.
+        ComparableByteArray pendingKey = new ComparableByteArray(Arrays.copyOf(key, key.length));
+        pending.add(pendingKey);
+        Batch batch = batches.computeIfAbsent(partId, k -> new Batch(tableId, partId, new ArrayList<>()));
+        batch.entries.add(new Entry(key, pendingKey, onLocked, onAbort));
+        if (batch.entries.size() >= batchSize) {
+            batches.remove(partId);
+            send(batch);
+        }
+        drain(false);
+    }
+
+    /**
+     * Send all partially filled batches and run the callbacks of every key.
+     *
+     * @throws RuntimeException if any batch failed, after all keys have been either locked or aborted
+     */
+    public void flush() {
+        for (Batch batch : batches.values()) {
+            send(batch);
+        }
+        batches.clear();
+        drain(true);
+    }
+
+    private void send(@NonNull Batch batch) {
+        while (inFlight.size() >= maxInFlight) {
+            complete(inFlight.poll());
+        }
+        DingoMetrics.histogram("pessimistic_lock_batch_size", batch.entries.size());
+        List<byte[]> keys = batch.entries.stream().map(e -> e.key).collect(Collectors.toList());
+        try {
+            batch.future = locker.lock(batch.tableId, batch.partId, keys);
+        } catch (Throwable e) {
+            CompletableFuture<Long> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            batch.future = future;
+        }
+        inFlight.add(batch);
+    }
+
+    private void drain(boolean wait) {
+        while (!inFlight.isEmpty() && (wait || inFlight.peek().future.isDone())) {
+            complete(inFlight.poll());
+        }
+    }
+
+    private void complete(@NonNull Batch batch) {
+        long forUpdateTs;
+        try {
+            forUpdateTs = batch.future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            LogUtils.error(log, cause.getMessage(), cause);
+            abort(batch.entries, cause);
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        }
+        for (int i = 0; i < batch.entries.size(); ++i) {
+            Entry entry = batch.entries.get(i);
+            pending.remove(entry.pendingKey);
+            try {
+                entry.onLocked.accept(forUpdateTs);
+            } catch (RuntimeException e) {
+                abort(batch.entries.subList(i + 1, batch.entries.size()), e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Give up the given entries and every outstanding one, waiting for the requests in flight to finish first.
+     */
+    private void abort(@NonNull List<Entry> entries, Throwable cause) {
+        List<Entry> aborted = new ArrayList<>(entries);
+        Batch batch;
+        while ((batch = inFlight.poll()) != null) {
+            try {
+                batch.future.join();
+            } catch (CompletionException ignored) {
+                // Released below anyway.
+            }
+            aborted.addAll(batch.entries);
+        }
+        for (Batch b : batches.values()) {
+            aborted.addAll(b.entries);
+        }
+        batches.clear();
+        pending.clear();
+        for (Entry entry : aborted) {
+            try {
+                entry.onAbort.accept(cause);
+            } catch (Throwable e) {
+                LogUtils.error(log, e.getMessage(), e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Locker {
+        /**
+         * Lock the keys of a region.
+         *
+         * @return a future of the for-update ts the keys were finally locked with
+         */
+        CompletableFuture<Long> lock(CommonId tableId, CommonId partId, List<byte[]> keys);
+    }
+
+    @AllArgsConstructor
+    private static final class Entry {
+        private final byte[] key;
+        private final ComparableByteArray pendingKey;
+        private final LongConsumer onLocked;
+        private final Consumer<Throwable> onAbort;
+    }
+
+    private static final class Batch {
+        private final CommonId tableId;
+        private final CommonId partId;
+        private final List<Entry> entries;
+        private CompletableFuture<Long> future;
+
+        private Batch(CommonId tableId, CommonId partId, List<Entry> entries) {
+            this.tableId = tableId;
+            this.partId = partId;
+            this.entries = entries;
+        }
+    }
+}
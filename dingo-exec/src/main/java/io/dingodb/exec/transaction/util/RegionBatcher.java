@@ -0,0 +1,141 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.transaction.util;
+
+import io.dingodb.common.CommonId;
+import io.dingodb.common.concurrent.Executors;
+import lombok.AllArgsConstructor;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Groups the mutations (or keys) of a two-phase commit step by region and sends full batches asynchronously,
+ * so that different regions are written in parallel while at most {@code maxInFlight} batches are outstanding.
+ *
+ * <p>Not thread safe, the owning operator calls it under the vertex lock.
+ */
+public final class RegionBatcher<E> {
+    public static final int DEFAULT_MAX_IN_FLIGHT = 16;
+
+    private final String name;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final Sender<E> sender;
+
+    private final Map<CommonId, Batch<E>> batches = new LinkedHashMap<>();
+    private final Deque<CompletableFuture<Void>> inFlight = new ArrayDeque<>();
+
+    public RegionBatcher(String name, int batchSize, int maxInFlight, Sender<E> sender) {
+        this.name = name;
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+        this.sender = sender;
+    }
+
+    public void add(CommonId tableId, CommonId partId, E element) {
+        Batch<E> batch = batches.computeIfAbsent(partId, k -> new Batch<>(tableId, partId, new ArrayList<>()));
+        batch.elements.add(element);
+        if (batch.elements.size() >= batchSize) {
+            batches.remove(partId);
+            send(batch);
+        }
+    }
+
+    /**
+     * Send all partially filled batches and wait until every outstanding batch has completed.
+     *
+     * @throws RuntimeException the first failure of any batch, thrown after all batches have finished
+     */
+    public void flush() {
+        for (Batch<E> batch : batches.values()) {
+            send(batch);
+        }
+        batches.clear();
+        awaitAll();
+    }
+
+    /**
+     * Drop the partially filled batches and wait until every outstanding batch has completed, ignoring their
+     * failures, so that nothing is still being sent when the transaction is rolled back.
+     */
+    public void cancel() {
+        batches.clear();
+        CompletableFuture<Void> future;
+        while ((future = inFlight.poll()) != null) {
+            try {
+                future.join();
+            } catch (CompletionException ignored) {
+            }
+        }
+    }
+
+    private void send(@NonNull Batch<E> batch) {
+        while (inFlight.size() >= maxInFlight) {
+            try {
+                inFlight.peek().join();
+                inFlight.poll();
+            } catch (CompletionException e) {
+                awaitAll();
+            }
+        }
+        inFlight.add(Executors.submit(
+            name,
+            () -> sender.send(batch.tableId, batch.partId, batch.elements)
+        ));
+    }
+
+    private void awaitAll() {
+        RuntimeException failure = null;
+        CompletableFuture<Void> future;
+        while ((future = inFlight.poll()) != null) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                }
+            }
+        }
+        if (failure != null) {
+            batches.clear();
+            throw failure;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Sender<E> {
+        /**
+         * Send one batch of a region, throwing if the batch could not be applied.
+         */
+        void send(CommonId tableId, CommonId partId, List<E> batch);
+    }
+
+    @AllArgsConstructor
+    private static final class Batch<E> {
+        private final CommonId tableId;
+        private final CommonId partId;
+        private final List<E> elements;
+    }
+}
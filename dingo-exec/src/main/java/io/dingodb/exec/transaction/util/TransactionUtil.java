@@ -52,6 +52,8 @@ import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -186,25 +188,9 @@ public class TransactionUtil {
                                                      CommonId partId, byte[] primaryLockKey,
                                                      byte[] key, long startTs,
                                                      long forUpdateTs, int isolationLevel) {
-        TxnPessimisticLock txnPessimisticLock = TxnPessimisticLock.builder()
-            .isolationLevel(IsolationLevel.of(isolationLevel))
-            .primaryLock(primaryLockKey)
-            .mutations(Collections.singletonList(
-                TransactionCacheToMutation.cacheToPessimisticLockMutation(
-                    key,
-                    toLockExtraData(
-                        tableId,
-                        partId,
-                        txnId,
-                        TransactionType.PESSIMISTIC.getCode()
-                    ),
-                    forUpdateTs
-                )
-            ))
-            .lockTtl(TransactionManager.lockTtlTm())
-            .startTs(startTs)
-            .forUpdateTs(forUpdateTs)
-            .build();
+        TxnPessimisticLock txnPessimisticLock = toPessimisticLock(
+            txnId, tableId, partId, primaryLockKey, Collections.singletonList(key), startTs, forUpdateTs, isolationLevel
+        );
         try {
             StoreInstance store = Services.KV_STORE.getInstance(tableId, partId);
             boolean result = store.txnPessimisticLock(txnPessimisticLock, timeOut);
@@ -225,6 +211,86 @@ public class TransactionUtil {
         return txnPessimisticLock;
     }
 
+    /**
+     * Lock the keys of a region with one request, without blocking on lock conflicts.
+     *
+     * @return a future of the for-update ts the keys were finally locked with
+     */
+    public static CompletableFuture<Long> pessimisticLockAsync(long timeOut, CommonId txnId, CommonId tableId,
+                                                               CommonId partId, byte[] primaryLockKey,
+                                                               List<byte[]> keys, long startTs,
+                                                               long forUpdateTs, int isolationLevel) {
+        TxnPessimisticLock txnPessimisticLock = toPessimisticLock(
+            txnId, tableId, partId, primaryLockKey, keys, startTs, forUpdateTs, isolationLevel
+        );
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        lockAsync(tableId, partId, txnPessimisticLock, timeOut).whenComplete((r, e) -> {
+            if (e == null) {
+                future.complete(r);
+                return;
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (!(cause instanceof RegionSplitException)) {
+                future.completeExceptionally(cause);
+                return;
+            }
+            LogUtils.error(log, cause.getMessage(), cause);
+            try {
+                List<CompletableFuture<Long>> futures = multiKeySplitRegionId(tableId, txnId, keys).entrySet().stream()
+                    .map(p -> lockAsync(tableId, p.getKey(), toPessimisticLock(
+                        txnId, tableId, partId, primaryLockKey, p.getValue(), startTs, forUpdateTs, isolationLevel
+                    ), timeOut))
+                    .collect(Collectors.toList());
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).whenComplete((r1, e1) -> {
+                    if (e1 != null) {
+                        future.completeExceptionally(e1.getCause() != null ? e1.getCause() : e1);
+                    } else {
+                        future.complete(futures.stream().mapToLong(CompletableFuture::join).max().orElse(forUpdateTs));
+                    }
+                });
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+        });
+        return future;
+    }
+
+    private static CompletableFuture<Long> lockAsync(
+        CommonId tableId, CommonId regionId, TxnPessimisticLock txnPessimisticLock, long timeOut
+    ) {
+        CompletableFuture<Boolean> future;
+        try {
+            future = Services.KV_STORE.getInstance(tableId, regionId)
+                .txnPessimisticLockAsync(txnPessimisticLock, timeOut);
+        } catch (Throwable e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        return future.thenApply(result -> {
+            if (!result) {
+                throw new RuntimeException(regionId + ",txnPessimisticLock false, txnPessimisticLock: "
+                    + txnPessimisticLock.toString());
+            }
+            return txnPessimisticLock.getForUpdateTs();
+        });
+    }
+
+    private static TxnPessimisticLock toPessimisticLock(CommonId txnId, CommonId tableId, CommonId partId,
+                                                        byte[] primaryLockKey, List<byte[]> keys, long startTs,
+                                                        long forUpdateTs, int isolationLevel) {
+        byte[] extraData = toLockExtraData(tableId, partId, txnId, TransactionType.PESSIMISTIC.getCode());
+        return TxnPessimisticLock.builder()
+            .isolationLevel(IsolationLevel.of(isolationLevel))
+            .primaryLock(primaryLockKey)
+            .mutations(keys.stream()
+                .map(key -> TransactionCacheToMutation.cacheToPessimisticLockMutation(key, extraData, forUpdateTs))
+                .collect(Collectors.toList()))
+            .lockTtl(TransactionManager.lockTtlTm())
+            .startTs(startTs)
+            .forUpdateTs(forUpdateTs)
+            .build();
+    }
+
     public static boolean pessimisticPrimaryLockRollBack(CommonId txnId, CommonId tableId,
                                                          CommonId partId, int isolationLevel,
                                                          long startTs, long forUpdateTs, byte[] primaryKey) {
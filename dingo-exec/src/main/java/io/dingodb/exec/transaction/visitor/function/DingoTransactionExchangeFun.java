@@ -18,11 +18,13 @@ package io.dingodb.exec.transaction.visitor.function;
 
 import io.dingodb.common.CommonId;
 import io.dingodb.common.Location;
+import io.dingodb.common.config.ExecConfiguration;
 import io.dingodb.common.type.DingoType;
 import io.dingodb.exec.base.IdGenerator;
 import io.dingodb.exec.base.Job;
 import io.dingodb.exec.base.Output;
 import io.dingodb.exec.base.Task;
+import io.dingodb.exec.codec.TupleFormat;
 import io.dingodb.exec.dag.Edge;
 import io.dingodb.exec.dag.Vertex;
 import io.dingodb.exec.operator.ReceiveOperator;
@@ -56,7 +58,9 @@ public final class DingoTransactionExchangeFun {
             IsolationLevel.of(transaction.getIsolationLevel())
         );
         CommonId receiveId = idGenerator.getOperatorId(rcvTask.getId());
-        SendParam sendParam = new SendParam(target.getHost(), target.getPort(), receiveId, schema);
+        SendParam sendParam = new SendParam(
+            target.getHost(), target.getPort(), receiveId, schema, TupleFormat.of(ExecConfiguration.exchangeFormat())
+        );
         Vertex send = new Vertex(SEND, sendParam);
         send.setId(id);
         input.setPin(0);
@@ -17,6 +17,7 @@
 package io.dingodb.exec.utils;
 
 import io.dingodb.common.profile.OperatorProfile;
+import io.dingodb.common.profile.ScanStall;
 import io.dingodb.exec.dag.Edge;
 import io.dingodb.exec.dag.Vertex;
 import io.dingodb.exec.operator.data.Context;
@@ -28,6 +29,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 public final class RelOpUtils {
@@ -61,6 +63,7 @@ public final class RelOpUtils {
         ScanParam param = vertex.getParam();
         OperatorProfile profile = param.getProfile("doScan");
         long count = 0;
+        long stallStart = ScanStall.current();
         long tmp = System.currentTimeMillis();
         while (iterator.hasNext()) {
             profile.time(tmp);
@@ -70,6 +73,9 @@ public final class RelOpUtils {
             }
             tmp = System.currentTimeMillis();
         }
+        profile.setStallTime(
+            profile.getStallTime() + TimeUnit.NANOSECONDS.toMillis(ScanStall.current() - stallStart)
+        );
         profile.end();
         return count;
     }
@@ -84,6 +90,7 @@ public final class RelOpUtils {
         PipeOp relOp = (PipeOp) ((ScanWithRelOpParam) vertex.getParam()).getRelOp();
         Edge edge = vertex.getSoleEdge();
         long count = 0;
+        long stallStart = ScanStall.current();
         long tmp = System.currentTimeMillis();
         while (sourceIterator.hasNext()) {
             profile.time(tmp);
@@ -94,6 +101,9 @@ public final class RelOpUtils {
             }
             tmp = System.currentTimeMillis();
         }
+        profile.setStallTime(
+            profile.getStallTime() + TimeUnit.NANOSECONDS.toMillis(ScanStall.current() - stallStart)
+        );
         return count;
     }
 
@@ -106,6 +116,7 @@ public final class RelOpUtils {
         OperatorProfile profile = param.getProfile("doScanWithCacheOp");
         CacheOp relOp = (CacheOp) ((ScanWithRelOpParam) vertex.getParam()).getRelOp();
         long count = 0;
+        long stallStart = ScanStall.current();
         long tmp = System.currentTimeMillis();
         while (sourceIterator.hasNext()) {
             profile.time(tmp);
@@ -114,6 +125,9 @@ public final class RelOpUtils {
             relOp.put(tuple);
             tmp = System.currentTimeMillis();
         }
+        profile.setStallTime(
+            profile.getStallTime() + TimeUnit.NANOSECONDS.toMillis(ScanStall.current() - stallStart)
+        );
         forwardCacheOpResults(relOp, vertex.getSoleEdge());
         relOp.clear();
         return count;
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.aggregate;
+
+import com.google.common.collect.ImmutableList;
+import io.dingodb.common.profile.Profile;
+import io.dingodb.common.type.DingoType;
+import io.dingodb.common.type.DingoTypeFactory;
+import io.dingodb.common.type.TupleMapping;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestAggCache {
+    private static final int GROUPS = 1000;
+    private static final TupleMapping KEYS = TupleMapping.of(new int[]{0});
+    private static final DingoTypeFactory TYPES = DingoTypeFactory.INSTANCE;
+    // Output schema: key, count(*), sum(long), max(double), min(string).
+    private static final DingoType SCHEMA = TYPES.tuple("INT", "LONG", "LONG|NULL", "DOUBLE|NULL", "STRING|NULL");
+
+    private static List<Agg> aggList() {
+        return ImmutableList.of(
+            new CountAllAgg(),
+            new SumAgg(1, TYPES.scalar("LONG")),
+            new MaxAgg(2, TYPES.scalar("DOUBLE")),
+            new MinAgg(3, TYPES.scalar("STRING"))
+        );
+    }
+
+    private static Object[] tuple(int i) {
+        int key = i % GROUPS;
+        return new Object[]{key, (long) i, (double) i, "v" + (i / GROUPS)};
+    }
+
+    private static void assertResult(Iterable<Object[]> cache, int rows) {
+        Map<Object, Object[]> results = new HashMap<>();
+        for (Object[] tuple : cache) {
+            assertThat(results.put(tuple[0], tuple)).isNull();
+        }
+        assertThat(results).hasSize(GROUPS);
+        int perGroup = rows / GROUPS;
+        for (int key = 0; key < GROUPS; ++key) {
+            Object[] tuple = results.get(key);
+            long sum = 0;
+            for (int j = 0; j < perGroup; ++j) {
+                sum += (long) j * GROUPS + key;
+            }
+            assertThat(tuple).containsExactly(
+                key,
+                (long) perGroup,
+                sum,
+                (double) ((perGroup - 1) * GROUPS + key),
+                "v0"
+            );
+        }
+    }
+
+    @Test
+    public void testAggregate() {
+        AggCache cache = new AggCache(KEYS, aggList(), SCHEMA, Long.MAX_VALUE);
+        for (int i = 0; i < 10 * GROUPS; ++i) {
+            cache.addTuple(tuple(i));
+        }
+        assertResult(cache, 10 * GROUPS);
+        cache.clear();
+    }
+
+    @Test
+    public void testReduce() {
+        AggCache cache = new AggCache(KEYS, aggList(), SCHEMA, Long.MAX_VALUE);
+        AggCache reduce = new AggCache(KEYS, aggList(), SCHEMA, Long.MAX_VALUE);
+        for (int i = 0; i < 5 * GROUPS; ++i) {
+            cache.addTuple(tuple(i));
+        }
+        cache.forEach(reduce::reduce);
+        cache.clear();
+        for (int i = 5 * GROUPS; i < 10 * GROUPS; ++i) {
+            cache.addTuple(tuple(i));
+        }
+        cache.forEach(reduce::reduce);
+        assertResult(reduce, 10 * GROUPS);
+        cache.clear();
+        reduce.clear();
+    }
+
+    @Test
+    public void testSpill() {
+        AggCache cache = new AggCache(KEYS, aggList(), SCHEMA, 16 * 1024);
+        for (int i = 0; i < 10 * GROUPS; ++i) {
+            cache.addTuple(tuple(i));
+        }
+        assertResult(cache, 10 * GROUPS);
+        Profile profile = new Profile("aggregate");
+        cache.fillProfile(profile);
+        assertThat(profile.getSpillCount()).isGreaterThan(0);
+        assertThat(profile.getSpillRows()).isGreaterThan(0);
+        cache.clear();
+    }
+
+    @Test
+    public void testEvictCold() {
+        AggTable table = new AggTable(KEYS.size(), aggList());
+        int[] keyIndices = KEYS.getMappings();
+        for (int i = 0; i < GROUPS; ++i) {
+            table.add(tuple(i), keyIndices);
+        }
+        // Only the first 10 groups are accessed in the last epochs.
+        for (int i = 0; i < 3 * GROUPS; ++i) {
+            table.add(tuple(i % 10), keyIndices);
+        }
+        List<Object[]> evicted = new ArrayList<>();
+        table.evict(false, (tuple, hash) -> evicted.add(tuple));
+        assertThat(evicted).hasSize(GROUPS - 10);
+        assertThat(table.size()).isEqualTo(10);
+        for (int group = 0; group < table.size(); ++group) {
+            assertThat((int) table.getKey(group)[0]).isLessThan(10);
+        }
+        table.evict(true, (tuple, hash) -> evicted.add(tuple));
+        assertThat(evicted).hasSize(GROUPS);
+        assertThat(table.size()).isZero();
+    }
+
+    @Test
+    public void testMultiThreads() throws InterruptedException {
+        AggCache cache = new AggCache(KEYS, aggList(), SCHEMA, Long.MAX_VALUE);
+        int threadNum = 4;
+        int rows = 10 * GROUPS;
+        CountDownLatch latch = new CountDownLatch(threadNum);
+        for (int t = 0; t < threadNum; ++t) {
+            int start = t;
+            new Thread(() -> {
+                for (int i = start; i < rows; i += threadNum) {
+                    cache.addTuple(tuple(i));
+                }
+                latch.countDown();
+            }).start();
+        }
+        latch.await();
+        assertResult(cache, rows);
+        cache.clear();
+    }
+
+    @Test
+    public void testEmptyWithoutKeys() {
+        AggCache cache = new AggCache(TupleMapping.of(new int[]{}), aggList(), null, Long.MAX_VALUE);
+        List<Object[]> results = new ArrayList<>();
+        cache.forEach(results::add);
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0)).containsExactly(0L, null, null, null);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.codec;
+
+import com.google.common.collect.ImmutableList;
+import io.dingodb.common.type.DingoType;
+import io.dingodb.common.type.DingoTypeFactory;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+public class TestColumnarTupleCodec {
+    public static @NonNull Stream<Arguments> getArguments() {
+        return Stream.of(
+            arguments(
+                DingoTypeFactory.INSTANCE.tuple("INT", "STRING", "DOUBLE"),
+                ImmutableList.of(
+                    new Object[]{1, "Alice", 3.5},
+                    new Object[]{2, "Betty", 3.6},
+                    new Object[]{3, "Cindy", 3.7}
+                )
+            ),
+            arguments(
+                DingoTypeFactory.INSTANCE.tuple(
+                    "LONG|NULL", "STRING|NULL", "BOOL|NULL", "DECIMAL|NULL", "DATE|NULL", "TIMESTAMP|NULL",
+                    "BINARY|NULL", "ANY|NULL"
+                ),
+                ImmutableList.of(
+                    new Object[]{
+                        1L, "a", true, new BigDecimal("1.23"), new Date(86400000L), new Timestamp(1000L),
+                        new byte[]{1, 2}, "x"
+                    },
+                    new Object[]{null, null, null, null, null, null, null, null},
+                    new Object[]{3L, "a", false, new BigDecimal("-4"), new Date(0L), new Timestamp(0L), new byte[0], 7}
+                )
+            )
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("getArguments")
+    public void testCodec(DingoType type, List<Object[]> tuples) throws IOException {
+        for (boolean compress : new boolean[]{false, true}) {
+            ColumnarTupleCodec codec = new ColumnarTupleCodec(type, compress);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            codec.encode(bos, tuples);
+            ByteArrayInputStream bis = new ByteArrayInputStream(bos.toByteArray());
+            List<Object[]> decodedTuples = codec.decode(bis);
+            assertThat(decodedTuples).containsExactlyElementsOf(tuples);
+        }
+    }
+
+    @Test
+    public void testDictionaryAndCompress() throws IOException {
+        DingoType type = DingoTypeFactory.INSTANCE.tuple("INT", "STRING|NULL");
+        List<Object[]> tuples = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) {
+            tuples.add(new Object[]{i, i % 7 == 0 ? null : "category-" + (i % 10)});
+        }
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        new ColumnarTupleCodec(type, false).encode(plain, tuples);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        ColumnarTupleCodec codec = new ColumnarTupleCodec(type, true);
+        codec.encode(compressed, tuples);
+        codec.encode(compressed, tuples);
+        assertThat(compressed.size()).isLessThan(plain.size() * 2);
+        List<Object[]> decodedTuples = codec.decode(new ByteArrayInputStream(compressed.toByteArray()));
+        assertThat(decodedTuples).hasSize(2000);
+        assertThat(decodedTuples.subList(1000, 2000)).containsExactlyElementsOf(tuples);
+    }
+
+    @Test
+    public void testTxRxCodec() throws IOException {
+        DingoType type = DingoTypeFactory.INSTANCE.tuple("INT", "STRING");
+        List<Object[]> tuples = ImmutableList.of(new Object[]{1, "a"}, new Object[]{2, "b"});
+        TxRxCodec sender = new TxRxCodecImpl(type, TupleFormat.COLUMNAR);
+        TxRxCodec receiver = new TxRxCodecImpl(type);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        sender.encodeTuples(bos, tuples);
+        List<Object[]> decodedTuples = new ArrayList<>();
+        receiver.decode(bos.toByteArray()).forEach(t -> decodedTuples.add(t.getTuple()));
+        assertThat(decodedTuples).containsExactlyElementsOf(tuples);
+    }
+}
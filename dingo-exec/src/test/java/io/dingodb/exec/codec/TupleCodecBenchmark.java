@@ -0,0 +1,108 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.codec;
+
+import io.dingodb.common.type.DingoType;
+import io.dingodb.common.type.DingoTypeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the Avro and columnar tuple codecs on a batch of exchanged tuples, run by {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TupleCodecBenchmark {
+    private static final DingoType SCHEMA = DingoTypeFactory.INSTANCE.tuple(
+        "LONG", "INT|NULL", "STRING", "STRING|NULL", "DOUBLE", "TIMESTAMP"
+    );
+
+    @Param({"AVRO", "COLUMNAR", "COLUMNAR_COMPRESSED"})
+    public String format;
+
+    @Param({"256", "4096"})
+    public int batchSize;
+
+    private TupleCodec codec;
+    private List<Object[]> tuples;
+    private byte[] encoded;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TupleCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        TupleFormat tupleFormat = TupleFormat.valueOf(format);
+        if (tupleFormat == TupleFormat.AVRO) {
+            codec = new AvroTupleCodec(SCHEMA);
+        } else {
+            codec = new ColumnarTupleCodec(SCHEMA, tupleFormat == TupleFormat.COLUMNAR_COMPRESSED);
+        }
+        Random random = new Random(7);
+        tuples = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; ++i) {
+            tuples.add(new Object[]{
+                (long) i,
+                random.nextInt(10) == 0 ? null : random.nextInt(),
+                "name-" + random.nextInt(100000),
+                random.nextInt(5) == 0 ? null : "city-" + random.nextInt(20),
+                random.nextDouble(),
+                new java.sql.Timestamp(1700000000000L + i),
+            });
+        }
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        codec.encode(bos, tuples);
+        encoded = bos.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(encoded.length);
+        codec.encode(bos, tuples);
+        return bos.toByteArray();
+    }
+
+    @Benchmark
+    public List<Object[]> decode() throws IOException {
+        return codec.decode(new ByteArrayInputStream(encoded));
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.fun.vector;
+
+import io.dingodb.common.exception.DingoSqlException;
+import io.dingodb.exec.fun.vector.VectorDistances.Metric;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class TestVectorDistances {
+    private static final float[] A = new float[]{1.0f, 2.0f, 3.0f, 4.0f, 5.0f};
+    private static final float[] B = new float[]{0.5f, -1.0f, 2.0f, 0.0f, 3.0f};
+
+    @Test
+    public void testL2() {
+        assertThat(VectorDistances.l2(A, B)).isCloseTo(0.25 + 9 + 1 + 16 + 4, within(1e-6));
+        assertThat(VectorDistances.l2(A, A)).isEqualTo(0.0);
+    }
+
+    @Test
+    public void testInnerProduct() {
+        assertThat(VectorDistances.innerProduct(A, B)).isCloseTo(1 - (0.5 - 2 + 6 + 0 + 15), within(1e-6));
+    }
+
+    @Test
+    public void testCosine() {
+        double dot = 0.5 - 2 + 6 + 0 + 15;
+        double expected = 1 - dot / (Math.sqrt(55) * Math.sqrt(14.25));
+        assertThat(VectorDistances.cosine(A, B)).isCloseTo(expected, within(1e-6));
+        assertThat(VectorDistances.cosine(A, A)).isCloseTo(0.0, within(1e-6));
+    }
+
+    @Test
+    public void testDimensionMismatch() {
+        assertThatThrownBy(() -> VectorDistances.l2(A, new float[]{1.0f}))
+            .isInstanceOf(DingoSqlException.class);
+    }
+
+    @Test
+    public void testMetric() {
+        assertThat(Metric.of("METRIC_TYPE_INNER_PRODUCT")).isEqualTo(Metric.INNER_PRODUCT);
+        assertThat(Metric.of("cosine")).isEqualTo(Metric.COSINE);
+        assertThat(Metric.of("L2")).isEqualTo(Metric.L2);
+        assertThat(Metric.of(null)).isEqualTo(Metric.L2);
+    }
+
+    @Test
+    public void testFunctions() {
+        assertThat(VectorL2DistanceFun.l2DistanceCombine(
+            Arrays.asList(1.0f, 2.0f), Arrays.asList(new BigDecimal("2"), 4)
+        )).isCloseTo(5.0, within(1e-6));
+        assertThat(VectorCosineDistanceFun.cosine(Arrays.asList(1.0f, 0.0f), Arrays.asList(0.0f, 1.0f)))
+            .isCloseTo(1.0f, within(1e-6f));
+    }
+}
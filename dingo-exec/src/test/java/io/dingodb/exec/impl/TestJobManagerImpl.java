@@ -0,0 +1,60 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.dingodb.common.CommonId;
+import io.dingodb.common.type.DingoTypeFactory;
+import io.dingodb.exec.impl.message.CreateTaskMessage;
+import io.dingodb.exec.impl.message.DestroyTaskMessage;
+import io.dingodb.exec.impl.message.ResendTaskMessage;
+import io.dingodb.exec.impl.message.RunTaskMessage;
+import io.dingodb.exec.impl.message.TaskMessage;
+import io.dingodb.net.Channel;
+import io.dingodb.net.Message;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class TestJobManagerImpl {
+    @Test
+    public void testFragmentMissed() throws JsonProcessingException {
+        CommonId jobId = new CommonId(CommonId.CommonType.JOB, 2, 1);
+        CommonId taskId = new CommonId(CommonId.CommonType.TASK, 2, 1);
+        Channel channel = mock(Channel.class);
+        JobManagerImpl jobManager = JobManagerImpl.INSTANCE;
+        // Only the fingerprint is sent, which the receiver has never seen.
+        CreateTaskMessage create = new CreateTaskMessage(jobId, taskId, null, 1L, null);
+        jobManager.processMessage(new Message(JobManagerImpl.TASK_TAG, create.toBytes()), channel);
+        ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        verify(channel).send(captor.capture());
+        TaskMessage reply = TaskMessage.fromBytes(captor.getValue().content());
+        assertThat(reply).isInstanceOf(ResendTaskMessage.class);
+        assertThat(((ResendTaskMessage) reply).getJobId()).isEqualTo(jobId);
+        assertThat(((ResendTaskMessage) reply).getTaskId()).isEqualTo(taskId);
+        // Messages of the task are held until the full fragment is resent, instead of failing for no task.
+        RunTaskMessage run = new RunTaskMessage(jobId, taskId, DingoTypeFactory.INSTANCE.tuple("INT"), null);
+        jobManager.processMessage(new Message(JobManagerImpl.TASK_TAG, run.toBytes()), channel);
+        DestroyTaskMessage destroy = new DestroyTaskMessage(jobId, taskId);
+        jobManager.processMessage(new Message(JobManagerImpl.TASK_TAG, destroy.toBytes()), channel);
+        verify(channel, times(1)).send(captor.capture());
+    }
+}
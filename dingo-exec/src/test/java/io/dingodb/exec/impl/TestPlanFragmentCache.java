@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.dingodb.common.CommonId;
+import io.dingodb.exec.impl.message.CreateTaskMessage;
+import io.dingodb.exec.impl.message.TaskMessage;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestPlanFragmentCache {
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testFingerprint() {
+        assertThat(PlanFragmentCache.fingerprint(bytes("abc")))
+            .isEqualTo(PlanFragmentCache.fingerprint(bytes("abc")))
+            .isNotEqualTo(PlanFragmentCache.fingerprint(bytes("abd")));
+    }
+
+    @Test
+    public void testMirrored() {
+        PlanFragmentCache sent = new PlanFragmentCache(2);
+        PlanFragmentCache received = new PlanFragmentCache(2);
+        String[] fragments = {"a", "b", "a", "c", "b", "a", "c", "c"};
+        int hits = 0;
+        for (String value : fragments) {
+            byte[] fragment = bytes(value);
+            long fingerprint = PlanFragmentCache.fingerprint(fragment);
+            byte[][] message = new byte[1][];
+            if (sent.send(fingerprint, fragment, bytes -> message[0] = bytes)) {
+                ++hits;
+                assertThat(message[0]).isNull();
+                assertThat(received.get(fingerprint)).isEqualTo(fragment);
+            } else {
+                assertThat(message[0]).isEqualTo(fragment);
+                received.put(fingerprint, fragment);
+            }
+        }
+        assertThat(hits).isEqualTo(4);
+        assertThat(sent.size()).isEqualTo(2);
+        assertThat(received.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testCollision() {
+        PlanFragmentCache cache = new PlanFragmentCache(2);
+        assertThat(cache.send(1L, bytes("a"), bytes -> { })).isFalse();
+        assertThat(cache.send(1L, bytes("b"), bytes -> { })).isFalse();
+        assertThat(cache.send(1L, bytes("b"), bytes -> { })).isTrue();
+        assertThat(cache.get(1L)).isEqualTo(bytes("b"));
+    }
+
+    @Test
+    public void testSendFailed() {
+        PlanFragmentCache cache = new PlanFragmentCache(2);
+        byte[] fragment = bytes("a");
+        long fingerprint = PlanFragmentCache.fingerprint(fragment);
+        assertThatThrownBy(() -> cache.send(fingerprint, fragment, bytes -> {
+            throw new IllegalStateException("Channel closed.");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(cache.size()).isZero();
+        byte[][] message = new byte[1][];
+        assertThat(cache.send(fingerprint, fragment, bytes -> message[0] = bytes)).isFalse();
+        assertThat(message[0]).isEqualTo(fragment);
+    }
+
+    @Test
+    public void testSendReceive() throws JsonProcessingException {
+        CommonId jobId = new CommonId(CommonId.CommonType.JOB, 1, 1);
+        PlanFragmentCache sent = new PlanFragmentCache(2);
+        // The receiver lost an entry, so it misses a fragment the sender thinks cached.
+        PlanFragmentCache received = new PlanFragmentCache(1);
+        String[] fragments = {"a", "b", "a"};
+        List<Long> missed = new ArrayList<>();
+        for (int i = 0; i < fragments.length; ++i) {
+            CommonId taskId = new CommonId(CommonId.CommonType.TASK, 1, i);
+            byte[] fragment = bytes(fragments[i]);
+            long fingerprint = PlanFragmentCache.fingerprint(fragment);
+            List<byte[]> channel = new ArrayList<>();
+            sent.send(fingerprint, fragment, bytes ->
+                channel.add(new CreateTaskMessage(jobId, taskId, null, fingerprint, bytes).toBytes())
+            );
+            CreateTaskMessage message = (CreateTaskMessage) TaskMessage.fromBytes(channel.get(0));
+            assertThat(message.getTaskId()).isEqualTo(taskId);
+            byte[] resolved = message.getFragment();
+            if (resolved != null) {
+                received.put(message.getFingerprint(), resolved);
+            } else {
+                resolved = received.get(message.getFingerprint());
+            }
+            if (resolved == null) {
+                missed.add(message.getFingerprint());
+                sent.resend(fingerprint, fragment, bytes ->
+                    channel.add(new CreateTaskMessage(jobId, taskId, null, fingerprint, bytes).toBytes())
+                );
+                message = (CreateTaskMessage) TaskMessage.fromBytes(channel.get(1));
+                resolved = message.getFragment();
+                received.put(message.getFingerprint(), resolved);
+            }
+            assertThat(resolved).isEqualTo(fragment);
+        }
+        assertThat(missed).containsExactly(PlanFragmentCache.fingerprint(bytes("a")));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator;
+
+import io.dingodb.common.CommonId;
+import io.dingodb.common.store.KeyValue;
+import io.dingodb.common.vector.VectorSearchResponse;
+import io.dingodb.exec.operator.data.BatchLookupIterator;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestPartVectorOperator {
+    private static final int REGIONS = 3;
+
+    // type byte, 8 bytes of id the store rewrites, then the row id
+    private static byte[] key(int row) {
+        return ByteBuffer.allocate(13).put((byte) 't').putLong(0).putInt(row).array();
+    }
+
+    private static int row(byte[] key) {
+        return ByteBuffer.wrap(key).getInt(9);
+    }
+
+    private static CommonId region(byte[] key) {
+        return new CommonId(CommonId.CommonType.PARTITION, 1, row(key) % REGIONS);
+    }
+
+    private static VectorSearchResponse hit(int row) {
+        VectorSearchResponse hit = new VectorSearchResponse();
+        hit.setKey(key(row));
+        hit.setDistance(row / 10.0f);
+        return hit;
+    }
+
+    /**
+     * Writes the region id into the keys in place like the store does, and answers rows that are not missing.
+     */
+    private static BatchLookupIterator.Fetcher fetcher(int missing) {
+        return (regionId, keys) -> {
+            List<KeyValue> rows = new ArrayList<>();
+            for (byte[] key : keys) {
+                ByteBuffer.wrap(key).putLong(1, regionId.seq);
+                int row = row(key);
+                if (missing > 0 && row % missing == 0) {
+                    continue;
+                }
+                rows.add(new KeyValue(key.clone(), ByteBuffer.allocate(4).putInt(row * 100).array()));
+            }
+            return rows;
+        };
+    }
+
+    private static Map<Integer, Float> lookup(List<VectorSearchResponse> hits, int missing) {
+        Iterator<Object[]> iterator = PartVectorOperator.lookup(
+            hits,
+            TestPartVectorOperator::region,
+            fetcher(missing),
+            keyValue -> new Object[]{ByteBuffer.wrap(keyValue.getValue()).getInt()}
+        );
+        Map<Integer, Float> distances = new HashMap<>();
+        iterator.forEachRemaining(row -> {
+            assertThat(row).hasSize(2);
+            distances.put((Integer) row[0] / 100, (Float) row[1]);
+        });
+        return distances;
+    }
+
+    @Test
+    public void testMatchRewrittenKeys() {
+        List<VectorSearchResponse> hits = IntStream.range(1, 600)
+            .mapToObj(TestPartVectorOperator::hit)
+            .collect(Collectors.toList());
+        Map<Integer, Float> distances = lookup(hits, 0);
+        assertThat(distances).hasSize(599);
+        distances.forEach((row, distance) -> assertThat(distance).isEqualTo(row / 10.0f));
+    }
+
+    @Test
+    public void testMissingRows() {
+        List<VectorSearchResponse> hits = IntStream.range(1, 100)
+            .mapToObj(TestPartVectorOperator::hit)
+            .collect(Collectors.toList());
+        Map<Integer, Float> distances = lookup(hits, 7);
+        assertThat(distances).hasSize(99 - 14);
+        assertThat(distances.keySet()).noneMatch(row -> row % 7 == 0);
+        distances.forEach((row, distance) -> assertThat(distance).isEqualTo(row / 10.0f));
+    }
+
+    @Test
+    public void testNoHits() {
+        assertThat(lookup(new ArrayList<>(), 0)).isEmpty();
+    }
+}
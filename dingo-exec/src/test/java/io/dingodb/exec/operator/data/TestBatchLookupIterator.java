@@ -0,0 +1,115 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.data;
+
+import io.dingodb.common.CommonId;
+import io.dingodb.common.store.KeyValue;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestBatchLookupIterator {
+    private static final int REGIONS = 7;
+
+    private static byte[] key(int i) {
+        return ByteBuffer.allocate(Integer.BYTES).putInt(i).array();
+    }
+
+    private static int value(byte[] key) {
+        return ByteBuffer.wrap(key).getInt();
+    }
+
+    private static CommonId region(byte[] key) {
+        return new CommonId(CommonId.CommonType.PARTITION, 1, value(key) % REGIONS);
+    }
+
+    @Test
+    public void testLookup() {
+        int batchSize = 16;
+        int maxInFlight = 3;
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> batchSizes = new ArrayList<>();
+        BatchLookupIterator iterator = new BatchLookupIterator(
+            "test-lookup",
+            IntStream.range(0, 1000).mapToObj(TestBatchLookupIterator::key).iterator(),
+            TestBatchLookupIterator::region,
+            (key, regionId) -> value(key) % 13 == 0 ? new Object[]{value(key), "local"} : null,
+            (regionId, keys) -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                synchronized (batchSizes) {
+                    batchSizes.add(keys.size());
+                }
+                for (byte[] key : keys) {
+                    assertThat(region(key)).isEqualTo(regionId);
+                }
+                List<KeyValue> keyValues = keys.stream()
+                    .filter(k -> value(k) % 10 != 0)
+                    .map(k -> new KeyValue(k, k))
+                    .collect(Collectors.toList());
+                running.decrementAndGet();
+                return keyValues;
+            },
+            kv -> new Object[]{value(kv.getKey()), "store"},
+            batchSize,
+            maxInFlight
+        );
+        Set<Integer> actual = new HashSet<>();
+        while (iterator.hasNext()) {
+            Object[] row = iterator.next();
+            int i = (int) row[0];
+            assertThat(row[1]).isEqualTo(i % 13 == 0 ? "local" : "store");
+            assertThat(actual.add(i)).isTrue();
+        }
+        Set<Integer> expected = IntStream.range(0, 1000)
+            .filter(i -> i % 13 == 0 || i % 10 != 0)
+            .boxed()
+            .collect(Collectors.toSet());
+        assertThat(actual).isEqualTo(expected);
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(maxInFlight);
+        assertThat(batchSizes).allMatch(size -> size <= batchSize);
+    }
+
+    @Test
+    public void testFetchError() {
+        BatchLookupIterator iterator = new BatchLookupIterator(
+            "test-lookup",
+            IntStream.range(0, 100).mapToObj(TestBatchLookupIterator::key).iterator(),
+            TestBatchLookupIterator::region,
+            null,
+            (regionId, keys) -> {
+                throw new IllegalStateException("region unavailable");
+            },
+            kv -> new Object[]{value(kv.getKey())},
+            8,
+            2
+        );
+        assertThatThrownBy(iterator::hasNext)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("region unavailable");
+    }
+}
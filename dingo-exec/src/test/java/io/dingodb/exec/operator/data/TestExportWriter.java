@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestExportWriter {
+    private static String writeRows(ExportWriter writer, int from, int to, int width) throws IOException {
+        StringBuilder expected = new StringBuilder();
+        for (int i = from; i < to; ++i) {
+            String row = i + "\t" + repeat((char) ('a' + i % 26), width) + "\n";
+            writer.write(row.getBytes(StandardCharsets.UTF_8));
+            writer.endRow();
+            expected.append(row);
+        }
+        return expected.toString();
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; ++i) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    @Test
+    public void testWrite(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("out.txt");
+        ExportWriter writer = new ExportWriter(ExportFile.create(path.toString()));
+        String expected = writeRows(writer, 0, 100000, 100);
+        assertThat(writer.close()).isTrue();
+        assertThat(writer.getRows()).isEqualTo(100000);
+        assertThat(new String(Files.readAllBytes(path), StandardCharsets.UTF_8)).isEqualTo(expected);
+        assertThatThrownBy(() -> ExportFile.create(path.toString())).isInstanceOf(FileAlreadyExistsException.class);
+    }
+
+    @Test
+    public void testLargeRow(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("out.txt");
+        ExportWriter writer = new ExportWriter(ExportFile.create(path.toString()));
+        String expected = writeRows(writer, 0, 10, 100)
+            + writeRows(writer, 10, 11, 10 << 20)
+            + writeRows(writer, 11, 20, 100);
+        assertThat(writer.close()).isTrue();
+        assertThat(new String(Files.readAllBytes(path), StandardCharsets.UTF_8)).isEqualTo(expected);
+    }
+
+    @Test
+    public void testSharedGzip(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("out.txt.gz");
+        ExportFile file = ExportFile.create(path.toString());
+        ExportWriter writer1 = new ExportWriter(file);
+        ExportWriter writer2 = new ExportWriter(file);
+        int len1 = writeRows(writer1, 0, 50000, 100).length();
+        int len2 = writeRows(writer2, 50000, 100000, 100).length();
+        assertThat(writer1.close()).isFalse();
+        assertThat(writer2.close()).isTrue();
+        String actual;
+        try (InputStream is = new GZIPInputStream(Files.newInputStream(path))) {
+            actual = new String(readAll(is), StandardCharsets.UTF_8);
+        }
+        assertThat(actual).hasSize(len1 + len2);
+        String[] lines = actual.split("\n");
+        assertThat(lines).hasSize(100000);
+        for (String line : lines) {
+            String[] fields = line.split("\t");
+            int i = Integer.parseInt(fields[0]);
+            assertThat(fields[1]).isEqualTo(repeat((char) ('a' + i % 26), 100));
+        }
+    }
+
+    private static byte[] readAll(InputStream is) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        int n;
+        while ((n = is.read(buf)) > 0) {
+            os.write(buf, 0, n);
+        }
+        return os.toByteArray();
+    }
+}
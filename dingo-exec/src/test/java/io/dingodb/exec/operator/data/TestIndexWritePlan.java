@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.data;
+
+import io.dingodb.codec.KeyValueCodec;
+import io.dingodb.common.CommonId;
+import io.dingodb.common.type.DingoType;
+import io.dingodb.common.type.TupleMapping;
+import io.dingodb.common.type.scalar.IntegerType;
+import io.dingodb.common.type.scalar.StringType;
+import io.dingodb.meta.entity.Column;
+import io.dingodb.meta.entity.IndexTable;
+import io.dingodb.meta.entity.IndexType;
+import io.dingodb.meta.entity.Table;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class TestIndexWritePlan {
+    private static final Table TABLE = Table.builder()
+        .tableId(new CommonId(CommonId.CommonType.TABLE, 1, 1))
+        .name("USER")
+        .columns(Arrays.asList(
+            column("ID", new IntegerType(false), 0),
+            column("NAME", new StringType(true), -1),
+            column("AGE", new IntegerType(true), -1),
+            column("CITY", new StringType(true), -1),
+            column("SCORE", new IntegerType(true), -1)
+        ))
+        .build();
+
+    private static final Object[] ROW = new Object[]{1, "Alice", 30, "Beijing", 99};
+
+    private static Column column(String name, DingoType type, int primaryKeyIndex) {
+        return Column.builder().name(name).type(type).primaryKeyIndex(primaryKeyIndex).build();
+    }
+
+    private static IndexWritePlan plan(int id, IndexType indexType, String... columns) {
+        CommonId indexId = new CommonId(CommonId.CommonType.INDEX, 1, id);
+        IndexTable indexTable = IndexTable.builder()
+            .tableId(indexId)
+            .name("IDX_" + id)
+            .columns(Arrays.stream(columns)
+                .map(name -> TABLE.columns.get(TABLE.getColumnIndex(name)))
+                .collect(Collectors.toList()))
+            .indexType(indexType)
+            .primaryId(TABLE.tableId)
+            .build();
+        return new IndexWritePlan(TABLE, indexId, indexTable, mock(KeyValueCodec.class));
+    }
+
+    @Test
+    public void testProject() {
+        IndexWritePlan byName = plan(2, IndexType.SCALAR, "NAME", "ID");
+        IndexWritePlan byCityAge = plan(3, IndexType.SCALAR, "CITY", "AGE", "ID");
+        assertThat(byName.project(ROW)).containsExactly("Alice", 1);
+        assertThat(byCityAge.project(ROW)).containsExactly("Beijing", 30, 1);
+        assertThat(byCityAge.getSchema().fieldCount()).isEqualTo(3);
+        assertThat(byName.isVector()).isFalse();
+    }
+
+    @Test
+    public void testTouches() {
+        IndexWritePlan byName = plan(2, IndexType.SCALAR, "NAME", "ID");
+        IndexWritePlan byCityAge = plan(3, IndexType.SCALAR, "CITY", "AGE", "ID");
+        // no index column updated, both indexes are left alone
+        TupleMapping score = TupleMapping.of(new int[]{4});
+        assertThat(byName.touches(score)).isFalse();
+        assertThat(byCityAge.touches(score)).isFalse();
+
+        TupleMapping age = TupleMapping.of(new int[]{2, 4});
+        assertThat(byName.touches(age)).isFalse();
+        assertThat(byCityAge.touches(age)).isTrue();
+
+        TupleMapping name = TupleMapping.of(new int[]{1});
+        assertThat(byName.touches(name)).isTrue();
+        assertThat(byCityAge.touches(name)).isFalse();
+    }
+
+    @Test
+    public void testVector() {
+        assertThat(plan(4, IndexType.VECTOR_HNSW, "SCORE", "ID").isVector()).isTrue();
+    }
+}
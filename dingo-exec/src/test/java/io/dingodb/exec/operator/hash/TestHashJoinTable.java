@@ -0,0 +1,217 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.hash;
+
+import io.dingodb.common.type.DingoType;
+import io.dingodb.common.type.DingoTypeFactory;
+import io.dingodb.common.type.TupleMapping;
+import io.dingodb.exec.operator.data.Context;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestHashJoinTable {
+    private static final DingoType SCHEMA = DingoTypeFactory.INSTANCE.tuple("INT", "STRING");
+    private static final TupleMapping MAPPING = TupleMapping.of(new int[]{0});
+
+    private static int countRows(JoinHashMap map, int row) {
+        int count = 0;
+        while (row >= 0) {
+            ++count;
+            row = map.next(row);
+        }
+        return count;
+    }
+
+    @Test
+    public void testInMemory() {
+        HashJoinTable table = new HashJoinTable(MAPPING, MAPPING, SCHEMA, SCHEMA, Long.MAX_VALUE);
+        for (int i = 0; i < 100; ++i) {
+            table.build(new Object[]{i % 10, "right" + i});
+        }
+        assertThat(table.getSpilledPartitions()).isEmpty();
+        Object[] probe = new Object[]{3, "left"};
+        int hash = table.probeHash(probe);
+        JoinHashMap map = table.partition(hash).getMap();
+        assertThat(countRows(map, map.find(hash, probe))).isEqualTo(10);
+        assertThat(table.getInMemoryMaps().stream().mapToInt(JoinHashMap::size).sum()).isEqualTo(100);
+        table.clear();
+    }
+
+    @Test
+    public void testSpill() {
+        HashJoinTable table = new HashJoinTable(MAPPING, MAPPING, SCHEMA, SCHEMA, 1024);
+        for (int i = 0; i < 1000; ++i) {
+            table.build(new Object[]{i, "right" + i});
+        }
+        List<HashJoinTable.Partition> spilled = table.getSpilledPartitions();
+        assertThat(spilled).isNotEmpty();
+        int deferred = 0;
+        for (int i = 0; i < 1000; ++i) {
+            Object[] tuple = new Object[]{i, "left" + i};
+            HashJoinTable.Partition partition = table.partition(table.probeHash(tuple));
+            if (partition.isSpilled()) {
+                partition.deferProbe(null, tuple);
+                ++deferred;
+            }
+        }
+        int[] matched = new int[]{0};
+        for (HashJoinTable.Partition partition : spilled) {
+            partition.load();
+            JoinHashMap map = partition.getMap();
+            boolean finished = partition.forEachProbe((context, tuple) -> {
+                assertThat(context).isNull();
+                int row = map.find(table.probeHash(tuple), tuple);
+                assertThat(row).isGreaterThanOrEqualTo(0);
+                assertThat(map.getRow(row)[1]).isEqualTo("right" + tuple[0]);
+                assertThat(map.next(row)).isEqualTo(-1);
+                ++matched[0];
+                return true;
+            });
+            assertThat(finished).isTrue();
+            partition.clear();
+        }
+        assertThat(matched[0]).isEqualTo(deferred);
+        assertThat(table.getInMemoryMaps().stream().mapToInt(JoinHashMap::size).sum() + matched[0]).isEqualTo(1000);
+        table.clear();
+    }
+
+    @Test
+    public void testDeferredContexts() {
+        HashJoinTable table = new HashJoinTable(MAPPING, MAPPING, SCHEMA, SCHEMA, 1024);
+        for (int i = 0; i < 1000; ++i) {
+            table.build(new Object[]{i, "right" + i});
+        }
+        HashJoinTable.Partition partition = table.getSpilledPartitions().get(0);
+        // The context is reused by the input, so the deferred tuples must keep their own copies.
+        Context context = Context.builder().pin(0).build();
+        int deferred = 0;
+        for (int i = 0; i < 1000; ++i) {
+            Object[] tuple = new Object[]{i, "left" + i};
+            if (table.partition(table.probeHash(tuple)) == partition) {
+                context.setPin(i % 3 == 0 ? 0 : 1);
+                partition.deferProbe(context, tuple);
+                ++deferred;
+            }
+        }
+        int[] probed = new int[]{0};
+        boolean finished = partition.forEachProbe((c, tuple) -> {
+            assertThat(c.getPin()).isEqualTo((Integer) tuple[0] % 3 == 0 ? 0 : 1);
+            ++probed[0];
+            return true;
+        });
+        assertThat(finished).isTrue();
+        assertThat(probed[0]).isEqualTo(deferred);
+        table.clear();
+    }
+
+    @Test
+    public void testParallelBuild() throws InterruptedException {
+        int parallelism = 4;
+        HashJoinTable table = new HashJoinTable(MAPPING, MAPPING, SCHEMA, SCHEMA, 4096, parallelism);
+        Thread[] threads = new Thread[parallelism];
+        for (int w = 0; w < parallelism; ++w) {
+            int worker = w;
+            threads[w] = new Thread(() -> {
+                for (int i = 0; i < 4000; ++i) {
+                    Object[] tuple = new Object[]{i, "right" + i};
+                    if (HashJoinTable.workerOf(table.buildHash(tuple), parallelism) == worker) {
+                        table.build(tuple);
+                    }
+                }
+            });
+            threads[w].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(table.getSpilledPartitions()).isNotEmpty();
+        int inMemory = table.getInMemoryMaps().stream().mapToInt(JoinHashMap::size).sum();
+        int loaded = 0;
+        for (HashJoinTable.Partition partition : table.getSpilledPartitions()) {
+            loaded += countSpilled(partition);
+        }
+        assertThat(inMemory + loaded).isEqualTo(4000);
+        table.clear();
+    }
+
+    private static int countSpilled(HashJoinTable.Partition partition) {
+        int count = 0;
+        if (partition.isOversized()) {
+            HashJoinTable subTable = partition.repartition();
+            count += subTable.getInMemoryMaps().stream().mapToInt(JoinHashMap::size).sum();
+            for (HashJoinTable.Partition subPartition : subTable.getSpilledPartitions()) {
+                count += countSpilled(subPartition);
+            }
+            subTable.clear();
+        } else {
+            partition.load();
+            count += partition.getMap().size();
+        }
+        partition.clear();
+        return count;
+    }
+
+    @Test
+    public void testRepartition() {
+        HashJoinTable table = new HashJoinTable(MAPPING, MAPPING, SCHEMA, SCHEMA, 1024);
+        for (int i = 0; i < 10000; ++i) {
+            table.build(new Object[]{i, "right" + i});
+        }
+        List<HashJoinTable.Partition> spilled = table.getSpilledPartitions();
+        assertThat(spilled.stream().anyMatch(HashJoinTable.Partition::isOversized)).isTrue();
+        int inMemory = table.getInMemoryMaps().stream().mapToInt(JoinHashMap::size).sum();
+        int loaded = 0;
+        for (HashJoinTable.Partition partition : spilled) {
+            loaded += countSpilled(partition);
+        }
+        assertThat(inMemory + loaded).isEqualTo(10000);
+        table.clear();
+    }
+
+    @Test
+    public void testRepartitionedProbe() {
+        HashJoinTable table = new HashJoinTable(MAPPING, MAPPING, SCHEMA, SCHEMA, 1024);
+        for (int i = 0; i < 10000; ++i) {
+            table.build(new Object[]{i, "right" + i});
+        }
+        Object[] probe = null;
+        HashJoinTable.Partition partition = null;
+        for (int i = 0; i < 10000; ++i) {
+            probe = new Object[]{i, "left" + i};
+            partition = table.partition(table.probeHash(probe));
+            if (partition.isOversized()) {
+                break;
+            }
+        }
+        assertThat(partition.isOversized()).isTrue();
+        HashJoinTable subTable = partition.repartition();
+        int hash = subTable.probeHash(probe);
+        HashJoinTable.Partition subPartition = subTable.partition(hash);
+        if (subPartition.isSpilled()) {
+            subPartition.load();
+        }
+        JoinHashMap map = subPartition.getMap();
+        int row = map.find(hash, probe);
+        assertThat(row).isGreaterThanOrEqualTo(0);
+        assertThat(map.getRow(row)[1]).isEqualTo("right" + probe[0]);
+        subTable.clear();
+        table.clear();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.hash;
+
+import io.dingodb.common.type.DingoType;
+import io.dingodb.common.type.DingoTypeFactory;
+import io.dingodb.common.type.TupleMapping;
+import io.dingodb.common.type.scalar.IntegerType;
+import io.dingodb.common.type.scalar.LongType;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+public class TestJoinHashMap {
+    public static @NonNull Stream<Arguments> getArguments() {
+        return Stream.of(
+            arguments(DingoTypeFactory.INSTANCE.tuple("LONG", "STRING"), TupleMapping.of(new int[]{0}),
+                JoinHashMap.Kind.LONG),
+            arguments(DingoTypeFactory.INSTANCE.tuple("INT", "STRING"), TupleMapping.of(new int[]{0}),
+                JoinHashMap.Kind.LONG),
+            arguments(DingoTypeFactory.INSTANCE.tuple("STRING", "STRING"), TupleMapping.of(new int[]{0}),
+                JoinHashMap.Kind.STRING),
+            arguments(DingoTypeFactory.INSTANCE.tuple("INT", "STRING"), TupleMapping.of(new int[]{0, 1}),
+                JoinHashMap.Kind.GENERIC)
+        );
+    }
+
+    private static Object key(DingoType schema, int i) {
+        DingoType type = schema.getChild(0);
+        if (type instanceof LongType) {
+            return (long) i;
+        }
+        if (type instanceof IntegerType) {
+            return i;
+        }
+        return "key" + i;
+    }
+
+    @ParameterizedTest
+    @MethodSource("getArguments")
+    public void testPutAndFind(DingoType schema, TupleMapping mapping, JoinHashMap.Kind kind) {
+        assertThat(JoinHashMap.kindOf(mapping, mapping, schema, schema)).isEqualTo(kind);
+        JoinHashMap map = JoinHashMap.create(kind, mapping, mapping);
+        for (int i = 0; i < 1000; ++i) {
+            Object[] tuple = new Object[]{key(schema, i % 100), "v" + (i % 100)};
+            map.put(JoinHashMap.hash(kind, tuple, mapping), tuple);
+        }
+        Object[] nullTuple = new Object[]{null, null};
+        map.put(JoinHashMap.hash(kind, nullTuple, mapping), nullTuple);
+        assertThat(map.size()).isEqualTo(1001);
+        for (int i = 0; i < 100; ++i) {
+            Object[] probe = new Object[]{key(schema, i), "v" + i};
+            int row = map.find(JoinHashMap.hash(kind, probe, mapping), probe);
+            int count = 0;
+            while (row >= 0) {
+                assertThat(map.getRow(row)[0]).isEqualTo(probe[0]);
+                map.setMatched(row);
+                row = map.next(row);
+                ++count;
+            }
+            assertThat(count).isEqualTo(10);
+        }
+        Object[] absent = new Object[]{key(schema, 1000), "v1000"};
+        assertThat(map.find(JoinHashMap.hash(kind, absent, mapping), absent)).isEqualTo(-1);
+        assertThat(map.find(JoinHashMap.hash(kind, nullTuple, mapping), nullTuple)).isEqualTo(1000);
+        for (int row = 0; row < map.size(); ++row) {
+            assertThat(map.isMatched(row)).isEqualTo(row < 1000);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.operator.sort;
+
+import com.google.common.collect.ImmutableList;
+import io.dingodb.common.profile.Profile;
+import io.dingodb.common.type.DingoType;
+import io.dingodb.common.type.DingoTypeFactory;
+import io.dingodb.exec.operator.data.SortCollation;
+import io.dingodb.exec.operator.data.SortDirection;
+import io.dingodb.exec.operator.data.SortNullDirection;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestSortBuffer {
+    private static final DingoType SCHEMA = DingoTypeFactory.INSTANCE.tuple("INT", "STRING");
+    private static final Comparator<Object[]> COMPARATOR = new SortCollation(
+        0, SortDirection.DESCENDING, SortNullDirection.LAST
+    ).makeComparator();
+
+    private static List<Object[]> randomTuples(int count) {
+        Random random = new Random(7);
+        List<Object[]> tuples = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            int value = random.nextInt(count);
+            tuples.add(new Object[]{value, "v" + value});
+        }
+        return tuples;
+    }
+
+    private static List<Object[]> drain(Iterator<Object[]> iterator) {
+        List<Object[]> tuples = new ArrayList<>();
+        iterator.forEachRemaining(tuples::add);
+        return tuples;
+    }
+
+    @Test
+    public void testTopN() {
+        List<Object[]> tuples = randomTuples(10000);
+        SortBuffer buffer = new TopNSortBuffer(COMPARATOR, 10);
+        tuples.forEach(buffer::add);
+        assertThat(buffer.size()).isEqualTo(10000);
+        List<Object[]> expected = new ArrayList<>(tuples);
+        expected.sort(COMPARATOR);
+        assertThat(drain(buffer.iterator())).containsExactlyElementsOf(expected.subList(0, 10));
+        buffer.clear();
+    }
+
+    @Test
+    public void testTopNTies() {
+        List<Object[]> tuples = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            tuples.add(new Object[]{i % 5, "v" + i});
+        }
+        SortBuffer buffer = new TopNSortBuffer(COMPARATOR, 30);
+        tuples.forEach(buffer::add);
+        // `List.sort` is stable, so the tuples with equal keys are in arrival order.
+        List<Object[]> expected = new ArrayList<>(tuples);
+        expected.sort(COMPARATOR);
+        assertThat(drain(buffer.iterator())).containsExactlyElementsOf(expected.subList(0, 30));
+        buffer.clear();
+    }
+
+    @Test
+    public void testExternalSort() {
+        List<Object[]> tuples = randomTuples(10000);
+        SortBuffer buffer = new ExternalSortBuffer(COMPARATOR, SCHEMA, 16 * 1024);
+        tuples.forEach(buffer::add);
+        List<Object[]> expected = new ArrayList<>(tuples);
+        expected.sort(COMPARATOR);
+        List<Object[]> actual = drain(buffer.iterator());
+        assertThat(actual).hasSize(expected.size());
+        for (int i = 0; i < actual.size(); ++i) {
+            assertThat(actual.get(i)[0]).isEqualTo(expected.get(i)[0]);
+        }
+        Profile profile = new Profile("sort");
+        buffer.fillProfile(profile);
+        assertThat(profile.getSpillCount()).isGreaterThan(0);
+        assertThat(profile.getSpillRows()).isGreaterThan(0);
+        buffer.clear();
+    }
+
+    @Test
+    public void testExternalNoSort() {
+        List<Object[]> tuples = ImmutableList.of(new Object[]{3, "c"}, new Object[]{1, "a"}, new Object[]{2, "b"});
+        SortBuffer buffer = new ExternalSortBuffer(null, SCHEMA, Long.MAX_VALUE);
+        tuples.forEach(buffer::add);
+        assertThat(drain(buffer.iterator())).containsExactlyElementsOf(tuples);
+        buffer.clear();
+    }
+}
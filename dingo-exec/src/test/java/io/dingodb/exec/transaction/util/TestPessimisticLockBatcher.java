@@ -0,0 +1,121 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.transaction.util;
+
+import io.dingodb.common.CommonId;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestPessimisticLockBatcher {
+    private static final CommonId TABLE = new CommonId(CommonId.CommonType.TABLE, 1, 1);
+
+    private static CommonId part(int seq) {
+        return new CommonId(CommonId.CommonType.PARTITION, 1, seq);
+    }
+
+    private static byte[] key(int i) {
+        return new byte[]{(byte) i};
+    }
+
+    @Test
+    public void testLockByRegion() {
+        Map<CommonId, List<Integer>> sent = new ConcurrentHashMap<>();
+        List<Integer> locked = new CopyOnWriteArrayList<>();
+        AtomicInteger batches = new AtomicInteger();
+        PessimisticLockBatcher batcher = new PessimisticLockBatcher(3, 2, (tableId, partId, keys) -> {
+            batches.incrementAndGet();
+            keys.forEach(k -> sent.computeIfAbsent(partId, p -> new CopyOnWriteArrayList<>()).add((int) k[0]));
+            return CompletableFuture.supplyAsync(() -> 100L + partId.seq);
+        });
+        for (int i = 0; i < 10; ++i) {
+            int value = i;
+            batcher.add(TABLE, part(i % 2), key(i), ts -> {
+                assertThat(ts).isEqualTo(100L + value % 2);
+                locked.add(value);
+            }, e -> {
+                throw new AssertionError(e);
+            });
+        }
+        assertThat(batcher.isPending(key(9))).isTrue();
+        batcher.flush();
+        assertThat(batcher.isPending(key(9))).isFalse();
+        assertThat(locked).containsExactlyInAnyOrder(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(sent.get(part(0))).containsExactlyInAnyOrder(0, 2, 4, 6, 8);
+        assertThat(sent.get(part(1))).containsExactlyInAnyOrder(1, 3, 5, 7, 9);
+        assertThat(batches.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void testMaxInFlight() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        PessimisticLockBatcher batcher = new PessimisticLockBatcher(1, 2, (tableId, partId, keys) -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                inFlight.decrementAndGet();
+                return 1L;
+            });
+        });
+        AtomicInteger locked = new AtomicInteger();
+        for (int i = 0; i < 8; ++i) {
+            batcher.add(TABLE, part(i), key(i), ts -> locked.incrementAndGet(), e -> {
+            });
+        }
+        batcher.flush();
+        assertThat(locked.get()).isEqualTo(8);
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    public void testFailure() {
+        List<Integer> locked = new CopyOnWriteArrayList<>();
+        List<Integer> aborted = new CopyOnWriteArrayList<>();
+        PessimisticLockBatcher batcher = new PessimisticLockBatcher(2, 4, (tableId, partId, keys) -> {
+            if (partId.equals(part(1))) {
+                CompletableFuture<Long> future = new CompletableFuture<>();
+                future.completeExceptionally(new IllegalStateException("failed"));
+                return future;
+            }
+            return CompletableFuture.completedFuture(1L);
+        });
+        assertThatThrownBy(() -> {
+            for (int i = 0; i < 6; ++i) {
+                int value = i;
+                batcher.add(TABLE, part(i % 3), key(i), ts -> locked.add(value), e -> aborted.add(value));
+            }
+            batcher.flush();
+        }).isInstanceOf(IllegalStateException.class);
+        // The failure shows up once the batch of region 1 is full, the pending key of region 2 is given up.
+        assertThat(locked).containsExactlyInAnyOrder(0, 3);
+        assertThat(aborted).containsExactlyInAnyOrder(1, 4, 2);
+        assertThat(batcher.isPending(key(2))).isFalse();
+    }
+}
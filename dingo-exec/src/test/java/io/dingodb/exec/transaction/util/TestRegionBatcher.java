@@ -0,0 +1,98 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.exec.transaction.util;
+
+import io.dingodb.common.CommonId;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestRegionBatcher {
+    private static final CommonId TABLE = new CommonId(CommonId.CommonType.TABLE, 1, 1);
+
+    private static CommonId part(int seq) {
+        return new CommonId(CommonId.CommonType.PARTITION, 1, seq);
+    }
+
+    @Test
+    public void testGroupByRegion() {
+        Map<CommonId, List<Integer>> sent = new ConcurrentHashMap<>();
+        AtomicInteger batches = new AtomicInteger();
+        RegionBatcher<Integer> batcher = new RegionBatcher<>("test", 3, 2, (tableId, partId, batch) -> {
+            batches.incrementAndGet();
+            sent.computeIfAbsent(partId, k -> new CopyOnWriteArrayList<>()).addAll(batch);
+        });
+        for (int i = 0; i < 10; ++i) {
+            batcher.add(TABLE, part(i % 2), i);
+        }
+        batcher.flush();
+        assertThat(sent.get(part(0))).containsExactlyInAnyOrder(0, 2, 4, 6, 8);
+        assertThat(sent.get(part(1))).containsExactlyInAnyOrder(1, 3, 5, 7, 9);
+        assertThat(batches.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void testFailure() {
+        AtomicInteger batches = new AtomicInteger();
+        RegionBatcher<Integer> batcher = new RegionBatcher<>("test", 1, 2, (tableId, partId, batch) -> {
+            batches.incrementAndGet();
+            if (partId.equals(part(1))) {
+                throw new IllegalStateException("failed");
+            }
+        });
+        batcher.add(TABLE, part(0), 0);
+        batcher.add(TABLE, part(1), 1);
+        batcher.add(TABLE, part(2), 2);
+        assertThatThrownBy(batcher::flush).isInstanceOf(IllegalStateException.class);
+        assertThat(batches.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        List<Integer> sent = new CopyOnWriteArrayList<>();
+        RegionBatcher<Integer> batcher = new RegionBatcher<>("test", 2, 2, (tableId, partId, batch) -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            sent.addAll(batch);
+            throw new IllegalStateException("failed");
+        });
+        batcher.add(TABLE, part(0), 0);
+        batcher.add(TABLE, part(0), 1);
+        batcher.add(TABLE, part(1), 2);
+        Thread thread = new Thread(batcher::cancel);
+        thread.start();
+        thread.join(100);
+        // Waits for the batch in flight.
+        assertThat(thread.isAlive()).isTrue();
+        blocked.countDown();
+        thread.join();
+        // The partial batch is dropped, and the failure is ignored.
+        assertThat(sent).containsExactly(0, 1);
+    }
+}
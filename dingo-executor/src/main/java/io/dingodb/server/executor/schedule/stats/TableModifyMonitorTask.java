@@ -28,6 +28,8 @@ import lombok.extern.slf4j.Slf4j;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -37,15 +39,20 @@ public class TableModifyMonitorTask extends StatsOperator implements Runnable {
 
     private static final BigDecimal MODIFY_COMMIT_RATE = new BigDecimal(0.3);
 
+    /**
+     * committed raft index of each region at the previous run.
+     */
+    private final Map<Long, Long> regionCommitIndexes = new HashMap<>();
+
     @Override
     public void run() {
-        // lookup schema -> table commits
-        // calculate last commit is the threshold exceeded
+        // lookup schema -> table region commits
+        // calculate commits since last run, region by region, is the threshold exceeded
         // insert into analyze task
 
         MetaService metaService = MetaService.root();
         List<Object[]> analyzeTaskList = new ArrayList<>();
-        Map<CommonId, Long> commitCountMap = metaService.getTableCommitCount();
+        Map<CommonId, Map<Long, Long>> commitCountMap = metaService.getTableRegionCommitCount();
         Map<String, MetaService> subMetaServiceMap = metaService.getSubMetaServices();
         subMetaServiceMap.forEach((key, subMetaService) -> {
             if (key.equalsIgnoreCase("mysql")
@@ -55,10 +62,7 @@ public class TableModifyMonitorTask extends StatsOperator implements Runnable {
             Set<Table> tables = subMetaService.getTables();
             tables.forEach(t -> {
                 CommonId commonId = t.tableId;
-                Long commitCount = 0L;
-                if (commitCountMap.containsKey(commonId)) {
-                    commitCount = commitCountMap.get(commonId);
-                }
+                Long commitCount = modifyCount(commitCountMap.getOrDefault(commonId, Collections.emptyMap()));
                 Double totalCount = subMetaService.getTableStatistic(t.name).getRowCount();
                 if (autoAnalyzeTriggerPolicy(key, t.name, commitCount)) {
                     if (totalCount > 0 && commitCount > totalCount) {
@@ -74,6 +78,21 @@ public class TableModifyMonitorTask extends StatsOperator implements Runnable {
         }
     }
 
+    /**
+     * Commits of the table regions since the previous run. Unchanged regions add nothing, so writes landing in
+     * one hot region are weighed by themselves; the analyze then only rescans the regions that changed.
+     * A region seen for the first time counts all its commits.
+     */
+    private long modifyCount(Map<Long, Long> regionCommits) {
+        long modify = 0;
+        for (Map.Entry<Long, Long> entry : regionCommits.entrySet()) {
+            Long last = regionCommitIndexes.put(entry.getKey(), entry.getValue());
+            long current = entry.getValue();
+            modify += last == null || last > current ? current : current - last;
+        }
+        return modify;
+    }
+
     /**
      * auto analyze trigger policy.
      * @param schemaName schema custom
@@ -147,6 +147,15 @@ public interface MetaService {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Get the committed raft index of every region, grouped by table.
+     *
+     * @return table id -> (region id -> committed index)
+     */
+    default Map<CommonId, Map<Long, Long>> getTableRegionCommitCount() {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Get range distributions by table id.
      *
@@ -158,6 +167,15 @@ public interface MetaService {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Returns the version of cached meta, which changes whenever cached schemas or tables are invalidated.
+     *
+     * @return the cache version
+     */
+    default long cacheVersion() {
+        return 0L;
+    }
+
     /**
      * Returns current process location.
      *
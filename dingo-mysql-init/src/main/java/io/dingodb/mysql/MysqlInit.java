@@ -113,6 +113,7 @@ public final class MysqlInit {
         initTableByTemplate(MYSQL, "CM_SKETCH", BASE_TABLE, LSM, DYNAMIC);
         initTableByTemplate(MYSQL, "TABLE_STATS", BASE_TABLE, LSM, DYNAMIC);
         initTableByTemplate(MYSQL, "TABLE_BUCKETS", BASE_TABLE, LSM, DYNAMIC);
+        initTableByTemplate(MYSQL, "REGION_STATS", BASE_TABLE, LSM, DYNAMIC);
         int code = check();
         close();
         System.out.println("code:" + code);
@@ -372,6 +373,9 @@ public final class MysqlInit {
             case "TABLE_STATS":
                 jsonFile = "/mysql-tableStats.json";
                 break;
+            case "REGION_STATS":
+                jsonFile = "/mysql-regionStats.json";
+                break;
             case "STATEMENTS_SUMMARY":
                 jsonFile = "/information_stmtSummary.json";
                 break;
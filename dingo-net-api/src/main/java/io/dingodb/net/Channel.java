@@ -48,6 +48,11 @@ public interface Channel extends AutoCloseable {
      */
     void setCloseListener(Consumer<Channel> listener);
 
+    /**
+     * Add a close listener on the channel, which is notified after the listeners set or added before.
+     */
+    void addCloseListener(Consumer<Channel> listener);
+
     /**
      * Returns channel auth content.
      * Result is auth tag to auth return {certificate, return} mapping.
@@ -27,6 +27,7 @@ import io.dingodb.net.MessageListener;
 import io.dingodb.net.netty.api.ApiRegistryImpl;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -54,6 +55,7 @@ import static io.dingodb.net.netty.Constant.USER_DEFINE_T;
 public class Channel implements io.dingodb.net.Channel {
 
     private static final long WAIT_THREAD_TIME = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final int COPY_LIMIT = 1024;
     private static final ApiRegistryImpl API_REGISTRY = ApiRegistryImpl.instance();
     private static final MessageListener EMPTY_MESSAGE_LISTENER = (msg, ch) -> {
         log.warn("Receive message, but listener is empty.");
@@ -112,15 +114,26 @@ public class Channel implements io.dingodb.net.Channel {
         if (log.isTraceEnabled()) {
             log.trace("Send message to [{}] on [{}].", remoteLocation().url(), channelId);
         }
-        ByteBuf header = Unpooled.buffer(4 + 8 + 1); // size of int + long + byte
-        header.writeInt(message.length() + 8 + 1)
-            .writeLong(channelId)
-            .writeByte(USER_DEFINE_T);
-        ByteBuf bytes = Unpooled.wrappedBuffer(
-            header,
-            Unpooled.wrappedBuffer(message.getTag()),
-            Unpooled.wrappedBuffer(message.getContent())
-        );
+        ByteBuf bytes;
+        int length = message.length() + Long.BYTES + Byte.BYTES;
+        if (message.length() <= COPY_LIMIT) {
+            // one pooled buffer, copying a small message is cheaper than a composite
+            bytes = connection.alloc().buffer(Integer.BYTES + length)
+                .writeInt(length)
+                .writeLong(channelId)
+                .writeByte(USER_DEFINE_T)
+                .writeBytes(message.getTag())
+                .writeBytes(message.getContent());
+        } else {
+            ByteBuf header = connection.alloc().buffer(Integer.BYTES + Long.BYTES + Byte.BYTES)
+                .writeInt(length)
+                .writeLong(channelId)
+                .writeByte(USER_DEFINE_T);
+            bytes = Unpooled.wrappedBuffer(
+                header,
+                Unpooled.wrappedBuffer(message.getTag(), message.getContent())
+            );
+        }
         try {
             if (sync) {
                 connection.send(bytes);
@@ -128,6 +141,10 @@ public class Channel implements io.dingodb.net.Channel {
                 connection.sendAsync(bytes);
             }
         } catch (Exception e) {
+            if (!(e instanceof InterruptedException)) {
+                // not handed to the socket, so nobody else releases the pooled buffer
+                ReferenceCountUtil.release(bytes);
+            }
             log.error("Send message to {} on {} error.", remoteLocation().url(), channelId, e);
             throw new RuntimeException(e);
         }
@@ -172,6 +189,15 @@ public class Channel implements io.dingodb.net.Channel {
         }
     }
 
+    @Override
+    public synchronized void addCloseListener(Consumer<io.dingodb.net.Channel> listener) {
+        if (isClosed()) {
+            runner.forceFollow(() -> listener.accept(this));
+        } else {
+            this.closeListener = closeListener.andThen(listener);
+        }
+    }
+
     @Override
     public Map<String, Object[]> auth() {
         return connection.authContent();
@@ -19,6 +19,7 @@ package io.dingodb.net.netty;
 import io.dingodb.common.Location;
 import io.dingodb.common.concurrent.Executors;
 import io.dingodb.common.concurrent.LinkedRunner;
+import io.dingodb.common.metrics.DingoMetrics;
 import io.dingodb.common.util.NoBreakFunctions;
 import io.dingodb.net.netty.api.ApiRegistryImpl;
 import io.dingodb.net.netty.api.AuthProxyApi;
@@ -26,6 +27,7 @@ import io.dingodb.net.netty.api.HandshakeApi;
 import io.dingodb.net.netty.api.HandshakeApi.Handshake;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelOutboundInvoker;
+import io.netty.channel.EventLoop;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.util.AttributeMap;
 import lombok.Getter;
@@ -74,6 +76,11 @@ public class Connection {
 
     private ScheduledFuture<?> heartbeatFuture;
 
+    private final boolean writeCoalescing = NetConfiguration.writeCoalescing();
+    // only accessed on the event loop
+    private boolean flushScheduled;
+    private long unflushedBytes;
+
     public Connection(String chanelType, Location remote, SocketChannel socket) {
         this.channelType = chanelType;
         this.socket = socket;
@@ -180,7 +187,41 @@ public class Connection {
         if (channel.isClosed()) {
             throw new RuntimeException("Connection closed.");
         }
-        socket.writeAndFlush(message);
+        if (!writeCoalescing) {
+            socket.writeAndFlush(message);
+            return;
+        }
+        EventLoop eventLoop = socket.eventLoop();
+        if (eventLoop.inEventLoop()) {
+            write(message);
+        } else {
+            eventLoop.execute(() -> write(message));
+        }
+    }
+
+    /**
+     * Write without flush. The flush is queued behind the writes already pending on the event loop, so a burst of
+     * messages leaves with one syscall; a write after the flush ran schedules the next one.
+     */
+    private void write(ByteBuf message) {
+        unflushedBytes += message.readableBytes();
+        socket.write(message);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            socket.eventLoop().execute(this::flush);
+        }
+    }
+
+    private void flush() {
+        flushScheduled = false;
+        DingoMetrics.meter("net_flush").mark();
+        DingoMetrics.histogram("net_flush_bytes", unflushedBytes);
+        unflushedBytes = 0;
+        socket.flush();
+    }
+
+    public int channelCount() {
+        return channels.size();
     }
 
     public Channel newChannel() {
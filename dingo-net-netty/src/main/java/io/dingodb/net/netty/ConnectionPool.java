@@ -0,0 +1,137 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.net.netty;
+
+import io.dingodb.common.Location;
+import io.dingodb.net.NetError;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Connections to one remote. A new channel goes to the connection carrying the fewest channels, so one slow
+ * stream does not hold up the others; a further connection is opened only while all live ones are busy and the
+ * pool is not full. Connections are opened outside the pool monitor, a slot being opened is reserved meanwhile.
+ */
+@Slf4j
+final class ConnectionPool {
+
+    private final Location location;
+    private final Function<Location, Connection> opener;
+    private final Connection[] connections;
+    private final boolean[] opening;
+    private boolean closed;
+
+    ConnectionPool(Location location, int size, Function<Location, Connection> opener) {
+        this.location = location;
+        this.opener = opener;
+        this.connections = new Connection[Math.max(1, size)];
+        this.opening = new boolean[connections.length];
+    }
+
+    Connection get() {
+        Connection least;
+        int free;
+        synchronized (this) {
+            while (true) {
+                least = null;
+                free = -1;
+                boolean pending = false;
+                for (int i = 0; i < connections.length; i++) {
+                    Connection connection = connections[i];
+                    if (opening[i]) {
+                        pending = true;
+                        continue;
+                    }
+                    if (connection == null || connection.channel().isClosed()) {
+                        if (free < 0) {
+                            free = i;
+                        }
+                        continue;
+                    }
+                    if (least == null || connection.channelCount() < least.channelCount()) {
+                        least = connection;
+                    }
+                }
+                // every connection has channel 0, more than that means it carries streams
+                if (free < 0 || (least != null && least.channelCount() <= 1)) {
+                    if (least != null || !pending) {
+                        return least;
+                    }
+                    // nothing usable yet, wait for the connection being opened
+                    waitOpening();
+                    continue;
+                }
+                opening[free] = true;
+                break;
+            }
+        }
+        Connection connection = null;
+        try {
+            connection = opener.apply(location);
+        } catch (RuntimeException e) {
+            if (least == null) {
+                throw e;
+            }
+            log.warn("Open another connection to [{}] failed, use an open one.", location, e);
+        } finally {
+            opened(free, connection);
+        }
+        return connection == null ? least : connection;
+    }
+
+    private void waitOpening() {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            NetError.OPEN_CONNECTION_INTERRUPT.throwFormatError(location);
+        }
+    }
+
+    private synchronized void opened(int slot, Connection connection) {
+        opening[slot] = false;
+        notifyAll();
+        if (connection == null) {
+            return;
+        }
+        if (closed) {
+            connection.close();
+            return;
+        }
+        connections[slot] = connection;
+    }
+
+    Connection any() {
+        synchronized (this) {
+            for (Connection connection : connections) {
+                if (connection != null && !connection.channel().isClosed()) {
+                    return connection;
+                }
+            }
+        }
+        return get();
+    }
+
+    synchronized void close() {
+        closed = true;
+        Arrays.stream(connections).filter(Objects::nonNull).forEach(Connection::close);
+        Arrays.fill(connections, null);
+    }
+}
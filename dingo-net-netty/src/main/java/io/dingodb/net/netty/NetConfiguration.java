@@ -49,6 +49,9 @@ public class NetConfiguration {
     private Integer heartbeat;
     private String host;
     private Integer apiTimeout;
+    private Boolean writeCoalescing;
+    private Integer clientThreads;
+    private Integer connections;
 
     public static Integer heartbeat() {
         return INSTANCE.heartbeat;
@@ -62,6 +65,18 @@ public class NetConfiguration {
         return INSTANCE.apiTimeout == null ? 60 : INSTANCE.apiTimeout;
     }
 
+    public static int clientThreads() {
+        return INSTANCE.clientThreads == null ? Runtime.getRuntime().availableProcessors() : INSTANCE.clientThreads;
+    }
+
+    public static int connections() {
+        return INSTANCE.connections == null ? 2 : INSTANCE.connections;
+    }
+
+    public static boolean writeCoalescing() {
+        return INSTANCE.writeCoalescing == null || INSTANCE.writeCoalescing;
+    }
+
 
     public static void resetAllTimeout(int timeout) {
         INSTANCE.apiTimeout = timeout;
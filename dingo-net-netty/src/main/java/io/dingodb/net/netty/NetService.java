@@ -27,9 +27,8 @@ import io.dingodb.net.service.FileTransferService;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import lombok.Getter;
 import lombok.experimental.Delegate;
 import lombok.extern.slf4j.Slf4j;
@@ -52,7 +51,11 @@ public class NetService implements io.dingodb.net.NetService {
     private final TagRegistry tagRegistry = TagRegistry.INSTANCE;
     @Delegate
     private final ApiRegistry apiRegistry = ApiRegistryImpl.INSTANCE;
-    private final Map<Location, Connection> connections = new ConcurrentHashMap<>(8);
+    private final Map<Location, ConnectionPool> connections = new ConcurrentHashMap<>(8);
+    // one bounded group for all client connections, threads do not grow with the cluster
+    private final EventLoopGroup clientGroup = NettyTransports.eventLoopGroup(
+        NetConfiguration.clientThreads(), executor("net-client")
+    );
 
     protected NetService() {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
@@ -92,7 +95,7 @@ public class NetService implements io.dingodb.net.NetService {
 
     @Override
     public void disconnect(Location location) {
-        connections.remove(location).close();
+        ifPresent(connections.remove(location), ConnectionPool::close);
     }
 
     @Override
@@ -112,7 +115,7 @@ public class NetService implements io.dingodb.net.NetService {
 
     @Override
     public Map<String, Object[]> auth(Location location) {
-        return connections.get(location).authContent();
+        return pool(location).any().authContent();
     }
 
     @Override
@@ -122,11 +125,7 @@ public class NetService implements io.dingodb.net.NetService {
 
     @Override
     public Channel newChannel(Location location, boolean keepAlive) {
-        Connection connection = connections.get(location);
-        if (connection == null) {
-            connection = connect(location);
-        }
-        return connection.newChannel();
+        return pool(location).get().newChannel();
     }
 
     @Override
@@ -134,48 +133,48 @@ public class NetService implements io.dingodb.net.NetService {
         for (NettyServer server : servers.values()) {
             server.close();
         }
-        connections.values().forEach(Connection::close);
+        connections.values().forEach(ConnectionPool::close);
+        clientGroup.shutdownGracefully();
+    }
+
+    private ConnectionPool pool(Location location) {
+        return connections.computeIfAbsent(
+            location, k -> new ConnectionPool(location, NetConfiguration.connections(), this::connect)
+        );
     }
 
     private Connection connect(Location location) {
-        return connections.computeIfAbsent(location, k -> {
-            Optional<Connection> connection = Optional.empty();
-            NioEventLoopGroup executor = new NioEventLoopGroup(0, executor(location.url() + "/connection"));
-            try {
-                Bootstrap bootstrap = new Bootstrap();
-                bootstrap
-                    .channel(NioSocketChannel.class)
-                    .group(executor)
-                    .option(ChannelOption.TCP_NODELAY, true)
-                    .remoteAddress(location.toSocketAddress())
-                    .handler(new ChannelInitializer<SocketChannel>() {
-                        @Override
-                        protected void initChannel(SocketChannel ch) {
-                            connection.ifAbsentSet(new Connection(CLIENT, location, ch));
-                            NettyHandlers.initChannelPipeline(ch, connection.get());
-                        }
-                    });
-                bootstrap.connect().sync().await();
-                connection
-                    .ifPresent(Connection::handshake).ifPresent(Connection::auth)
-                    .ifPresent(() -> log.info("Connection open, remote: [{}].", location))
-                    .orElseThrow(() -> new NullPointerException("connection"));
-            } catch (InterruptedException e) {
-                log.error("Open connection to [{}] interrupted.", location, e);
-                connection.ifPresent(Connection::close);
-                executor.shutdownGracefully();
-                NetError.OPEN_CONNECTION_INTERRUPT.throwFormatError(location);
-            } catch (Exception e) {
-                log.error("Open connection to [{}] error.", location, e);
-                connection.ifPresent(Connection::close);
-                executor.shutdownGracefully();
-                throw e;
-            }
-            connection.get().addCloseListener(__ -> executor.shutdownGracefully());
-            connection.ifPresent(__ -> __.addCloseListener(___ -> connections.remove(location, __)));
-            connection.ifPresent(__ -> __.socket().closeFuture().addListener(ignore -> __.close()));
-            return connection.get();
-        });
+        Optional<Connection> connection = Optional.empty();
+        try {
+            Bootstrap bootstrap = new Bootstrap();
+            bootstrap
+                .channel(NettyTransports.socketChannel())
+                .group(clientGroup)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .remoteAddress(location.toSocketAddress())
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        connection.ifAbsentSet(new Connection(CLIENT, location, ch));
+                        NettyHandlers.initChannelPipeline(ch, connection.get());
+                    }
+                });
+            bootstrap.connect().sync().await();
+            connection
+                .ifPresent(Connection::handshake).ifPresent(Connection::auth)
+                .ifPresent(() -> log.info("Connection open, remote: [{}].", location))
+                .orElseThrow(() -> new NullPointerException("connection"));
+        } catch (InterruptedException e) {
+            log.error("Open connection to [{}] interrupted.", location, e);
+            connection.ifPresent(Connection::close);
+            NetError.OPEN_CONNECTION_INTERRUPT.throwFormatError(location);
+        } catch (Exception e) {
+            log.error("Open connection to [{}] error.", location, e);
+            connection.ifPresent(Connection::close);
+            throw e;
+        }
+        connection.ifPresent(__ -> __.socket().closeFuture().addListener(ignore -> __.close()));
+        return connection.get();
     }
 
 }
@@ -22,9 +22,7 @@ import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -50,9 +48,11 @@ public class NettyServer {
 
     public void start() throws Exception {
         server = new ServerBootstrap();
-        eventLoopGroup = new NioEventLoopGroup(2, new ThreadPoolBuilder().name("Netty server " + port).build());
+        eventLoopGroup = NettyTransports.eventLoopGroup(
+            2, new ThreadPoolBuilder().name("Netty server " + port).build()
+        );
         server
-            .channel(NioServerSocketChannel.class)
+            .channel(NettyTransports.serverSocketChannel())
             .group(eventLoopGroup)
             .childOption(ChannelOption.TCP_NODELAY, true)
             .childHandler(channelInitializer());
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.net.netty;
+
+import io.dingodb.common.Location;
+import io.dingodb.common.concurrent.LinkedRunner;
+import io.dingodb.net.Message;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static io.dingodb.net.netty.Constant.USER_DEFINE_T;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ChannelTest {
+    private static final long CHANNEL_ID = 1;
+    private static final byte[] TAG = "TEST".getBytes(StandardCharsets.UTF_8);
+
+    private final PooledByteBufAllocator allocator = new PooledByteBufAllocator(false);
+    private Connection connection;
+    private Channel channel;
+
+    @BeforeEach
+    public void setUp() {
+        connection = mock(Connection.class);
+        when(connection.alloc()).thenReturn(allocator);
+        when(connection.remote()).thenReturn(new Location("localhost", 19199));
+        channel = new Channel(CHANNEL_ID, connection, new LinkedRunner("channel-test"), id -> { });
+    }
+
+    private static Message message(int contentSize) {
+        byte[] content = new byte[contentSize];
+        Arrays.fill(content, (byte) 7);
+        return new Message(TAG, content);
+    }
+
+    private ByteBuf sent() {
+        ArgumentCaptor<ByteBuf> captor = ArgumentCaptor.forClass(ByteBuf.class);
+        verify(connection).sendAsync(captor.capture());
+        return captor.getValue();
+    }
+
+    private static void assertFrame(ByteBuf bytes, Message message) {
+        assertThat(bytes.readableBytes()).isEqualTo(Integer.BYTES + Long.BYTES + Byte.BYTES + message.length());
+        assertThat(bytes.readInt()).isEqualTo(Long.BYTES + Byte.BYTES + message.length());
+        assertThat(bytes.readLong()).isEqualTo(CHANNEL_ID);
+        assertThat(bytes.readByte()).isEqualTo(USER_DEFINE_T);
+        byte[] payload = new byte[message.length()];
+        bytes.readBytes(payload);
+        assertThat(Arrays.copyOf(payload, TAG.length)).isEqualTo(TAG);
+        assertThat(Arrays.copyOfRange(payload, TAG.length, payload.length)).isEqualTo(message.getContent());
+    }
+
+    @Test
+    public void testSendSmallMessage() {
+        Message message = message(1024 - TAG.length);
+        channel.send(message);
+        ByteBuf bytes = sent();
+        assertThat(bytes).isNotInstanceOf(CompositeByteBuf.class);
+        assertThat(bytes.alloc()).isSameAs(allocator);
+        assertFrame(bytes, message);
+        bytes.release();
+    }
+
+    @Test
+    public void testSendLargeMessage() {
+        Message message = message(1024 - TAG.length + 1);
+        channel.send(message);
+        ByteBuf bytes = sent();
+        assertThat(bytes).isInstanceOf(CompositeByteBuf.class);
+        CompositeByteBuf composite = (CompositeByteBuf) bytes;
+        assertThat(composite.numComponents()).isEqualTo(2);
+        assertThat(composite.component(0).alloc()).isSameAs(allocator);
+        assertThat(composite.component(0).readableBytes()).isEqualTo(Integer.BYTES + Long.BYTES + Byte.BYTES);
+        assertThat(composite.component(1).readableBytes()).isEqualTo(message.length());
+        assertFrame(bytes, message);
+        bytes.release();
+    }
+
+    @Test
+    public void testReleaseOnSendError() {
+        doThrow(new RuntimeException("Connection closed.")).when(connection).sendAsync(any());
+        assertThatThrownBy(() -> channel.send(message(8))).isInstanceOf(RuntimeException.class);
+        ByteBuf bytes = sent();
+        assertThat(bytes.refCnt()).isZero();
+    }
+}
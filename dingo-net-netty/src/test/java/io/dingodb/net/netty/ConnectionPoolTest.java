@@ -0,0 +1,171 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.net.netty;
+
+import io.dingodb.common.Location;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConnectionPoolTest {
+    private static final Location LOCATION = new Location("localhost", 19199);
+
+    private static Connection connection(int channels) {
+        Channel channel = mock(Channel.class);
+        Connection connection = mock(Connection.class);
+        when(connection.channel()).thenReturn(channel);
+        when(connection.channelCount()).thenReturn(channels);
+        return connection;
+    }
+
+    private static final class Opener implements Function<Location, Connection> {
+        private final Deque<Object> results;
+        private int opened;
+
+        Opener(Object... results) {
+            this.results = new ArrayDeque<>(Arrays.asList(results));
+        }
+
+        @Override
+        public Connection apply(Location location) {
+            opened++;
+            Object result = results.poll();
+            if (result instanceof RuntimeException) {
+                throw (RuntimeException) result;
+            }
+            return (Connection) result;
+        }
+    }
+
+    @Test
+    public void testReuseIdle() {
+        Connection connection = connection(1);
+        Opener opener = new Opener(connection);
+        ConnectionPool pool = new ConnectionPool(LOCATION, 2, opener);
+        assertThat(pool.get()).isSameAs(connection);
+        assertThat(pool.get()).isSameAs(connection);
+        assertThat(opener.opened).isEqualTo(1);
+    }
+
+    @Test
+    public void testLeastLoaded() {
+        Connection busy = connection(3);
+        Connection lessBusy = connection(2);
+        Opener opener = new Opener(busy, lessBusy);
+        ConnectionPool pool = new ConnectionPool(LOCATION, 2, opener);
+        assertThat(pool.get()).isSameAs(busy);
+        // the only connection carries streams, open another one
+        assertThat(pool.get()).isSameAs(lessBusy);
+        // the pool is full, take the one with the fewest channels
+        assertThat(pool.get()).isSameAs(lessBusy);
+        assertThat(pool.any()).isSameAs(busy);
+        assertThat(opener.opened).isEqualTo(2);
+    }
+
+    @Test
+    public void testReuseSlotAfterClose() {
+        Connection closed = connection(1);
+        Connection connection = connection(1);
+        ConnectionPool pool = new ConnectionPool(LOCATION, 1, new Opener(closed, connection));
+        assertThat(pool.get()).isSameAs(closed);
+        when(closed.channel().isClosed()).thenReturn(true);
+        assertThat(pool.get()).isSameAs(connection);
+        assertThat(pool.get()).isSameAs(connection);
+    }
+
+    @Test
+    public void testOpenFailure() {
+        Connection busy = connection(3);
+        Opener opener = new Opener(busy, new RuntimeException("refused"));
+        ConnectionPool pool = new ConnectionPool(LOCATION, 2, opener);
+        assertThat(pool.get()).isSameAs(busy);
+        // opening an extra connection failed, fall back to the open one
+        assertThat(pool.get()).isSameAs(busy);
+        assertThat(opener.opened).isEqualTo(2);
+    }
+
+    @Test
+    public void testOpenFailureWithoutConnection() {
+        Connection connection = connection(1);
+        Opener opener = new Opener(new RuntimeException("refused"), connection);
+        ConnectionPool pool = new ConnectionPool(LOCATION, 1, opener);
+        assertThatThrownBy(pool::get).hasMessage("refused");
+        // the slot is free again after the failure
+        assertThat(pool.get()).isSameAs(connection);
+    }
+
+    @Test
+    public void testOpenOutsideMonitor() throws Exception {
+        Connection busy = connection(3);
+        Connection slow = connection(1);
+        CountDownLatch opening = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ConnectionPool pool = new ConnectionPool(LOCATION, 2, location -> {
+            if (opening.getCount() == 0) {
+                return busy;
+            }
+            opening.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return slow;
+        });
+        CompletableFuture<Connection> first = CompletableFuture.supplyAsync(pool::get);
+        assertThat(opening.await(5, TimeUnit.SECONDS)).isTrue();
+        // the open in progress does not block callers that can use another slot
+        assertThat(pool.get()).isSameAs(busy);
+        assertThat(pool.get()).isSameAs(busy);
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(slow);
+        assertThat(pool.get()).isSameAs(slow);
+    }
+
+    @Test
+    public void testWaitForOpening() throws Exception {
+        Connection connection = connection(1);
+        CountDownLatch opening = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ConnectionPool pool = new ConnectionPool(LOCATION, 1, location -> {
+            opening.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return connection;
+        });
+        CompletableFuture<Connection> first = CompletableFuture.supplyAsync(pool::get);
+        assertThat(opening.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Connection> second = CompletableFuture.supplyAsync(pool::get);
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(connection);
+        assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(connection);
+    }
+}
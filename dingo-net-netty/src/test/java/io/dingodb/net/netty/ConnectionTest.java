@@ -0,0 +1,108 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.net.netty;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import io.dingodb.common.Location;
+import io.dingodb.common.metrics.DingoMetrics;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.EventLoop;
+import io.netty.channel.socket.SocketChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static io.dingodb.net.netty.Constant.CLIENT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConnectionTest {
+    private static final Location LOCATION = new Location("localhost", 19199);
+
+    private final Deque<Runnable> tasks = new ArrayDeque<>();
+    private SocketChannel socket;
+    private Connection connection;
+
+    @BeforeEach
+    public void setUp() {
+        EventLoop eventLoop = mock(EventLoop.class);
+        when(eventLoop.inEventLoop()).thenReturn(true);
+        // queue the tasks instead of running them, the test plays the event loop
+        doAnswer(invocation -> tasks.add(invocation.getArgument(0))).when(eventLoop).execute(any());
+        socket = mock(SocketChannel.class);
+        when(socket.eventLoop()).thenReturn(eventLoop);
+        connection = new Connection(CLIENT, LOCATION, socket);
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+
+    private static ByteBuf buffer(int size) {
+        return Unpooled.buffer(size).writeZero(size);
+    }
+
+    @Test
+    public void testCoalesceWrites() {
+        Meter flushes = DingoMetrics.meter("net_flush");
+        Histogram flushBytes = DingoMetrics.histogram("net_flush_bytes");
+        long flushCount = flushes.getCount();
+        long flushBytesCount = flushBytes.getCount();
+
+        connection.sendAsync(buffer(17));
+        connection.sendAsync(buffer(29));
+        connection.sendAsync(buffer(41));
+        verify(socket, times(3)).write(any());
+        verify(socket, never()).flush();
+        assertThat(tasks).hasSize(1);
+
+        runTasks();
+        verify(socket, times(1)).flush();
+        assertThat(flushes.getCount()).isEqualTo(flushCount + 1);
+        assertThat(flushBytes.getCount()).isEqualTo(flushBytesCount + 1);
+        assertThat(flushBytes.getSnapshot().getValues()).contains(17L + 29L + 41L);
+    }
+
+    @Test
+    public void testWriteAfterFlush() {
+        Histogram flushBytes = DingoMetrics.histogram("net_flush_bytes");
+        long flushBytesCount = flushBytes.getCount();
+
+        connection.sendAsync(buffer(13));
+        runTasks();
+        verify(socket, times(1)).flush();
+
+        connection.sendAsync(buffer(57));
+        assertThat(tasks).hasSize(1);
+        runTasks();
+        verify(socket, times(2)).flush();
+        assertThat(flushBytes.getCount()).isEqualTo(flushBytesCount + 2);
+        assertThat(flushBytes.getSnapshot().getValues()).contains(13L, 57L);
+    }
+}
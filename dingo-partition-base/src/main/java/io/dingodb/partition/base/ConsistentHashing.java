@@ -15,19 +15,38 @@
  */
 
 package io.dingodb.partition.base;
+
 import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.*;
+import java.util.Map;
+import java.util.TreeMap;
 
+/**
+ * Consistent hashing ring over the MD5 of the node name and of the key.
+ *
+ * <p>The MD5 ring positions decide where hash partitioned rows are stored, and clients compute the same ring,
+ * so the hash itself can not change. Lookups avoid the {@code BigInteger} and tree of the ring definition:
+ * positions are kept in flat sorted {@code long} arrays (high part signed, low part unsigned, which is the
+ * {@code BigInteger} order of a 16 bytes digest) and searched with a reused per-thread digest.
+ */
 @Slf4j
 public class ConsistentHashing<T> {
+    private static final int HASH_LEN = 16;
+
+    private static final ThreadLocal<Hasher> HASHER = ThreadLocal.withInitial(Hasher::new);
+
     private final int replicas;
     private final TreeMap<BigInteger, T> ring = new TreeMap<>();
 
+    private long[] highs = new long[0];
+    private long[] lows = new long[0];
+    private Object[] nodes = new Object[0];
+
     public ConsistentHashing(int replicas) {
         this.replicas = replicas;
     }
@@ -40,6 +59,7 @@ public class ConsistentHashing<T> {
             log.trace("node:" + nodeStr + ",hash:" + hash);
             ring.put(hash, node);
         }
+        rebuild();
     }
 
     public void removeNode(T node) {
@@ -48,40 +68,104 @@ public class ConsistentHashing<T> {
             BigInteger hash = new BigInteger(key);
             ring.remove(hash);
         }
+        rebuild();
     }
 
+    private void rebuild() {
+        int size = ring.size();
+        long[] newHighs = new long[size];
+        long[] newLows = new long[size];
+        Object[] newNodes = new Object[size];
+        int i = 0;
+        for (Map.Entry<BigInteger, T> entry : ring.entrySet()) {
+            BigInteger hash = entry.getKey();
+            newHighs[i] = hash.shiftRight(64).longValue();
+            newLows[i] = hash.longValue();
+            newNodes[i] = entry.getValue();
+            ++i;
+        }
+        highs = newHighs;
+        lows = newLows;
+        nodes = newNodes;
+    }
+
+    @SuppressWarnings("unchecked")
     public T getNode(byte[] key) {
-        if (ring.isEmpty()) {
+        Object[] nodes = this.nodes;
+        if (nodes.length == 0) {
             return null;
         }
-        byte[] hash = getHash(key);
-        BigInteger bigHash = new BigInteger(hash);
-        Map.Entry<BigInteger, T> entry = ring.ceilingEntry(bigHash);
-        if (entry == null) {
-            entry = ring.firstEntry();
+        Hasher hasher = HASHER.get();
+        hasher.hash(key);
+        int index = ceiling(highs, lows, hasher.high, hasher.low);
+        if (index == nodes.length) {
+            index = 0;
         }
-        log.trace("key:" +new String(key) + " hash:" + entry.getKey());
-        return entry.getValue();
+        return (T) nodes[index];
     }
 
-    private byte[] getHash(String key) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            md.update(key.getBytes(StandardCharsets.UTF_8));
-            return md.digest();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("MD5 not supported", e);
+    /**
+     * Index of the first position not less than {@code (high, low)}, or the length if there is none.
+     */
+    static int ceiling(long[] highs, long[] lows, long high, long low) {
+        int lo = 0;
+        int hi = highs.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = Long.compare(highs[mid], high);
+            if (cmp == 0) {
+                cmp = Long.compareUnsigned(lows[mid], low);
+            }
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
         }
+        return lo;
     }
 
-    private byte[] getHash(byte[] key) {
+    private static byte[] getHash(String key) {
         try {
             MessageDigest md = MessageDigest.getInstance("MD5");
-            md.update(key);
+            md.update(key.getBytes(StandardCharsets.UTF_8));
             return md.digest();
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("MD5 not supported", e);
         }
     }
 
+    private static final class Hasher {
+        private final MessageDigest digest;
+        private final byte[] buffer = new byte[HASH_LEN];
+        private long high;
+        private long low;
+
+        private Hasher() {
+            try {
+                digest = MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException("MD5 not supported", e);
+            }
+        }
+
+        private void hash(byte[] key) {
+            digest.update(key);
+            try {
+                digest.digest(buffer, 0, HASH_LEN);
+            } catch (DigestException e) {
+                throw new RuntimeException(e);
+            }
+            high = toLong(buffer, 0);
+            low = toLong(buffer, 8);
+        }
+
+        private static long toLong(byte[] bytes, int offset) {
+            long value = 0;
+            for (int i = offset; i < offset + 8; ++i) {
+                value = (value << 8) | (bytes[i] & 0xFF);
+            }
+            return value;
+        }
+    }
 }
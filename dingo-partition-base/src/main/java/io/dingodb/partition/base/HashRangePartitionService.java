@@ -16,6 +16,8 @@
 
 package io.dingodb.partition.base;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.dingodb.codec.CodecService;
 import io.dingodb.common.CommonId;
 import io.dingodb.common.partition.RangeDistribution;
@@ -35,6 +37,8 @@ import java.util.stream.Collectors;
 
 @Slf4j
 public class HashRangePartitionService implements PartitionService {
+    private static final Cache<NavigableMap<ComparableByteArray, RangeDistribution>, HashIndex> HASH_INDEXES =
+        CacheBuilder.newBuilder().weakKeys().maximumSize(1024).build();
 
     @Override
     public int getPartNum(NavigableMap<ComparableByteArray, RangeDistribution> ranges) {
@@ -43,24 +47,40 @@ public class HashRangePartitionService implements PartitionService {
 
     @Override
     public CommonId calcPartId(byte[] key, NavigableMap<ComparableByteArray, RangeDistribution> ranges) {
-        ConsistentHashing<Long> hashRing = new ConsistentHashing<>(3);
-        NavigableMap<ComparableByteArray, RangeDistribution> partRanges = new TreeMap<>();
-        for (Map.Entry<ComparableByteArray, RangeDistribution> entry : ranges.entrySet()) {
-            RangeDistribution value = entry.getValue();
-            log.trace("id:" + value.getId().domain);
-            hashRing.addNode(value.getId().domain);
+        HashIndex index = HASH_INDEXES.getIfPresent(ranges);
+        if (index == null || index.size != ranges.size()) {
+            index = new HashIndex(ranges);
+            HASH_INDEXES.put(ranges, index);
         }
-        Long selectNode = hashRing.getNode(key);
-        for (Map.Entry<ComparableByteArray, RangeDistribution> entry : ranges.entrySet()) {
-            ComparableByteArray rangeKeyBytes = entry.getKey();
-            RangeDistribution rangeValue = entry.getValue();
-            if (rangeValue.getId().domain == selectNode.longValue()) {
-                partRanges.put(rangeKeyBytes, rangeValue);
+        Long selectNode = index.ring.getNode(key);
+        CodecService.getDefault().setId(key, index.partIds.get(selectNode));
+        return index.parts.get(selectNode).floorId(key);
+    }
+
+    /**
+     * The hash ring and the per hash partition range indexes of a distribution map.
+     */
+    private static final class HashIndex {
+        private final int size;
+        private final ConsistentHashing<Long> ring = new ConsistentHashing<>(3);
+        private final Map<Long, RangeIndex> parts = new HashMap<>();
+        private final Map<Long, CommonId> partIds = new HashMap<>();
+
+        private HashIndex(NavigableMap<ComparableByteArray, RangeDistribution> ranges) {
+            size = ranges.size();
+            Map<Long, NavigableMap<ComparableByteArray, RangeDistribution>> partRanges = new HashMap<>();
+            for (Map.Entry<ComparableByteArray, RangeDistribution> entry : ranges.entrySet()) {
+                RangeDistribution value = entry.getValue();
+                log.trace("id:" + value.getId().domain);
+                ring.addNode(value.getId().domain);
+                partRanges.computeIfAbsent(value.getId().domain, k -> new TreeMap<>())
+                    .put(entry.getKey(), value);
+            }
+            for (Map.Entry<Long, NavigableMap<ComparableByteArray, RangeDistribution>> entry : partRanges.entrySet()) {
+                parts.put(entry.getKey(), new RangeIndex(entry.getValue()));
+                partIds.put(entry.getKey(), new CommonId(CommonId.CommonType.PARTITION, 0, entry.getKey()));
             }
         }
-
-        CodecService.getDefault().setId(key, new CommonId(CommonId.CommonType.PARTITION, 0, selectNode));
-        return partRanges.floorEntry(new ComparableByteArray(key, 1)).getValue().id();
     }
 
     @Override
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.partition.base;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.dingodb.common.CommonId;
+import io.dingodb.common.partition.RangeDistribution;
+import io.dingodb.common.util.ByteArrayUtils;
+import io.dingodb.common.util.ByteArrayUtils.ComparableByteArray;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Flat, sorted copy of the start keys of a range distribution map for allocation-free lookups.
+ *
+ * <p>Indexes are cached by the identity of the distribution map, which the callers keep for a table version.
+ */
+final class RangeIndex {
+    private static final Cache<NavigableMap<ComparableByteArray, RangeDistribution>, RangeIndex> CACHE =
+        CacheBuilder.newBuilder().weakKeys().maximumSize(1024).build();
+
+    private final int size;
+    private final byte[][] starts;
+    private final RangeDistribution[] distributions;
+
+    RangeIndex(@NonNull NavigableMap<ComparableByteArray, RangeDistribution> ranges) {
+        size = ranges.size();
+        starts = new byte[size][];
+        distributions = new RangeDistribution[size];
+        int i = 0;
+        for (Map.Entry<ComparableByteArray, RangeDistribution> entry : ranges.entrySet()) {
+            starts[i] = entry.getKey().getBytes();
+            distributions[i] = entry.getValue();
+            ++i;
+        }
+    }
+
+    static @NonNull RangeIndex of(@NonNull NavigableMap<ComparableByteArray, RangeDistribution> ranges) {
+        RangeIndex index = CACHE.getIfPresent(ranges);
+        if (index == null || index.size != ranges.size()) {
+            index = new RangeIndex(ranges);
+            CACHE.put(ranges, index);
+        }
+        return index;
+    }
+
+    int size() {
+        return size;
+    }
+
+    RangeDistribution get(int index) {
+        return distributions[index];
+    }
+
+    /**
+     * The same as {@code ranges.floorEntry(new ComparableByteArray(key, 1))}.
+     *
+     * @return the index of the range containing the key, or -1 if the key is before all ranges
+     */
+    int floor(byte[] key) {
+        int lo = 0;
+        int hi = size - 1;
+        int result = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ByteArrayUtils.compare(key, starts[mid], 1) >= 0) {
+                result = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    CommonId floorId(byte[] key) {
+        int index = floor(key);
+        if (index < 0) {
+            throw new IllegalArgumentException("No range distribution contains the key.");
+        }
+        return distributions[index].id();
+    }
+}
@@ -16,7 +16,12 @@
 
 package io.dingodb.partition.base;
 
+import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
@@ -93,4 +98,30 @@ public class ConsistentHashingTest {
         Assertions.assertEquals(node3, node4);
 
     }
+
+    @Test
+    public void testSameNodeAsBigIntegerRing() throws Exception {
+        ConsistentHashing<Long> hashing = new ConsistentHashing<>(3);
+        TreeMap<BigInteger, Long> ring = new TreeMap<>();
+        for (long node = 1; node <= 20; ++node) {
+            hashing.addNode(node);
+            for (int i = 0; i < 3; ++i) {
+                ring.put(md5((node + "-" + i).getBytes(StandardCharsets.UTF_8)), node);
+            }
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 10000; ++i) {
+            byte[] key = new byte[1 + random.nextInt(32)];
+            random.nextBytes(key);
+            Map.Entry<BigInteger, Long> entry = ring.ceilingEntry(md5(key));
+            if (entry == null) {
+                entry = ring.firstEntry();
+            }
+            Assertions.assertEquals(entry.getValue(), hashing.getNode(key));
+        }
+    }
+
+    private static BigInteger md5(byte[] bytes) throws Exception {
+        return new BigInteger(MessageDigest.getInstance("MD5").digest(bytes));
+    }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.partition.base;
+
+import io.dingodb.common.CommonId;
+import io.dingodb.common.partition.RangeDistribution;
+import io.dingodb.common.util.ByteArrayUtils.ComparableByteArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestRangeIndex {
+    private static NavigableMap<ComparableByteArray, RangeDistribution> ranges(int count) {
+        NavigableMap<ComparableByteArray, RangeDistribution> ranges = new TreeMap<>();
+        for (int i = 0; i < count; ++i) {
+            byte[] start = new byte[]{'t', (byte) (i * 8)};
+            ranges.put(new ComparableByteArray(start, 1), RangeDistribution.builder()
+                .id(new CommonId(CommonId.CommonType.DISTRIBUTION, 1, i))
+                .startKey(start)
+                .build());
+        }
+        return ranges;
+    }
+
+    @Test
+    public void testFloorSameAsTreeMap() {
+        NavigableMap<ComparableByteArray, RangeDistribution> ranges = ranges(16);
+        RangeIndex index = RangeIndex.of(ranges);
+        Random random = new Random(7);
+        for (int i = 0; i < 10000; ++i) {
+            byte[] key = new byte[2 + random.nextInt(8)];
+            random.nextBytes(key);
+            key[0] = 't';
+            key[1] &= 0x7F;
+            assertEquals(
+                ranges.floorEntry(new ComparableByteArray(key, 1)).getValue().id(),
+                index.floorId(key)
+            );
+        }
+        assertThrows(IllegalArgumentException.class, () -> RangeIndex.of(ranges(0)).floorId(new byte[]{'t', 1}));
+    }
+
+    @Test
+    public void testCachedByIdentity() {
+        NavigableMap<ComparableByteArray, RangeDistribution> ranges = ranges(4);
+        assertSame(RangeIndex.of(ranges), RangeIndex.of(ranges));
+    }
+}
@@ -19,6 +19,7 @@ package io.dingodb.store.api;
 import io.dingodb.common.CommonId;
 import io.dingodb.common.Coprocessor;
 import io.dingodb.common.CoprocessorV2;
+import io.dingodb.common.concurrent.Executors;
 import io.dingodb.common.store.KeyValue;
 import io.dingodb.common.vector.VectorSearchResponse;
 import io.dingodb.store.api.transaction.data.commit.TxnCommit;
@@ -28,10 +29,12 @@ import io.dingodb.store.api.transaction.data.rollback.TxnBatchRollBack;
 import io.dingodb.store.api.transaction.data.rollback.TxnPessimisticRollBack;
 import lombok.AllArgsConstructor;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
 public interface StoreInstance {
@@ -57,6 +60,18 @@ public interface StoreInstance {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Insert the rows of this region in one request, a row is not inserted if its key exists.
+     * @return the insert result of each row
+     */
+    default List<Boolean> insert(long requestTs, List<KeyValue> rows) {
+        List<Boolean> results = new ArrayList<>(rows.size());
+        for (KeyValue row : rows) {
+            results.add(insert(requestTs, row));
+        }
+        return results;
+    }
+
     @Deprecated
     default boolean update(KeyValue row, KeyValue old) {
         return update(System.identityHashCode(row), row, old);
@@ -295,6 +310,19 @@ public interface StoreInstance {
         throw new UnsupportedOperationException();
     }
 
+    default CompletableFuture<Boolean> txnPessimisticLockAsync(TxnPessimisticLock txnPessimisticLock, long timeOut) {
+        return txnPessimisticLockAsync(txnPessimisticLock.getStartTs(), txnPessimisticLock, timeOut);
+    }
+
+    default CompletableFuture<Boolean> txnPessimisticLockAsync(
+        long requestTs, TxnPessimisticLock txnPessimisticLock, long timeOut
+    ) {
+        return Executors.submit(
+            "txn-pessimistic-lock",
+            () -> txnPessimisticLock(requestTs, txnPessimisticLock, timeOut)
+        );
+    }
+
     default boolean txnPessimisticLockRollback(TxnPessimisticRollBack txnPessimisticRollBack) {
         return txnPessimisticLockRollback(txnPessimisticRollBack.getStartTs(), txnPessimisticRollBack);
     }
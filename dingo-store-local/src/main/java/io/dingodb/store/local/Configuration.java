@@ -44,6 +44,8 @@ public class Configuration {
     private int bufferSize = 67108864;
     private int bufferNumber = 2;
     private int fileSize = 67108864;
+    private long txnBufferSize = 16777216;
+    private long txnBufferTotalSize = 268435456;
     public static String path() {
         return INSTANCE.path;
     }
@@ -20,17 +20,13 @@ import io.dingodb.common.CommonId;
 import io.dingodb.common.store.KeyValue;
 import io.dingodb.common.util.ByteArrayUtils;
 import lombok.AllArgsConstructor;
-import lombok.SneakyThrows;
-import org.rocksdb.RocksIterator;
 import org.rocksdb.WriteOptions;
 
 import java.util.Iterator;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
-import static io.dingodb.common.util.ByteArrayUtils.compareWithoutLen;
 import static io.dingodb.common.util.Parameters.cleanNull;
 import static io.dingodb.common.util.Parameters.nonNull;
 
@@ -39,6 +35,19 @@ public class StoreInstance implements io.dingodb.store.api.StoreInstance {
 
     public final CommonId regionId;
     private static final WriteOptions writeOptions = new WriteOptions().setDisableWAL(true);
+    private static final TxnWriteBuffer BUFFER = createBuffer();
+
+    private static TxnWriteBuffer createBuffer() {
+        Configuration configuration = Configuration.instance();
+        if (configuration == null) {
+            configuration = new Configuration();
+        }
+        return new TxnWriteBuffer(
+            writeOptions,
+            configuration.getTxnBufferSize(),
+            configuration.getTxnBufferTotalSize()
+        );
+    }
 
     @Override
     public CommonId id() {
@@ -46,118 +55,54 @@ public class StoreInstance implements io.dingodb.store.api.StoreInstance {
     }
 
     @Override
-    @SneakyThrows
     public boolean put(KeyValue row) {
         nonNull(row, "row");
-        if (StoreService.db.get(row.getKey()) != null) {
-            return false;
-        }
-        StoreService.db.put(writeOptions, nonNull(row.getKey(), "key"), cleanNull(row.getValue(), ByteArrayUtils.EMPTY_BYTES));
-        return true;
+        return BUFFER.put(nonNull(row.getKey(), "key"), cleanNull(row.getValue(), ByteArrayUtils.EMPTY_BYTES));
     }
 
     @Override
-    @SneakyThrows
     public boolean delete(byte[] key) {
-        StoreService.db.delete(writeOptions, key);
+        BUFFER.delete(key);
         return true;
     }
 
     @Override
-    @SneakyThrows
     public void deletePrefix(byte[] prefix) {
-        StoreService.db.deleteRange(writeOptions, prefix, nextKey(prefix));
+        BUFFER.deletePrefix(prefix);
     }
 
     @Override
-    @SneakyThrows
     public KeyValue get(byte[] key) {
-        byte[] valueBytes = StoreService.db.get(key);
-        if (valueBytes == null) {
-            return null;
-        }
-        return new KeyValue(key, valueBytes);
+        return BUFFER.get(key);
     }
 
     @Override
-    @SneakyThrows
     public List<KeyValue> get(List<byte[]> keys) {
-        List<byte[]> values = StoreService.db.multiGetAsList(keys);
-        return IntStream.range(0, keys.size())
-            .mapToObj(i -> new KeyValue(keys.get(i), values.get(i)))
-            .filter(kv -> kv.getValue() != null)
+        return keys.stream()
+            .map(BUFFER::get)
+            .filter(Objects::nonNull)
             .collect(Collectors.toList());
     }
 
     @Override
     public Iterator<KeyValue> scan(Range range) {
-        return new KeyValueIterator(StoreService.db.newIterator(), range);
+        return scan(0, range);
     }
 
     @Override
     public Iterator<KeyValue> scan(long requestTs, Range range) {
-        return new KeyValueIterator(StoreService.db.newIterator(), range);
-    }
-
-    private byte[] nextKey(byte[] key) {
-        byte[] next = new byte[key.length];
-        int n = key.length;
-        while (--n >= 0) {
-            if (key[n] != (byte) 0xFF) {
-                next[n] = (byte) (key[n] + 1);
-                break;
-            }
+        byte[] start;
+        if (range.start == null) {
+            start = ByteArrayUtils.EMPTY_BYTES;
+        } else {
+            start = range.withStart ? range.start : TxnWriteBuffer.nextKey(range.start);
         }
-        System.arraycopy(key, 0, next, 0, n);
-        return next;
-    }
-
-    public class KeyValueIterator implements Iterator<KeyValue> {
-
-        private final RocksIterator iterator;
-        private final Range range;
-
-        private final byte[] end;
-        private boolean hasNext;
-
-        public KeyValueIterator(RocksIterator iterator, Range range) {
-            this.iterator = iterator;
-            this.range = range;
-            if (range.start == null) {
-                iterator.seekToFirst();
-            } else {
-                if (range.withStart) {
-                    iterator.seek(range.start);
-                } else {
-                    iterator.seek(nextKey(range.start));
-                }
-            }
-            if (range.end == null) {
-                end = ByteArrayUtils.MAX;
-            } else {
-                end = range.withEnd ? nextKey(range.end) : range.end;
-            }
-        }
-
-        @Override
-        protected void finalize() throws Throwable {
-            super.finalize();
-            iterator.close();
-        }
-
-        @Override
-        public boolean hasNext() {
-            return hasNext = iterator.isValid() && compareWithoutLen(iterator.key(), end) < 0;
-        }
-
-        @Override
-        public KeyValue next() {
-            if (!hasNext) {
-                throw new NoSuchElementException();
-            }
-            KeyValue keyValue = new KeyValue(iterator.key(), iterator.value());
-            iterator.next();
-            return keyValue;
+        byte[] end;
+        if (range.end == null) {
+            end = ByteArrayUtils.MAX;
+        } else {
+            end = range.withEnd ? TxnWriteBuffer.nextKey(range.end) : range.end;
         }
+        return BUFFER.scan(start, end);
     }
 }
@@ -0,0 +1,455 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.store.local;
+
+import io.dingodb.common.CommonId;
+import io.dingodb.common.store.KeyValue;
+import io.dingodb.common.util.ByteArrayUtils;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory, sorted write buffer for the transaction cache.
+ *
+ * <p>Every transaction cache key starts with {@code CommonType | txnId (or jobId)}, that prefix is the owner of
+ * the key. The keys of an owner live in a skip list until the owner grows past
+ * {@link Configuration#getTxnBufferSize()} or all owners together pass {@link Configuration#getTxnBufferTotalSize()},
+ * then the owner is spilled to RocksDB and stays there until all its keys are deleted. So an owner is always either
+ * completely in memory or completely on disk, and only scans crossing owners need to merge both.
+ *
+ * <p>Scans take a snapshot of the in-memory entries, under the owner lock for a single owner or under the spill
+ * lock for a merge, so that a concurrent spill can neither hide nor duplicate entries of the scan.
+ */
+@Slf4j
+final class TxnWriteBuffer {
+    static final int OWNER_LEN = CommonId.TYPE_LEN + CommonId.LEN;
+
+    private final NavigableMap<byte[], byte[]> memory = new ConcurrentSkipListMap<>(TxnWriteBuffer::compare);
+    private final Map<ByteBuffer, Owner> owners = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final ReadWriteLock spillLock = new ReentrantReadWriteLock();
+    private final WriteOptions writeOptions;
+    private final long ownerBudget;
+    private final long totalBudget;
+
+    TxnWriteBuffer(WriteOptions writeOptions, long ownerBudget, long totalBudget) {
+        this.writeOptions = writeOptions;
+        this.ownerBudget = ownerBudget;
+        this.totalBudget = totalBudget;
+    }
+
+    private static final class Owner {
+        private final ByteBuffer id;
+        private long entries;
+        private long bytes;
+        private volatile boolean spilled;
+        private boolean removed;
+
+        private Owner(ByteBuffer id) {
+            this.id = id;
+        }
+    }
+
+    static int compare(byte @NonNull [] bytes1, byte @NonNull [] bytes2) {
+        int len = Math.min(bytes1.length, bytes2.length);
+        for (int i = 0; i < len; ++i) {
+            int result = (bytes1[i] & 0xFF) - (bytes2[i] & 0xFF);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return bytes1.length - bytes2.length;
+    }
+
+    private static @Nullable ByteBuffer ownerId(byte[] key) {
+        if (key == null || key.length < OWNER_LEN) {
+            return null;
+        }
+        return ByteBuffer.wrap(key, 0, OWNER_LEN).slice();
+    }
+
+    private static long sizeOf(byte @NonNull [] key, byte @NonNull [] value) {
+        return key.length + value.length;
+    }
+
+    private @Nullable Owner owner(byte[] key, boolean create) {
+        ByteBuffer id = ownerId(key);
+        if (id == null) {
+            return null;
+        }
+        Owner owner = owners.get(id);
+        if (owner == null && create) {
+            owner = owners.computeIfAbsent(ByteBuffer.wrap(Arrays.copyOf(key, OWNER_LEN)), Owner::new);
+        }
+        return owner;
+    }
+
+    private void release(@NonNull Owner owner) {
+        if (owner.entries == 0) {
+            owner.removed = true;
+            owners.remove(owner.id, owner);
+        }
+    }
+
+    @SneakyThrows
+    boolean put(byte @NonNull [] key, byte @NonNull [] value) {
+        Owner owner = owner(key, true);
+        if (owner == null) {
+            return putToDb(key, value);
+        }
+        synchronized (owner) {
+            if (owner.removed) {
+                return put(key, value);
+            }
+            if (owner.spilled) {
+                if (putToDb(key, value)) {
+                    ++owner.entries;
+                    return true;
+                }
+                return false;
+            }
+            if (memory.putIfAbsent(key, value) != null) {
+                return false;
+            }
+            long size = sizeOf(key, value);
+            ++owner.entries;
+            owner.bytes += size;
+            long total = totalBytes.addAndGet(size);
+            if (StoreService.db != null && (owner.bytes > ownerBudget || total > totalBudget)) {
+                spill(owner);
+            }
+            return true;
+        }
+    }
+
+    @SneakyThrows
+    private boolean putToDb(byte[] key, byte[] value) {
+        if (StoreService.db.get(key) != null) {
+            return false;
+        }
+        StoreService.db.put(writeOptions, key, value);
+        return true;
+    }
+
+    @SneakyThrows
+    private void spill(@NonNull Owner owner) {
+        byte[] prefix = prefixOf(owner);
+        NavigableMap<byte[], byte[]> entries = memory.subMap(prefix, true, nextKey(prefix), false);
+        spillLock.writeLock().lock();
+        try (WriteBatch batch = new WriteBatch()) {
+            for (Map.Entry<byte[], byte[]> entry : entries.entrySet()) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+            StoreService.db.write(writeOptions, batch);
+            owner.spilled = true;
+            entries.clear();
+        } finally {
+            spillLock.writeLock().unlock();
+        }
+        totalBytes.addAndGet(-owner.bytes);
+        log.info("Transaction cache of {} spilled to local store, entries: {}, bytes: {}.",
+            CommonId.decode(Arrays.copyOfRange(prefix, CommonId.TYPE_LEN, OWNER_LEN)), owner.entries, owner.bytes);
+        owner.bytes = 0;
+    }
+
+    @SneakyThrows
+    void delete(byte @NonNull [] key) {
+        if (ownerId(key) == null) {
+            StoreService.db.delete(writeOptions, key);
+            return;
+        }
+        Owner owner = owner(key, false);
+        if (owner == null) {
+            return;
+        }
+        synchronized (owner) {
+            if (owner.removed) {
+                delete(key);
+                return;
+            }
+            if (owner.spilled) {
+                if (StoreService.db.get(key) != null) {
+                    StoreService.db.delete(writeOptions, key);
+                    --owner.entries;
+                }
+            } else {
+                byte[] value = memory.remove(key);
+                if (value != null) {
+                    long size = sizeOf(key, value);
+                    --owner.entries;
+                    owner.bytes -= size;
+                    totalBytes.addAndGet(-size);
+                }
+            }
+            release(owner);
+        }
+    }
+
+    @SneakyThrows
+    void deletePrefix(byte @NonNull [] prefix) {
+        if (prefix.length >= OWNER_LEN) {
+            Owner owner = owner(prefix, false);
+            if (owner != null) {
+                deleteRange(owner, prefix, nextKey(prefix));
+            }
+            return;
+        }
+        for (Owner owner : owners.values()) {
+            byte[] ownerPrefix = prefixOf(owner);
+            if (compare(Arrays.copyOf(ownerPrefix, prefix.length), prefix) == 0) {
+                deleteRange(owner, ownerPrefix, nextKey(ownerPrefix));
+            }
+        }
+        if (StoreService.db != null) {
+            // Keys too short to have an owner.
+            StoreService.db.deleteRange(writeOptions, prefix, nextKey(prefix));
+        }
+    }
+
+    @SneakyThrows
+    private void deleteRange(@NonNull Owner owner, byte @NonNull [] start, byte @NonNull [] end) {
+        synchronized (owner) {
+            if (owner.removed) {
+                Owner current = owners.get(owner.id);
+                if (current != null) {
+                    deleteRange(current, start, end);
+                }
+                return;
+            }
+            if (owner.spilled) {
+                // Only the keys are read, to keep the entry count of the owner.
+                long count = 0;
+                try (RocksIterator iterator = StoreService.db.newIterator()) {
+                    iterator.seek(start);
+                    while (iterator.isValid() && compare(iterator.key(), end) < 0) {
+                        ++count;
+                        iterator.next();
+                    }
+                }
+                if (count > 0) {
+                    StoreService.db.deleteRange(writeOptions, start, end);
+                    owner.entries -= count;
+                }
+            } else {
+                NavigableMap<byte[], byte[]> entries = memory.subMap(start, true, end, false);
+                long size = 0;
+                for (Map.Entry<byte[], byte[]> entry : entries.entrySet()) {
+                    size += sizeOf(entry.getKey(), entry.getValue());
+                    --owner.entries;
+                }
+                entries.clear();
+                owner.bytes -= size;
+                totalBytes.addAndGet(-size);
+            }
+            release(owner);
+        }
+    }
+
+    @SneakyThrows
+    @Nullable KeyValue get(byte @NonNull [] key) {
+        ByteBuffer id = ownerId(key);
+        byte[] value;
+        if (id == null) {
+            value = StoreService.db.get(key);
+        } else {
+            Owner owner = owners.get(id);
+            if (owner == null) {
+                return null;
+            }
+            value = owner.spilled ? null : memory.get(key);
+            // Re-check, the owner may have been spilled after the flag was read.
+            if (value == null && owner.spilled) {
+                value = StoreService.db.get(key);
+            }
+        }
+        return value == null ? null : new KeyValue(key, value);
+    }
+
+    /**
+     * Scan {@code [start, end)} in key order.
+     */
+    Iterator<KeyValue> scan(byte @NonNull [] start, byte @NonNull [] end) {
+        if (compare(start, end) >= 0) {
+            return Collections.emptyIterator();
+        }
+        ByteBuffer startOwner = ownerId(start);
+        if (startOwner != null && compare(end, nextKey(Arrays.copyOf(start, OWNER_LEN))) <= 0) {
+            Owner owner = owners.get(startOwner);
+            if (owner == null) {
+                return Collections.emptyIterator();
+            }
+            synchronized (owner) {
+                if (owner.removed) {
+                    return scan(start, end);
+                }
+                if (!owner.spilled) {
+                    return memoryIterator(start, end);
+                }
+                return dbIterator(start, end);
+            }
+        }
+        if (StoreService.db == null) {
+            return memoryIterator(start, end);
+        }
+        spillLock.readLock().lock();
+        try {
+            return new MergeIterator(memoryIterator(start, end), dbIterator(start, end));
+        } finally {
+            spillLock.readLock().unlock();
+        }
+    }
+
+    private Iterator<KeyValue> memoryIterator(byte[] start, byte[] end) {
+        List<KeyValue> entries = new ArrayList<>();
+        for (Map.Entry<byte[], byte[]> entry : memory.subMap(start, true, end, false).entrySet()) {
+            entries.add(new KeyValue(entry.getKey(), entry.getValue()));
+        }
+        return entries.iterator();
+    }
+
+    private static byte @NonNull [] prefixOf(@NonNull Owner owner) {
+        byte[] prefix = new byte[OWNER_LEN];
+        owner.id.duplicate().get(prefix);
+        return prefix;
+    }
+
+    private static Iterator<KeyValue> dbIterator(byte[] start, byte[] end) {
+        return new DbIterator(StoreService.db.newIterator(), start, end);
+    }
+
+    static byte[] nextKey(byte @NonNull [] key) {
+        byte[] next = new byte[key.length];
+        int n = key.length;
+        while (--n >= 0) {
+            if (key[n] != (byte) 0xFF) {
+                next[n] = (byte) (key[n] + 1);
+                break;
+            }
+        }
+        if (n < 0) {
+            return ByteArrayUtils.MAX;
+        }
+        System.arraycopy(key, 0, next, 0, n);
+        return next;
+    }
+
+    private static final class DbIterator implements Iterator<KeyValue> {
+        private final RocksIterator iterator;
+        private final byte[] end;
+        private boolean closed;
+
+        private DbIterator(RocksIterator iterator, byte[] start, byte[] end) {
+            this.iterator = iterator;
+            this.end = end;
+            iterator.seek(start);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+            if (iterator.isValid() && compare(iterator.key(), end) < 0) {
+                return true;
+            }
+            close();
+            return false;
+        }
+
+        @Override
+        public KeyValue next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            KeyValue keyValue = new KeyValue(iterator.key(), iterator.value());
+            iterator.next();
+            return keyValue;
+        }
+
+        private synchronized void close() {
+            if (!closed) {
+                closed = true;
+                iterator.close();
+            }
+        }
+
+        @Override
+        protected void finalize() throws Throwable {
+            super.finalize();
+            close();
+        }
+    }
+
+    private static final class MergeIterator implements Iterator<KeyValue> {
+        private final Iterator<KeyValue> left;
+        private final Iterator<KeyValue> right;
+        private KeyValue leftNext;
+        private KeyValue rightNext;
+
+        private MergeIterator(Iterator<KeyValue> left, Iterator<KeyValue> right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (leftNext == null && left.hasNext()) {
+                leftNext = left.next();
+            }
+            if (rightNext == null && right.hasNext()) {
+                rightNext = right.next();
+            }
+            return leftNext != null || rightNext != null;
+        }
+
+        @Override
+        public KeyValue next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            KeyValue result;
+            if (rightNext == null || (leftNext != null && compare(leftNext.getKey(), rightNext.getKey()) <= 0)) {
+                result = leftNext;
+                leftNext = null;
+            } else {
+                result = rightNext;
+                rightNext = null;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.store.local;
+
+import io.dingodb.common.store.KeyValue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.rocksdb.WriteOptions;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestTxnWriteBuffer {
+    private static final int VALUE_LEN = 10;
+    // Spills after 10 entries of an owner.
+    private static final long OWNER_BUDGET = 10L * (TxnWriteBuffer.OWNER_LEN + 4 + VALUE_LEN);
+
+    private static byte owners = 0;
+
+    @BeforeAll
+    public static void setupAll() {
+        assertThat(StoreService.db).isNotNull();
+    }
+
+    private static byte[] owner() {
+        byte[] prefix = new byte[TxnWriteBuffer.OWNER_LEN];
+        prefix[0] = 1;
+        prefix[prefix.length - 1] = ++owners;
+        return prefix;
+    }
+
+    private static byte[] key(byte[] owner, int seq) {
+        return ByteBuffer.allocate(owner.length + 4).put(owner).putInt(seq).array();
+    }
+
+    private static byte[] value(int seq) {
+        byte[] value = new byte[VALUE_LEN];
+        Arrays.fill(value, (byte) seq);
+        return value;
+    }
+
+    private static List<Integer> seqs(Iterator<KeyValue> iterator) {
+        List<Integer> result = new ArrayList<>();
+        while (iterator.hasNext()) {
+            KeyValue keyValue = iterator.next();
+            byte[] key = keyValue.getKey();
+            int seq = ByteBuffer.wrap(key, key.length - 4, 4).getInt();
+            assertThat(keyValue.getValue()).isEqualTo(value(seq));
+            result.add(seq);
+        }
+        return result;
+    }
+
+    private static boolean inDb(byte[] key) throws Exception {
+        return StoreService.db.get(key) != null;
+    }
+
+    private TxnWriteBuffer buffer() {
+        return new TxnWriteBuffer(new WriteOptions().setDisableWAL(true), OWNER_BUDGET, 100 * OWNER_BUDGET);
+    }
+
+    @Test
+    public void testSpillThreshold() throws Exception {
+        TxnWriteBuffer buffer = buffer();
+        byte[] owner = owner();
+        for (int i = 0; i < 10; ++i) {
+            assertThat(buffer.put(key(owner, i), value(i))).isTrue();
+        }
+        assertThat(inDb(key(owner, 0))).isFalse();
+        assertThat(buffer.put(key(owner, 10), value(10))).isTrue();
+        // All entries of the owner go to the local store together.
+        for (int i = 0; i <= 10; ++i) {
+            assertThat(inDb(key(owner, i))).isTrue();
+        }
+        assertThat(buffer.put(key(owner, 5), value(5))).isFalse();
+        assertThat(buffer.get(key(owner, 5)).getValue()).isEqualTo(value(5));
+        assertThat(seqs(buffer.scan(owner, TxnWriteBuffer.nextKey(owner)))).hasSize(11);
+    }
+
+    @Test
+    public void testScanAcrossSpill() {
+        TxnWriteBuffer buffer = buffer();
+        byte[] owner = owner();
+        for (int i = 0; i < 10; ++i) {
+            buffer.put(key(owner, 2 * i), value(2 * i));
+        }
+        Iterator<KeyValue> iterator = buffer.scan(owner, TxnWriteBuffer.nextKey(owner));
+        assertThat(iterator.next().getKey()).isEqualTo(key(owner, 0));
+        // Spill while scanning.
+        buffer.put(key(owner, 1), value(1));
+        List<Integer> rest = seqs(iterator);
+        assertThat(rest).containsExactly(2, 4, 6, 8, 10, 12, 14, 16, 18);
+        assertThat(seqs(buffer.scan(owner, TxnWriteBuffer.nextKey(owner)))).hasSize(11);
+    }
+
+    @Test
+    public void testMergeAcrossSpill() {
+        TxnWriteBuffer buffer = buffer();
+        byte[] owner1 = owner();
+        byte[] owner2 = owner();
+        for (int i = 0; i < 5; ++i) {
+            buffer.put(key(owner1, i), value(i));
+            buffer.put(key(owner2, 100 + i), value(100 + i));
+        }
+        Iterator<KeyValue> iterator = buffer.scan(owner1, TxnWriteBuffer.nextKey(owner2));
+        for (int i = 5; i < 11; ++i) {
+            buffer.put(key(owner1, i), value(i));
+        }
+        // Neither lost nor duplicated by the spill of owner1.
+        assertThat(seqs(iterator)).containsExactly(0, 1, 2, 3, 4, 100, 101, 102, 103, 104);
+        List<Integer> all = seqs(buffer.scan(owner1, TxnWriteBuffer.nextKey(owner2)));
+        assertThat(all).hasSize(16);
+        assertThat(all).isSorted();
+    }
+
+    @Test
+    public void testDeletePrefix() throws Exception {
+        TxnWriteBuffer buffer = buffer();
+        byte[] memory = owner();
+        byte[] spilled = owner();
+        for (int i = 0; i < 5; ++i) {
+            buffer.put(key(memory, i), value(i));
+        }
+        for (int i = 0; i < 11; ++i) {
+            buffer.put(key(spilled, i), value(i));
+        }
+        assertThat(inDb(key(spilled, 0))).isTrue();
+        // Part of an owner.
+        buffer.deletePrefix(Arrays.copyOf(key(memory, 0), memory.length + 3));
+        assertThat(seqs(buffer.scan(memory, TxnWriteBuffer.nextKey(memory)))).isEmpty();
+        buffer.deletePrefix(Arrays.copyOf(key(spilled, 0), spilled.length + 3));
+        assertThat(seqs(buffer.scan(spilled, TxnWriteBuffer.nextKey(spilled)))).isEmpty();
+        assertThat(inDb(key(spilled, 10))).isFalse();
+        // The owners are released once empty, so they start in memory again.
+        buffer.put(key(memory, 1), value(1));
+        buffer.put(key(spilled, 1), value(1));
+        assertThat(inDb(key(spilled, 1))).isFalse();
+        assertThat(buffer.get(key(spilled, 1)).getValue()).isEqualTo(value(1));
+        // Whole owners, by a shorter prefix.
+        buffer.deletePrefix(new byte[]{1});
+        assertThat(buffer.get(key(memory, 1))).isNull();
+        assertThat(buffer.get(key(spilled, 1))).isNull();
+    }
+
+    @Test
+    public void testDeletePrefixKeepsOthers() {
+        TxnWriteBuffer buffer = buffer();
+        byte[] owner = owner();
+        for (int i = 0; i < 11; ++i) {
+            buffer.put(key(owner, i << 8), value(i));
+        }
+        // Deletes seq 0x100 only, the owner stays spilled with the rest.
+        byte[] prefix = Arrays.copyOf(key(owner, 1 << 8), owner.length + 3);
+        buffer.deletePrefix(prefix);
+        List<Integer> seqs = new ArrayList<>();
+        Iterator<KeyValue> iterator = buffer.scan(owner, TxnWriteBuffer.nextKey(owner));
+        while (iterator.hasNext()) {
+            byte[] key = iterator.next().getKey();
+            seqs.add(ByteBuffer.wrap(key, key.length - 4, 4).getInt() >> 8);
+        }
+        assertThat(seqs).containsExactly(0, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+    }
+}
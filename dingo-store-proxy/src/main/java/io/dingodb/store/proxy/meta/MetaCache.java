@@ -75,6 +75,7 @@ import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -106,6 +107,9 @@ public class MetaCache {
 
     private final LoadingCache<CommonId, NavigableMap<ComparableByteArray, RangeDistribution>> distributionCache;
 
+    // Bumped on every schema or table invalidation, so that plans built on the old meta can be dropped.
+    private final AtomicLong version = new AtomicLong();
+
     public MetaCache(Set<Location> coordinators) {
         this.coordinators = coordinators;
         this.metaService = Services.metaService(coordinators);
@@ -128,7 +132,12 @@ public class MetaCache {
         return tsoService.tso();
     }
 
+    public long getVersion() {
+        return version.get();
+    }
+
     public synchronized void clear() {
+        version.incrementAndGet();
         tableIdCache.clear();
         cache.clear();
         metaServices = null;
@@ -322,6 +331,7 @@ public class MetaCache {
 
     public void invalidateTable(long schema, long table) {
         LogUtils.info(log, "Invalid table {}.{}", schema, table);
+        version.incrementAndGet();
         tableIdCache.remove(new CommonId(TABLE, schema, table));
         tableIdCache.remove(new CommonId(INDEX, schema, table));
     }
@@ -335,11 +345,13 @@ public class MetaCache {
 
     public void invalidateMetaServices() {
         LogUtils.info(log, "Invalid meta services");
+        version.incrementAndGet();
         metaServices = null;
     }
 
     public synchronized void refreshSchema(String schema) {
         LogUtils.info(log, "Invalid schema {}", schema);
+        version.incrementAndGet();
         try {
             cache.compute(schema, (k, v) -> loadTables(metaService.getSchemaByName(
                 tso(), GetSchemaByNameRequest.builder().schemaName(schema).build()
@@ -372,8 +372,22 @@ public class MetaService implements io.dingodb.meta.MetaService {
         return cache.getRangeDistribution(id);
     }
 
+    @Override
+    public long cacheVersion() {
+        return cache.getVersion();
+    }
+
     @Override
     public Map<CommonId, Long> getTableCommitCount() {
+        Map<CommonId, Long> metrics = new HashMap<>();
+        getTableRegionCommitCount().forEach((tableId, regions) -> metrics.put(
+            tableId, regions.values().stream().mapToLong(Long::longValue).sum()
+        ));
+        return metrics;
+    }
+
+    @Override
+    public Map<CommonId, Map<Long, Long>> getTableRegionCommitCount() {
         if (!id.equals(ROOT_SCHEMA_ID)) {
             throw new UnsupportedOperationException("Only supported root meta service.");
         }
@@ -394,7 +408,7 @@ public class MetaService implements io.dingodb.meta.MetaService {
             .map(DingoCommonId::getEntityId)
             .collect(Collectors.toList());
 
-        Map<CommonId, Long> metrics = new HashMap<>();
+        Map<CommonId, Map<Long, Long>> metrics = new HashMap<>();
 
         for (Region region : regions) {
             RegionDefinition definition = region.getDefinition();
@@ -403,7 +417,7 @@ public class MetaService implements io.dingodb.meta.MetaService {
             }
             CommonId tableId = new CommonId(TABLE, definition.getSchemaId(), definition.getTableId());
             long committedIndex = region.getMetrics().getBraftStatus().getCommittedIndex();
-            metrics.compute(tableId, (id, c) -> c == null ? committedIndex : c + committedIndex);
+            metrics.computeIfAbsent(tableId, id -> new HashMap<>()).put(region.getId(), committedIndex);
         }
 
         return metrics;
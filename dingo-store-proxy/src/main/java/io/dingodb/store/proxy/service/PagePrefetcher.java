@@ -0,0 +1,192 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.store.proxy.service;
+
+import io.dingodb.common.concurrent.Executors;
+import io.dingodb.common.concurrent.ScanScope;
+import io.dingodb.common.profile.ScanStall;
+import lombok.AllArgsConstructor;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Double-buffered page source for cursor style scans: while page N is consumed, page N + 1 is fetched
+ * on the scan executor.
+ *
+ * <p>Scan cursors on the store are strictly sequential (a continue must see the end key or cursor state
+ * left by the previous one), so at most one fetch is in flight and at most one page waits ahead of the
+ * consumer. The page size grows while the consumer is stalled on fetches and is capped by a byte budget
+ * derived from the observed row width.
+ *
+ * <p>The prefetcher registers itself to the {@link ScanScope} of the operator, which cancels it when the
+ * operator is done, so no page is requested for a consumer that stopped early.
+ */
+class PagePrefetcher<T> implements Iterator<T> {
+    static final int MIN_PAGE_SIZE = 128;
+    static final int MAX_PAGE_SIZE = 16384;
+    static final long PAGE_BYTES = 4L * 1024 * 1024;
+
+    private static final String EXECUTOR = "scan-prefetch";
+
+    private final IntFunction<Page<T>> fetcher;
+    private final ToIntFunction<T> sizer;
+    private final Runnable release;
+
+    private int pageSize;
+    private Iterator<T> current = Collections.emptyIterator();
+    private CompletableFuture<Page<T>> inFlight;
+    private boolean cancelled;
+
+    /**
+     * Create a prefetcher and start fetching the first page.
+     *
+     * @param pageSize initial page size
+     * @param fetcher  fetches the next page of at most the given size, only called after the previous call
+     *                 has returned
+     * @param sizer    estimated encoded size of an element
+     */
+    PagePrefetcher(int pageSize, IntFunction<Page<T>> fetcher, ToIntFunction<T> sizer) {
+        this(pageSize, fetcher, sizer, () -> {
+        });
+    }
+
+    /**
+     * Create a prefetcher and start fetching the first page.
+     *
+     * @param pageSize initial page size
+     * @param fetcher  fetches the next page of at most the given size, only called after the previous call
+     *                 has returned
+     * @param sizer    estimated encoded size of an element
+     * @param release  releases the cursor on cancel, called after the outstanding fetch is done
+     */
+    PagePrefetcher(int pageSize, IntFunction<Page<T>> fetcher, ToIntFunction<T> sizer, Runnable release) {
+        this.pageSize = pageSize;
+        this.fetcher = fetcher;
+        this.sizer = sizer;
+        this.release = release;
+        this.inFlight = submit();
+        ScanScope.register(this::cancel);
+    }
+
+    private CompletableFuture<Page<T>> submit() {
+        int limit = pageSize;
+        return Executors.submit(EXECUTOR, () -> fetcher.apply(limit));
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (inFlight == null) {
+                return false;
+            }
+            boolean stalled = !inFlight.isDone();
+            long start = System.nanoTime();
+            Page<T> page = await(inFlight);
+            inFlight = null;
+            if (stalled) {
+                ScanStall.record(System.nanoTime() - start);
+            }
+            adapt(page.items, stalled);
+            current = page.items.iterator();
+            if (page.hasMore) {
+                inFlight = submit();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    /**
+     * Wait for the outstanding fetch, if any, so that the cursor is no longer used by the executor.
+     */
+    void drain() {
+        CompletableFuture<Page<T>> future = inFlight;
+        inFlight = null;
+        if (future == null) {
+            return;
+        }
+        try {
+            future.join();
+        } catch (CompletionException ignored) {
+        }
+    }
+
+    /**
+     * Stop the scan: no more pages are requested or returned, and the cursor is released once the outstanding
+     * fetch, if any, is done with it. Must be called by the consumer thread.
+     */
+    void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        current = Collections.emptyIterator();
+        CompletableFuture<Page<T>> future = inFlight;
+        inFlight = null;
+        if (future == null) {
+            release.run();
+        } else {
+            future.whenComplete((page, e) -> release.run());
+        }
+    }
+
+    private void adapt(@NonNull List<T> items, boolean stalled) {
+        if (items.isEmpty()) {
+            return;
+        }
+        long bytes = 0;
+        for (T item : items) {
+            bytes += sizer.applyAsInt(item);
+        }
+        long rowBytes = Math.max(1, bytes / items.size());
+        int size = stalled ? pageSize * 2 : pageSize;
+        size = (int) Math.min(size, PAGE_BYTES / rowBytes);
+        pageSize = Math.max(MIN_PAGE_SIZE, Math.min(MAX_PAGE_SIZE, size));
+    }
+
+    private static <T> Page<T> await(@NonNull CompletableFuture<Page<T>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @AllArgsConstructor
+    static final class Page<T> {
+        final List<T> items;
+        final boolean hasMore;
+    }
+}
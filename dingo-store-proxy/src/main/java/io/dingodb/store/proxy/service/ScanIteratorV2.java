@@ -41,6 +41,7 @@ import java.lang.reflect.Proxy;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.LockSupport;
 
@@ -58,8 +59,10 @@ public class ScanIteratorV2 implements Iterator<KeyValue>, AutoCloseable {
 
     private final int retryTimes;
 
-    private Iterator<KeyValue> delegateIterator = Collections.emptyIterator();
-    private boolean hasMore;
+    private static final int INITIAL_FETCH_COUNT = 1000;
+
+    private final PagePrefetcher<KeyValue> prefetcher;
+    private volatile boolean hasMore;
 
     public ScanIteratorV2(
         long requestTs,
@@ -77,6 +80,13 @@ public class ScanIteratorV2 implements Iterator<KeyValue>, AutoCloseable {
         this.scanId = scanBegin(requestTs, channelProvider);
         this.channelProvider = channelProvider;
         this.hasMore = (scanId != 0);
+        if (hasMore) {
+            this.prefetcher = new PagePrefetcher<>(
+                INITIAL_FETCH_COUNT, this::scanContinue, ScanIteratorV2::sizeOf, this::release
+            );
+        } else {
+            this.prefetcher = null;
+        }
     }
 
     public long scanBegin(long requestTs, ChannelProvider channelProvider) {
@@ -126,11 +136,11 @@ public class ScanIteratorV2 implements Iterator<KeyValue>, AutoCloseable {
         );
     }
 
-    public synchronized void scanContinue() {
-        LogUtils.debug(log, "Emit ScanContinueV2: scanId = {}", scanId);
+    public synchronized PagePrefetcher.Page<KeyValue> scanContinue(int maxFetchCnt) {
+        LogUtils.debug(log, "Emit ScanContinueV2: scanId = {}, maxFetchCnt = {}", scanId, maxFetchCnt);
         KvScanContinueRequestV2 request = KvScanContinueRequestV2.builder()
             .scanId(scanId)
-            .maxFetchCnt(1000)
+            .maxFetchCnt(maxFetchCnt)
             .build();
         channelProvider.before(request);
         KvScanContinueResponseV2 res = storeService.kvScanContinueV2(requestTs, request);
@@ -140,11 +150,23 @@ public class ScanIteratorV2 implements Iterator<KeyValue>, AutoCloseable {
             scanRelease();
             throw new RuntimeException(res.getError().getErrmsg());
         }
-        delegateIterator = Optional.mapOrGet(res.getKvs(), List::iterator, Collections::emptyIterator);
+        List<KeyValue> kvs = res.getKvs() == null ? Collections.emptyList() : res.getKvs();
         if (!res.isHasMore()) {
             hasMore = false;
             scanRelease();
         }
+        return new PagePrefetcher.Page<>(kvs, res.isHasMore());
+    }
+
+    static int sizeOf(@NonNull KeyValue kv) {
+        int size = 0;
+        if (kv.getKey() != null) {
+            size += kv.getKey().length;
+        }
+        if (kv.getValue() != null) {
+            size += kv.getValue().length;
+        }
+        return size;
     }
 
     public void scanRelease() {
@@ -156,10 +178,19 @@ public class ScanIteratorV2 implements Iterator<KeyValue>, AutoCloseable {
     }
 
     @Override
-    public synchronized void close() {
+    public void close() {
+        if (prefetcher != null) {
+            // The cursor can not be released while a continue is still running on it.
+            prefetcher.drain();
+        }
+        release();
+    }
+
+    private synchronized void release() {
         if (!hasMore) {
             return;
         }
+        hasMore = false;
         scanRelease();
     }
 
@@ -171,14 +202,14 @@ public class ScanIteratorV2 implements Iterator<KeyValue>, AutoCloseable {
 
     @Override
     public boolean hasNext() {
-        while (hasMore && !delegateIterator.hasNext()) {
-            scanContinue();
-        }
-        return delegateIterator.hasNext();
+        return prefetcher != null && prefetcher.hasNext();
     }
 
     @Override
     public KeyValue next() {
-        return delegateIterator.next();
+        if (prefetcher == null) {
+            throw new NoSuchElementException();
+        }
+        return prefetcher.next();
     }
 }
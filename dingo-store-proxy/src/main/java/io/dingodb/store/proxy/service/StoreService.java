@@ -64,10 +64,12 @@ import io.dingodb.sdk.service.entity.meta.DingoCommonId;
 import io.dingodb.sdk.service.entity.store.KvBatchCompareAndSetRequest;
 import io.dingodb.sdk.service.entity.store.KvBatchDeleteRequest;
 import io.dingodb.sdk.service.entity.store.KvBatchGetRequest;
+import io.dingodb.sdk.service.entity.store.KvBatchPutIfAbsentRequest;
 import io.dingodb.sdk.service.entity.store.KvDeleteRangeRequest;
 import io.dingodb.sdk.service.entity.store.KvGetRequest;
 import io.dingodb.sdk.service.entity.store.KvPutIfAbsentRequest;
 import io.dingodb.sdk.service.entity.store.KvPutRequest;
+import io.dingodb.store.api.transaction.data.pessimisticlock.TxnPessimisticLock;
 import io.dingodb.store.api.transaction.exception.RegionSplitException;
 import io.dingodb.store.proxy.service.CodecService.KeyValueCodec;
 import lombok.experimental.Delegate;
@@ -85,6 +87,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static io.dingodb.sdk.common.utils.ByteArrayUtils.equal;
@@ -286,6 +289,22 @@ public final class StoreService implements io.dingodb.store.api.StoreService {
             ).isKeyState();
         }
 
+        @Override
+        public List<Boolean> insert(long requestTs, List<KeyValue> rows) {
+            return storeService.kvBatchPutIfAbsent(requestTs,
+                KvBatchPutIfAbsentRequest.builder()
+                    .kvs(rows.stream().map(this::setId).map(MAPPER::kvTo).collect(Collectors.toList()))
+                    .build()
+            ).getKeyStates();
+        }
+
+        @Override
+        public CompletableFuture<Boolean> txnPessimisticLockAsync(
+            long requestTs, TxnPessimisticLock txnPessimisticLock, long timeOut
+        ) {
+            return transactionStoreInstance.txnPessimisticLockAsync(txnPessimisticLock, timeOut);
+        }
+
         @Override
         public boolean insertWithIndex(long requestTs, Object[] record) {
             return insert(requestTs, tableCodec.encode(record));
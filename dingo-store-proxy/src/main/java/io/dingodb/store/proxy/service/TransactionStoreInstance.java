@@ -23,8 +23,10 @@ import io.dingodb.common.CoprocessorV2;
 import io.dingodb.common.concurrent.Executors;
 import io.dingodb.common.log.LogUtils;
 import io.dingodb.common.type.TupleMapping;
+import io.dingodb.common.util.Utils;
 import io.dingodb.meta.MetaService;
 import io.dingodb.meta.entity.Table;
+import io.dingodb.sdk.common.DingoClientException;
 import io.dingodb.sdk.common.utils.Optional;
 import io.dingodb.sdk.service.IndexService;
 import io.dingodb.sdk.service.Services;
@@ -64,6 +66,7 @@ import io.dingodb.store.api.transaction.data.rollback.TxnPessimisticRollBack;
 import io.dingodb.store.api.transaction.exception.CommitTsExpiredException;
 import io.dingodb.store.api.transaction.exception.DuplicateEntryException;
 import io.dingodb.store.api.transaction.exception.PrimaryMismatchException;
+import io.dingodb.store.api.transaction.exception.RegionSplitException;
 import io.dingodb.store.api.transaction.exception.WriteConflictException;
 import io.dingodb.store.proxy.Configuration;
 import lombok.extern.slf4j.Slf4j;
@@ -74,6 +77,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
@@ -82,6 +86,7 @@ import java.util.stream.Stream;
 
 import static io.dingodb.store.proxy.mapper.Mapper.MAPPER;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 @Slf4j
@@ -93,6 +98,8 @@ public class TransactionStoreInstance {
 
     private final static int VectorKeyLen = 17;
 
+    private final static int SCAN_LIMIT = 1024;
+
     public TransactionStoreInstance(StoreService storeService, IndexService indexService, CommonId partitionId) {
         this.storeService = storeService;
         this.partitionId = partitionId;
@@ -259,13 +266,7 @@ public class TransactionStoreInstance {
         int n = 1;
         List<Long> resolvedLocks = new ArrayList<>();
         while (true) {
-            TxnPessimisticLockResponse response;
-            if (indexService != null) {
-                txnPessimisticLock.getMutations().stream().forEach( $ -> $.setKey(Arrays.copyOf($.getKey(), VectorKeyLen)));
-                response = indexService.txnPessimisticLock(txnPessimisticLock.getStartTs(), MAPPER.pessimisticLockTo(txnPessimisticLock));
-            } else {
-                response = storeService.txnPessimisticLock(txnPessimisticLock.getStartTs(), MAPPER.pessimisticLockTo(txnPessimisticLock));
-            }
+            TxnPessimisticLockResponse response = sendPessimisticLock(txnPessimisticLock);
             if (response.getTxnResult() == null || response.getTxnResult().isEmpty()) {
                 return true;
             }
@@ -299,6 +300,81 @@ public class TransactionStoreInstance {
         }
     }
 
+    /**
+     * Like {@link #txnPessimisticLock(TxnPessimisticLock, long)}, but waits for conflicting locks on the schedule
+     * pool instead of sleeping, so no thread is parked while the lock is busy.
+     */
+    public CompletableFuture<Boolean> txnPessimisticLockAsync(TxnPessimisticLock txnPessimisticLock, long timeOut) {
+        txnPessimisticLock.getMutations().stream()
+            .peek($ -> $.setKey(setId($.getKey())))
+            .forEach($ -> $.getKey()[0] = 't');
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        Executors.execute(
+            "txn-pessimistic-lock",
+            () -> tryPessimisticLock(txnPessimisticLock, timeOut, 1, new ArrayList<>(), result)
+        );
+        return result;
+    }
+
+    private void tryPessimisticLock(
+        TxnPessimisticLock txnPessimisticLock,
+        long timeOut,
+        int n,
+        List<Long> resolvedLocks,
+        CompletableFuture<Boolean> result
+    ) {
+        try {
+            TxnPessimisticLockResponse response = sendPessimisticLock(txnPessimisticLock);
+            if (response.getTxnResult() == null || response.getTxnResult().isEmpty()) {
+                result.complete(true);
+                return;
+            }
+            ResolveLockStatus resolveLockStatus = writeResolveConflict(
+                response.getTxnResult(),
+                txnPessimisticLock.getIsolationLevel().getCode(),
+                txnPessimisticLock.getStartTs(),
+                resolvedLocks,
+                "txnPessimisticLock"
+            );
+            long lockTtl = 0;
+            if (resolveLockStatus == ResolveLockStatus.LOCK_TTL
+                || resolveLockStatus == ResolveLockStatus.TXN_NOT_FOUND) {
+                if (timeOut < 0) {
+                    throw new RuntimeException("Lock wait timeout exceeded; try restarting transaction");
+                }
+                lockTtl = n < TxnVariables.WaitFixNum ? TxnVariables.WaitTime * n : TxnVariables.WaitFixTime;
+            }
+            txnPessimisticLock.setForUpdateTs(TsoService.INSTANCE.tso());
+            int next = lockTtl > 0 ? n + 1 : n;
+            long remain = timeOut - lockTtl;
+            Runnable retry = () -> tryPessimisticLock(txnPessimisticLock, remain, next, resolvedLocks, result);
+            if (lockTtl > 0) {
+                LogUtils.info(log, "txnPessimisticLock lockInfo wait {} ms.", lockTtl);
+                Executors.scheduleAsync("txn-pessimistic-lock", retry, lockTtl, MILLISECONDS);
+            } else {
+                Executors.execute("txn-pessimistic-lock", retry);
+            }
+        } catch (Throwable e) {
+            Throwable throwable = Utils.extractThrowable(e);
+            if (throwable instanceof DingoClientException.InvalidRouteTableException) {
+                throwable = new RegionSplitException(throwable);
+            }
+            result.completeExceptionally(throwable);
+        }
+    }
+
+    private TxnPessimisticLockResponse sendPessimisticLock(TxnPessimisticLock txnPessimisticLock) {
+        if (indexService != null) {
+            txnPessimisticLock.getMutations().forEach($ -> $.setKey(Arrays.copyOf($.getKey(), VectorKeyLen)));
+            return indexService.txnPessimisticLock(
+                txnPessimisticLock.getStartTs(), MAPPER.pessimisticLockTo(txnPessimisticLock)
+            );
+        }
+        return storeService.txnPessimisticLock(
+            txnPessimisticLock.getStartTs(), MAPPER.pessimisticLockTo(txnPessimisticLock)
+        );
+    }
+
     public boolean txnPessimisticLockRollback(TxnPessimisticRollBack txnPessimisticRollBack) {
         txnPessimisticRollBack.getKeys().stream().peek($ -> setId($)).forEach($ -> $[0] = 't');
         TxnPessimisticRollbackResponse response;
@@ -679,9 +755,8 @@ public class TransactionStoreInstance {
         private final io.dingodb.sdk.service.entity.common.CoprocessorV2 coprocessor;
 
         private boolean withStart;
-        private boolean hasMore = true;
         private StoreInstance.Range current;
-        private Iterator<KeyValue> keyValues;
+        private final PagePrefetcher<KeyValue> prefetcher;
 
         public ScanIterator(long startTs, StoreInstance.Range range, long timeOut) {
             this(startTs, range, timeOut, null);
@@ -700,19 +775,16 @@ public class TransactionStoreInstance {
             Optional.ofNullable(this.coprocessor)
                 .map(io.dingodb.sdk.service.entity.common.CoprocessorV2::getResultSchema)
                 .ifPresent($ -> $.setCommonId(partitionId.seq));
-            fetch();
+            this.prefetcher = new PagePrefetcher<>(SCAN_LIMIT, this::fetch, ScanIteratorV2::sizeOf);
         }
 
-        private synchronized void fetch() {
-            if (!hasMore) {
-                return;
-            }
+        private synchronized PagePrefetcher.Page<KeyValue> fetch(int limit) {
             long scanTimeOut = timeOut;
             int n = 1;
             List<Long> resolvedLocks = new ArrayList<>();
             while (true) {
                 TxnScanRequest txnScanRequest = MAPPER.scanTo(startTs, IsolationLevel.SnapshotIsolation, current);
-                txnScanRequest.setLimit(1024);
+                txnScanRequest.setLimit(limit);
                 txnScanRequest.setResolveLocks(resolvedLocks);
                 txnScanRequest.setCoprocessor(coprocessor);
                 TxnScanResponse txnScanResponse;
@@ -749,27 +821,25 @@ public class TransactionStoreInstance {
                     }
                     continue;
                 }
-                keyValues = Optional.ofNullable(txnScanResponse.getKvs()).map(List::iterator).orElseGet(Collections::emptyIterator);
-                hasMore = txnScanResponse.isHasMore();
+                List<KeyValue> keyValues = Optional.ofNullable(txnScanResponse.getKvs())
+                    .orElseGet(Collections::emptyList);
+                boolean hasMore = txnScanResponse.isHasMore();
                 if (hasMore) {
                     withStart = false;
                     current = new StoreInstance.Range(txnScanResponse.getEndKey(), range.end, withStart, range.withEnd);
                 }
-                break;
+                return new PagePrefetcher.Page<>(keyValues, hasMore);
             }
         }
 
         @Override
         public boolean hasNext() {
-            while (hasMore && !keyValues.hasNext()) {
-                fetch();
-            }
-            return keyValues.hasNext();
+            return prefetcher.hasNext();
         }
 
         @Override
         public io.dingodb.common.store.KeyValue next() {
-            return MAPPER.kvFrom(keyValues.next());
+            return MAPPER.kvFrom(prefetcher.next());
         }
     }
 
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2021 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.dingodb.store.proxy.service;
+
+import io.dingodb.common.concurrent.ScanScope;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestPagePrefetcher {
+    private static List<Integer> drain(PagePrefetcher<Integer> prefetcher) {
+        List<Integer> result = new ArrayList<>();
+        prefetcher.forEachRemaining(result::add);
+        return result;
+    }
+
+    // Pages of consecutive integers up to total, recording the requested limits.
+    private static IntFunction<PagePrefetcher.Page<Integer>> source(int total, List<Integer> limits) {
+        AtomicInteger next = new AtomicInteger();
+        return limit -> {
+            limits.add(limit);
+            List<Integer> items = new ArrayList<>();
+            while (items.size() < limit && next.get() < total) {
+                items.add(next.getAndIncrement());
+            }
+            return new PagePrefetcher.Page<>(items, next.get() < total);
+        };
+    }
+
+    @Test
+    public void testPages() {
+        List<Integer> limits = new ArrayList<>();
+        AtomicBoolean fetching = new AtomicBoolean();
+        IntFunction<PagePrefetcher.Page<Integer>> source = source(1000, limits);
+        PagePrefetcher<Integer> prefetcher = new PagePrefetcher<>(PagePrefetcher.MIN_PAGE_SIZE, limit -> {
+            // Fetches on a cursor must never overlap.
+            assertThat(fetching.compareAndSet(false, true)).isTrue();
+            try {
+                return source.apply(limit);
+            } finally {
+                fetching.set(false);
+            }
+        }, i -> 8);
+        List<Integer> result = drain(prefetcher);
+        assertThat(result).hasSize(1000);
+        for (int i = 0; i < result.size(); ++i) {
+            assertThat(result.get(i)).isEqualTo(i);
+        }
+        assertThat(prefetcher.hasNext()).isFalse();
+    }
+
+    @Test
+    public void testGrowWhenStalled() {
+        List<Integer> limits = new ArrayList<>();
+        IntFunction<PagePrefetcher.Page<Integer>> source = source(10 * PagePrefetcher.MIN_PAGE_SIZE, limits);
+        PagePrefetcher<Integer> prefetcher = new PagePrefetcher<>(PagePrefetcher.MIN_PAGE_SIZE, limit -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(50);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return source.apply(limit);
+        }, i -> 8);
+        assertThat(drain(prefetcher)).hasSize(10 * PagePrefetcher.MIN_PAGE_SIZE);
+        // The consumer waited for the first page.
+        assertThat(limits.get(0)).isEqualTo(PagePrefetcher.MIN_PAGE_SIZE);
+        assertThat(limits.get(1)).isEqualTo(2 * PagePrefetcher.MIN_PAGE_SIZE);
+    }
+
+    @Test
+    public void testCappedByRowSize() {
+        List<Integer> limits = new ArrayList<>();
+        PagePrefetcher<Integer> prefetcher = new PagePrefetcher<>(
+            1000, source(2000, limits), i -> (int) (PagePrefetcher.PAGE_BYTES / 200)
+        );
+        assertThat(drain(prefetcher)).hasSize(2000);
+        assertThat(limits.get(0)).isEqualTo(1000);
+        for (int i = 1; i < limits.size(); ++i) {
+            assertThat(limits.get(i)).isEqualTo(200);
+        }
+    }
+
+    @Test
+    public void testFetchFailed() {
+        List<Integer> limits = new ArrayList<>();
+        IntFunction<PagePrefetcher.Page<Integer>> source = source(1000, limits);
+        PagePrefetcher<Integer> prefetcher = new PagePrefetcher<>(PagePrefetcher.MIN_PAGE_SIZE, limit -> {
+            if (limits.size() == 1) {
+                throw new IllegalStateException("scan failed");
+            }
+            return source.apply(limit);
+        }, i -> 8);
+        for (int i = 0; i < PagePrefetcher.MIN_PAGE_SIZE; ++i) {
+            assertThat(prefetcher.next()).isEqualTo(i);
+        }
+        assertThatThrownBy(prefetcher::hasNext)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("scan failed");
+    }
+
+    @Test
+    public void testCancelInScope() throws InterruptedException {
+        List<Integer> limits = new ArrayList<>();
+        IntFunction<PagePrefetcher.Page<Integer>> source = source(1000, limits);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        int scope = ScanScope.enter();
+        PagePrefetcher<Integer> prefetcher;
+        try {
+            prefetcher = new PagePrefetcher<>(PagePrefetcher.MIN_PAGE_SIZE, limit -> {
+                if (limits.size() == 1) {
+                    try {
+                        blocked.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+                return source.apply(limit);
+            }, i -> 8, released::countDown);
+            // Stop after the first row, while the second page is in flight.
+            assertThat(prefetcher.next()).isEqualTo(0);
+        } finally {
+            ScanScope.exit(scope);
+        }
+        assertThat(prefetcher.hasNext()).isFalse();
+        // The cursor is released only after the outstanding fetch.
+        assertThat(released.getCount()).isEqualTo(1L);
+        blocked.countDown();
+        assertThat(released.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(limits).hasSize(2);
+    }
+
+    @Test
+    public void testNestedScopes() {
+        AtomicInteger released = new AtomicInteger();
+        int outer = ScanScope.enter();
+        try {
+            PagePrefetcher<Integer> prefetcher = new PagePrefetcher<>(
+                PagePrefetcher.MIN_PAGE_SIZE, source(1000, new ArrayList<>()), i -> 8, released::incrementAndGet
+            );
+            assertThat(prefetcher.next()).isEqualTo(0);
+            int inner = ScanScope.enter();
+            try {
+                PagePrefetcher<Integer> nested = new PagePrefetcher<>(
+                    PagePrefetcher.MIN_PAGE_SIZE, source(10, new ArrayList<>()), i -> 8, released::incrementAndGet
+                );
+                assertThat(drain(nested)).hasSize(10);
+            } finally {
+                ScanScope.exit(inner);
+            }
+            assertThat(released.get()).isEqualTo(1);
+            // The outer scan is not affected by the nested one.
+            assertThat(drain(prefetcher)).hasSize(999);
+        } finally {
+            ScanScope.exit(outer);
+        }
+        assertThat(released.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testNoScope() {
+        AtomicInteger released = new AtomicInteger();
+        PagePrefetcher<Integer> prefetcher = new PagePrefetcher<>(
+            PagePrefetcher.MIN_PAGE_SIZE, source(1000, new ArrayList<>()), i -> 8, released::incrementAndGet
+        );
+        assertThat(prefetcher.next()).isEqualTo(0);
+        int scope = ScanScope.enter();
+        ScanScope.exit(scope);
+        assertThat(released.get()).isEqualTo(0);
+        assertThat(drain(prefetcher)).hasSize(999);
+    }
+}